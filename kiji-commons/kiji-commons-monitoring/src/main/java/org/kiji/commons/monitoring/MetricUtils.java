@@ -30,6 +30,7 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
 import com.codahale.metrics.jvm.GarbageCollectorMetricSet;
 import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
 import com.codahale.metrics.jvm.ThreadStatesGaugeSet;
@@ -46,6 +47,15 @@ import org.kiji.commons.SocketAddressUtils;
 public final class MetricUtils {
   private static final Logger LOG = LoggerFactory.getLogger(MetricUtils.class);
 
+  /** Smallest latency discernible from 0 by latency timers, in nanoseconds. */
+  private static final long LOWEST_DISCERNIBLE_LATENCY_NS = 1;
+
+  /** Highest latency tracked by latency timers, in nanoseconds. */
+  private static final long HIGHEST_TRACKABLE_LATENCY_NS = TimeUnit.HOURS.toNanos(1);
+
+  /** Number of significant decimal digits preserved by latency timers. */
+  private static final int LATENCY_SIGNIFICANT_DIGITS = 2;
+
   /**
    * Create a new metric registry pre-registered with JVM metrics.
    *
@@ -93,6 +103,20 @@ public final class MetricUtils {
             numberOfSignificantValueDigits));
   }
 
+  /**
+   * Create a new {@link Timer} backed by the HDR histogram package, suitable to record latencies
+   * from 1 nanosecond up to 1 hour with 2 significant decimal digits.
+   *
+   * @return A new Timer backed by the HDR histogram package.
+   */
+  public static Timer createLatencyTimer() {
+    return new Timer(
+        HdrHistogramReservoir.create(
+            LOWEST_DISCERNIBLE_LATENCY_NS,
+            HIGHEST_TRACKABLE_LATENCY_NS,
+            LATENCY_SIGNIFICANT_DIGITS));
+  }
+
   /**
    * Register a Riemann reporter with the provided metrics registry.
    *
@@ -21,6 +21,7 @@ package org.kiji.hive;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -41,6 +42,7 @@ import org.kiji.hive.io.EntityIdWritable;
 import org.kiji.hive.io.KijiCellWritable;
 import org.kiji.hive.io.KijiRowDataWritable;
 import org.kiji.hive.utils.DataRequestOptimizer;
+import org.kiji.hive.utils.PredicatePushdown;
 import org.kiji.schema.KijiColumnName;
 import org.kiji.schema.KijiDataRequest;
 
@@ -256,6 +258,28 @@ public final class HiveTableDescription {
     return mDataRequest;
   }
 
+  /**
+   * Restricts a data request to the data required by the columns read by a query.
+   *
+   * @param dataRequest The data request required to provide data to this Hive table.
+   * @param columnIndexes The indexes of the columns read, or empty if all columns are read.
+   * @return The data request restricted to the columns read.
+   */
+  public KijiDataRequest projectDataRequest(
+      KijiDataRequest dataRequest, Collection<Integer> columnIndexes) {
+    return DataRequestOptimizer.projectDataRequest(dataRequest, mExpressions, columnIndexes);
+  }
+
+  /**
+   * Gets the pushdown of Hive predicates on the columns of this Hive table.
+   *
+   * @return The pushdown of Hive predicates on the columns of this Hive table.
+   */
+  public PredicatePushdown getPredicatePushdown() {
+    return PredicatePushdown.create(
+        mTypeInfo.getAllStructFieldNames(), mTypeInfo.getAllStructFieldTypeInfos(), mExpressions);
+  }
+
   /**
    * Gets the object inspector that can read column data from an in-memory row object.
    *
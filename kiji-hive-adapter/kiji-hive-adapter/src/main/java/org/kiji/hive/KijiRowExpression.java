@@ -133,6 +133,34 @@ public class KijiRowExpression {
     return mExpression instanceof ValueExpression;
   }
 
+  /**
+   * Gets the index of the EntityId component this expression reads.
+   *
+   * @return the index of the EntityId component, or null if this expression reads no component.
+   */
+  public Integer getEntityIdComponentIndex() {
+    if (mExpression instanceof EntityIdComponentExpression) {
+      return ((EntityIdComponentExpression) mExpression).mIndex;
+    }
+    return null;
+  }
+
+  /**
+   * Gets the column whose most recent cell this expression reads, as in family:qualifier[0].
+   *
+   * @return the column whose most recent cell this expression reads, or null if this expression
+   *     reads anything else.
+   */
+  public KijiColumnName getMostRecentCellColumn() {
+    if (mExpression instanceof ColumnFlatValueExpression) {
+      final ColumnFlatValueExpression expression = (ColumnFlatValueExpression) mExpression;
+      if (0 == expression.mIndex) {
+        return expression.getKijiColumnName();
+      }
+    }
+    return null;
+  }
+
   /**
    * A parsed expression.
    *
@@ -20,12 +20,20 @@
 package org.kiji.hive;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import com.google.common.collect.Lists;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.serde.Constants;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 import org.apache.hadoop.mapred.FileInputFormat;
 import org.apache.hadoop.mapred.InputFormat;
 import org.apache.hadoop.mapred.InputSplit;
@@ -97,7 +105,7 @@ public class KijiTableInputFormat
     // TODO: Use the numTasks hint effectively. We just ignore it right now.
 
     final KijiURI kijiURI = getKijiURI(job);
-    final InputSplit[] splits;
+    final List<InputSplit> splits = Lists.newArrayList();
 
     Kiji kiji = null;
     KijiTable kijiTable = null;
@@ -105,13 +113,18 @@ public class KijiTableInputFormat
       kiji = Kiji.Factory.open(kijiURI);
       kijiTable = kiji.openTable(kijiURI.getTable());
 
+      // Skip the regions that cannot contain rows matching the pushed down predicate.
+      final byte[][] rowKeyRange = getRowKeyRange(job, kijiTable);
+
       // Get the start keys for each region in the table.
       List<KijiRegion> kijiRegions = kijiTable.getRegions();
-      splits = new InputSplit[kijiRegions.size()];
       for (int i = 0; i < kijiRegions.size(); i++) {
         KijiRegion kijiRegion = kijiRegions.get(i);
         byte[] regionStartKey = kijiRegion.getStartKey();
         byte[] regionEndKey = kijiRegion.getEndKey();
+        if (!overlaps(regionStartKey, regionEndKey, rowKeyRange)) {
+          continue;
+        }
 
         Collection<String> regionLocations = kijiRegion.getLocations();
         String regionHost = null;
@@ -123,8 +136,8 @@ public class KijiTableInputFormat
           LOG.warn("No locations found for region: {}", kijiRegion.toString());
         }
         final Path dummyPath = FileInputFormat.getInputPaths(job)[0];
-        splits[i] = new KijiTableInputSplit(kijiURI,
-            regionStartKey, regionEndKey, regionHost, dummyPath);
+        splits.add(new KijiTableInputSplit(kijiURI,
+            regionStartKey, regionEndKey, regionHost, dummyPath));
       }
     } catch (IOException e) {
       LOG.warn("Unable to get region information.  Returning an empty list of splits.");
@@ -134,7 +147,76 @@ public class KijiTableInputFormat
       ResourceUtils.releaseOrLog(kijiTable);
       ResourceUtils.releaseOrLog(kiji);
     }
-    return splits;
+    return splits.toArray(new InputSplit[splits.size()]);
+  }
+
+  /**
+   * Gets the description of the Hive table read by a job, from the properties of the table
+   * copied into the job configuration by the {@link KijiTableStorageHandler}.
+   *
+   * @param conf The job configuration.
+   * @return The description of the Hive table, or null if the configuration does not contain it.
+   */
+  static HiveTableDescription getHiveTableDescription(Configuration conf) {
+    final String columnNames = conf.get(Constants.LIST_COLUMNS);
+    final String columnTypes = conf.get(Constants.LIST_COLUMN_TYPES);
+    final String columnExpressions = conf.get(KijiTableSerDe.LIST_COLUMN_EXPRESSIONS);
+    if (null == columnNames || null == columnTypes || null == columnExpressions) {
+      return null;
+    }
+    return HiveTableDescription.newBuilder()
+        .withColumnNames(Arrays.asList(columnNames.split(",")))
+        .withColumnTypes(TypeInfoUtils.getTypeInfosFromTypeString(columnTypes))
+        .withColumnExpressions(Arrays.asList(columnExpressions.split(",")))
+        .build();
+  }
+
+  /**
+   * Gets the predicate Hive pushed down into the scan of a job.
+   *
+   * @param conf The job configuration.
+   * @return The predicate pushed down, or null if there is none.
+   */
+  static ExprNodeDesc getPushedPredicate(Configuration conf) {
+    final String serializedPredicate = conf.get(TableScanDesc.FILTER_EXPR_CONF_STR);
+    if (null == serializedPredicate) {
+      return null;
+    }
+    return Utilities.deserializeExpression(serializedPredicate, conf);
+  }
+
+  /**
+   * Gets the range of HBase row keys that contains all the rows matching the predicate pushed
+   * down into the scan of a job.
+   *
+   * @param conf The job configuration.
+   * @param kijiTable The Kiji table scanned.
+   * @return the start (inclusive) and stop (exclusive) HBase row keys of the range.  Empty keys
+   *     leave the range unbounded.
+   */
+  static byte[][] getRowKeyRange(Configuration conf, KijiTable kijiTable) {
+    final HiveTableDescription hiveTableDescription = getHiveTableDescription(conf);
+    final ExprNodeDesc pushedPredicate = getPushedPredicate(conf);
+    if (null == hiveTableDescription || null == pushedPredicate) {
+      return new byte[][] {new byte[0], new byte[0]};
+    }
+    return hiveTableDescription.getPredicatePushdown()
+        .getRowKeyRange(pushedPredicate, kijiTable.getLayout());
+  }
+
+  /**
+   * Determines whether a region may contain rows in a range of row keys.
+   *
+   * @param regionStartKey The start key of the region, or empty for the first region.
+   * @param regionEndKey The end key of the region, or empty for the last region.
+   * @param rowKeyRange The start and stop row keys of the range, empty when unbounded.
+   * @return whether the region may contain rows in the range.
+   */
+  static boolean overlaps(byte[] regionStartKey, byte[] regionEndKey, byte[][] rowKeyRange) {
+    final byte[] startRow = rowKeyRange[0];
+    final byte[] stopRow = rowKeyRange[1];
+    return (regionEndKey.length == 0 || Bytes.compareTo(startRow, regionEndKey) < 0)
+        && (stopRow.length == 0 || Bytes.compareTo(regionStartKey, stopRow) < 0);
   }
 
   /**
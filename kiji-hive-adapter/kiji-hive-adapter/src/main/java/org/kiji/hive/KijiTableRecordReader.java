@@ -25,7 +25,10 @@ import java.util.Iterator;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.Writables;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.mapred.RecordReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +45,7 @@ import org.kiji.schema.KijiTable;
 import org.kiji.schema.KijiTableReader;
 import org.kiji.schema.KijiTableReader.KijiScannerOptions;
 import org.kiji.schema.KijiURI;
+import org.kiji.schema.filter.KijiRowFilter;
 import org.kiji.schema.impl.hbase.HBaseKijiRowData;
 import org.kiji.schema.util.ResourceUtils;
 
@@ -86,12 +90,31 @@ public class KijiTableRecordReader
       }
       KijiDataRequest dataRequest = KijiDataRequestSerializer.deserialize(dataRequestString);
 
+      // Only read the columns and rows the query needs.
+      final HiveTableDescription hiveTableDescription =
+          KijiTableInputFormat.getHiveTableDescription(conf);
+      final ExprNodeDesc pushedPredicate = KijiTableInputFormat.getPushedPredicate(conf);
+      if (null != hiveTableDescription) {
+        dataRequest = hiveTableDescription.projectDataRequest(
+            dataRequest, ColumnProjectionUtils.getReadColumnIDs(conf));
+      }
+
       KijiScannerOptions scannerOptions = new KijiScannerOptions();
-      if (inputSplit.getRegionStartKey().length > 0) {
-        scannerOptions.setStartRow(HBaseEntityId.fromHBaseRowKey(inputSplit.getRegionStartKey()));
+      final byte[][] rowKeyRange = KijiTableInputFormat.getRowKeyRange(conf, mKijiTable);
+      final byte[] startRow = max(inputSplit.getRegionStartKey(), rowKeyRange[0]);
+      final byte[] stopRow = min(inputSplit.getRegionEndKey(), rowKeyRange[1]);
+      if (startRow.length > 0) {
+        scannerOptions.setStartRow(HBaseEntityId.fromHBaseRowKey(startRow));
       }
-      if (inputSplit.getRegionEndKey().length > 0) {
-        scannerOptions.setStopRow(HBaseEntityId.fromHBaseRowKey(inputSplit.getRegionEndKey()));
+      if (stopRow.length > 0) {
+        scannerOptions.setStopRow(HBaseEntityId.fromHBaseRowKey(stopRow));
+      }
+      if (null != hiveTableDescription && null != pushedPredicate) {
+        final KijiRowFilter rowFilter = hiveTableDescription.getPredicatePushdown()
+            .getRowFilter(pushedPredicate, mKijiTable.getLayout());
+        if (null != rowFilter) {
+          scannerOptions.setKijiRowFilter(rowFilter);
+        }
       }
       mScanner = mKijiTableReader.getScanner(dataRequest, scannerOptions);
       mIterator = mScanner.iterator();
@@ -100,6 +123,33 @@ public class KijiTableRecordReader
     }
   }
 
+  /**
+   * Gets the greatest of two start row keys, where an empty row key is unbounded.
+   *
+   * @param startRow A start row key.
+   * @param otherStartRow Another start row key.
+   * @return The greatest start row key.
+   */
+  private static byte[] max(byte[] startRow, byte[] otherStartRow) {
+    return (Bytes.compareTo(startRow, otherStartRow) >= 0) ? startRow : otherStartRow;
+  }
+
+  /**
+   * Gets the least of two stop row keys, where an empty row key is unbounded.
+   *
+   * @param stopRow A stop row key.
+   * @param otherStopRow Another stop row key.
+   * @return The least stop row key.
+   */
+  private static byte[] min(byte[] stopRow, byte[] otherStopRow) {
+    if (stopRow.length == 0) {
+      return otherStopRow;
+    } else if (otherStopRow.length == 0) {
+      return stopRow;
+    }
+    return (Bytes.compareTo(stopRow, otherStopRow) <= 0) ? stopRow : otherStopRow;
+  }
+
   /** {@inheritDoc} */
   @Override
   public void close() throws IOException {
@@ -174,8 +224,10 @@ public class KijiTableRecordReader
       }
     }
 
+    // Rows without pages are handed over as decoded by the scanner, rather than serialized and
+    // read back, which is still how pages are substituted above.
     key.set(rowData.getHBaseResult().getRow());
-    Writables.copyWritable(result, value);
+    value.set(result);
     ResourceUtils.closeOrLog(result);
     return true;
   }
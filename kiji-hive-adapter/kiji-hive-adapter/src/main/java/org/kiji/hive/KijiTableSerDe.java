@@ -154,6 +154,15 @@ public class KijiTableSerDe implements SerDe {
     }
   }
 
+  /**
+   * Gets the description of the Hive table this SerDe reads from and writes to.
+   *
+   * @return The description of the Hive table.
+   */
+  HiveTableDescription getHiveTableDescription() {
+    return mHiveTableDescription;
+  }
+
   /** {@inheritDoc} */
   @Override
   public Class<? extends Writable> getSerializedClass() {
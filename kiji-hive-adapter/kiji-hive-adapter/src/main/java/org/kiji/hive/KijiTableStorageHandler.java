@@ -20,21 +20,34 @@
 package org.kiji.hive;
 
 import java.util.Map;
+import java.util.Properties;
 
 import org.apache.hadoop.hive.ql.metadata.DefaultStorageHandler;
+import org.apache.hadoop.hive.ql.metadata.HiveStoragePredicateHandler;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.serde.Constants;
+import org.apache.hadoop.hive.serde2.Deserializer;
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.mapred.InputFormat;
+import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.OutputFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.kiji.hive.utils.PredicatePushdown;
 import org.kiji.schema.KijiURI;
 
 /**
  * A Hive storage handler for reading from Kiji tables (read-only).
+ *
+ * <p>
+ *   Comparisons of EntityId components and of the most recent cell values with constants are
+ *   pushed down into the scan of the Kiji table, see {@link PredicatePushdown}.
+ * </p>
  */
-public class KijiTableStorageHandler extends DefaultStorageHandler {
+public class KijiTableStorageHandler extends DefaultStorageHandler
+    implements HiveStoragePredicateHandler {
   private static final Logger LOG = LoggerFactory.getLogger(KijiTableStorageHandler.class);
 
   /** {@inheritDoc} */
@@ -67,6 +80,26 @@ public class KijiTableStorageHandler extends DefaultStorageHandler {
     configureKijiJobProperties(tableDesc, jobProperties);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public DecomposedPredicate decomposePredicate(
+      JobConf jobConf, Deserializer deserializer, ExprNodeDesc predicate) {
+    final HiveTableDescription hiveTableDescription =
+        ((KijiTableSerDe) deserializer).getHiveTableDescription();
+    final ExprNodeDesc pushedPredicate =
+        hiveTableDescription.getPredicatePushdown().getPushedPredicate(predicate);
+    if (null == pushedPredicate) {
+      return null;
+    }
+    LOG.debug("Pushing predicate {} down into the scan.", pushedPredicate.getExprString());
+
+    // Pushed down predicates only narrow the scan, so Hive must still evaluate all of it.
+    final DecomposedPredicate decomposedPredicate = new DecomposedPredicate();
+    decomposedPredicate.pushedPredicate = pushedPredicate;
+    decomposedPredicate.residualPredicate = predicate;
+    return decomposedPredicate;
+  }
+
   /**
    * Helper method to share logic between {@link #configureInputJobProperties} and
    * {@link #configureOutputJobProperties}.
@@ -82,5 +115,16 @@ public class KijiTableStorageHandler extends DefaultStorageHandler {
     final String tableName = tableDesc.getTableName();
     jobProperties.put(KijiTableSerDe.HIVE_TABLE_NAME_PROPERTY, tableName);
 
+    // Jobs also need the column mapping, to push projections and predicates down into the scan.
+    final Properties properties = tableDesc.getProperties();
+    for (String property : new String[] {
+        Constants.LIST_COLUMNS,
+        Constants.LIST_COLUMN_TYPES,
+        KijiTableSerDe.LIST_COLUMN_EXPRESSIONS,
+    }) {
+      if (null != properties.getProperty(property)) {
+        jobProperties.put(property, properties.getProperty(property));
+      }
+    }
   }
 }
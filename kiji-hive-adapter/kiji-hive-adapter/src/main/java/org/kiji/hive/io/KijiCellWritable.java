@@ -53,6 +53,13 @@ import org.kiji.schema.KijiCell;
 public class KijiCellWritable implements Writable {
   private static final Logger LOG = LoggerFactory.getLogger(KijiCellWritable.class);
 
+  /**
+   * Version of the serialized format, written negated ahead of the timestamp.
+   * Timestamps are never negative, which tells this format apart from the unversioned one.
+   */
+  private static final int FORMAT_VERSION = 2;
+  private static final long FORMAT_VERSION_MARKER = -FORMAT_VERSION;
+
   private long mTimestamp;
   private Schema mSchema;
   private Object mData;
@@ -127,16 +134,51 @@ public class KijiCellWritable implements Writable {
 
   @Override
   public void write(DataOutput out) throws IOException {
+    write(out, new SchemaDictionary());
+  }
+
+  /**
+   * Writes this cell, with its schema referenced through a dictionary shared with other cells.
+   *
+   * @param out DataOutput to serialize this cell into.
+   * @param schemas Dictionary of the schemas written along with this cell.
+   * @throws IOException if there was an error writing.
+   */
+  void write(DataOutput out, SchemaDictionary schemas) throws IOException {
+    WritableUtils.writeVLong(out, FORMAT_VERSION_MARKER);
     WritableUtils.writeVLong(out, mTimestamp);
-    WritableUtils.writeString(out, mSchema.toString());
+    schemas.writeSchema(out, mSchema);
     writeData(out, mData, mSchema);
   }
 
   @Override
   public void readFields(DataInput in) throws IOException {
-    mTimestamp = WritableUtils.readVLong(in);
-    String schemaString = WritableUtils.readString(in);
-    mSchema = new Schema.Parser().parse(schemaString);
+    readFields(in, new SchemaDictionary());
+  }
+
+  /**
+   * Reads a cell, with its schema referenced through a dictionary shared with other cells.
+   *
+   * <p>
+   *   Cells written without a format version, which start with their non-negative timestamp,
+   *   are read as well: their schema is written in full, which the dictionary reads as-is.
+   * </p>
+   *
+   * @param in DataInput to deserialize this cell from.
+   * @param schemas Dictionary of the schemas read along with this cell.
+   * @throws IOException if there was an error reading.
+   */
+  void readFields(DataInput in, SchemaDictionary schemas) throws IOException {
+    final long markerOrTimestamp = WritableUtils.readVLong(in);
+    if (markerOrTimestamp >= 0) {
+      mTimestamp = markerOrTimestamp;
+    } else if (markerOrTimestamp == FORMAT_VERSION_MARKER) {
+      mTimestamp = WritableUtils.readVLong(in);
+    } else {
+      throw new IOException(String.format(
+          "Unsupported KijiCellWritable format version: %d.", -markerOrTimestamp));
+    }
+    mSchema = schemas.readSchema(in);
     mData = readData(in, mSchema);
   }
 
@@ -350,6 +350,36 @@ public class KijiRowDataWritable implements Writable, Closeable {
     return Collections.unmodifiableMap(mWritableData);
   }
 
+  /**
+   * Sets this KijiRowDataWritable to the unpaged data of another one, as though the other one
+   * had been written and read back into this one, without serializing any cell.
+   *
+   * <p>
+   *   The cells of the other row are shared rather than copied: they keep the objects decoded
+   *   by the Kiji scanner, which Hive then converts only once.  Neither row may be modified
+   *   afterwards.
+   * </p>
+   *
+   * @param other KijiRowDataWritable to take the data from.
+   */
+  public void set(KijiRowDataWritable other) {
+    mEntityId = other.mEntityId;
+
+    mWritableData = Maps.newHashMap();
+    for (Entry<KijiColumnName, NavigableMap<Long, KijiCellWritable>> entry
+        : other.mWritableData.entrySet()) {
+      // Families paged through qualifiers are never written with the unpaged data.
+      if (null == other.mKijiQualifierPagers
+          || !other.mKijiQualifierPagers.containsKey(entry.getKey().getFamily())) {
+        mWritableData.put(entry.getKey(), entry.getValue());
+      }
+    }
+    mSchemas = Maps.newHashMap(other.mSchemas);
+
+    // We need to dirty the decoded data so that these objects can be reused.
+    mDecodedData = null;
+  }
+
   /**
    * Converts a timeseries of KijiCell data into a Writable timeseries for serialization.
    * @param timeseries from KijiRowData.
@@ -564,6 +594,9 @@ public class KijiRowDataWritable implements Writable, Closeable {
     // Write the EntityId
     mEntityId.write(out);
 
+    // Each distinct schema is written in full once per row, and referenced afterwards.
+    final SchemaDictionary schemas = new SchemaDictionary();
+
     // Count the total number of columns to write.
     Set<KijiColumnName> columnNames = Sets.newHashSet();
     for (KijiColumnName columnName : mWritableData.keySet()) {
@@ -581,20 +614,20 @@ public class KijiRowDataWritable implements Writable, Closeable {
       if (!pageData.containsKey(kijiColumnName)
           && !mKijiQualifierPagers.containsKey(kijiColumnName.getFamily())) {
         // Only write if it's not part of the paged data.
-        writeColumn(out, kijiColumnName, entry.getValue());
+        writeColumn(out, kijiColumnName, entry.getValue(), schemas);
       }
     }
 
     // Write paged data if any.
     for (Entry<KijiColumnName, NavigableMap<Long, KijiCellWritable>> entry
         : pageData.entrySet()) {
-      writeColumn(out, entry.getKey(), entry.getValue());
+      writeColumn(out, entry.getKey(), entry.getValue(), schemas);
     }
 
     WritableUtils.writeVInt(out, mSchemas.size());
     for (Map.Entry<KijiColumnName, Schema> entry : mSchemas.entrySet()) {
       WritableUtils.writeString(out, entry.getKey().getName());
-      WritableUtils.writeString(out, entry.getValue().toString());
+      schemas.writeSchema(out, entry.getValue());
     }
   }
 
@@ -604,15 +637,17 @@ public class KijiRowDataWritable implements Writable, Closeable {
    * @param out DataOutput for the Hadoop Writable to write to.
    * @param kijiColumnName to write
    * @param data to write
+   * @param schemas dictionary of the schemas written in this row.
    * @throws IOException if there was an issue.
    */
   private void writeColumn(DataOutput out, KijiColumnName kijiColumnName,
-                           NavigableMap<Long, KijiCellWritable> data) throws IOException {
+                           NavigableMap<Long, KijiCellWritable> data,
+                           SchemaDictionary schemas) throws IOException {
     WritableUtils.writeString(out, kijiColumnName.getName());
     WritableUtils.writeVInt(out, data.size()); // number in the timeseries
     for (Map.Entry<Long, KijiCellWritable> cellEntry : data.entrySet()) {
       WritableUtils.writeVLong(out, cellEntry.getKey());
-      cellEntry.getValue().write(out);
+      cellEntry.getValue().write(out, schemas);
     }
   }
 
@@ -629,6 +664,7 @@ public class KijiRowDataWritable implements Writable, Closeable {
     entityIdWritable.readFields(in);
     mEntityId = entityIdWritable;
 
+    final SchemaDictionary schemas = new SchemaDictionary();
     int numDecodedData = WritableUtils.readVInt(in);
 
     // We need to dirty the decoded data so that these objects can be reused.
@@ -645,7 +681,7 @@ public class KijiRowDataWritable implements Writable, Closeable {
         long ts = WritableUtils.readVLong(in);
         KijiCellWritable cellWritable =
             (KijiCellWritable) WritableFactories.newInstance(KijiCellWritable.class);
-        cellWritable.readFields(in);
+        cellWritable.readFields(in, schemas);
         data.put(ts, cellWritable);
       }
 
@@ -657,9 +693,7 @@ public class KijiRowDataWritable implements Writable, Closeable {
     for (int c=0; c < numSchemas; c++) {
       String columnText = WritableUtils.readString(in);
       KijiColumnName column = new KijiColumnName(columnText);
-      String schemaString = WritableUtils.readString(in);
-      Schema schema = new Schema.Parser().parse(schemaString);
-      mSchemas.put(column, schema);
+      mSchemas.put(column, schemas.readSchema(in));
     }
   }
 }
@@ -0,0 +1,162 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.hive.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.avro.Schema;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Dictionary of the Avro schemas written to, or read from, a single serialized Writable.
+ *
+ * <p>
+ *   The first occurrence of a schema is written in full, as its JSON representation prefixed
+ *   with its length, exactly as {@link WritableUtils#writeString(DataOutput, String)} does.
+ *   Later occurrences of the same schema are written as a reference to the first one, in place
+ *   of the length: a negative int below the length of a null string.
+ *   Schemas written in full by earlier versions of the Hive adapter are therefore read as-is.
+ * </p>
+ *
+ * <p>
+ *   Parsed schemas are cached across dictionaries, so that the rows of a split, which usually
+ *   share a few schemas, do not parse the same JSON over and over.
+ * </p>
+ *
+ * <p> A dictionary is used either to write or to read a single object, and is not thread-safe. </p>
+ */
+final class SchemaDictionary {
+  /** Maximum number of distinct schemas kept in the process-wide caches. */
+  private static final int MAX_CACHED_SCHEMAS = 1024;
+
+  /** Length prefix of a null string, never valid for a schema. */
+  private static final int NULL_STRING_LENGTH = -1;
+
+  /** Parsed schemas, by JSON representation. */
+  private static final LoadingCache<String, Schema> PARSED_SCHEMAS = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_SCHEMAS)
+      .build(new CacheLoader<String, Schema>() {
+        /** {@inheritDoc} */
+        @Override
+        public Schema load(String json) {
+          return new Schema.Parser().parse(json);
+        }
+      });
+
+  /** JSON representations of schemas, by schema instance. */
+  private static final LoadingCache<Schema, String> SCHEMA_JSONS = CacheBuilder.newBuilder()
+      .weakKeys()
+      .maximumSize(MAX_CACHED_SCHEMAS)
+      .build(new CacheLoader<Schema, String>() {
+        /** {@inheritDoc} */
+        @Override
+        public String load(Schema schema) {
+          return schema.toString();
+        }
+      });
+
+  /** Identifiers of the schemas written so far, by schema instance. */
+  private final Map<Schema, Integer> mWrittenIds = new IdentityHashMap<Schema, Integer>();
+
+  /** Schemas read so far, indexed by identifier. */
+  private final List<Schema> mReadSchemas = Lists.newArrayList();
+
+  /**
+   * Writes a schema, in full the first time it is written by this dictionary.
+   *
+   * @param out DataOutput to write the schema to.
+   * @param schema Schema to write.
+   * @throws IOException on I/O error.
+   */
+  public void writeSchema(DataOutput out, Schema schema) throws IOException {
+    final Integer id = mWrittenIds.get(schema);
+    if (id != null) {
+      out.writeInt(toReference(id));
+    } else {
+      mWrittenIds.put(schema, mWrittenIds.size());
+      WritableUtils.writeString(out, SCHEMA_JSONS.getUnchecked(schema));
+    }
+  }
+
+  /**
+   * Reads a schema, either in full or as a reference to a schema previously read.
+   *
+   * @param in DataInput to read the schema from.
+   * @return the schema read.
+   * @throws IOException on I/O error, or if the schema read is not valid.
+   */
+  public Schema readSchema(DataInput in) throws IOException {
+    final int lengthOrReference = in.readInt();
+    if (lengthOrReference == NULL_STRING_LENGTH) {
+      throw new IOException("Invalid null schema.");
+    } else if (lengthOrReference < NULL_STRING_LENGTH) {
+      final int id = toReference(lengthOrReference);
+      if (id >= mReadSchemas.size()) {
+        throw new IOException(String.format(
+            "Invalid reference to schema %d: only %d schemas read.", id, mReadSchemas.size()));
+      }
+      return mReadSchemas.get(id);
+    }
+
+    final byte[] bytes = new byte[lengthOrReference];
+    in.readFully(bytes);
+    final Schema schema = parse(new String(bytes, Charsets.UTF_8));
+    mReadSchemas.add(schema);
+    return schema;
+  }
+
+  /**
+   * Parses the JSON representation of a schema, or reuses the schema previously parsed from it.
+   *
+   * @param json JSON representation of the schema.
+   * @return the schema.
+   * @throws IOException if the schema is not valid.
+   */
+  public static Schema parse(String json) throws IOException {
+    try {
+      return PARSED_SCHEMAS.getUnchecked(json);
+    } catch (UncheckedExecutionException uee) {
+      throw new IOException("Invalid schema: " + json, uee.getCause());
+    }
+  }
+
+  /**
+   * Converts a schema identifier into a reference to write, and back.
+   *
+   * <p> References are below the length prefix of a null string, and never collide with one. </p>
+   *
+   * @param value Schema identifier, or reference read.
+   * @return the reference to write for an identifier, or the identifier of a reference read.
+   */
+  private static int toReference(int value) {
+    return NULL_STRING_LENGTH - 1 - value;
+  }
+}
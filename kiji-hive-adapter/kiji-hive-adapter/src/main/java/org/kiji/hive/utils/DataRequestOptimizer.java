@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,9 +53,7 @@ public final class DataRequestOptimizer {
    * @return The data request.
    */
   public static KijiDataRequest getDataRequest(List<KijiRowExpression> expressions) {
-    // TODO: Use only the expressions that are used in the current query.
-
-    // TODO: Don't request all versions at all timestamps if we don't have to.
+    // Each expression requests as few versions as it needs, merging keeps the largest count.
     KijiDataRequest merged = KijiDataRequest.builder().build();
 
     //TODO Rewrite this to use new builder semantics.
@@ -66,6 +65,42 @@ public final class DataRequestOptimizer {
     return merged;
   }
 
+  /**
+   * Restricts a data request to the columns read by some of the expressions, typically the
+   * columns referenced by a query.  Columns keep their paging configuration, but only request
+   * as many versions as the selected expressions need.
+   *
+   * @param kijiDataRequest The data request of all the expressions, with paging configured.
+   * @param expressions The Kiji row expressions describing the data to read.
+   * @param expressionIndexes Indexes of the expressions to read data for, or empty for all.
+   * @return The data request restricted to the selected expressions.
+   */
+  public static KijiDataRequest projectDataRequest(KijiDataRequest kijiDataRequest,
+                                                   List<KijiRowExpression> expressions,
+                                                   Collection<Integer> expressionIndexes) {
+    if (expressionIndexes.isEmpty()) {
+      return kijiDataRequest;
+    }
+    List<KijiRowExpression> projectedExpressions = Lists.newArrayList();
+    for (int index : expressionIndexes) {
+      if (index < expressions.size()) {
+        projectedExpressions.add(expressions.get(index));
+      }
+    }
+
+    KijiDataRequestBuilder projectedRequestBuilder = KijiDataRequest.builder();
+    for (Column column : getDataRequest(projectedExpressions).getColumns()) {
+      KijiColumnName kijiColumnName = column.getColumnName();
+      Column pagedColumn = kijiDataRequest.getColumn(kijiColumnName);
+      projectedRequestBuilder.newColumnsDef()
+          .withFilter(column.getFilter())
+          .withPageSize((null != pagedColumn) ? pagedColumn.getPageSize() : column.getPageSize())
+          .withMaxVersions(column.getMaxVersions())
+          .add(kijiColumnName);
+    }
+    return projectedRequestBuilder.build();
+  }
+
   /**
    * Constructs a data request with cell paging enabled for the specified columns.
    *
@@ -0,0 +1,639 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.hive.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.avro.Schema;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeFieldDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPLessThan;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.hive.KijiRowExpression;
+import org.kiji.schema.DecodedCell;
+import org.kiji.schema.EntityIdException;
+import org.kiji.schema.EntityIdFactory;
+import org.kiji.schema.KijiColumnName;
+import org.kiji.schema.avro.ComponentType;
+import org.kiji.schema.avro.RowKeyEncoding;
+import org.kiji.schema.avro.RowKeyFormat2;
+import org.kiji.schema.filter.AndRowFilter;
+import org.kiji.schema.filter.ColumnValueEqualsRowFilter;
+import org.kiji.schema.filter.FormattedEntityIdRowFilter;
+import org.kiji.schema.filter.KijiRowFilter;
+import org.kiji.schema.layout.CellSpec;
+import org.kiji.schema.layout.KijiTableLayout;
+
+/**
+ * Translates the predicates of Hive queries into restrictions of the scan of a Kiji table.
+ *
+ * <p>The following comparisons of a Hive column with a constant are pushed down:</p>
+ * <li> :entity_id[n] =, &lt;, &lt;=, &gt;, &gt;= constant - EntityId component, as scan bounds
+ *     and a {@link FormattedEntityIdRowFilter}, for tables with formatted row keys.
+ * <li> family:qualifier[0].value = constant - most recent cell value, as a
+ *     {@link ColumnValueEqualsRowFilter}, when the constant has the Avro schema of the column.
+ *
+ * <p>Pushed down restrictions select a superset of the rows matching the predicate, so Hive
+ * still evaluates the whole predicate on the rows read.</p>
+ */
+public final class PredicatePushdown {
+  private static final Logger LOG = LoggerFactory.getLogger(PredicatePushdown.class);
+
+  /** Comparison operators that may be pushed down. */
+  private static enum Operator {
+    EQUAL, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL;
+
+    /**
+     * Gets the operator of a Hive comparison.
+     *
+     * @param udf Generic UDF of the comparison.
+     * @return the operator of the comparison, or null if it is not a supported comparison.
+     */
+    static Operator fromUDF(GenericUDF udf) {
+      if (udf instanceof GenericUDFOPEqual) {
+        return EQUAL;
+      } else if (udf instanceof GenericUDFOPLessThan) {
+        return LESS;
+      } else if (udf instanceof GenericUDFOPEqualOrLessThan) {
+        return LESS_OR_EQUAL;
+      } else if (udf instanceof GenericUDFOPGreaterThan) {
+        return GREATER;
+      } else if (udf instanceof GenericUDFOPEqualOrGreaterThan) {
+        return GREATER_OR_EQUAL;
+      }
+      return null;
+    }
+
+    /**
+     * Gets the operator equivalent to this one, with its operands swapped.
+     *
+     * @return the operator equivalent to this one, with its operands swapped.
+     */
+    Operator swap() {
+      switch (this) {
+        case LESS: return GREATER;
+        case LESS_OR_EQUAL: return GREATER_OR_EQUAL;
+        case GREATER: return LESS;
+        case GREATER_OR_EQUAL: return LESS_OR_EQUAL;
+        default: return this;
+      }
+    }
+  }
+
+  /** Comparison of a Hive column, or of a field of a Hive column, with a constant. */
+  private static final class Comparison {
+    private final ExprNodeDesc mExpression;
+    private final String mColumn;
+    private final String mField;
+    private final Operator mOperator;
+    private final Object mConstant;
+
+    /**
+     * Constructor.
+     *
+     * @param expression The Hive expression of the comparison.
+     * @param column The name of the Hive column compared.
+     * @param field The name of the field of the Hive column compared, or null.
+     * @param operator The comparison operator, with the column on the left-hand side.
+     * @param constant The constant the column is compared with.
+     */
+    private Comparison(ExprNodeDesc expression, String column, String field,
+                       Operator operator, Object constant) {
+      mExpression = expression;
+      mColumn = column;
+      mField = field;
+      mOperator = operator;
+      mConstant = constant;
+    }
+  }
+
+  /** The Kiji row expressions of the Hive columns, by Hive column name. */
+  private final Map<String, KijiRowExpression> mExpressions = Maps.newHashMap();
+
+  /** The Hive types of the Hive columns, by Hive column name. */
+  private final Map<String, TypeInfo> mTypes = Maps.newHashMap();
+
+  /**
+   * Constructor.
+   *
+   * @param columnNames The names of the Hive columns.
+   * @param columnTypes The types of the Hive columns.
+   * @param expressions The Kiji row expressions of the Hive columns.
+   */
+  private PredicatePushdown(List<String> columnNames, List<TypeInfo> columnTypes,
+                            List<KijiRowExpression> expressions) {
+    Preconditions.checkArgument(columnNames.size() == columnTypes.size()
+        && columnNames.size() == expressions.size(),
+        "There must be one type and one expression per Hive column.");
+    for (int i = 0; i < columnNames.size(); i++) {
+      mExpressions.put(columnNames.get(i), expressions.get(i));
+      mTypes.put(columnNames.get(i), columnTypes.get(i));
+    }
+  }
+
+  /**
+   * Creates the pushdown of Hive predicates on the columns of a Hive table.
+   *
+   * @param columnNames The names of the Hive columns.
+   * @param columnTypes The types of the Hive columns.
+   * @param expressions The Kiji row expressions of the Hive columns.
+   * @return The pushdown of Hive predicates on the columns of the Hive table.
+   */
+  public static PredicatePushdown create(List<String> columnNames, List<TypeInfo> columnTypes,
+                                         List<KijiRowExpression> expressions) {
+    return new PredicatePushdown(columnNames, columnTypes, expressions);
+  }
+
+  /**
+   * Gets the part of a predicate that can be pushed down.
+   *
+   * @param predicate A Hive predicate.
+   * @return the conjunction of the comparisons of the predicate that can be pushed down, or null
+   *     if there are none.
+   */
+  public ExprNodeDesc getPushedPredicate(ExprNodeDesc predicate) {
+    ExprNodeDesc pushed = null;
+    for (Comparison comparison : getComparisons(predicate)) {
+      if (null == pushed) {
+        pushed = comparison.mExpression;
+      } else {
+        final List<ExprNodeDesc> operands = Lists.newArrayList(pushed, comparison.mExpression);
+        pushed = new ExprNodeGenericFuncDesc(
+            TypeInfoFactory.booleanTypeInfo, new GenericUDFOPAnd(), operands);
+      }
+    }
+    return pushed;
+  }
+
+  /**
+   * Gets the range of HBase row keys that contains all the rows matching a predicate.
+   *
+   * @param predicate A Hive predicate.
+   * @param layout The layout of the Kiji table.
+   * @return the start (inclusive) and stop (exclusive) HBase row keys of the range.  Empty keys
+   *     leave the range unbounded.
+   */
+  public byte[][] getRowKeyRange(ExprNodeDesc predicate, KijiTableLayout layout) {
+    final byte[][] unbounded = new byte[][] {new byte[0], new byte[0]};
+    final RowKeyFormat2 format = getMaterializedFormat(layout);
+    if (null == format) {
+      return unbounded;
+    }
+    final Object[] components = getEqualComponents(predicate, format);
+    final EntityIdFactory factory = EntityIdFactory.getFactory(format);
+
+    // Count the leading components with a known value.
+    int prefixLength = 0;
+    while (prefixLength < components.length && null != components[prefixLength]) {
+      prefixLength++;
+    }
+
+    try {
+      if (prefixLength == components.length) {
+        // A single row:
+        final byte[] rowKey = factory.getEntityId(components).getHBaseRowKey();
+        return new byte[][] {rowKey, Arrays.copyOf(rowKey, rowKey.length + 1)};
+      }
+      if (prefixLength < format.getRangeScanStartIndex()) {
+        // The hash prefix of the row keys is unknown.
+        return unbounded;
+      }
+
+      // Rows with the known leading components, bounded by the next component if compared.
+      final Object[] start = Arrays.copyOf(components, prefixLength + 1);
+      final Object[] stop = Arrays.copyOf(components, prefixLength + 1);
+      for (Comparison comparison : getEntityIdComparisons(predicate, prefixLength, format)) {
+        switch (comparison.mOperator) {
+          case GREATER:
+          case GREATER_OR_EQUAL:
+            start[prefixLength] = max(start[prefixLength], comparison.mConstant);
+            break;
+          case LESS:
+          case LESS_OR_EQUAL:
+            stop[prefixLength] = min(stop[prefixLength], comparison.mConstant);
+            break;
+          default:
+            break;
+        }
+      }
+      return new byte[][] {
+          getRowKeyPrefix(factory, start, format),
+          getRowKeyPrefixSuccessor(getRowKeyPrefix(factory, stop, format)),
+      };
+    } catch (EntityIdException eie) {
+      LOG.debug("Unable to bound the scan with components {}: {}",
+          Arrays.toString(components), eie.getMessage());
+      return unbounded;
+    }
+  }
+
+  /**
+   * Gets the Kiji row filter that selects the rows matching the pushed down parts of a predicate.
+   *
+   * @param predicate A Hive predicate.
+   * @param layout The layout of the Kiji table.
+   * @return the Kiji row filter, or null if no part of the predicate translates into a filter.
+   * @throws IOException on I/O error.
+   */
+  public KijiRowFilter getRowFilter(ExprNodeDesc predicate, KijiTableLayout layout)
+      throws IOException {
+    final List<KijiRowFilter> filters = Lists.newArrayList();
+
+    final RowKeyFormat2 format = getMaterializedFormat(layout);
+    if (null != format) {
+      final Object[] components = getEqualComponents(predicate, format);
+      if (!Arrays.asList(components).contains(null)) {
+        // The scan bounds select a single row, which needs no filter.
+        LOG.debug("Row key {} fully specified by the scan bounds.", Arrays.toString(components));
+      } else if (countNulls(components) < components.length) {
+        filters.add(new FormattedEntityIdRowFilter(format, components));
+      }
+    }
+
+    for (Comparison comparison : getComparisons(predicate)) {
+      final KijiColumnName column = mExpressions.get(comparison.mColumn).getMostRecentCellColumn();
+      if (null == column || null == comparison.mField) {
+        continue;
+      }
+      final StructTypeInfo cellType = (StructTypeInfo) mTypes.get(comparison.mColumn);
+      final TypeInfo valueType = cellType.getStructFieldTypeInfo(comparison.mField);
+      final DecodedCell<?> value = toDecodedCell(valueType, comparison.mConstant);
+      if (null == value) {
+        continue;
+      }
+      final CellSpec cellSpec = layout.getCellSpec(column);
+      if (!cellSpec.isAvro() || !value.getWriterSchema().equals(cellSpec.getAvroSchema())) {
+        // The encoded constant would not match the encoded cells.
+        continue;
+      }
+      filters.add(new ColumnValueEqualsRowFilter(
+          column.getFamily(), column.getQualifier(), value));
+    }
+
+    switch (filters.size()) {
+      case 0: return null;
+      case 1: return filters.get(0);
+      default: return new AndRowFilter(filters);
+    }
+  }
+
+  /**
+   * Gets the comparisons of a predicate that can be pushed down.
+   *
+   * <p>Only comparisons that are operands of the top-level conjunction are considered.</p>
+   *
+   * @param predicate A Hive predicate.
+   * @return the comparisons of the predicate that can be pushed down.
+   */
+  private List<Comparison> getComparisons(ExprNodeDesc predicate) {
+    final List<Comparison> comparisons = Lists.newArrayList();
+    addComparisons(predicate, comparisons);
+    return comparisons;
+  }
+
+  /**
+   * Adds the comparisons of a predicate that can be pushed down to a list.
+   *
+   * @param predicate A Hive predicate.
+   * @param comparisons The list to add the comparisons to.
+   */
+  private void addComparisons(ExprNodeDesc predicate, List<Comparison> comparisons) {
+    if (!(predicate instanceof ExprNodeGenericFuncDesc)) {
+      return;
+    }
+    final ExprNodeGenericFuncDesc function = (ExprNodeGenericFuncDesc) predicate;
+    if (function.getGenericUDF() instanceof GenericUDFOPAnd) {
+      for (ExprNodeDesc operand : function.getChildExprs()) {
+        addComparisons(operand, comparisons);
+      }
+      return;
+    }
+    final Comparison comparison = toComparison(function);
+    if (null != comparison && isPushable(comparison)) {
+      comparisons.add(comparison);
+    }
+  }
+
+  /**
+   * Converts a Hive function into the comparison of a column, or of a field of a column, with a
+   * constant.
+   *
+   * @param function A Hive function.
+   * @return the comparison, or null if the function is not such a comparison.
+   */
+  private static Comparison toComparison(ExprNodeGenericFuncDesc function) {
+    Operator operator = Operator.fromUDF(function.getGenericUDF());
+    final List<ExprNodeDesc> operands = function.getChildExprs();
+    if (null == operator || operands.size() != 2) {
+      return null;
+    }
+    ExprNodeDesc left = operands.get(0);
+    ExprNodeDesc right = operands.get(1);
+    if (left instanceof ExprNodeConstantDesc) {
+      left = operands.get(1);
+      right = operands.get(0);
+      operator = operator.swap();
+    }
+    if (!(right instanceof ExprNodeConstantDesc)) {
+      return null;
+    }
+    final Object constant = ((ExprNodeConstantDesc) right).getValue();
+    if (null == constant) {
+      return null;
+    }
+
+    if (left instanceof ExprNodeColumnDesc) {
+      final String column = ((ExprNodeColumnDesc) left).getColumn();
+      return new Comparison(function, column, null, operator, constant);
+    } else if (left instanceof ExprNodeFieldDesc) {
+      final ExprNodeFieldDesc field = (ExprNodeFieldDesc) left;
+      if (field.getDesc() instanceof ExprNodeColumnDesc
+          && !Boolean.TRUE.equals(field.getIsList())) {
+        final String column = ((ExprNodeColumnDesc) field.getDesc()).getColumn();
+        return new Comparison(function, column, field.getFieldName(), operator, constant);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Determines whether a comparison can be pushed down.
+   *
+   * @param comparison A comparison of a Hive column with a constant.
+   * @return whether the comparison can be pushed down.
+   */
+  private boolean isPushable(Comparison comparison) {
+    final KijiRowExpression expression = mExpressions.get(comparison.mColumn);
+    if (null == expression) {
+      return false;
+    }
+    if (null == comparison.mField) {
+      return null != expression.getEntityIdComponentIndex();
+    }
+    if (null == expression.getMostRecentCellColumn() || comparison.mOperator != Operator.EQUAL) {
+      return false;
+    }
+    // The cell value is the second field of the struct, after the timestamp.
+    final List<String> fieldNames =
+        ((StructTypeInfo) mTypes.get(comparison.mColumn)).getAllStructFieldNames();
+    return fieldNames.indexOf(comparison.mField) == 1;
+  }
+
+  /**
+   * Gets the comparisons of a predicate with an EntityId component.
+   *
+   * @param predicate A Hive predicate.
+   * @param index The index of the EntityId component.
+   * @param format The row key format of the Kiji table.
+   * @return the comparisons with the EntityId component, with constants of the component type.
+   */
+  private List<Comparison> getEntityIdComparisons(ExprNodeDesc predicate, int index,
+                                                  RowKeyFormat2 format) {
+    final List<Comparison> comparisons = Lists.newArrayList();
+    for (Comparison comparison : getComparisons(predicate)) {
+      final Integer componentIndex =
+          mExpressions.get(comparison.mColumn).getEntityIdComponentIndex();
+      if (null == comparison.mField && null != componentIndex && index == componentIndex) {
+        final Object component = toComponent(format, index, comparison.mConstant);
+        if (null != component) {
+          comparisons.add(new Comparison(comparison.mExpression, comparison.mColumn, null,
+              comparison.mOperator, component));
+        }
+      }
+    }
+    return comparisons;
+  }
+
+  /**
+   * Gets the values of the EntityId components the predicate compares for equality.
+   *
+   * @param predicate A Hive predicate.
+   * @param format The row key format of the Kiji table.
+   * @return the value of each EntityId component, or null where the value is unknown.
+   */
+  private Object[] getEqualComponents(ExprNodeDesc predicate, RowKeyFormat2 format) {
+    final Object[] components = new Object[format.getComponents().size()];
+    for (int index = 0; index < components.length; index++) {
+      for (Comparison comparison : getEntityIdComparisons(predicate, index, format)) {
+        if (comparison.mOperator == Operator.EQUAL) {
+          components[index] = comparison.mConstant;
+        }
+      }
+    }
+    return components;
+  }
+
+  /**
+   * Gets the row key format of a table, if its row keys are formatted and materialized.
+   *
+   * @param layout The layout of the Kiji table.
+   * @return the row key format, or null if EntityId components cannot be pushed down.
+   */
+  private static RowKeyFormat2 getMaterializedFormat(KijiTableLayout layout) {
+    final Object keysFormat = layout.getDesc().getKeysFormat();
+    if (!(keysFormat instanceof RowKeyFormat2)) {
+      return null;
+    }
+    final RowKeyFormat2 format = (RowKeyFormat2) keysFormat;
+    if (format.getEncoding() != RowKeyEncoding.FORMATTED
+        || format.getSalt().getSuppressKeyMaterialization()) {
+      return null;
+    }
+    return format;
+  }
+
+  /**
+   * Converts a Hive constant into the value of an EntityId component.
+   *
+   * @param format The row key format of the Kiji table.
+   * @param index The index of the EntityId component.
+   * @param constant The Hive constant.
+   * @return the value of the component, or null if the constant cannot be converted exactly.
+   */
+  private static Object toComponent(RowKeyFormat2 format, int index, Object constant) {
+    final ComponentType type = format.getComponents().get(index).getType();
+    final boolean isIntegral = constant instanceof Integer
+        || constant instanceof Long
+        || constant instanceof Short
+        || constant instanceof Byte;
+    switch (type) {
+      case STRING:
+        return (constant instanceof String) ? constant : null;
+      case INTEGER:
+        final long value = isIntegral ? ((Number) constant).longValue() : Long.MIN_VALUE;
+        return (isIntegral && value == (int) value) ? Integer.valueOf((int) value) : null;
+      case LONG:
+        return isIntegral ? Long.valueOf(((Number) constant).longValue()) : null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Converts a Hive constant into a cell value.
+   *
+   * @param valueType The Hive type of the cell value.
+   * @param constant The Hive constant.
+   * @return the cell value, or null if the constant cannot be converted exactly.
+   */
+  private static DecodedCell<?> toDecodedCell(TypeInfo valueType, Object constant) {
+    if (!(valueType instanceof PrimitiveTypeInfo)) {
+      return null;
+    }
+    final boolean isIntegral = constant instanceof Integer
+        || constant instanceof Long
+        || constant instanceof Short
+        || constant instanceof Byte;
+    switch (((PrimitiveTypeInfo) valueType).getPrimitiveCategory()) {
+      case STRING:
+        return (constant instanceof String)
+            ? new DecodedCell<String>(Schema.create(Schema.Type.STRING), (String) constant)
+            : null;
+      case INT:
+        if (isIntegral && ((Number) constant).longValue() == ((Number) constant).intValue()) {
+          return new DecodedCell<Integer>(
+              Schema.create(Schema.Type.INT), ((Number) constant).intValue());
+        }
+        return null;
+      case LONG:
+        if (isIntegral) {
+          return new DecodedCell<Long>(
+              Schema.create(Schema.Type.LONG), ((Number) constant).longValue());
+        }
+        return null;
+      case BOOLEAN:
+        return (constant instanceof Boolean)
+            ? new DecodedCell<Boolean>(Schema.create(Schema.Type.BOOLEAN), (Boolean) constant)
+            : null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Gets the HBase row key prefix shared by the rows with the given leading components.
+   *
+   * @param factory The EntityId factory of the Kiji table.
+   * @param components The EntityId components, null when unknown.
+   * @param format The row key format of the Kiji table.
+   * @return the HBase row key prefix, or an empty prefix if the first component is unknown.
+   */
+  private static byte[] getRowKeyPrefix(EntityIdFactory factory, Object[] components,
+                                        RowKeyFormat2 format) {
+    int length = 0;
+    while (length < components.length && null != components[length]) {
+      length++;
+    }
+    if (length < format.getRangeScanStartIndex()) {
+      return new byte[0];
+    }
+    // Trailing components left null are not encoded, which leaves the prefix of the row key.
+    final Object[] prefix = Arrays.copyOf(components, format.getComponents().size());
+    for (int i = length; i < prefix.length; i++) {
+      prefix[i] = null;
+    }
+    return factory.getEntityId(prefix).getHBaseRowKey();
+  }
+
+  /**
+   * Gets the smallest HBase row key greater than all the row keys with a given prefix.
+   *
+   * @param prefix The row key prefix.
+   * @return the smallest row key greater than all the row keys with the prefix, or an empty row
+   *     key if there is none.
+   */
+  private static byte[] getRowKeyPrefixSuccessor(byte[] prefix) {
+    for (int i = prefix.length - 1; i >= 0; i--) {
+      if (prefix[i] != (byte) 0xff) {
+        final byte[] successor = Arrays.copyOf(prefix, i + 1);
+        successor[i]++;
+        return successor;
+      }
+    }
+    return new byte[0];
+  }
+
+  /**
+   * Counts the null elements of an array.
+   *
+   * @param components An array.
+   * @return the number of null elements in the array.
+   */
+  private static int countNulls(Object[] components) {
+    int count = 0;
+    for (Object component : components) {
+      if (null == component) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the greatest of two component values.
+   *
+   * @param current The current value, or null.
+   * @param other The other value.
+   * @return the greatest value.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object max(Object current, Object other) {
+    if (null == current || ((Comparable<Object>) other).compareTo(current) > 0) {
+      return other;
+    }
+    return current;
+  }
+
+  /**
+   * Gets the least of two component values.
+   *
+   * @param current The current value, or null.
+   * @param other The other value.
+   * @return the least value.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object min(Object current, Object other) {
+    if (null == current || ((Comparable<Object>) other).compareTo(current) < 0) {
+      return other;
+    }
+    return current;
+  }
+}
@@ -23,7 +23,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.NavigableMap;
+import java.util.Set;
 
+import com.google.common.collect.Sets;
+import org.apache.avro.Schema;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
@@ -115,6 +119,34 @@ public class TestKijiTableRecordReader extends KijiClientTest {
     }
   }
 
+  @Test
+  public void testFetchedValuesAreDecoded() throws IOException {
+    KijiURI kijiURI = mTable.getURI();
+    KijiTableInputSplit tableInputSplit =
+        new KijiTableInputSplit(kijiURI, new byte[0], new byte[0], null, null);
+
+    KijiDataRequest kijiDataRequest = KijiDataRequest.create("info", "name");
+    mConf.set(KijiTableSerDe.HIVE_TABLE_NAME_PROPERTY, TABLE_NAME);
+    mConf.set(KijiTableInputFormat.CONF_KIJI_DATA_REQUEST_PREFIX + TABLE_NAME,
+        KijiDataRequestSerializer.serialize(kijiDataRequest));
+
+    KijiTableRecordReader tableRecordReader = new KijiTableRecordReader(tableInputSplit, mConf);
+    try {
+      ImmutableBytesWritable key = new ImmutableBytesWritable();
+      KijiRowDataWritable value = new KijiRowDataWritable();
+      Set<String> names = Sets.newHashSet();
+      while (tableRecordReader.next(key, value)) {
+        NavigableMap<Long, Object> cells = value.getValues("info", "name");
+        assertEquals(1, cells.size());
+        names.add(cells.get(TIMESTAMP).toString());
+        assertEquals(Schema.Type.STRING, value.getReaderSchema("info", "name").getType());
+      }
+      assertEquals(Sets.newHashSet("foo-val", "bar-val"), names);
+    } finally {
+      tableRecordReader.close();
+    }
+  }
+
   @Test
   public void testFetchPagedCellData() throws IOException {
     // Add some extra versions of the rows so that we can page through the results.
@@ -0,0 +1,100 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.hive.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.io.WritableUtils;
+import org.junit.Test;
+
+public class TestSchemaDictionary {
+  private static final Schema INT_SCHEMA = Schema.create(Schema.Type.INT);
+  private static final Schema STRING_SCHEMA = Schema.create(Schema.Type.STRING);
+
+  @Test
+  public void testRepeatedSchemasAreReferenced() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    final SchemaDictionary writer = new SchemaDictionary();
+    writer.writeSchema(out, INT_SCHEMA);
+    final int firstSize = bytes.size();
+    writer.writeSchema(out, STRING_SCHEMA);
+    writer.writeSchema(out, INT_SCHEMA);
+    writer.writeSchema(out, STRING_SCHEMA);
+    out.writeInt(42);
+
+    // The first occurrence is written as a string, repeats as a reference:
+    assertEquals(4 + INT_SCHEMA.toString().length(), firstSize);
+    assertEquals(firstSize + 4 + STRING_SCHEMA.toString().length() + 4 + 4 + 4, bytes.size());
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    final SchemaDictionary reader = new SchemaDictionary();
+    final Schema intSchema = reader.readSchema(in);
+    final Schema stringSchema = reader.readSchema(in);
+    assertEquals(INT_SCHEMA, intSchema);
+    assertEquals(STRING_SCHEMA, stringSchema);
+    assertSame(intSchema, reader.readSchema(in));
+    assertSame(stringSchema, reader.readSchema(in));
+    assertEquals(42, in.readInt());
+  }
+
+  @Test
+  public void testReadSchemaWrittenAsString() throws IOException {
+    // Schemas written by earlier versions of the Hive adapter:
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    WritableUtils.writeString(out, STRING_SCHEMA.toString());
+    WritableUtils.writeString(out, STRING_SCHEMA.toString());
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    final SchemaDictionary reader = new SchemaDictionary();
+    assertEquals(STRING_SCHEMA, reader.readSchema(in));
+    assertEquals(STRING_SCHEMA, reader.readSchema(in));
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testInvalidReference() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    final SchemaDictionary writer = new SchemaDictionary();
+    writer.writeSchema(out, INT_SCHEMA);
+    writer.writeSchema(out, INT_SCHEMA);
+
+    // Skip the first occurrence, so that the reference is dangling:
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    in.skipBytes(4 + INT_SCHEMA.toString().length());
+    try {
+      new SchemaDictionary().readSchema(in);
+      fail("A reference to a schema not read should be rejected.");
+    } catch (IOException ioe) {
+      assertEquals("Invalid reference to schema 0: only 0 schemas read.", ioe.getMessage());
+    }
+  }
+}
@@ -20,8 +20,11 @@
 package org.kiji.hive.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
@@ -33,6 +36,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericEnumSymbol;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.io.WritableUtils;
 import org.junit.Test;
 
 import org.kiji.hive.io.KijiCellWritable;
@@ -356,4 +360,40 @@ public class TestKijiCellWritable {
     assertEquals(enumSchema, cell1Decoded.getSchema());
     assertEquals("DIAMONDS", cell1Decoded.getData());
   }
+
+  @Test
+  public void testReadUnversionedCell() throws IOException {
+    // Cells written before the format was versioned start with their timestamp:
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    WritableUtils.writeVLong(out, TIMESTAMP_VALUE);
+    WritableUtils.writeString(out, STRING_SCHEMA.toString());
+    WritableUtils.writeString(out, STRING_VALUE);
+    out.close();
+
+    KijiCellWritable cellDecoded =
+        ByteWritable.asWritable(bytes.toByteArray(), KijiCellWritable.class);
+
+    assertEquals(TIMESTAMP_VALUE, (Long) cellDecoded.getTimestamp());
+    assertEquals(STRING_SCHEMA, cellDecoded.getSchema());
+    assertEquals(STRING_VALUE, cellDecoded.getData());
+  }
+
+  @Test
+  public void testParsedSchemaIsReused() throws IOException {
+    final KijiCell<Integer> cell1 =
+        new KijiCell<Integer>("family", "qualifier", TIMESTAMP_VALUE,
+            new DecodedCell<Integer>(INT_SCHEMA, 1));
+    final KijiCell<Integer> cell2 =
+        new KijiCell<Integer>("family", "qualifier", TIMESTAMP_VALUE + 1,
+            new DecodedCell<Integer>(INT_SCHEMA, 2));
+
+    KijiCellWritable cell1Decoded = ByteWritable.asWritable(
+        ByteWritable.serialize(new KijiCellWritable(cell1)), KijiCellWritable.class);
+    KijiCellWritable cell2Decoded = ByteWritable.asWritable(
+        ByteWritable.serialize(new KijiCellWritable(cell2)), KijiCellWritable.class);
+
+    assertSame(cell1Decoded.getSchema(), cell2Decoded.getSchema());
+    assertEquals(TIMESTAMP_VALUE + 1, cell2Decoded.getTimestamp());
+  }
 }
@@ -0,0 +1,185 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.hive.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeFieldDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.hive.KijiRowExpression;
+import org.kiji.hive.TypeInfos;
+import org.kiji.schema.EntityIdFactory;
+import org.kiji.schema.avro.RowKeyFormat2;
+import org.kiji.schema.filter.AndRowFilter;
+import org.kiji.schema.filter.FormattedEntityIdRowFilter;
+import org.kiji.schema.filter.KijiRowFilter;
+import org.kiji.schema.layout.KijiTableLayout;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+public class TestPredicatePushdown {
+  private static final List<String> COLUMN_NAMES =
+      Lists.newArrayList("dummy", "str1", "str2", "anint", "along", "column", "all");
+
+  private static final List<TypeInfo> COLUMN_TYPES = Lists.newArrayList(
+      TypeInfos.ENTITY_ID_STRING_COMPONENT,
+      TypeInfos.ENTITY_ID_STRING_COMPONENT,
+      TypeInfos.ENTITY_ID_STRING_COMPONENT,
+      TypeInfos.ENTITY_ID_INT_COMPONENT,
+      TypeInfos.ENTITY_ID_LONG_COMPONENT,
+      TypeInfos.COLUMN_FLAT_VALUE,
+      TypeInfos.COLUMN_ALL_VALUES);
+
+  private static final List<String> COLUMN_EXPRESSIONS = Lists.newArrayList(
+      ":entity_id[0]", ":entity_id[1]", ":entity_id[2]", ":entity_id[3]", ":entity_id[4]",
+      "family:column[0]", "family:column");
+
+  private KijiTableLayout mLayout;
+  private PredicatePushdown mPushdown;
+
+  @Before
+  public void setup() throws IOException {
+    mLayout = KijiTableLayout.newLayout(
+        KijiTableLayouts.getLayout(KijiTableLayouts.FORMATTED_RKF));
+    final List<KijiRowExpression> expressions = Lists.newArrayList();
+    for (int i = 0; i < COLUMN_NAMES.size(); i++) {
+      expressions.add(new KijiRowExpression(COLUMN_EXPRESSIONS.get(i), COLUMN_TYPES.get(i)));
+    }
+    mPushdown = PredicatePushdown.create(COLUMN_NAMES, COLUMN_TYPES, expressions);
+  }
+
+  private static ExprNodeDesc column(String name) {
+    return new ExprNodeColumnDesc(COLUMN_TYPES.get(COLUMN_NAMES.indexOf(name)), name, "t", false);
+  }
+
+  private static ExprNodeDesc value(String name) {
+    return new ExprNodeFieldDesc(TypeInfoFactory.stringTypeInfo, column(name), "value", false);
+  }
+
+  private static ExprNodeDesc constant(Object value) {
+    final TypeInfo type = (value instanceof Integer)
+        ? TypeInfoFactory.intTypeInfo
+        : TypeInfoFactory.stringTypeInfo;
+    return new ExprNodeConstantDesc(type, value);
+  }
+
+  private static ExprNodeDesc function(GenericUDF udf, ExprNodeDesc... operands) {
+    return new ExprNodeGenericFuncDesc(
+        TypeInfoFactory.booleanTypeInfo, udf, Lists.newArrayList(operands));
+  }
+
+  private byte[] getRowKey(Object... components) {
+    return EntityIdFactory.getFactory(mLayout).getEntityId(components).getHBaseRowKey();
+  }
+
+  @Test
+  public void testPushedPredicate() throws IOException {
+    final ExprNodeDesc equal = function(new GenericUDFOPEqual(), column("dummy"), constant("a"));
+    // Comparisons with all the cells of a column cannot be pushed down:
+    final ExprNodeDesc unsupported =
+        function(new GenericUDFOPEqual(), column("all"), constant("a"));
+
+    assertNull(mPushdown.getPushedPredicate(unsupported));
+    assertSame(equal,
+        mPushdown.getPushedPredicate(function(new GenericUDFOPAnd(), equal, unsupported)));
+  }
+
+  @Test
+  public void testRowKeyRangeOfSingleRow() throws IOException {
+    final ExprNodeDesc predicate = function(new GenericUDFOPAnd(),
+        function(new GenericUDFOPAnd(),
+            function(new GenericUDFOPEqual(), column("dummy"), constant("a")),
+            function(new GenericUDFOPEqual(), column("str1"), constant("b"))),
+        function(new GenericUDFOPAnd(),
+            function(new GenericUDFOPEqual(), column("str2"), constant("c")),
+            function(new GenericUDFOPAnd(),
+                function(new GenericUDFOPEqual(), constant(1), column("anint")),
+                function(new GenericUDFOPEqual(), column("along"), constant(2)))));
+
+    final byte[] rowKey = getRowKey("a", "b", "c", 1, 2L);
+    final byte[][] range = mPushdown.getRowKeyRange(predicate, mLayout);
+    assertArrayEquals(rowKey, range[0]);
+    assertArrayEquals(Arrays.copyOf(rowKey, rowKey.length + 1), range[1]);
+    // The scan bounds select the row, which needs no filter:
+    assertNull(mPushdown.getRowFilter(predicate, mLayout));
+  }
+
+  @Test
+  public void testRowKeyRangeOfPrefix() throws IOException {
+    final ExprNodeDesc predicate = function(new GenericUDFOPAnd(),
+        function(new GenericUDFOPEqual(), column("dummy"), constant("a")),
+        function(new GenericUDFOPGreaterThan(), column("str1"), constant("m")));
+
+    final byte[][] range = mPushdown.getRowKeyRange(predicate, mLayout);
+    final byte[] matching = getRowKey("a", "n", "c", 1, 2L);
+    assertTrue(Bytes.compareTo(range[0], matching) <= 0);
+    assertTrue(Bytes.compareTo(matching, range[1]) < 0);
+    final byte[] notMatching = getRowKey("a", "l", "c", 1, 2L);
+    assertTrue(Bytes.compareTo(notMatching, range[0]) < 0);
+  }
+
+  @Test
+  public void testNoRowKeyRangeWithoutHashedComponent() throws IOException {
+    final ExprNodeDesc predicate =
+        function(new GenericUDFOPEqual(), column("str1"), constant("b"));
+
+    final byte[][] range = mPushdown.getRowKeyRange(predicate, mLayout);
+    assertEquals(0, range[0].length);
+    assertEquals(0, range[1].length);
+  }
+
+  @Test
+  public void testRowFilter() throws IOException {
+    final ExprNodeDesc predicate = function(new GenericUDFOPAnd(),
+        function(new GenericUDFOPEqual(), column("str1"), constant("b")),
+        function(new GenericUDFOPEqual(), value("column"), constant("value")));
+
+    final KijiRowFilter rowFilter = mPushdown.getRowFilter(predicate, mLayout);
+    assertTrue(rowFilter instanceof AndRowFilter);
+
+    final KijiRowFilter entityIdFilter = mPushdown.getRowFilter(
+        function(new GenericUDFOPEqual(), column("str1"), constant("b")), mLayout);
+    assertEquals(
+        new FormattedEntityIdRowFilter(
+            (RowKeyFormat2) mLayout.getDesc().getKeysFormat(), null, "b", null, null, null),
+        entityIdFilter);
+  }
+}
@@ -269,15 +269,16 @@ public final class CassandraKijiTableInputFormat
 
       CassandraTokenRange nextTokenRange = mTokenRangeIterator.next();
 
-      // Get a new scanner for this token range!
+      // Get a new scanner for this token range! Stream the cells of the token range rather than
+      // getting each row with separate queries.
       if (null != mScanner) {
         ResourceUtils.closeOrLog(mScanner);
       }
       mScanner = mReader.getScannerWithOptions(
           mDataRequest,
-          CassandraKijiScannerOptions.withTokens(
-              nextTokenRange.getStartToken(),
-              nextTokenRange.getEndToken()));
+          CassandraKijiScannerOptions
+              .withTokens(nextTokenRange.getStartToken(), nextTokenRange.getEndToken())
+              .withStreamingPageSize(CassandraKijiScannerOptions.DEFAULT_STREAMING_PAGE_SIZE));
           mIterator = mScanner.iterator();
       mCurrentRow = null;
     }
@@ -22,14 +22,20 @@ package org.kiji.mapreduce.framework;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.SerializationUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.ClusterStatus;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.RegionLoad;
+import org.apache.hadoop.hbase.ServerName;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.mapreduce.TableSplit;
 import org.apache.hadoop.hbase.util.Bytes;
@@ -42,6 +48,7 @@ import org.slf4j.LoggerFactory;
 
 import org.kiji.annotations.ApiAudience;
 import org.kiji.annotations.ApiStability;
+import org.kiji.mapreduce.framework.SplitBalancer.KeyRange;
 import org.kiji.mapreduce.impl.KijiTableSplit;
 import org.kiji.schema.EntityId;
 import org.kiji.schema.HBaseEntityId;
@@ -57,6 +64,7 @@ import org.kiji.schema.KijiTableReader.KijiScannerOptions;
 import org.kiji.schema.KijiURI;
 import org.kiji.schema.filter.KijiRowFilter;
 import org.kiji.schema.hbase.HBaseScanOptions;
+import org.kiji.schema.impl.hbase.HBaseKiji;
 import org.kiji.schema.impl.hbase.HBaseKijiRowData;
 import org.kiji.schema.impl.hbase.HBaseKijiTable;
 import org.kiji.schema.layout.ColumnReaderSpec;
@@ -67,6 +75,7 @@ import org.kiji.schema.util.ResourceUtils;
 @ApiStability.Stable
 public final class HBaseKijiTableInputFormat
     extends KijiTableInputFormat {
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseKijiTableInputFormat.class);
 
   /**
    * Number of bytes from the row-key to include when reporting progress.
@@ -74,6 +83,12 @@ public final class HBaseKijiTableInputFormat
    */
   private static final int PROGRESS_PRECISION_NBYTES = 4;
 
+  /** Maximum number of input splits a single region may be divided into. */
+  private static final int MAX_SPLITS_PER_REGION = 32;
+
+  /** Number of bytes in a MB, the unit of the region sizes reported by region servers. */
+  private static final long BYTES_PER_MB = 1024L * 1024L;
+
   /** Configuration of this input format. */
   private Configuration mConf;
 
@@ -115,6 +130,40 @@ public final class HBaseKijiTableInputFormat
     }
   }
 
+  /**
+   * Reports the sizes of the regions of an HBase table, from the region loads of the cluster.
+   *
+   * <p>
+   *   Region servers report the sizes of the store files and memstores of a region in MB,
+   *   rounded down.  Each region counts for at least one MB, so that combining small regions
+   *   stays bounded.
+   * </p>
+   *
+   * @param kiji Kiji instance the table belongs to.
+   * @param htableName Name of the HBase table.
+   * @return the sizes of the regions in bytes, by region start key, or null if they are unknown.
+   */
+  private static Map<byte[], Long> getRegionSizes(Kiji kiji, byte[] htableName) {
+    try {
+      final ClusterStatus status = ((HBaseKiji) kiji).getHBaseAdmin().getClusterStatus();
+      final Map<byte[], Long> sizes = Maps.newTreeMap(Bytes.BYTES_COMPARATOR);
+      for (ServerName server : status.getServers()) {
+        for (RegionLoad load : status.getLoad(server).getRegionsLoad().values()) {
+          final byte[][] regionName = HRegionInfo.parseRegionName(load.getName());
+          if (Bytes.equals(htableName, regionName[0])) {
+            final long sizeMB = load.getStorefileSizeMB() + load.getMemStoreSizeMB();
+            sizes.put(regionName[1], Math.max(1L, sizeMB) * BYTES_PER_MB);
+          }
+        }
+      }
+      return sizes;
+    } catch (IOException ioe) {
+      LOG.warn("Unable to get the region sizes of HBase table {}, using one split per region: {}",
+          Bytes.toStringBinary(htableName), ioe.getMessage());
+      return null;
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public List<InputSplit> getSplits(JobContext context) throws IOException {
@@ -136,6 +185,11 @@ public final class HBaseKijiTableInputFormat
           scanLimitKey = Base64.decodeBase64(conf.get(KijiConfKeys.KIJI_LIMIT_ROW_KEY));
         }
 
+        final long targetSize = conf.getLong(KijiConfKeys.KIJI_INPUT_SPLIT_TARGET_SIZE, 0);
+        final Map<byte[], Long> regionSizes =
+            (targetSize > 0) ? getRegionSizes(kiji, htableName) : null;
+
+        List<KeyRange> ranges = Lists.newArrayList();
         for (KijiRegion region : table.getRegions()) {
           final byte[] regionStartKey = region.getStartKey();
           final byte[] regionEndKey = region.getEndKey();
@@ -157,11 +211,21 @@ public final class HBaseKijiTableInputFormat
             // if any.
             final String location =
               region.getLocations().isEmpty() ? null : region.getLocations().iterator().next();
-            final TableSplit tableSplit =
-              new TableSplit(htableName, splitStartKey, splitEndKey, location);
-            splits.add(new KijiTableSplit(tableSplit));
+            final Long regionSize =
+                (null == regionSizes) ? null : regionSizes.get(regionStartKey);
+            ranges.add(new KeyRange(splitStartKey, splitEndKey,
+                (null == regionSize) ? -1L : regionSize, location));
           }
         }
+
+        if (null != regionSizes) {
+          ranges = new SplitBalancer(targetSize, MAX_SPLITS_PER_REGION).balance(ranges);
+        }
+        for (KeyRange range : ranges) {
+          final TableSplit tableSplit = new TableSplit(
+              htableName, range.getStartKey(), range.getEndKey(), range.getLocation());
+          splits.add(new KijiTableSplit(tableSplit, Math.max(0, range.getSize())));
+        }
         return splits;
 
       } finally {
@@ -189,6 +253,7 @@ public final class HBaseKijiTableInputFormat
     private KijiTableSplit mSplit = null;
     private HBaseKijiRowData mCurrentRow = null;
 
+    private int mProgressOffset;
     private long mStartPos;
     private long mStopPos;
 
@@ -249,10 +314,12 @@ public final class HBaseKijiTableInputFormat
       mIterator = mScanner.iterator();
       mCurrentRow = null;
 
-      mStartPos = bytesToPosition(mSplit.getStartRow(), PROGRESS_PRECISION_NBYTES);
-      long stopPos = bytesToPosition(mSplit.getEndRow(), PROGRESS_PRECISION_NBYTES);
-      mStopPos = (stopPos > 0) ? stopPos : (1L << (PROGRESS_PRECISION_NBYTES * 8));
-      LOG.info("Progress reporting: start={} stop={}", mStartPos, mStopPos);
+      // Splits within a region usually share a row key prefix, which does not measure progress.
+      mProgressOffset = getCommonPrefixLength(mSplit.getStartRow(), mSplit.getEndRow());
+      mStartPos = getStartPos(mSplit.getStartRow(), mProgressOffset);
+      mStopPos = getStopPos(mSplit.getEndRow(), mProgressOffset);
+      LOG.info("Progress reporting: offset={} start={} stop={}",
+          mProgressOffset, mStartPos, mStopPos);
     }
 
     /** {@inheritDoc} */
@@ -275,9 +342,22 @@ public final class HBaseKijiTableInputFormat
      * @return the approximate position in the row-key space.
      */
     public static long bytesToPosition(final byte[] bytes, final int nbytes) {
+      return bytesToPosition(bytes, 0, nbytes);
+    }
+
+    /**
+     * Converts a byte array into an integer position in the row-key space, ignoring the
+     * leading bytes of the array.
+     *
+     * @param bytes Byte array to convert to an approximate position.
+     * @param offset Number of leading bytes to ignore.
+     * @param nbytes Number of bytes to use (must be in the range 1..8).
+     * @return the approximate position in the row-key space.
+     */
+    public static long bytesToPosition(final byte[] bytes, final int offset, final int nbytes) {
       long position = 0;
       if (bytes != null) {
-        for (int i = 0; i < nbytes; ++i) {
+        for (int i = offset; i < offset + nbytes; ++i) {
           final int bvalue = (i < bytes.length) ? (0xff & bytes[i]) : 0;
           position = (position << 8) + bvalue;
         }
@@ -285,6 +365,23 @@ public final class HBaseKijiTableInputFormat
       return position;
     }
 
+    /**
+     * Computes the length of the row key prefix shared by all the rows of a split.
+     *
+     * @param startRowKey Start row key of the split.
+     * @param stopRowKey Stop row key of the split, empty for the end of the table.
+     * @return the length of the row key prefix shared by all the rows of the split.
+     */
+    public static int getCommonPrefixLength(byte[] startRowKey, byte[] stopRowKey) {
+      int length = 0;
+      while ((length < startRowKey.length)
+          && (length < stopRowKey.length)
+          && (startRowKey[length] == stopRowKey[length])) {
+        length++;
+      }
+      return length;
+    }
+
     /**
      * Computes the start position from the start row key, for progress reporting.
      *
@@ -292,7 +389,18 @@ public final class HBaseKijiTableInputFormat
      * @return the start position from the start row key.
      */
     public static long getStartPos(byte[] startRowKey) {
-      return bytesToPosition(startRowKey, PROGRESS_PRECISION_NBYTES);
+      return getStartPos(startRowKey, 0);
+    }
+
+    /**
+     * Computes the start position from the start row key, ignoring a common row key prefix.
+     *
+     * @param startRowKey Start row key to compute the position of.
+     * @param offset Length of the row key prefix to ignore.
+     * @return the start position from the start row key.
+     */
+    public static long getStartPos(byte[] startRowKey, int offset) {
+      return bytesToPosition(startRowKey, offset, PROGRESS_PRECISION_NBYTES);
     }
 
     /**
@@ -302,7 +410,18 @@ public final class HBaseKijiTableInputFormat
      * @return the stop position from the start row key.
      */
     public static long getStopPos(byte[] stopRowKey) {
-      long stopPos = bytesToPosition(stopRowKey, PROGRESS_PRECISION_NBYTES);
+      return getStopPos(stopRowKey, 0);
+    }
+
+    /**
+     * Computes the stop position from the stop row key, ignoring a common row key prefix.
+     *
+     * @param stopRowKey Stop row key to compute the position of.
+     * @param offset Length of the row key prefix to ignore.
+     * @return the stop position from the stop row key.
+     */
+    public static long getStopPos(byte[] stopRowKey, int offset) {
+      long stopPos = bytesToPosition(stopRowKey, offset, PROGRESS_PRECISION_NBYTES);
       return (stopPos > 0) ? stopPos : (1L << (PROGRESS_PRECISION_NBYTES * 8));
     }
 
@@ -315,9 +434,25 @@ public final class HBaseKijiTableInputFormat
      * @return the progress indicator for the given row, start and stop positions.
      */
     public static float computeProgress(long startPos, long stopPos, byte[] currentRowKey) {
+      return computeProgress(startPos, stopPos, currentRowKey, 0);
+    }
+
+    /**
+     * Compute the progress (between 0.0f and 1.0f) for the current row key, ignoring the row
+     * key prefix common to all the rows of the split.
+     *
+     * @param startPos Computed start position (using getStartPos with the same offset).
+     * @param stopPos Computed stop position (using getStopPos with the same offset).
+     * @param currentRowKey Current row to compute a progress for.
+     * @param offset Length of the common row key prefix (using getCommonPrefixLength).
+     * @return the progress indicator for the given row, start and stop positions.
+     */
+    public static float computeProgress(
+        long startPos, long stopPos, byte[] currentRowKey, int offset) {
       Preconditions.checkArgument(startPos <= stopPos,
           "Invalid start/stop positions: start=%s stop=%s", startPos, stopPos);
-      final long currentPos = bytesToPosition(currentRowKey, PROGRESS_PRECISION_NBYTES);
+      final long currentPos =
+          bytesToPosition(currentRowKey, offset, PROGRESS_PRECISION_NBYTES);
       Preconditions.checkArgument(startPos <= currentPos,
           "Invalid start/current positions: start=%s current=%s", startPos, currentPos);
       Preconditions.checkArgument(currentPos <= stopPos,
@@ -337,7 +472,7 @@ public final class HBaseKijiTableInputFormat
         return 0.0f;
       }
       final byte[] currentRowKey = mCurrentRow.getHBaseResult().getRow();
-      return computeProgress(mStartPos, mStopPos, currentRowKey);
+      return computeProgress(mStartPos, mStopPos, currentRowKey, mProgressOffset);
     }
 
     /** {@inheritDoc} */
@@ -45,6 +45,13 @@ public final class KijiConfKeys {
   /** HBase limit row key. */
   public static final String KIJI_LIMIT_ROW_KEY = "kiji.input.limit.key";
 
+  /**
+   * Target size of input splits, in bytes.  When positive, regions larger than this size are
+   * read by several splits, and small adjacent regions by a single split.  By default, each
+   * region is read by exactly one split.
+   */
+  public static final String KIJI_INPUT_SPLIT_TARGET_SIZE = "kiji.input.split.target.size";
+
   /** Serialized KijiRowFilter. */
   public static final String KIJI_ROW_FILTER = "kiji.input.row.filter";
 
@@ -0,0 +1,239 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.mapreduce.framework;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Balances the sizes of the row key ranges read by the input splits of a job.
+ *
+ * <p>
+ *   Ranges larger than the target size are divided into ranges of even key spans, all read
+ *   from the location of the original range.  Adjacent ranges are then combined, as long as
+ *   the combined range does not exceed the target size, and read from the location of the
+ *   largest range they combine.  Ranges of unknown size are left as-is.
+ * </p>
+ */
+final class SplitBalancer {
+  /** Length of the keys used to divide a range, so that short region keys still divide evenly. */
+  private static final int SPLIT_KEY_LENGTH = 8;
+
+  /** A range of row keys, with its estimated size and preferred location. */
+  static final class KeyRange {
+    private final byte[] mStartKey;
+    private final byte[] mEndKey;
+    private final long mSize;
+    private final String mLocation;
+
+    /**
+     * Creates a new range of row keys.
+     *
+     * @param startKey First row key of the range (inclusive), empty for the start of the table.
+     * @param endKey Last row key of the range (exclusive), empty for the end of the table.
+     * @param size Estimated size of the range in bytes, negative if unknown.
+     * @param location Preferred location to read the range from, or null.
+     */
+    KeyRange(byte[] startKey, byte[] endKey, long size, String location) {
+      mStartKey = startKey;
+      mEndKey = endKey;
+      mSize = size;
+      mLocation = location;
+    }
+
+    /** @return the first row key of the range (inclusive), empty for the start of the table. */
+    byte[] getStartKey() {
+      return mStartKey;
+    }
+
+    /** @return the last row key of the range (exclusive), empty for the end of the table. */
+    byte[] getEndKey() {
+      return mEndKey;
+    }
+
+    /** @return the estimated size of the range in bytes, negative if unknown. */
+    long getSize() {
+      return mSize;
+    }
+
+    /** @return the preferred location to read the range from, or null. */
+    String getLocation() {
+      return mLocation;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return Objects.toStringHelper(KeyRange.class)
+          .add("start", Bytes.toStringBinary(mStartKey))
+          .add("end", Bytes.toStringBinary(mEndKey))
+          .add("size", mSize)
+          .add("location", mLocation)
+          .toString();
+    }
+  }
+
+  /** Target size of a range, in bytes. */
+  private final long mTargetSize;
+
+  /** Maximum number of ranges a single range may be divided into. */
+  private final int mMaxDivisions;
+
+  /**
+   * Creates a new balancer.
+   *
+   * @param targetSize Target size of a range, in bytes.
+   * @param maxDivisions Maximum number of ranges a single range may be divided into.
+   */
+  SplitBalancer(long targetSize, int maxDivisions) {
+    Preconditions.checkArgument(targetSize > 0, "Invalid target size: %s", targetSize);
+    Preconditions.checkArgument(maxDivisions > 0, "Invalid maximum divisions: %s", maxDivisions);
+    mTargetSize = targetSize;
+    mMaxDivisions = maxDivisions;
+  }
+
+  /**
+   * Balances the sizes of sorted, non-overlapping ranges of row keys.
+   *
+   * @param ranges Ranges of row keys, sorted by start key.
+   * @return the balanced ranges, covering exactly the same row keys, sorted by start key.
+   */
+  List<KeyRange> balance(List<KeyRange> ranges) {
+    final List<KeyRange> divided = Lists.newArrayList();
+    for (KeyRange range : ranges) {
+      divided.addAll(divide(range));
+    }
+
+    final List<KeyRange> balanced = Lists.newArrayList();
+    KeyRange current = null;
+    // Size of the largest range combined into the current range, which the location comes from:
+    long largestSize = 0;
+    for (KeyRange range : divided) {
+      if (null != current && canCombine(current, range)) {
+        final boolean isLargest = (range.getSize() > largestSize);
+        current = new KeyRange(
+            current.getStartKey(),
+            range.getEndKey(),
+            current.getSize() + range.getSize(),
+            isLargest ? range.getLocation() : current.getLocation());
+        largestSize = Math.max(largestSize, range.getSize());
+      } else {
+        if (null != current) {
+          balanced.add(current);
+        }
+        current = range;
+        largestSize = range.getSize();
+      }
+    }
+    if (null != current) {
+      balanced.add(current);
+    }
+    return balanced;
+  }
+
+  /**
+   * Reports whether two ranges may be combined.
+   *
+   * @param range A range of row keys.
+   * @param next The range of row keys that follows.
+   * @return whether the ranges are contiguous and fit within the target size once combined.
+   */
+  private boolean canCombine(KeyRange range, KeyRange next) {
+    return (range.getSize() >= 0)
+        && (next.getSize() >= 0)
+        && (range.getSize() + next.getSize() <= mTargetSize)
+        && (range.getEndKey().length > 0)
+        && Bytes.equals(range.getEndKey(), next.getStartKey());
+  }
+
+  /**
+   * Divides a range larger than the target size into ranges of even key spans.
+   *
+   * @param range Range of row keys to divide.
+   * @return the ranges the range is divided into, or the range itself if it is not divided.
+   */
+  private List<KeyRange> divide(KeyRange range) {
+    final long count = Math.min(
+        (range.getSize() + mTargetSize - 1) / mTargetSize, mMaxDivisions);
+    if ((range.getSize() < 0) || (count <= 1)) {
+      return Lists.newArrayList(range);
+    }
+
+    final byte[] startKey = range.getStartKey();
+    final byte[] endKey = (range.getEndKey().length > 0)
+        ? range.getEndKey()
+        : maxKey(Math.max(startKey.length, SPLIT_KEY_LENGTH));
+    final byte[] paddedStartKey = pad(startKey);
+    final byte[] paddedEndKey = pad(endKey);
+    if (Bytes.compareTo(paddedStartKey, paddedEndKey) >= 0) {
+      return Lists.newArrayList(range);
+    }
+    final byte[][] keys = Bytes.split(paddedStartKey, paddedEndKey, (int) count - 1);
+    if (null == keys) {
+      // The range spans too few keys to be divided.
+      return Lists.newArrayList(range);
+    }
+
+    // Use the original bounds, so that the divided ranges cover exactly the same row keys:
+    keys[0] = startKey;
+    keys[keys.length - 1] = range.getEndKey();
+    for (int i = 1; i < keys.length - 1; i++) {
+      if ((Bytes.compareTo(keys[i - 1], keys[i]) >= 0)
+          || ((range.getEndKey().length > 0)
+              && (Bytes.compareTo(keys[i], range.getEndKey()) >= 0))) {
+        return Lists.newArrayList(range);
+      }
+    }
+
+    final List<KeyRange> divided = Lists.newArrayList();
+    for (int i = 0; i < keys.length - 1; i++) {
+      divided.add(new KeyRange(keys[i], keys[i + 1], range.getSize() / (keys.length - 1),
+          range.getLocation()));
+    }
+    return divided;
+  }
+
+  /**
+   * Pads a row key with trailing zeros, up to the length used to divide ranges.
+   *
+   * @param key Row key to pad.
+   * @return the padded row key.
+   */
+  private static byte[] pad(byte[] key) {
+    return Arrays.copyOf(key, Math.max(key.length, SPLIT_KEY_LENGTH));
+  }
+
+  /**
+   * Builds the greatest row key of a given length.
+   *
+   * @param length Length of the row key.
+   * @return the greatest row key of the given length.
+   */
+  private static byte[] maxKey(int length) {
+    final byte[] key = new byte[length];
+    Arrays.fill(key, (byte) 0xff);
+    return key;
+  }
+}
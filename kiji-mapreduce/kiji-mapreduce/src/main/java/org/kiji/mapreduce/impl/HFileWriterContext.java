@@ -22,6 +22,7 @@ package org.kiji.mapreduce.impl;
 import java.io.IOException;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.io.NullWritable;
@@ -39,6 +40,7 @@ import org.kiji.schema.KijiColumnName;
 import org.kiji.schema.KijiDataRequest;
 import org.kiji.schema.KijiDataRequestBuilder;
 import org.kiji.schema.KijiRowData;
+import org.kiji.schema.KijiSchemaTable;
 import org.kiji.schema.KijiTable;
 import org.kiji.schema.KijiTableReader;
 import org.kiji.schema.KijiURI;
@@ -46,11 +48,14 @@ import org.kiji.schema.NoSuchColumnException;
 import org.kiji.schema.filter.StripValueColumnFilter;
 import org.kiji.schema.hbase.HBaseColumnName;
 import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
-import org.kiji.schema.layout.CellSpec;
+import org.kiji.schema.impl.LayoutConsumer;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
 import org.kiji.schema.layout.HBaseColumnNameTranslator;
+import org.kiji.schema.layout.KijiTableLayout;
 import org.kiji.schema.layout.KijiTableLayout.LocalityGroupLayout;
 import org.kiji.schema.layout.KijiTableLayout.LocalityGroupLayout.FamilyLayout;
 import org.kiji.schema.layout.KijiTableLayout.LocalityGroupLayout.FamilyLayout.ColumnLayout;
+import org.kiji.schema.layout.impl.CellEncoderProvider;
 import org.kiji.schema.util.ResourceUtils;
 
 /**
@@ -74,9 +79,94 @@ public final class HFileWriterContext
   private final Kiji mKiji;
   private final KijiTable mTable;
   private final KijiTableReader mReader;
-  private final HBaseColumnNameTranslator mColumnNameTranslator;
   private final EntityIdFactory mEntityIdFactory;
 
+  /** Registration of the layout consumer keeping mLayoutCapsule up to date. */
+  private final LayoutConsumer.Registration mLayoutConsumerRegistration;
+
+  /** Layout-dependent state, replaced as a whole when the layout of the table changes. */
+  private volatile LayoutCapsule mLayoutCapsule = null;
+
+  /**
+   * Layout of the output table along with the column name translator, the cell encoders and the
+   * translated column names derived from it.
+   */
+  private static final class LayoutCapsule {
+    private final KijiTableLayout mLayout;
+    private final HBaseColumnNameTranslator mColumnNameTranslator;
+    private final CellEncoderProvider mCellEncoderProvider;
+
+    /** HBase names of the columns of group-type families, by family and qualifier. */
+    private final ImmutableMap<String, ImmutableMap<String, HBaseColumnName>> mGroupColumns;
+
+    /**
+     * Builds the layout-dependent state of a context.
+     *
+     * @param tableURI URI of the output table.
+     * @param layout Layout of the output table.
+     * @param schemaTable Schema table of the Kiji instance of the output table.
+     * @throws IOException on I/O error.
+     */
+    private LayoutCapsule(
+        final KijiURI tableURI,
+        final KijiTableLayout layout,
+        final KijiSchemaTable schemaTable
+    ) throws IOException {
+      mLayout = layout;
+      mColumnNameTranslator = HBaseColumnNameTranslator.from(layout);
+      mCellEncoderProvider = new CellEncoderProvider(
+          tableURI, layout, schemaTable, DefaultKijiCellEncoderFactory.get());
+
+      final ImmutableMap.Builder<String, ImmutableMap<String, HBaseColumnName>> groupColumns =
+          ImmutableMap.builder();
+      for (FamilyLayout familyLayout : layout.getFamilies()) {
+        if (familyLayout.isGroupType()) {
+          final ImmutableMap.Builder<String, HBaseColumnName> columns = ImmutableMap.builder();
+          for (ColumnLayout columnLayout : familyLayout.getColumns()) {
+            columns.put(columnLayout.getName(), mColumnNameTranslator.toHBaseColumnName(
+                KijiColumnName.create(familyLayout.getName(), columnLayout.getName())));
+          }
+          groupColumns.put(familyLayout.getName(), columns.build());
+        }
+      }
+      mGroupColumns = groupColumns.build();
+    }
+
+    /**
+     * Translates a Kiji column name to an HBase column name.
+     *
+     * <p>
+     *   Columns of group-type families are translated once per layout. Columns of map-type
+     *   families, whose qualifiers are unbounded, are translated on every call.
+     * </p>
+     *
+     * @param family Family of the column.
+     * @param qualifier Qualifier of the column.
+     * @return the HBase name of the column.
+     * @throws NoSuchColumnException if the column does not exist.
+     */
+    private HBaseColumnName toHBaseColumnName(final String family, final String qualifier)
+        throws NoSuchColumnException {
+      final ImmutableMap<String, HBaseColumnName> columns = mGroupColumns.get(family);
+      if ((columns != null) && (qualifier != null)) {
+        final HBaseColumnName hbaseColumn = columns.get(qualifier);
+        if (hbaseColumn != null) {
+          return hbaseColumn;
+        }
+      }
+      return mColumnNameTranslator.toHBaseColumnName(KijiColumnName.create(family, qualifier));
+    }
+  }
+
+  /** Rebuilds the layout-dependent state of this context when the table layout changes. */
+  private final class InnerLayoutUpdater implements LayoutConsumer {
+    /** {@inheritDoc} */
+    @Override
+    public void update(final KijiTableLayout layout) throws IOException {
+      mLayoutCapsule = new LayoutCapsule(mTable.getURI(), layout, mKiji.getSchemaTable());
+    }
+  }
+
   /**
    * Constructs a new context that can write cells to an HFile that can be loaded into an HBase
    * table.
@@ -87,15 +177,52 @@ public final class HFileWriterContext
    */
   public HFileWriterContext(TaskInputOutputContext<?, ?, ?, ?> hadoopContext)
       throws IOException {
+    this(hadoopContext, openOutputKiji(hadoopContext.getConfiguration()));
+  }
+
+  /**
+   * Constructs a new context that can write cells to an HFile that can be loaded into an HBase
+   * table, through an already open Kiji instance.
+   *
+   * @param hadoopContext is the Hadoop {@link TaskInputOutputContext} that will be used to perform
+   *     the writes.
+   * @param kiji Kiji instance of the output table. Ownership is transferred to the new context,
+   *     which releases the instance when closed.
+   * @throws IOException on I/O error.
+   */
+  HFileWriterContext(TaskInputOutputContext<?, ?, ?, ?> hadoopContext, Kiji kiji)
+      throws IOException {
     super(hadoopContext);
-    final Configuration conf = new Configuration(hadoopContext.getConfiguration());
-    final KijiURI outputURI =
-        KijiURI.newBuilder(conf.get(KijiConfKeys.KIJI_OUTPUT_TABLE_URI)).build();
-    mKiji = Kiji.Factory.open(outputURI, conf);
-    mTable = mKiji.openTable(outputURI.getTable());
+    mKiji = kiji;
+    mTable = mKiji.openTable(getOutputURI(hadoopContext.getConfiguration()).getTable());
     mReader = mTable.openTableReader();
-    mColumnNameTranslator = HBaseColumnNameTranslator.from(mTable.getLayout());
     mEntityIdFactory = EntityIdFactory.getFactory(mTable.getLayout());
+    mLayoutConsumerRegistration =
+        HBaseKijiTable.downcast(mTable).registerLayoutConsumer(new InnerLayoutUpdater());
+    Preconditions.checkState(mLayoutCapsule != null,
+        "HFileWriterContext for table: %s failed to initialize.", mTable.getURI());
+  }
+
+  /**
+   * Gets the URI of the output table of a job.
+   *
+   * @param conf Configuration of the job.
+   * @return the URI of the output table of the job.
+   */
+  private static KijiURI getOutputURI(Configuration conf) {
+    return KijiURI.newBuilder(conf.get(KijiConfKeys.KIJI_OUTPUT_TABLE_URI)).build();
+  }
+
+  /**
+   * Opens the Kiji instance of the output table of a job.
+   *
+   * @param conf Configuration of the job.
+   * @return the Kiji instance of the output table of the job.
+   * @throws IOException on I/O error.
+   */
+  private static Kiji openOutputKiji(Configuration conf) throws IOException {
+    final Configuration kijiConf = new Configuration(conf);
+    return Kiji.Factory.open(getOutputURI(kijiConf), kijiConf);
   }
 
   /**
@@ -135,15 +262,15 @@ public final class HFileWriterContext
   }
 
   /** {@inheritDoc} */
-  @SuppressWarnings("unchecked")
   @Override
   public <T> void put(EntityId entityId, String family, String qualifier, long timestamp, T value)
       throws IOException {
-    final KijiColumnName kijiColumn = new KijiColumnName(family, qualifier);
-    final HBaseColumnName hbaseColumn = mColumnNameTranslator.toHBaseColumnName(kijiColumn);
-    final CellSpec cellSpec = mTable.getLayout().getCellSpec(kijiColumn)
-        .setSchemaTable(mKiji.getSchemaTable());
-    final KijiCellEncoder encoder = DefaultKijiCellEncoderFactory.get().create(cellSpec);
+    final LayoutCapsule capsule = mLayoutCapsule;
+    final KijiCellEncoder encoder = capsule.mCellEncoderProvider.getEncoder(family, qualifier);
+    if (encoder == null) {
+      throw new NoSuchColumnException(KijiColumnName.create(family, qualifier).getName());
+    }
+    final HBaseColumnName hbaseColumn = capsule.toHBaseColumnName(family, qualifier);
     final HFileKeyValue mrKey = new HFileKeyValue(
         entityId.getHBaseRowKey(),
         hbaseColumn.getFamily(),
@@ -182,7 +309,7 @@ public final class HFileWriterContext
    */
   @Override
   public void deleteRow(EntityId entityId, long upToTimestamp) throws IOException {
-    for (LocalityGroupLayout localityGroupLayout : mTable.getLayout().getLocalityGroups()) {
+    for (LocalityGroupLayout localityGroupLayout : mLayoutCapsule.mLayout.getLocalityGroups()) {
       final HFileKeyValue mrKey = new HFileKeyValue(
           entityId.getHBaseRowKey(),
           localityGroupLayout.getId().toByteArray(),
@@ -255,7 +382,8 @@ public final class HFileWriterContext
   public void deleteFamily(EntityId entityId, String family, long upToTimestamp)
       throws IOException {
 
-    final FamilyLayout familyLayout = mTable.getLayout().getFamilyMap().get(family);
+    final LayoutCapsule capsule = mLayoutCapsule;
+    final FamilyLayout familyLayout = capsule.mLayout.getFamilyMap().get(family);
     if (null == familyLayout) {
       throw new NoSuchColumnException(String.format("Family '%s' not found.", family));
     }
@@ -274,8 +402,7 @@ public final class HFileWriterContext
     }
 
     // The only data in this HBase family is the one Kiji family, so we can delete everything.
-    final KijiColumnName kijiColumn = new KijiColumnName(family, null);
-    final HBaseColumnName hbaseColumn = mColumnNameTranslator.toHBaseColumnName(kijiColumn);
+    final HBaseColumnName hbaseColumn = capsule.toHBaseColumnName(family, null);
     final HFileKeyValue mrKey = new HFileKeyValue(
         entityId.getHBaseRowKey(),
         hbaseColumn.getFamily(),
@@ -343,9 +470,9 @@ public final class HFileWriterContext
     // Step 2.
     final byte[] hbaseRow = entityId.getHBaseRowKey();
 
+    final LayoutCapsule capsule = mLayoutCapsule;
     for (String qualifier : rowData.getQualifiers(familyName)) {
-      final KijiColumnName kijiColumn = new KijiColumnName(familyName, qualifier);
-      final HBaseColumnName hbaseColumn = mColumnNameTranslator.toHBaseColumnName(kijiColumn);
+      final HBaseColumnName hbaseColumn = capsule.toHBaseColumnName(familyName, qualifier);
       final HFileKeyValue mrKey = new HFileKeyValue(
           hbaseRow,
           hbaseColumn.getFamily(),
@@ -368,8 +495,7 @@ public final class HFileWriterContext
   @Override
   public void deleteColumn(EntityId entityId, String family, String qualifier, long upToTimestamp)
       throws IOException {
-    final KijiColumnName kijiColumn = new KijiColumnName(family, qualifier);
-    final HBaseColumnName hbaseColumn = mColumnNameTranslator.toHBaseColumnName(kijiColumn);
+    final HBaseColumnName hbaseColumn = mLayoutCapsule.toHBaseColumnName(family, qualifier);
     final HFileKeyValue mrKey = new HFileKeyValue(
         entityId.getHBaseRowKey(),
         hbaseColumn.getFamily(),
@@ -391,8 +517,7 @@ public final class HFileWriterContext
   @Override
   public void deleteCell(EntityId entityId, String family, String qualifier, long timestamp)
       throws IOException {
-    final KijiColumnName kijiColumn = new KijiColumnName(family, qualifier);
-    final HBaseColumnName hbaseColumn = mColumnNameTranslator.toHBaseColumnName(kijiColumn);
+    final HBaseColumnName hbaseColumn = mLayoutCapsule.toHBaseColumnName(family, qualifier);
     final HFileKeyValue mrKey = new HFileKeyValue(
         entityId.getHBaseRowKey(),
         hbaseColumn.getFamily(),
@@ -418,6 +543,7 @@ public final class HFileWriterContext
 
   @Override
   public void close() throws IOException {
+    ResourceUtils.closeOrLog(mLayoutConsumerRegistration);
     ResourceUtils.closeOrLog(mReader);
     ResourceUtils.releaseOrLog(mTable);
     ResourceUtils.releaseOrLog(mKiji);
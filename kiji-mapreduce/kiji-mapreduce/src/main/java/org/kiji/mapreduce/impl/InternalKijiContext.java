@@ -99,7 +99,8 @@ public class InternalKijiContext implements KijiContext {
   /** {@inheritDoc} */
   @Override
   public void close() throws IOException {
-    // Close KeyValueStoreReaders we opened.
+    // Report the caches of the KeyValueStoreReaders we opened, and close them.
+    mKeyValueStoreFactory.reportCacheCounters(mHadoopContext);
     mKeyValueStoreFactory.close();
   }
 }
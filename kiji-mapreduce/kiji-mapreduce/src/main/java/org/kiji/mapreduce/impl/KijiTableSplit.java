@@ -47,11 +47,25 @@ public final class KijiTableSplit extends TableSplit {
         tableSplit.getRegionLocation());
   }
 
+  /**
+   * Create a new KijiTableSplit instance from an HBase TableSplit, with an estimated length.
+   *
+   * <p> The estimated length is only known where splits are computed, and is not serialized. </p>
+   *
+   * @param tableSplit the HBase TableSplit to clone.
+   * @param length estimated length of the split in bytes, or 0 to use the default estimate.
+   */
+  public KijiTableSplit(TableSplit tableSplit, long length) {
+    this(tableSplit);
+    mSplitSize = Math.max(0, length);
+  }
+
   /**
    * Returns the length of the split.
    *
-   * This method does not currently examine the data in the region
-   * represented by the split. We assume that each split is 3/4 full (where
+   * Unless the split was created with an estimated length, this method does not
+   * examine the data in the region represented by the split. We assume that each
+   * split is 3/4 full (where
    * "full" is defined as hbase.hregion.max.filesize). If the region had
    * that many bytes in it, it would split in two, each containing 1/2 that
    * many bytes. So we expect, on average, regions to be halfway between
@@ -0,0 +1,56 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kiji.mapreduce.kvstore;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.annotations.ApiStability;
+import org.kiji.annotations.Inheritance;
+
+/**
+ * A KeyValueStoreReader which can look up many keys at once.
+ *
+ * <p>Stores backed by remote storage can batch the lookups of {@link #getAll(Collection)}
+ * into fewer round-trips than the equivalent sequence of {@link #get(Object)} calls.
+ * Clients which look up many keys per input record, or which can buffer input records,
+ * should prefer getAll().</p>
+ *
+ * @param <K> the type associated with keys in this store.
+ * @param <V> the type associated with values in this store.
+ */
+@ApiAudience.Public
+@ApiStability.Experimental
+@Inheritance.Extensible
+public interface BulkKeyValueStoreReader<K, V> extends KeyValueStoreReader<K, V> {
+
+  /**
+   * Looks up the specified keys in the KeyValueStore and returns the associated values.
+   *
+   * @param keys the non-null keys that define the entities in the KeyValueStore to
+   *     retrieve.
+   * @return a map from each key with an associated value to that value. Keys with no
+   *     available value are absent from the map.
+   * @throws IOException if there is an IO error communicating with the underlying
+   *     storage medium for the KeyValueStore.
+   */
+  Map<K, V> getAll(Collection<K> keys) throws IOException;
+}
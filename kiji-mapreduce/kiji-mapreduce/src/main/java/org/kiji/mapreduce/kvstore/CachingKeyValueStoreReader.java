@@ -0,0 +1,45 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kiji.mapreduce.kvstore;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.annotations.ApiStability;
+import org.kiji.annotations.Inheritance;
+
+/**
+ * A KeyValueStoreReader which caches the values it looks up.
+ *
+ * <p>When the reader is opened through a {@link KeyValueStoreReaderFactory} in a Kiji
+ * MapReduce task, its cache hits and misses are reported in the task's Hadoop counters
+ * (see {@link KeyValueStoreReaderFactory#reportCacheCounters}).</p>
+ *
+ * @param <K> the type associated with keys in this store.
+ * @param <V> the type associated with values in this store.
+ */
+@ApiAudience.Public
+@ApiStability.Experimental
+@Inheritance.Extensible
+public interface CachingKeyValueStoreReader<K, V> extends KeyValueStoreReader<K, V> {
+
+  /** @return the number of lookups answered from the cache since this reader was opened. */
+  long getCacheHitCount();
+
+  /** @return the number of lookups not answered from the cache since this reader was opened. */
+  long getCacheMissCount();
+}
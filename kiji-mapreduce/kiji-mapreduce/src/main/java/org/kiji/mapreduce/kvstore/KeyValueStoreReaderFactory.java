@@ -29,6 +29,7 @@ import com.google.common.collect.Maps;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,6 +57,9 @@ public final class KeyValueStoreReaderFactory implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(
       KeyValueStoreReaderFactory.class.getName());
 
+  /** Hadoop counter group of the cache hits and misses of caching KeyValueStoreReaders. */
+  public static final String CACHE_COUNTER_GROUP = "KeyValueStore caches";
+
   /** The set of Key-value stores to provide to the KeyValueStoreClient. */
   private final Map<String, KeyValueStore<?, ?>> mKeyValueStores;
 
@@ -163,6 +167,30 @@ public final class KeyValueStoreReaderFactory implements Closeable {
     }
   }
 
+  /**
+   * Adds the cache hits and misses of the opened {@link CachingKeyValueStoreReader}s to
+   * the Hadoop counters of a task.
+   *
+   * <p>The counters are named <tt>&lt;store-name&gt;.hits</tt> and
+   * <tt>&lt;store-name&gt;.misses</tt> in the {@link #CACHE_COUNTER_GROUP} group.
+   * Counts are cumulative since each reader was opened, so this should be called once,
+   * right before closing this factory.</p>
+   *
+   * @param context the Hadoop context of the task.
+   */
+  public void reportCacheCounters(TaskAttemptContext context) {
+    for (Map.Entry<String, KeyValueStoreReader<?, ?>> entry : mKVStoreReaderCache.entrySet()) {
+      if (entry.getValue() instanceof CachingKeyValueStoreReader) {
+        final CachingKeyValueStoreReader<?, ?> reader =
+            (CachingKeyValueStoreReader<?, ?>) entry.getValue();
+        context.getCounter(CACHE_COUNTER_GROUP, entry.getKey() + ".hits")
+            .increment(reader.getCacheHitCount());
+        context.getCounter(CACHE_COUNTER_GROUP, entry.getKey() + ".misses")
+            .increment(reader.getCacheMissCount());
+      }
+    }
+  }
+
   /**
    * Opens a KeyValueStore associated with storeName for read-access.
    *
@@ -20,9 +20,19 @@
 package org.kiji.mapreduce.kvstore.lib;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.apache.avro.Schema;
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
@@ -31,10 +41,10 @@ import org.apache.hadoop.hbase.HConstants;
 
 import org.kiji.annotations.ApiAudience;
 import org.kiji.annotations.ApiStability;
+import org.kiji.mapreduce.kvstore.BulkKeyValueStoreReader;
+import org.kiji.mapreduce.kvstore.CachingKeyValueStoreReader;
 import org.kiji.mapreduce.kvstore.KeyValueStore;
-import org.kiji.mapreduce.kvstore.KeyValueStoreReader;
 import org.kiji.mapreduce.kvstore.framework.KeyValueStoreConfiguration;
-import org.kiji.mapreduce.util.LruCache;
 import org.kiji.schema.EntityId;
 import org.kiji.schema.Kiji;
 import org.kiji.schema.KijiColumnName;
@@ -44,10 +54,9 @@ import org.kiji.schema.KijiRowData;
 import org.kiji.schema.KijiRowKeyComponents;
 import org.kiji.schema.KijiTable;
 import org.kiji.schema.KijiTableReader;
-import org.kiji.schema.KijiTableReaderPool;
-import org.kiji.schema.KijiTableReaderPool.Builder.WhenExhaustedAction;
 import org.kiji.schema.KijiURI;
 import org.kiji.schema.KijiURIException;
+import org.kiji.schema.StripedKijiTableReaderPool;
 import org.kiji.schema.layout.ColumnReaderSpec;
 import org.kiji.schema.util.ResourceUtils;
 
@@ -63,7 +72,13 @@ import org.kiji.schema.util.ResourceUtils;
  *
  * <p>This implementation assumes that the column is immutable while being used in this
  * fashion. It may cache values to improve repeated read performance. You can set the
- * cache size with {@link KijiTableKeyValueStore.Builder#withCacheLimit(int)}.</p>
+ * cache size with {@link KijiTableKeyValueStore.Builder#withCacheLimit(int)}. The cache
+ * may be shared by concurrent threads, and its hits and misses are reported in the
+ * Hadoop counters of the task (see {@link CachingKeyValueStoreReader}).</p>
+ *
+ * <p>Readers opened by this store are {@link BulkKeyValueStoreReader}s: lookups of many
+ * keys through {@link BulkKeyValueStoreReader#getAll(Collection)} are coalesced into
+ * bulk gets against the table.</p>
  *
  * <h3>XML Configuration</h3>
  *
@@ -112,6 +127,9 @@ public final class KijiTableKeyValueStore<V>
   /** Cache the most recent 100 lookups in memory. */
   private static final int DEFAULT_MAX_OBJECTS_TO_CACHE = 100;
 
+  /** Maximum number of rows requested by each bulk get of a getAll() lookup. */
+  private static final int MAX_ROWS_PER_BULK_GET = 1000;
+
   // See javadoc for this class to understand the definitions of these configuration keys.
 
   private static final String CONF_TABLE_URI = "table.uri";
@@ -418,7 +436,7 @@ public final class KijiTableKeyValueStore<V>
 
   /** {@inheritDoc} */
   @Override
-  public KeyValueStoreReader<KijiRowKeyComponents, V> open() throws IOException {
+  public BulkKeyValueStoreReader<KijiRowKeyComponents, V> open() throws IOException {
     mOpened = true;
     return new TableKVReader();
   }
@@ -485,15 +503,20 @@ public final class KijiTableKeyValueStore<V>
 
   /** KeyValueStoreReader implementation that reads from a Kiji table. */
   @ApiAudience.Private
-  private final class TableKVReader implements KeyValueStoreReader<KijiRowKeyComponents, V> {
+  private final class TableKVReader
+      implements BulkKeyValueStoreReader<KijiRowKeyComponents, V>,
+          CachingKeyValueStoreReader<KijiRowKeyComponents, V> {
     /** Kiji Table instance to open. */
     private KijiTable mKijiTable;
     /** KijiTableReader to read the table. */
-    private KijiTableReaderPool mTableReaderPool;
+    private StripedKijiTableReaderPool mTableReaderPool;
     /** Data request to use for all lookups. */
     private final KijiDataRequest mDataReq;
-    /** If the user has requested result caching, do this here. */
-    private final Map<KijiRowKeyComponents, V> mResultCache;
+    /**
+     * If the user has requested result caching, do this here. Keys with no value in the
+     * table map to an absent value.
+     */
+    private final Cache<KijiRowKeyComponents, Optional<V>> mResultCache;
 
     /**
      * Creates a new TableKVReader.
@@ -509,9 +532,11 @@ public final class KijiTableKeyValueStore<V>
         kiji.release();
       }
 
-      final KijiTableReaderPool.Builder poolBuilder = KijiTableReaderPool.Builder.create()
-          .withReaderFactory(mKijiTable.getReaderFactory())
-          .withExhaustedAction(WhenExhaustedAction.GROW);
+      // Every lookup borrows a reader: the striped pool serves repeated lookups from a thread
+      // with the reader the thread used last.
+      final StripedKijiTableReaderPool.Builder poolBuilder =
+          StripedKijiTableReaderPool.Builder.create()
+              .withReaderFactory(mKijiTable.getReaderFactory());
 
       if (null != mReaderSchema) {
         poolBuilder.withColumnReaderSpecOverrides(ImmutableMap.of(
@@ -527,12 +552,24 @@ public final class KijiTableKeyValueStore<V>
       mDataReq = dataReqBuilder.build();
 
       if (mMaxObjectsToCache > 1) {
-        mResultCache = LruCache.create(mMaxObjectsToCache);
+        mResultCache = CacheBuilder.newBuilder()
+            .maximumSize(mMaxObjectsToCache)
+            .recordStats()
+            .build();
       } else {
         mResultCache = null;
       }
     }
 
+    /**
+     * Borrows a reader from the pool.
+     *
+     * @return a reader which must be closed to return it to the pool.
+     * @throws IOException in case of an error borrowing the reader.
+     */
+    private KijiTableReader borrowReader() throws IOException {
+      return mTableReaderPool.borrowReader();
+    }
 
     /**
      * Get the row for the given EntityId.
@@ -544,18 +581,54 @@ public final class KijiTableKeyValueStore<V>
     private KijiRowData getRow(
         final EntityId eid
     ) throws IOException {
+      final KijiTableReader reader = borrowReader();
       try {
-        final KijiTableReader reader = mTableReaderPool.borrowObject();
-        try {
-          return reader.get(eid, mDataReq);
-        } finally {
-          reader.close();
-        }
-      } catch (IOException ioe) {
-        throw ioe;
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+        return reader.get(eid, mDataReq);
+      } finally {
+        reader.close();
+      }
+    }
+
+    /**
+     * Get the rows for the given EntityIds with a single bulk get.
+     *
+     * @param eids Entities for which to get the rows.
+     * @return the rows for the given Entities, in the same order.
+     * @throws IOException in case of an error reading from the table.
+     */
+    private List<KijiRowData> getRows(
+        final List<EntityId> eids
+    ) throws IOException {
+      final KijiTableReader reader = borrowReader();
+      try {
+        return reader.bulkGet(eids, mDataReq);
+      } finally {
+        reader.close();
+      }
+    }
+
+    /**
+     * Extracts the value of the store's column from a row, and caches it.
+     *
+     * @param rowKey the key of the row.
+     * @param rowData the row, or null.
+     * @return the value of the column in the row, or null if there is none.
+     * @throws IOException in case of an error decoding the value.
+     */
+    private V cacheValue(
+        final KijiRowKeyComponents rowKey,
+        final KijiRowData rowData
+    ) throws IOException {
+      V val = null;
+      if (null != rowData && rowData.containsColumn(mColumn.getFamily(), mColumn.getQualifier())) {
+        // If mReaderSchema is null, that's ok; it uses the cell writer schema.
+        // TODO: But we must actually use it if it's not null!
+        val = rowData.<V>getMostRecentValue(mColumn.getFamily(), mColumn.getQualifier());
       }
+      if (null != mResultCache) {
+        mResultCache.put(rowKey, Optional.fromNullable(val));
+      }
+      return val;
     }
 
     /** {@inheritDoc} */
@@ -572,33 +645,58 @@ public final class KijiTableKeyValueStore<V>
       }
 
       // Check the cache first.
-      if (null != mResultCache && mResultCache.containsKey(rowKey)) {
-        return mResultCache.get(rowKey);
+      if (null != mResultCache) {
+        final Optional<V> cached = mResultCache.getIfPresent(rowKey);
+        if (null != cached) {
+          return cached.orNull();
+        }
       }
 
       // Now do a full lookup.
       final EntityId eid = rowKey.getEntityIdForTable(mKijiTable);
-      final KijiRowData rowData = getRow(eid);
+      return cacheValue(rowKey, getRow(eid));
+    }
 
-      if (null == rowData) {
-        return null;
+    /** {@inheritDoc} */
+    @Override
+    public Map<KijiRowKeyComponents, V> getAll(
+        Collection<KijiRowKeyComponents> rowKeys
+    ) throws IOException {
+      if (!isOpen()) {
+        throw new IOException("Closed");
       }
 
-      if (rowData.containsColumn(mColumn.getFamily(), mColumn.getQualifier())) {
-        // If mReaderSchema is null, that's ok; it uses the cell writer schema.
-        // TODO: But we must actually use it if it's not null!
-        V val = rowData.<V>getMostRecentValue(mColumn.getFamily(), mColumn.getQualifier());
-        if (null != mResultCache) {
-          mResultCache.put(rowKey, val);
+      final Map<KijiRowKeyComponents, V> values = Maps.newHashMapWithExpectedSize(rowKeys.size());
+
+      // Check the cache first, and collect the distinct keys which must be looked up.
+      final Set<KijiRowKeyComponents> missingKeys = Sets.newLinkedHashSet();
+      for (KijiRowKeyComponents rowKey : rowKeys) {
+        final Optional<V> cached =
+            (null != mResultCache) ? mResultCache.getIfPresent(rowKey) : null;
+        if (null == cached) {
+          missingKeys.add(rowKey);
+        } else if (cached.isPresent()) {
+          values.put(rowKey, cached.get());
         }
+      }
 
-        return val;
-      } else {
-        if (null != mResultCache) {
-          mResultCache.put(rowKey, null);
+      // Now look the missing keys up, with as few bulk gets as possible.
+      for (List<KijiRowKeyComponents> batch
+          : Iterables.partition(missingKeys, MAX_ROWS_PER_BULK_GET)) {
+        final List<EntityId> eids = Lists.newArrayListWithCapacity(batch.size());
+        for (KijiRowKeyComponents rowKey : batch) {
+          eids.add(rowKey.getEntityIdForTable(mKijiTable));
+        }
+        final List<KijiRowData> rows = getRows(eids);
+        for (int i = 0; i < batch.size(); i++) {
+          final V val = cacheValue(batch.get(i), rows.get(i));
+          if (null != val) {
+            values.put(batch.get(i), val);
+          }
         }
-        return null;
       }
+
+      return values;
     }
 
     /** {@inheritDoc} */
@@ -608,8 +706,11 @@ public final class KijiTableKeyValueStore<V>
         throw new IOException("Closed");
       }
 
-      if (null != mResultCache && mResultCache.containsKey(rowKey)) {
-        return true; // Cache hit.
+      if (null != mResultCache) {
+        final Optional<V> cached = mResultCache.getIfPresent(rowKey);
+        if (null != cached) {
+          return cached.isPresent(); // Cache hit.
+        }
       }
 
       final EntityId eid = rowKey.getEntityIdForTable(mKijiTable);
@@ -622,6 +723,18 @@ public final class KijiTableKeyValueStore<V>
       return rowData.containsColumn(mColumn.getFamily(), mColumn.getQualifier());
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public long getCacheHitCount() {
+      return (null != mResultCache) ? mResultCache.stats().hitCount() : 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCacheMissCount() {
+      return (null != mResultCache) ? mResultCache.stats().missCount() : 0;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void close() throws IOException {
@@ -111,4 +111,45 @@ public class TestKijiTableInputFormat extends KijiClientTest {
         1e-6);
   }
 
+  @Test
+  public final void testComputeProgressWithCommonPrefix() {
+    // A split within a region, whose row keys share their first 5 bytes:
+    final byte[] startRowKey = new byte[]{1, 2, 3, 4, 5, 10};
+    final byte[] stopRowKey = new byte[]{1, 2, 3, 4, 5, 12};
+    final int offset = KijiTableRecordReader.getCommonPrefixLength(startRowKey, stopRowKey);
+    Assert.assertEquals(5, offset);
+    final long startPos = KijiTableRecordReader.getStartPos(startRowKey, offset);
+    final long stopPos = KijiTableRecordReader.getStopPos(stopRowKey, offset);
+    Assert.assertEquals(
+        0.0f,
+        KijiTableRecordReader.computeProgress(startPos, stopPos, startRowKey, offset),
+        0.0);
+    Assert.assertEquals(
+        0.5f,
+        KijiTableRecordReader.computeProgress(
+            startPos, stopPos, new byte[]{1, 2, 3, 4, 5, 11}, offset),
+        1e-6);
+    Assert.assertEquals(
+        0.75f,
+        KijiTableRecordReader.computeProgress(
+            startPos, stopPos, new byte[]{1, 2, 3, 4, 5, 11, (byte) 0x80}, offset),
+        1e-6);
+
+    // Without the offset, progress cannot be perceived:
+    Assert.assertEquals(
+        0.5f,
+        KijiTableRecordReader.computeProgress(
+            KijiTableRecordReader.getStartPos(startRowKey),
+            KijiTableRecordReader.getStopPos(stopRowKey),
+            new byte[]{1, 2, 3, 4, 5, 11}),
+        0.0);
+  }
+
+  @Test
+  public final void testCommonPrefixOfUnboundedSplit() {
+    Assert.assertEquals(
+        0, KijiTableRecordReader.getCommonPrefixLength(new byte[]{1}, new byte[]{}));
+    Assert.assertEquals(
+        0, KijiTableRecordReader.getCommonPrefixLength(new byte[]{}, new byte[]{1}));
+  }
 }
@@ -0,0 +1,129 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.mapreduce.framework;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.kiji.mapreduce.framework.SplitBalancer.KeyRange;
+
+public class TestSplitBalancer {
+  private static final byte[] EMPTY = new byte[0];
+
+  /**
+   * Asserts that balanced ranges cover exactly the row keys between two keys, in order.
+   *
+   * @param startKey First row key covered.
+   * @param endKey Last row key covered (exclusive).
+   * @param ranges Balanced ranges.
+   */
+  private static void assertCovers(byte[] startKey, byte[] endKey, List<KeyRange> ranges) {
+    Assert.assertArrayEquals(startKey, ranges.get(0).getStartKey());
+    for (int i = 1; i < ranges.size(); i++) {
+      Assert.assertArrayEquals(ranges.get(i - 1).getEndKey(), ranges.get(i).getStartKey());
+      Assert.assertTrue(
+          Bytes.compareTo(ranges.get(i).getStartKey(), ranges.get(i - 1).getStartKey()) > 0);
+    }
+    Assert.assertArrayEquals(endKey, ranges.get(ranges.size() - 1).getEndKey());
+  }
+
+  @Test
+  public void testLargeRangesAreDivided() {
+    final List<KeyRange> ranges = Lists.newArrayList(
+        new KeyRange(EMPTY, new byte[]{0x40}, 100, "host1"),
+        new KeyRange(new byte[]{0x40}, EMPTY, 400, "host2"));
+
+    final List<KeyRange> balanced = new SplitBalancer(100, 32).balance(ranges);
+    assertCovers(EMPTY, EMPTY, balanced);
+    Assert.assertEquals(5, balanced.size());
+    Assert.assertEquals("host1", balanced.get(0).getLocation());
+    for (KeyRange range : balanced.subList(1, 5)) {
+      Assert.assertEquals(100, range.getSize());
+      Assert.assertEquals("host2", range.getLocation());
+    }
+  }
+
+  @Test
+  public void testDivisionsAreBounded() {
+    final List<KeyRange> ranges = Lists.newArrayList(new KeyRange(EMPTY, EMPTY, 1000, null));
+
+    final List<KeyRange> balanced = new SplitBalancer(10, 4).balance(ranges);
+    assertCovers(EMPTY, EMPTY, balanced);
+    Assert.assertEquals(4, balanced.size());
+  }
+
+  @Test
+  public void testSmallAdjacentRangesAreCombined() {
+    final List<KeyRange> ranges = Lists.newArrayList(
+        new KeyRange(EMPTY, new byte[]{0x10}, 10, "host1"),
+        new KeyRange(new byte[]{0x10}, new byte[]{0x20}, 30, "host2"),
+        new KeyRange(new byte[]{0x20}, new byte[]{0x30}, 70, "host3"),
+        new KeyRange(new byte[]{0x30}, EMPTY, 20, "host1"));
+
+    final List<KeyRange> balanced = new SplitBalancer(100, 32).balance(ranges);
+    assertCovers(EMPTY, EMPTY, balanced);
+    Assert.assertEquals(2, balanced.size());
+    Assert.assertEquals(40, balanced.get(0).getSize());
+    Assert.assertEquals("host2", balanced.get(0).getLocation());
+    Assert.assertEquals(90, balanced.get(1).getSize());
+    Assert.assertEquals("host3", balanced.get(1).getLocation());
+  }
+
+  @Test
+  public void testCombinedRangesAreReadFromTheLargestRange() {
+    final List<KeyRange> ranges = Lists.newArrayList(
+        new KeyRange(EMPTY, new byte[]{0x10}, 30, "host1"),
+        new KeyRange(new byte[]{0x10}, new byte[]{0x20}, 20, "host2"),
+        new KeyRange(new byte[]{0x20}, EMPTY, 40, "host3"));
+
+    final List<KeyRange> balanced = new SplitBalancer(100, 32).balance(ranges);
+    assertCovers(EMPTY, EMPTY, balanced);
+    Assert.assertEquals(1, balanced.size());
+    Assert.assertEquals(90, balanced.get(0).getSize());
+    Assert.assertEquals("host3", balanced.get(0).getLocation());
+  }
+
+  @Test
+  public void testRangesOfUnknownSizeAreKept() {
+    final List<KeyRange> ranges = Lists.newArrayList(
+        new KeyRange(EMPTY, new byte[]{0x10}, 10, "host1"),
+        new KeyRange(new byte[]{0x10}, new byte[]{0x20}, -1, "host2"),
+        new KeyRange(new byte[]{0x20}, EMPTY, 10, "host3"));
+
+    final List<KeyRange> balanced = new SplitBalancer(100, 32).balance(ranges);
+    Assert.assertEquals(3, balanced.size());
+    assertCovers(EMPTY, EMPTY, balanced);
+  }
+
+  @Test
+  public void testNarrowRangesAreDivided() {
+    final byte[] startKey = new byte[]{0x10, 0x20};
+    final byte[] endKey = new byte[]{0x10, 0x21};
+    final List<KeyRange> ranges = Lists.newArrayList(new KeyRange(startKey, endKey, 300, null));
+
+    final List<KeyRange> balanced = new SplitBalancer(100, 32).balance(ranges);
+    Assert.assertEquals(3, balanced.size());
+    assertCovers(startKey, endKey, balanced);
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.mapreduce.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.mapreduce.framework.HFileKeyValue;
+import org.kiji.mapreduce.framework.KijiConfKeys;
+import org.kiji.mapreduce.platform.KijiMRPlatformBridge;
+import org.kiji.schema.EntityId;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiColumnName;
+import org.kiji.schema.KijiTable;
+import org.kiji.schema.NoSuchColumnException;
+import org.kiji.schema.avro.TableLayoutDesc;
+import org.kiji.schema.hbase.HBaseColumnName;
+import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
+import org.kiji.schema.layout.HBaseColumnNameTranslator;
+import org.kiji.schema.layout.KijiTableLayout;
+import org.kiji.schema.layout.KijiTableLayouts;
+import org.kiji.schema.layout.impl.TableLayoutMonitor;
+
+public class TestHFileWriterContext extends KijiClientTest {
+  private static final KijiColumnName COLUMN = KijiColumnName.create("family", "column");
+  private static final KijiColumnName NEW_COLUMN = KijiColumnName.create("family", "new");
+
+  /** HFile entries written by the context under test, in order. */
+  private final List<HFileKeyValue> mWritten = Lists.newArrayList();
+
+  private KijiTable mTable;
+  private TableLayoutMonitor mLayoutMonitor;
+
+  @Before
+  public void setupTestHFileWriterContext() throws Exception {
+    getKiji().createTable(KijiTableLayouts.getLayout(KijiTableLayouts.SIMPLE));
+    mTable = getKiji().openTable("table");
+    mLayoutMonitor = HBaseKijiTable.downcast(mTable).getTableLayoutMonitor();
+  }
+
+  @After
+  public void teardownTestHFileWriterContext() throws Exception {
+    mTable.release();
+  }
+
+  /**
+   * Opens a context writing to the test table, which records the HFile entries it writes.
+   *
+   * <p>
+   *   The context shares the Kiji instance of the test, so that layout updates pushed through the
+   *   layout monitor of the test table reach the context.
+   * </p>
+   *
+   * @return a new context writing to the test table.
+   * @throws Exception on error.
+   */
+  private HFileWriterContext openContext() throws Exception {
+    final Configuration conf = new Configuration(getConf());
+    conf.set(KijiConfKeys.KIJI_OUTPUT_TABLE_URI, mTable.getURI().toString());
+    final RecordWriter<HFileKeyValue, NullWritable> writer =
+        new RecordWriter<HFileKeyValue, NullWritable>() {
+          @Override
+          public void write(HFileKeyValue key, NullWritable value) {
+            mWritten.add(key);
+          }
+
+          @Override
+          public void close(TaskAttemptContext context) {
+          }
+        };
+    final TaskInputOutputContext<?, ?, ?, ?> hadoopContext = KijiMRPlatformBridge.get()
+        .<NullWritable, NullWritable, HFileKeyValue, NullWritable>getMapperContext(
+            conf,
+            KijiMRPlatformBridge.get().newTaskAttemptID("jobTracker_jtPort", 1, TaskType.MAP, 1, 1),
+            null,
+            writer,
+            null,
+            null,
+            null);
+    return new HFileWriterContext(hadoopContext, getKiji().retain());
+  }
+
+  /**
+   * Asserts that the last HFile entry written is a put of a value, as encoded with a layout.
+   *
+   * @param layout Layout the value must be encoded with.
+   * @param column Column the value must be written to.
+   * @param timestamp Timestamp of the value.
+   * @param value Expected value.
+   * @throws IOException on I/O error.
+   */
+  private void assertLastPut(
+      final KijiTableLayout layout,
+      final KijiColumnName column,
+      final long timestamp,
+      final Object value
+  ) throws IOException {
+    final HBaseColumnName hbaseColumn =
+        HBaseColumnNameTranslator.from(layout).toHBaseColumnName(column);
+    final byte[] encoded = DefaultKijiCellEncoderFactory.get()
+        .create(layout.getCellSpec(column).setSchemaTable(getKiji().getSchemaTable()))
+        .encode(value);
+
+    final KeyValue keyValue = mWritten.get(mWritten.size() - 1).getKeyValue();
+    assertArrayEquals(hbaseColumn.getFamily(), keyValue.getFamily());
+    assertArrayEquals(hbaseColumn.getQualifier(), keyValue.getQualifier());
+    assertEquals(timestamp, keyValue.getTimestamp());
+    assertArrayEquals(encoded, keyValue.getValue());
+  }
+
+  @Test
+  public void testLayoutUpdate() throws Exception {
+    final int consumers = mLayoutMonitor.getLayoutConsumers().size();
+    final HFileWriterContext context = openContext();
+    try {
+      assertEquals(consumers + 1, mLayoutMonitor.getLayoutConsumers().size());
+      final EntityId eid = context.getEntityId("row");
+
+      // family:column holds strings, and family:new does not exist yet:
+      context.put(eid, "family", "column", 1L, "value");
+      assertLastPut(mTable.getLayout(), COLUMN, 1L, "value");
+      try {
+        context.put(eid, "family", "new", 1L, 1);
+        fail("HFileWriterContext.put() should have thrown a NoSuchColumnException.");
+      } catch (NoSuchColumnException nsce) {
+        assertEquals("family:new", nsce.getMessage());
+      }
+
+      // Update the layout: family:column now holds longs, and family:new holds ints.
+      final TableLayoutDesc desc =
+          KijiTableLayouts.getLayout(KijiTableLayouts.SIMPLE_UPDATE_NEW_COLUMN);
+      desc.getLocalityGroups().get(0).getFamilies().get(0).getColumns().get(0)
+          .getColumnSchema().setValue("\"long\"");
+      final KijiTableLayout newLayout = KijiTableLayout.newLayout(desc);
+      mLayoutMonitor.updateLayoutConsumers(newLayout);
+
+      context.put(eid, "family", "column", 2L, 42L);
+      assertLastPut(newLayout, COLUMN, 2L, 42L);
+      context.put(eid, "family", "new", 2L, 7);
+      assertLastPut(newLayout, NEW_COLUMN, 2L, 7);
+    } finally {
+      context.close();
+    }
+
+    // Closing the context unregisters its layout consumer:
+    assertEquals(consumers, mLayoutMonitor.getLayoutConsumers().size());
+  }
+}
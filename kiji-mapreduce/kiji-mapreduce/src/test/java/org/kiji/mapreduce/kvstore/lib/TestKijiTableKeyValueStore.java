@@ -28,13 +28,17 @@ import static org.kiji.schema.util.ResourceUtils.closeOrLog;
 import static org.kiji.schema.util.ResourceUtils.releaseOrLog;
 
 import java.io.IOException;
+import java.util.Map;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.avro.Schema;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.kiji.mapreduce.kvstore.BulkKeyValueStoreReader;
+import org.kiji.mapreduce.kvstore.CachingKeyValueStoreReader;
 import org.kiji.mapreduce.kvstore.KeyValueStoreReader;
 import org.kiji.mapreduce.kvstore.framework.KeyValueStoreConfiguration;
 import org.kiji.mapreduce.kvstore.impl.KeyValueStoreConfigSerializer;
@@ -206,4 +210,49 @@ public class TestKijiTableKeyValueStore extends KijiClientTest {
       releaseOrLog(table);
     }
   }
+
+  @Test
+  public void testGetAllFromKVStore() throws IOException {
+    KijiTable table = getKiji().openTable("table");
+    try {
+      KijiRowKeyComponents key1 = KijiRowKeyComponents.fromComponents("identifier1");
+      KijiRowKeyComponents key2 = KijiRowKeyComponents.fromComponents("identifier2");
+      KijiRowKeyComponents missingKey = KijiRowKeyComponents.fromComponents("missingIdentifier");
+      KijiTableWriter writer = table.openTableWriter();
+      try {
+        writer.put(key1.getEntityIdForTable(table), "family", "column", "value1");
+        writer.put(key2.getEntityIdForTable(table), "family", "column", "value2");
+      } finally {
+        closeOrLog(writer);
+      }
+
+      KijiTableKeyValueStore<CharSequence> input = KijiTableKeyValueStore.builder()
+          .withTable(KijiURI.newBuilder(getKiji().getURI().toString() + "/table").build())
+          .withColumn("family", "column")
+          .build();
+      BulkKeyValueStoreReader<KijiRowKeyComponents, CharSequence> reader = input.open();
+      try {
+        // The first lookup misses the cache for every key, the second one hits it.
+        for (int i = 0; i < 2; i++) {
+          Map<KijiRowKeyComponents, CharSequence> values =
+              reader.getAll(ImmutableList.of(key1, missingKey, key2, key1));
+          assertEquals(2, values.size());
+          assertEquals("value1", values.get(key1).toString());
+          assertEquals("value2", values.get(key2).toString());
+          assertFalse(values.containsKey(missingKey));
+        }
+        assertFalse(reader.containsKey(missingKey));
+        assertEquals("value2", reader.get(key2).toString());
+
+        CachingKeyValueStoreReader<KijiRowKeyComponents, CharSequence> cachingReader =
+            (CachingKeyValueStoreReader<KijiRowKeyComponents, CharSequence>) reader;
+        assertEquals(4, cachingReader.getCacheMissCount());
+        assertEquals(6, cachingReader.getCacheHitCount());
+      } finally {
+        reader.close();
+      }
+    } finally {
+      releaseOrLog(table);
+    }
+  }
 }
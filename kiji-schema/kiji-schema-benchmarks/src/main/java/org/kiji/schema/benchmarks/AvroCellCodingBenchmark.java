@@ -0,0 +1,125 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.kiji.schema.Kiji;
+import org.kiji.schema.KijiCellDecoder;
+import org.kiji.schema.KijiCellEncoder;
+import org.kiji.schema.SpecificCellDecoderFactory;
+import org.kiji.schema.avro.CellSchema;
+import org.kiji.schema.avro.Edge;
+import org.kiji.schema.avro.Node;
+import org.kiji.schema.avro.SchemaStorage;
+import org.kiji.schema.avro.SchemaType;
+import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
+import org.kiji.schema.layout.CellSpec;
+
+/** Benchmarks the Avro cell encoder and decoder, on a specific Avro record. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AvroCellCodingBenchmark {
+  private Kiji mKiji;
+  private Node mNode;
+  private KijiCellEncoder mEncoder;
+  private KijiCellDecoder<Node> mDecoder;
+  private byte[] mBytes;
+
+  /**
+   * Creates the encoder and decoder of a column of Node records, and encodes a record.
+   *
+   * @throws IOException on I/O error.
+   */
+  @Setup
+  public void setup() throws IOException {
+    mKiji = BenchmarkKiji.create();
+    final Map<String, String> annotations = Maps.newHashMap();
+    annotations.put("key", "value");
+    mNode = Node.newBuilder()
+        .setLabel("node")
+        .setWeight(1.0)
+        .setAnnotations(annotations)
+        .setEdges(Lists.<Edge>newArrayList())
+        .build();
+    final CellSpec cellSpec = CellSpec.create()
+        .setCellSchema(CellSchema.newBuilder()
+            .setType(SchemaType.CLASS)
+            .setValue(Node.class.getName())
+            .setStorage(SchemaStorage.UID)
+            .build())
+        .setSchemaTable(mKiji.getSchemaTable());
+    mEncoder = DefaultKijiCellEncoderFactory.get().create(cellSpec);
+    mDecoder = SpecificCellDecoderFactory.get().create(cellSpec);
+    mBytes = mEncoder.encode(mNode);
+  }
+
+  /**
+   * Releases the Kiji instance.
+   *
+   * @throws IOException on I/O error.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    mKiji.release();
+  }
+
+  /**
+   * Encodes a record.
+   *
+   * @return the encoded record.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return mEncoder.encode(mNode);
+  }
+
+  /**
+   * Decodes a record.
+   *
+   * @return the decoded record.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public Node decode() throws IOException {
+    return mDecoder.decodeValue(mBytes);
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.benchmarks;
+
+import java.io.IOException;
+
+import org.kiji.checkin.CheckinUtils;
+import org.kiji.schema.Kiji;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
+import org.kiji.schema.layout.KijiTableLayouts;
+import org.kiji.schema.util.InstanceBuilder;
+
+/**
+ * Kiji instance on a fake in-process HBase cluster, populated for the benchmarks.
+ *
+ * <p>
+ *   The instance holds the table {@link #TABLE_NAME}, with the layout
+ *   {@link KijiTableLayouts#ROW_DATA_TEST}. Its row {@link #ROW} holds {@link #NUM_VERSIONS}
+ *   versions of {@link #NUM_QUALIFIERS} qualifiers of the map-type family "map".
+ * </p>
+ */
+final class BenchmarkKiji {
+  /** Name of the benchmark table. */
+  static final String TABLE_NAME = "row_data_test_table";
+
+  /** Row key of the populated row. */
+  static final String ROW = "foo";
+
+  /** Number of qualifiers of the map-type family of the populated row. */
+  static final int NUM_QUALIFIERS = 10;
+
+  /** Number of versions of each qualifier of the populated row. */
+  static final int NUM_VERSIONS = 10;
+
+  /** Data request for all the versions of the map-type family. */
+  static final KijiDataRequest MAP_REQUEST = KijiDataRequest.builder()
+      .addColumns(ColumnsDef.create().withMaxVersions(NUM_VERSIONS).addFamily("map"))
+      .build();
+
+  /** Utility class cannot be instantiated. */
+  private BenchmarkKiji() {
+  }
+
+  /**
+   * Installs and populates a new Kiji instance on a new fake HBase cluster.
+   *
+   * @return the new Kiji instance. The caller must release it.
+   * @throws IOException on I/O error.
+   */
+  static Kiji create() throws IOException {
+    // Benchmarks must not report to the upgrade server:
+    System.setProperty(CheckinUtils.DISABLE_CHECKIN_PROP, "true");
+
+    final InstanceBuilder.FamilyBuilder familyBuilder = new InstanceBuilder("benchmarks")
+        .withTable(KijiTableLayouts.getLayout(KijiTableLayouts.ROW_DATA_TEST))
+            .withRow(ROW)
+                .withFamily("map");
+    for (int qualifier = 0; qualifier < NUM_QUALIFIERS; ++qualifier) {
+      final InstanceBuilder.QualifierBuilder qualifierBuilder =
+          familyBuilder.withQualifier(String.valueOf(qualifier));
+      for (int version = 1; version <= NUM_VERSIONS; ++version) {
+        qualifierBuilder.withValue(version, version);
+      }
+    }
+    return familyBuilder.build();
+  }
+
+  /**
+   * Opens the benchmark table of a Kiji instance.
+   *
+   * @param kiji Kiji instance created by {@link #create()}.
+   * @return the benchmark table. The caller must release it.
+   * @throws IOException on I/O error.
+   */
+  static HBaseKijiTable openTable(final Kiji kiji) throws IOException {
+    return HBaseKijiTable.downcast(kiji.openTable(TABLE_NAME));
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Scan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.kiji.schema.EntityId;
+import org.kiji.schema.Kiji;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
+import org.kiji.schema.impl.hbase.HBaseDataRequestAdapter;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
+import org.kiji.schema.layout.HBaseColumnNameTranslator;
+import org.kiji.schema.layout.KijiTableLayout;
+
+/** Benchmarks the translation of Kiji data requests into HBase gets and scans. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DataRequestAdapterBenchmark {
+  /** Data request on qualified columns of a group-type family and a paged map-type family. */
+  private static final KijiDataRequest REQUEST = KijiDataRequest.builder()
+      .addColumns(ColumnsDef.create().withMaxVersions(3)
+          .add("family", "qual0")
+          .add("family", "qual3")
+          .add("family", "nodequal0"))
+      .addColumns(ColumnsDef.create().withPageSize(10).addFamily("map"))
+      .build();
+
+  private Kiji mKiji;
+  private HBaseKijiTable mTable;
+  private EntityId mEntityId;
+  private KijiTableLayout mLayout;
+  private HBaseColumnNameTranslator mTranslator;
+
+  /**
+   * Opens the benchmark table.
+   *
+   * @throws IOException on I/O error.
+   */
+  @Setup
+  public void setup() throws IOException {
+    mKiji = BenchmarkKiji.create();
+    mTable = BenchmarkKiji.openTable(mKiji);
+    mEntityId = mTable.getEntityId(BenchmarkKiji.ROW);
+    mLayout = mTable.getLayout();
+    mTranslator = mTable.getColumnNameTranslator();
+  }
+
+  /**
+   * Releases the table and the Kiji instance.
+   *
+   * @throws IOException on I/O error.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    mTable.release();
+    mKiji.release();
+  }
+
+  /**
+   * Translates the data request into an HBase get.
+   *
+   * @return the HBase get.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public Get toGet() throws IOException {
+    return new HBaseDataRequestAdapter(REQUEST, mTranslator).toGet(mEntityId, mLayout);
+  }
+
+  /**
+   * Translates the data request into an HBase scan.
+   *
+   * @return the HBase scan.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public Scan toScan() throws IOException {
+    return new HBaseDataRequestAdapter(REQUEST, mTranslator).toScan(mLayout);
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.kiji.schema.EntityId;
+import org.kiji.schema.EntityIdFactory;
+import org.kiji.schema.layout.KijiTableLayout;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+/** Benchmarks the encoding and decoding of entity IDs, for each row key format. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityIdCodingBenchmark {
+  /** Row key formats. */
+  public static enum Format {
+    /** Raw row keys. */
+    RAW(KijiTableLayouts.SIMPLE_UNHASHED, true, "row-key"),
+
+    /** Hashed row keys, whose components cannot be decoded. */
+    HASH(KijiTableLayouts.SIMPLE, false, "row-key"),
+
+    /** Row keys prefixed by their hash. */
+    HASH_PREFIX(KijiTableLayouts.HASH_PREFIXED_RKF, true, "row-key"),
+
+    /** Formatted row keys with several components. */
+    FORMATTED(KijiTableLayouts.FORMATTED_RKF, true, "dummy", "str1", "str2", 1, 2L);
+
+    private final String mLayoutPath;
+    private final boolean mHasComponents;
+    private final Object[] mComponents;
+
+    /**
+     * Initializes a row key format.
+     *
+     * @param layoutPath Path of the resource of a table layout with this row key format.
+     * @param hasComponents Whether the components can be decoded from the HBase row key.
+     * @param components Components of the entity ID to encode.
+     */
+    private Format(
+        final String layoutPath,
+        final boolean hasComponents,
+        final Object... components
+    ) {
+      mLayoutPath = layoutPath;
+      mHasComponents = hasComponents;
+      mComponents = components;
+    }
+  }
+
+  /** Row key format to benchmark. */
+  @Param
+  private Format mFormat;
+
+  private EntityIdFactory mFactory;
+  private byte[] mRowKey;
+
+  /**
+   * Creates the entity ID factory of the row key format, and encodes an entity ID.
+   *
+   * @throws IOException on I/O error.
+   */
+  @Setup
+  public void setup() throws IOException {
+    mFactory = EntityIdFactory.getFactory(
+        KijiTableLayout.newLayout(KijiTableLayouts.getLayout(mFormat.mLayoutPath)));
+    mRowKey = mFactory.getEntityId(mFormat.mComponents).getHBaseRowKey();
+  }
+
+  /**
+   * Encodes an entity ID into an HBase row key.
+   *
+   * @return the HBase row key.
+   */
+  @Benchmark
+  public byte[] encode() {
+    return mFactory.getEntityId(mFormat.mComponents).getHBaseRowKey();
+  }
+
+  /**
+   * Decodes an entity ID from an HBase row key, including its components if the format allows.
+   *
+   * @return the decoded entity ID, or its components.
+   */
+  @Benchmark
+  public Object decode() {
+    final EntityId entityId = mFactory.getEntityIdFromHBaseRowKey(mRowKey);
+    return mFormat.mHasComponents ? entityId.getComponents() : entityId;
+  }
+}
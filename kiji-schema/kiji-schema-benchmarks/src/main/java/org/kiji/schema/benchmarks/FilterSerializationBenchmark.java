@@ -0,0 +1,141 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.kiji.schema.Kiji;
+import org.kiji.schema.KijiColumnName;
+import org.kiji.schema.KijiSchemaTable;
+import org.kiji.schema.filter.HasColumnDataRowFilter;
+import org.kiji.schema.filter.KijiColumnFilter;
+import org.kiji.schema.filter.KijiColumnRangeFilter;
+import org.kiji.schema.filter.KijiRowFilter;
+import org.kiji.schema.filter.KijiRowFilterApplicator;
+import org.kiji.schema.impl.hbase.HBaseDataRequestAdapter;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
+import org.kiji.schema.layout.KijiTableLayout;
+
+/** Benchmarks the serialization of row filters to JSON, and of Kiji filters to HBase filters. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FilterSerializationBenchmark {
+  private static final KijiRowFilter ROW_FILTER = new HasColumnDataRowFilter("family", "qual0");
+  private static final KijiColumnFilter COLUMN_FILTER =
+      new KijiColumnRangeFilter("1", true, "5", false);
+  private static final KijiColumnName COLUMN = KijiColumnName.create("map");
+
+  private Kiji mKiji;
+  private HBaseKijiTable mTable;
+  private KijiTableLayout mLayout;
+  private KijiSchemaTable mSchemaTable;
+  private KijiColumnFilter.Context mContext;
+  private String mJson;
+
+  /**
+   * Opens the benchmark table, and serializes the row filter to JSON.
+   *
+   * @throws IOException on I/O error.
+   */
+  @Setup
+  public void setup() throws IOException {
+    mKiji = BenchmarkKiji.create();
+    mTable = BenchmarkKiji.openTable(mKiji);
+    mLayout = mTable.getLayout();
+    mSchemaTable = mKiji.getSchemaTable();
+    mContext =
+        new HBaseDataRequestAdapter.NameTranslatingFilterContext(mTable.getColumnNameTranslator());
+    mJson = ROW_FILTER.toJson().toString();
+  }
+
+  /**
+   * Releases the table and the Kiji instance.
+   *
+   * @throws IOException on I/O error.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    mTable.release();
+    mKiji.release();
+  }
+
+  /**
+   * Serializes a row filter to JSON.
+   *
+   * @return the JSON serialized row filter.
+   */
+  @Benchmark
+  public String rowFilterToJson() {
+    return ROW_FILTER.toJson().toString();
+  }
+
+  /**
+   * Deserializes a row filter from JSON.
+   *
+   * @return the row filter.
+   */
+  @Benchmark
+  public KijiRowFilter rowFilterFromJson() {
+    return KijiRowFilter.toFilter(mJson);
+  }
+
+  /**
+   * Applies a row filter to an HBase scan, and serializes the resulting HBase filter.
+   *
+   * @return the serialized HBase filter.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public byte[] rowFilterToHBase() throws IOException {
+    final Scan scan = new Scan();
+    KijiRowFilterApplicator.create(ROW_FILTER, mLayout, mSchemaTable).applyTo(scan);
+    return ProtobufUtil.toFilter(scan.getFilter()).toByteArray();
+  }
+
+  /**
+   * Translates a column filter into an HBase filter, and serializes it.
+   *
+   * @return the serialized HBase filter.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public byte[] columnFilterToHBase() throws IOException {
+    return ProtobufUtil.toFilter(COLUMN_FILTER.toHBaseFilter(COLUMN, mContext)).toByteArray();
+  }
+}
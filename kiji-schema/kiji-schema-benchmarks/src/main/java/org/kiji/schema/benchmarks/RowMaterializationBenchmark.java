@@ -0,0 +1,153 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.kiji.schema.EntityId;
+import org.kiji.schema.Kiji;
+import org.kiji.schema.KijiCell;
+import org.kiji.schema.KijiColumnName;
+import org.kiji.schema.KijiResult;
+import org.kiji.schema.SpecificCellDecoderFactory;
+import org.kiji.schema.impl.hbase.HBaseDataRequestAdapter;
+import org.kiji.schema.impl.hbase.HBaseKijiResult;
+import org.kiji.schema.impl.hbase.HBaseKijiRowData;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
+import org.kiji.schema.layout.CellSpec;
+import org.kiji.schema.layout.impl.CellDecoderProvider;
+
+/**
+ * Benchmarks the materialization of the cells of a row from an HBase result.
+ *
+ * <p>
+ *   The HBase result is fetched once, before the benchmarks run: they measure the construction of
+ *   the row data or Kiji result and the decoding of all its cells, not the HBase get.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RowMaterializationBenchmark {
+  private Kiji mKiji;
+  private HBaseKijiTable mTable;
+  private EntityId mEntityId;
+  private CellDecoderProvider mDecoderProvider;
+  private Result mResult;
+
+  /**
+   * Fetches the HBase result of the populated row of the benchmark table.
+   *
+   * @throws IOException on I/O error.
+   */
+  @Setup
+  public void setup() throws IOException {
+    mKiji = BenchmarkKiji.create();
+    mTable = BenchmarkKiji.openTable(mKiji);
+    mEntityId = mTable.getEntityId(BenchmarkKiji.ROW);
+    mDecoderProvider = CellDecoderProvider.create(
+        mTable.getLayout(),
+        mKiji.getSchemaTable(),
+        SpecificCellDecoderFactory.get(),
+        ImmutableMap.<KijiColumnName, CellSpec>of());
+    final HTableInterface htable = mTable.openHTableConnection();
+    try {
+      mResult = htable.get(
+          new HBaseDataRequestAdapter(BenchmarkKiji.MAP_REQUEST, mTable.getColumnNameTranslator())
+              .toGet(mEntityId, mTable.getLayout()));
+    } finally {
+      htable.close();
+    }
+  }
+
+  /**
+   * Releases the table and the Kiji instance.
+   *
+   * @throws IOException on I/O error.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    mTable.release();
+    mKiji.release();
+  }
+
+  /**
+   * Materializes the row as a {@code KijiRowData}, and decodes all its cells.
+   *
+   * @return the sum of the values of the cells.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public int rowData() throws IOException {
+    final HBaseKijiRowData row = new HBaseKijiRowData(
+        mTable, BenchmarkKiji.MAP_REQUEST, mEntityId, mResult, mDecoderProvider);
+    int sum = 0;
+    for (KijiCell<Integer> cell : row.<Integer>asIterable("map")) {
+      sum += cell.getData();
+    }
+    return sum;
+  }
+
+  /**
+   * Materializes the row as a {@code KijiResult}, and decodes all its cells.
+   *
+   * @return the sum of the values of the cells.
+   * @throws IOException on I/O error.
+   */
+  @Benchmark
+  public int result() throws IOException {
+    final KijiResult<Integer> result = HBaseKijiResult.create(
+        mEntityId,
+        BenchmarkKiji.MAP_REQUEST,
+        mResult,
+        mTable,
+        mTable.getLayout(),
+        mTable.getColumnNameTranslator(),
+        mDecoderProvider);
+    try {
+      int sum = 0;
+      for (KijiCell<Integer> cell : result) {
+        sum += cell.getData();
+      }
+      return sum;
+    } finally {
+      result.close();
+    }
+  }
+}
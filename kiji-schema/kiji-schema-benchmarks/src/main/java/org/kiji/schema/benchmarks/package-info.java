@@ -0,0 +1,36 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JMH micro-benchmarks of the hot paths of KijiSchema.
+ *
+ * <p>
+ * The benchmarks run against an in-process fake HBase cluster, and need no external service.
+ * Each benchmark samples the latency of single operations. Run them with the JMH launcher, and
+ * write the results as JSON so that successive runs can be compared:
+ * </p>
+ * <pre><code>
+ *   java -cp &lt;classpath&gt; org.openjdk.jmh.Main -rf json -rff kiji-schema-benchmarks.json
+ * </code></pre>
+ * <p>
+ * Pass a regular expression as the last argument to run a subset of the benchmarks, eg.
+ * {@code EntityIdCodingBenchmark}.
+ * </p>
+ */
+package org.kiji.schema.benchmarks;
@@ -403,34 +403,16 @@ public class CQLStatementCache {
     // partition key. CQL does not allow DISTINCT over non partition-key columns.
     final boolean useDistinct = mEntityIDClusteringColumns.isEmpty();
 
-    final Optional<BoundType> lowerBound =
-        tokenRange.hasLowerBound()
-            ? Optional.of(tokenRange.lowerBoundType())
-            : Optional.<BoundType>absent();
-
-    final Optional<BoundType> upperBound =
-        tokenRange.hasUpperBound()
-            ? Optional.of(tokenRange.upperBoundType())
-            : Optional.<BoundType>absent();
-
     final EntityIDScanStatementKey key =
-        new EntityIDScanStatementKey(table, lowerBound, upperBound, useDistinct);
+        new EntityIDScanStatementKey(
+            table,
+            getLowerBoundType(tokenRange),
+            getUpperBoundType(tokenRange),
+            useDistinct);
     final PreparedStatement statement = mCache.getUnchecked(key);
 
     // Bind the parameters to the prepared statement
-
-    // slots are for the min/max token
-    final List<Object> values = Lists.newArrayListWithCapacity(2);
-
-    if (tokenRange.hasLowerBound()) {
-      values.add(tokenRange.lowerEndpoint());
-    }
-
-    if (tokenRange.hasUpperBound()) {
-      values.add(tokenRange.upperEndpoint());
-    }
-
-    return statement.bind(values.toArray()).setFetchSize(ENTITY_ID_BATCH_SIZE);
+    return statement.bind(getTokenRangeValues(tokenRange)).setFetchSize(ENTITY_ID_BATCH_SIZE);
   }
 
   /**
@@ -481,37 +463,130 @@ public class CQLStatementCache {
       }
 
       final Select select = selection.from(mTable.getKeyspace(), mTable.getTable());
+      restrictTokenRange(select, tokenColumn, mLowerBound, mUpperBound);
+      return select;
+    }
 
-      if (mLowerBound.isPresent()) {
-        switch (mLowerBound.get()) {
-          case OPEN: {
-            select.where(gt(tokenColumn, bindMarker()));
-            break;
-          }
-          case CLOSED: {
-            select.where(gte(tokenColumn, bindMarker()));
-            break;
-          }
-          default:
-            throw new EnumConstantNotPresentException(BoundType.class, mLowerBound.get().name());
-        }
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return Objects.toStringHelper(this)
+          .add("table", mTable)
+          .add("lowerBound", mLowerBound)
+          .add("upperBound", mUpperBound)
+          .toString();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(this.getClass(), mTable, mLowerBound, mUpperBound, mUseDistinct);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
       }
+      final EntityIDScanStatementKey other = (EntityIDScanStatementKey) obj;
+      return Objects.equal(this.mTable, other.mTable)
+          && Objects.equal(this.mLowerBound, other.mLowerBound)
+          && Objects.equal(this.mUpperBound, other.mUpperBound)
+          && Objects.equal(this.mUseDistinct, other.mUseDistinct);
+    }
+  }
 
-      if (mUpperBound.isPresent()) {
-        switch (mUpperBound.get()) {
-          case OPEN: {
-            select.where(lt(tokenColumn, bindMarker()));
-            break;
-          }
-          case CLOSED: {
-            select.where(lte(tokenColumn, bindMarker()));
-            break;
-          }
-          default:
-            throw new EnumConstantNotPresentException(BoundType.class, mUpperBound.get().name());
-        }
+  /*************************************************************************************************
+   * Locality Group Scan Statement
+   ************************************************************************************************/
+
+  /**
+   * Create a CQL statement for selecting all cells in a token range of a Cassandra locality group
+   * table.
+   *
+   * <p>
+   *   The cells are returned in token order, and grouped by row. Within a row, the cells are
+   *   ordered by family, qualifier and descending version. Cassandra can not restrict the families
+   *   of a token range scan, so the caller is responsible for filtering out unrequested columns.
+   * </p>
+   *
+   * @param table The translated Cassandra locality group table name.
+   * @param tokenRange A range of tokens to scan.
+   * @param pageSize The number of cells to fetch in each page of the scan.
+   * @return a statement that will scan the cells of the token range.
+   */
+  public Statement createLocalityGroupScanStatement(
+      final CassandraTableName table,
+      final Range<Long> tokenRange,
+      final int pageSize
+  ) {
+    Preconditions.checkArgument(table.isLocalityGroup(),
+        "Table name '%s' is not for a locality group table.", table);
+    Preconditions.checkArgument(pageSize > 0, "Page size must be positive: %s.", pageSize);
+
+    // Retrieve the prepared statement from the cache
+    final LocalityGroupScanStatementKey key =
+        new LocalityGroupScanStatementKey(
+            table,
+            getLowerBoundType(tokenRange),
+            getUpperBoundType(tokenRange));
+    final PreparedStatement statement = mCache.getUnchecked(key);
+
+    // Bind the parameters to the prepared statement
+    return statement.bind(getTokenRangeValues(tokenRange)).setFetchSize(pageSize);
+  }
+
+  /**
+   * A statement cache key containing all of the information necessary to create a locality group
+   * scan statement.
+   */
+  private final class LocalityGroupScanStatementKey implements StatementKey {
+    private final CassandraTableName mTable;
+    private final Optional<BoundType> mLowerBound;
+    private final Optional<BoundType> mUpperBound;
+
+    /**
+     * Create a new locality group scan statement key.
+     *
+     * @param table The Cassandra locality group table name.
+     * @param lowerBound The lower token bound type (open or closed), if present.
+     * @param upperBound The upper token bound type (open or closed), if present.
+     */
+    private LocalityGroupScanStatementKey(
+        final CassandraTableName table,
+        final Optional<BoundType> lowerBound,
+        final Optional<BoundType> upperBound
+    ) {
+      mTable = table;
+      mLowerBound = lowerBound;
+      mUpperBound = upperBound;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RegularStatement createUnpreparedStatement() {
+      final String tokenColumn =
+          String.format("token(%s)", CQLUtils.COMMA_JOINER.join(mPartitionKeyColumns));
+
+      final Select.Selection selection = select();
+      selection.column(tokenColumn);
+
+      for (final String column : mEntityIDColumns) {
+        selection.column(column);
       }
 
+      selection
+          .column(CQLUtils.FAMILY_COL)
+          .column(CQLUtils.QUALIFIER_COL)
+          .column(CQLUtils.VERSION_COL)
+          .column(CQLUtils.VALUE_COL);
+
+      final Select select = selection.from(mTable.getKeyspace(), mTable.getTable());
+      restrictTokenRange(select, tokenColumn, mLowerBound, mUpperBound);
       return select;
     }
 
@@ -528,7 +603,7 @@ public class CQLStatementCache {
     /** {@inheritDoc} */
     @Override
     public int hashCode() {
-      return Objects.hashCode(this.getClass(), mTable, mLowerBound, mUpperBound, mUseDistinct);
+      return Objects.hashCode(this.getClass(), mTable, mLowerBound, mUpperBound);
     }
 
     /** {@inheritDoc} */
@@ -540,11 +615,105 @@ public class CQLStatementCache {
       if (obj == null || getClass() != obj.getClass()) {
         return false;
       }
-      final EntityIDScanStatementKey other = (EntityIDScanStatementKey) obj;
+      final LocalityGroupScanStatementKey other = (LocalityGroupScanStatementKey) obj;
       return Objects.equal(this.mTable, other.mTable)
           && Objects.equal(this.mLowerBound, other.mLowerBound)
-          && Objects.equal(this.mUpperBound, other.mUpperBound)
-          && Objects.equal(this.mUseDistinct, other.mUseDistinct);
+          && Objects.equal(this.mUpperBound, other.mUpperBound);
+    }
+  }
+
+  /*************************************************************************************************
+   * Token Range Helpers
+   ************************************************************************************************/
+
+  /**
+   * Get the type of the lower bound of a token range, if it has one.
+   *
+   * @param tokenRange The token range.
+   * @return The lower token bound type (open or closed), if present.
+   */
+  private static Optional<BoundType> getLowerBoundType(final Range<Long> tokenRange) {
+    return tokenRange.hasLowerBound()
+        ? Optional.of(tokenRange.lowerBoundType())
+        : Optional.<BoundType>absent();
+  }
+
+  /**
+   * Get the type of the upper bound of a token range, if it has one.
+   *
+   * @param tokenRange The token range.
+   * @return The upper token bound type (open or closed), if present.
+   */
+  private static Optional<BoundType> getUpperBoundType(final Range<Long> tokenRange) {
+    return tokenRange.hasUpperBound()
+        ? Optional.of(tokenRange.upperBoundType())
+        : Optional.<BoundType>absent();
+  }
+
+  /**
+   * Get the values to bind to a statement restricted with
+   * {@link #restrictTokenRange(Select, String, Optional, Optional)}.
+   *
+   * @param tokenRange The token range.
+   * @return The min/max tokens of the range, if present.
+   */
+  private static Object[] getTokenRangeValues(final Range<Long> tokenRange) {
+    // slots are for the min/max token
+    final List<Object> values = Lists.newArrayListWithCapacity(2);
+
+    if (tokenRange.hasLowerBound()) {
+      values.add(tokenRange.lowerEndpoint());
+    }
+
+    if (tokenRange.hasUpperBound()) {
+      values.add(tokenRange.upperEndpoint());
+    }
+
+    return values.toArray();
+  }
+
+  /**
+   * Restrict a select statement to a token range with bind markers for the range endpoints.
+   *
+   * @param select The select statement to restrict.
+   * @param tokenColumn The token column of the table.
+   * @param lowerBound The lower token bound type (open or closed), if present.
+   * @param upperBound The upper token bound type (open or closed), if present.
+   */
+  private static void restrictTokenRange(
+      final Select select,
+      final String tokenColumn,
+      final Optional<BoundType> lowerBound,
+      final Optional<BoundType> upperBound
+  ) {
+    if (lowerBound.isPresent()) {
+      switch (lowerBound.get()) {
+        case OPEN: {
+          select.where(gt(tokenColumn, bindMarker()));
+          break;
+        }
+        case CLOSED: {
+          select.where(gte(tokenColumn, bindMarker()));
+          break;
+        }
+        default:
+          throw new EnumConstantNotPresentException(BoundType.class, lowerBound.get().name());
+      }
+    }
+
+    if (upperBound.isPresent()) {
+      switch (upperBound.get()) {
+        case OPEN: {
+          select.where(lt(tokenColumn, bindMarker()));
+          break;
+        }
+        case CLOSED: {
+          select.where(lte(tokenColumn, bindMarker()));
+          break;
+        }
+        default:
+          throw new EnumConstantNotPresentException(BoundType.class, upperBound.get().name());
+      }
     }
   }
 
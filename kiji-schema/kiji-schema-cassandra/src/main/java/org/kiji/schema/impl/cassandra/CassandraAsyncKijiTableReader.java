@@ -0,0 +1,466 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.cassandra;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.commons.ResourceTracker;
+import org.kiji.schema.AsyncKijiTableReader;
+import org.kiji.schema.EntityId;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiResult;
+import org.kiji.schema.KijiRowData;
+import org.kiji.schema.RuntimeInterruptedException;
+import org.kiji.schema.impl.KijiResultRowData;
+import org.kiji.schema.util.ResourceUtils;
+
+/**
+ * AsyncKijiTableReader for Cassandra Kiji tables.
+ *
+ * <p>
+ *   The queries of a read are issued with the asynchronous API of the Cassandra driver, so no
+ *   thread waits for them. Once the queries of a read complete, its {@code KijiResult} is built on
+ *   a thread owned by this reader rather than on a driver I/O thread, as building a result may
+ *   fetch additional pages synchronously.
+ * </p>
+ *
+ * <p>
+ *   A read is in flight from the time its queries are issued until its result is built. Reads
+ *   issued beyond the maximum number of reads in flight are queued, and issued by whichever thread
+ *   completes or issues a read while there is room.
+ * </p>
+ */
+@ApiAudience.Private
+public final class CassandraAsyncKijiTableReader implements AsyncKijiTableReader {
+  private static final Logger LOG = LoggerFactory.getLogger(CassandraAsyncKijiTableReader.class);
+
+  /** Creates the threads building the results of reads. */
+  private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+      .setDaemon(true)
+      .setNameFormat(CassandraAsyncKijiTableReader.class.getCanonicalName() + "-%d")
+      .build();
+
+  /** Possible states of the reader. */
+  private static enum State {
+    OPEN, CLOSED
+  }
+
+  private final AtomicReference<State> mState = new AtomicReference<State>(State.OPEN);
+
+  /** Reader issuing the queries. Not thread-safe: queries are issued while holding its lock. */
+  private final CassandraKijiTableReader mReader;
+
+  /** Maximum number of reads in flight. */
+  private final int mMaxConcurrentReads;
+
+  /** Number of reads in flight. */
+  private final AtomicInteger mInFlight = new AtomicInteger(0);
+
+  /** Reads waiting for room to be issued. */
+  private final Queue<PendingRead<?>> mQueued = new ConcurrentLinkedQueue<PendingRead<?>>();
+
+  /** Threads building the results of reads. At most one thread per read in flight. */
+  private final ExecutorService mExecutor;
+
+  /**
+   * A read of a single row, completing a future.
+   *
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}.
+   */
+  private static final class PendingRead<T> {
+    private final EntityId mEntityId;
+    private final KijiDataRequest mDataRequest;
+
+    /** Future of the result of the read. */
+    private final SettableFuture<KijiResult<T>> mFuture = SettableFuture.create();
+
+    /** Result whose queries have been issued for this read. Null until the read is issued. */
+    private volatile CassandraKijiResult.PendingKijiResult<T> mPending = null;
+
+    /**
+     * Initializes a new read.
+     *
+     * @param entityId EntityId of the row from which to get data.
+     * @param dataRequest Specification of the data to get from the given row.
+     */
+    private PendingRead(final EntityId entityId, final KijiDataRequest dataRequest) {
+      mEntityId = entityId;
+      mDataRequest = dataRequest;
+      // Cancelling the future of a read in flight cancels its queries:
+      mFuture.addListener(new Runnable() {
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+          cancelQueriesIfCancelled();
+        }
+      }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /** Cancels the queries of this read if its future was cancelled. */
+    private void cancelQueriesIfCancelled() {
+      final CassandraKijiResult.PendingKijiResult<T> pending = mPending;
+      if ((pending != null) && mFuture.isCancelled()) {
+        pending.cancel();
+      }
+    }
+  }
+
+  /**
+   * Initializes a new asynchronous reader.
+   *
+   * @param table Table to read from.
+   * @param maxConcurrentReads Maximum number of reads in flight.
+   * @throws IOException on I/O error.
+   */
+  private CassandraAsyncKijiTableReader(
+      final CassandraKijiTable table,
+      final int maxConcurrentReads
+  ) throws IOException {
+    Preconditions.checkArgument(maxConcurrentReads > 0,
+        "Maximum number of concurrent reads must be >= 1, got %s.", maxConcurrentReads);
+    mMaxConcurrentReads = maxConcurrentReads;
+    mReader = CassandraKijiTableReader.create(table);
+    mExecutor = Executors.newCachedThreadPool(THREAD_FACTORY);
+    ResourceTracker.get().registerResource(this);
+  }
+
+  /**
+   * Creates a new asynchronous reader for a Cassandra Kiji table.
+   *
+   * @param table Table to read from.
+   * @param maxConcurrentReads Maximum number of reads in flight.
+   * @return a new asynchronous reader for the table.
+   * @throws IOException on I/O error.
+   */
+  public static CassandraAsyncKijiTableReader create(
+      final CassandraKijiTable table,
+      final int maxConcurrentReads
+  ) throws IOException {
+    return new CassandraAsyncKijiTableReader(table, maxConcurrentReads);
+  }
+
+  /** @return the exception failing the reads issued or queued after this reader is closed. */
+  private IllegalStateException closedException() {
+    return new IllegalStateException(String.format(
+        "Cannot read from AsyncKijiTableReader instance %s in state %s.", this, State.CLOSED));
+  }
+
+  /**
+   * Issues queued reads while there is room for more reads in flight.
+   *
+   * <p>
+   *   Must be called after queueing a read and after completing a read in flight, so that no read
+   *   remains queued while there is room.
+   * </p>
+   */
+  private void drain() {
+    while (!mQueued.isEmpty()) {
+      final int inFlight = mInFlight.get();
+      if (inFlight >= mMaxConcurrentReads) {
+        return;
+      }
+      if (!mInFlight.compareAndSet(inFlight, inFlight + 1)) {
+        continue;
+      }
+      final PendingRead<?> read = mQueued.poll();
+      if ((read == null) || read.mFuture.isDone() || !issue(read)) {
+        mInFlight.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Issues the queries of a read, and schedules the build of its result once they complete.
+   *
+   * @param read Read to issue. Counted as in flight by the caller.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}.
+   * @return whether the read is in flight. If not, its future has been completed.
+   */
+  private <T> boolean issue(final PendingRead<T> read) {
+    final CassandraKijiResult.PendingKijiResult<T> pending;
+    try {
+      synchronized (mReader) {
+        pending = mReader.getPendingResult(read.mEntityId, read.mDataRequest);
+      }
+    } catch (Exception exn) {
+      read.mFuture.setException(exn);
+      return false;
+    }
+    read.mPending = pending;
+    read.cancelQueriesIfCancelled();
+
+    pending.getQueriesFuture().addListener(new Runnable() {
+      /** {@inheritDoc} */
+      @Override
+      public void run() {
+        try {
+          mExecutor.execute(new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+              complete(read, pending);
+            }
+          });
+        } catch (RejectedExecutionException ree) {
+          // This reader was closed while the queries were in flight:
+          read.mFuture.setException(closedException());
+          release();
+        }
+      }
+    }, MoreExecutors.sameThreadExecutor());
+    return true;
+  }
+
+  /**
+   * Builds the result of a read whose queries have completed.
+   *
+   * @param read Read to complete.
+   * @param pending Result whose queries have completed.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}.
+   */
+  private <T> void complete(
+      final PendingRead<T> read,
+      final CassandraKijiResult.PendingKijiResult<T> pending
+  ) {
+    try {
+      if (!read.mFuture.isCancelled()) {
+        final KijiResult<T> result = pending.get();
+        if (!read.mFuture.set(result)) {
+          // The read was cancelled while in flight:
+          ResourceUtils.closeOrLog(result);
+        }
+      }
+    } catch (Throwable throwable) {
+      read.mFuture.setException(throwable);
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Reports the number of reads in flight. Package-private for testing purposes only.
+   *
+   * @return the number of reads in flight.
+   */
+  int getReadsInFlight() {
+    return mInFlight.get();
+  }
+
+  /** Releases the room of a read which is no longer in flight. */
+  private void release() {
+    mInFlight.decrementAndGet();
+    drain();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ListenableFuture<KijiRowData> get(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest
+  ) {
+    return Futures.transform(
+        this.<Object>getResult(entityId, dataRequest),
+        new Function<KijiResult<Object>, KijiRowData>() {
+          /** {@inheritDoc} */
+          @Override
+          public KijiRowData apply(final KijiResult<Object> result) {
+            return new KijiResultRowData(mReader.getLayout(), result);
+          }
+        });
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T> ListenableFuture<KijiResult<T>> getResult(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest
+  ) {
+    final State state = mState.get();
+    Preconditions.checkState(state == State.OPEN,
+        "Cannot read from AsyncKijiTableReader instance %s in state %s.", this, state);
+    final PendingRead<T> read = new PendingRead<T>(entityId, dataRequest);
+    mQueued.add(read);
+    if (mState.get() != State.OPEN) {
+      // This reader was closed concurrently, possibly before it could fail the queued reads:
+      read.mFuture.setException(closedException());
+    }
+    drain();
+    return read.mFuture;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ListenableFuture<List<KijiRowData>> bulkGet(
+      final List<EntityId> entityIds,
+      final KijiDataRequest dataRequest
+  ) {
+    return Futures.transform(
+        this.<Object>bulkGetResults(entityIds, dataRequest),
+        new Function<List<KijiResult<Object>>, List<KijiRowData>>() {
+          /** {@inheritDoc} */
+          @Override
+          public List<KijiRowData> apply(final List<KijiResult<Object>> results) {
+            final List<KijiRowData> data = Lists.newArrayListWithCapacity(results.size());
+            for (KijiResult<Object> result : results) {
+              data.add(new KijiResultRowData(mReader.getLayout(), result));
+            }
+            return data;
+          }
+        });
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   *   Each row is read separately, subject to the maximum number of reads in flight. If the read
+   *   of any row fails, or if the returned future is cancelled, the reads of the other rows are
+   *   cancelled and the results already read are closed.
+   * </p>
+   */
+  @Override
+  public <T> ListenableFuture<List<KijiResult<T>>> bulkGetResults(
+      final List<EntityId> entityIds,
+      final KijiDataRequest dataRequest
+  ) {
+    final List<ListenableFuture<KijiResult<T>>> futures =
+        Lists.newArrayListWithCapacity(entityIds.size());
+    for (EntityId entityId : entityIds) {
+      futures.add(this.<T>getResult(entityId, dataRequest));
+    }
+    return allAsListOrClose(futures);
+  }
+
+  /**
+   * Combines the futures of the results of some reads into a future of the list of their results.
+   *
+   * <p>
+   *   Unlike {@link Futures#allAsList(Iterable)}, the results are not left open when the combined
+   *   future fails or is cancelled: the reads still in flight are cancelled, and the results of
+   *   the reads which succeeded are closed.
+   * </p>
+   *
+   * @param futures Futures of the results of the reads.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}s.
+   * @return a future of the list of the results of the reads, in order.
+   */
+  static <T> ListenableFuture<List<KijiResult<T>>> allAsListOrClose(
+      final List<ListenableFuture<KijiResult<T>>> futures
+  ) {
+    final ListenableFuture<List<KijiResult<T>>> all = Futures.allAsList(futures);
+    Futures.addCallback(all, new FutureCallback<List<KijiResult<T>>>() {
+      /** {@inheritDoc} */
+      @Override
+      public void onSuccess(final List<KijiResult<T>> results) {
+        // The caller owns the results.
+      }
+
+      /** {@inheritDoc} */
+      @Override
+      public void onFailure(final Throwable throwable) {
+        for (ListenableFuture<KijiResult<T>> future : futures) {
+          future.cancel(false);
+          Futures.addCallback(future, new FutureCallback<KijiResult<T>>() {
+            /** {@inheritDoc} */
+            @Override
+            public void onSuccess(final KijiResult<T> result) {
+              ResourceUtils.closeOrLog(result);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void onFailure(final Throwable throwable) {
+              // No result to close.
+            }
+          });
+        }
+      }
+    });
+    return all;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(CassandraAsyncKijiTableReader.class)
+        .add("id", System.identityHashCode(this))
+        .add("reader", mReader)
+        .add("max_concurrent_reads", mMaxConcurrentReads)
+        .add("in_flight", mInFlight.get())
+        .add("state", mState.get())
+        .toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   *   Reads still queued fail. Reads whose results are being built are completed before this
+   *   method returns; reads whose queries are still in flight fail when their queries complete.
+   * </p>
+   */
+  @Override
+  public void close() throws IOException {
+    final State oldState = mState.getAndSet(State.CLOSED);
+    Preconditions.checkState(oldState == State.OPEN,
+        "Cannot close AsyncKijiTableReader instance %s in state %s.", this, oldState);
+    ResourceTracker.get().unregisterResource(this);
+
+    PendingRead<?> read;
+    while ((read = mQueued.poll()) != null) {
+      read.mFuture.setException(closedException());
+    }
+
+    mExecutor.shutdown();
+    try {
+      while (!mExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+        LOG.debug("Waiting for the results of {} to be built.", this);
+      }
+    } catch (InterruptedException ie) {
+      throw new RuntimeInterruptedException(ie);
+    } finally {
+      mReader.close();
+    }
+  }
+}
@@ -22,6 +22,7 @@ package org.kiji.schema.impl.cassandra;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -29,6 +30,7 @@ import com.datastax.driver.core.ResultSetFuture;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.zookeeper.KeeperException;
@@ -48,6 +50,7 @@ import org.kiji.schema.avro.RowKeyFormat;
 import org.kiji.schema.avro.TableLayoutDesc;
 import org.kiji.schema.cassandra.CassandraKijiURI;
 import org.kiji.schema.cassandra.CassandraTableName;
+import org.kiji.schema.impl.KijiTableMetrics;
 import org.kiji.schema.impl.Versions;
 import org.kiji.schema.layout.InvalidLayoutException;
 import org.kiji.schema.layout.KijiTableLayout;
@@ -135,6 +138,9 @@ public final class CassandraKiji implements Kiji {
    */
   private KijiSecurityManager mSecurityManager = null;
 
+  /** Latency of the operations on each table, shared by all the handles on a table. */
+  private final ConcurrentMap<String, KijiTableMetrics> mTableMetrics = Maps.newConcurrentMap();
+
   /**
    * Creates a new <code>CassandraKiji</code> instance.
    *
@@ -334,6 +340,27 @@ public final class CassandraKiji implements Kiji {
     return mSecurityManager;
   }
 
+  /**
+   * Gets the latency of the operations of the readers and writers of a table.
+   *
+   * <p>
+   *   Shared by all the handles on the table opened from this instance, so that opening a table
+   *   does not allocate new timers.
+   * </p>
+   *
+   * @param tableName Name of the table.
+   * @return the latency of the operations of the readers and writers of the table.
+   */
+  KijiTableMetrics getTableMetrics(final String tableName) {
+    final KijiTableMetrics metrics = mTableMetrics.get(tableName);
+    if (metrics != null) {
+      return metrics;
+    }
+    final KijiTableMetrics newMetrics = KijiTableMetrics.create();
+    final KijiTableMetrics existing = mTableMetrics.putIfAbsent(tableName, newMetrics);
+    return (existing != null) ? existing : newMetrics;
+  }
+
   /** {@inheritDoc} */
   @Override
   public CassandraKijiTable openTable(String tableName) throws IOException {
@@ -574,6 +601,8 @@ public final class CassandraKiji implements Kiji {
     for (ResultSetFuture future : futures) {
       future.getUninterruptibly();
     }
+    // A table created later on under the same name starts with fresh metrics:
+    mTableMetrics.remove(tableName);
   }
 
   /** {@inheritDoc} */
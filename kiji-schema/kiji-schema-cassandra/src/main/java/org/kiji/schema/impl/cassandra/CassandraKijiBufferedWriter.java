@@ -47,6 +47,7 @@ import org.kiji.schema.KijiURI;
 import org.kiji.schema.cassandra.CassandraColumnName;
 import org.kiji.schema.cassandra.CassandraTableName;
 import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
 import org.kiji.schema.impl.LayoutConsumer;
 import org.kiji.schema.layout.CassandraColumnNameTranslator;
 import org.kiji.schema.layout.KijiTableLayout;
@@ -263,6 +264,7 @@ public class CassandraKijiBufferedWriter implements KijiBufferedWriter {
       final String qualifier,
       final long timestamp, T value
   ) throws IOException {
+    final long startNanos = mTable.getTableMetrics().start();
     synchronized (mMonitor) {
       Preconditions.checkState(mState == State.OPEN,
           "Cannot write to BufferedWriter instance in state %s.", mState);
@@ -313,6 +315,7 @@ public class CassandraKijiBufferedWriter implements KijiBufferedWriter {
         flush();
       }
     }
+    mTable.getTableMetrics().record(Operation.PUT, family, startNanos);
   }
 
   // -----------------------------------------------------------------------------------------------
@@ -486,6 +489,7 @@ public class CassandraKijiBufferedWriter implements KijiBufferedWriter {
   /** {@inheritDoc} */
   @Override
   public void flush() throws IOException {
+    final long startNanos = mTable.getTableMetrics().start();
 
     final List<ResultSetFuture> futures =
         Lists.newArrayList();
@@ -512,6 +516,7 @@ public class CassandraKijiBufferedWriter implements KijiBufferedWriter {
     for (ResultSetFuture future : futures) {
       future.getUninterruptibly();
     }
+    mTable.getTableMetrics().record(Operation.FLUSH, startNanos);
   }
 
   /** {@inheritDoc} */
@@ -55,6 +55,13 @@ public final class CassandraKijiReaderFactory implements KijiReaderFactory {
     return CassandraKijiTableReader.create(mTable);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public CassandraAsyncKijiTableReader openAsyncTableReader(int maxConcurrentReads)
+      throws IOException {
+    return CassandraAsyncKijiTableReader.create(mTable, maxConcurrentReads);
+  }
+
   /** {@inheritDoc} */
   @Override
   public CassandraKijiTableReader openTableReader(Map<KijiColumnName, CellSpec> overrides)
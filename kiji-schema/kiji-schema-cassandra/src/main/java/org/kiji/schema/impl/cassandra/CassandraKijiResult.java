@@ -85,6 +85,42 @@ public final class CassandraKijiResult {
       final KijiTableLayout layout,
       final CassandraColumnNameTranslator columnTranslator,
       final CellDecoderProvider decoderProvider
+  ) throws IOException {
+    return CassandraKijiResult.<T>createPending(
+        entityId,
+        dataRequest,
+        table,
+        layout,
+        columnTranslator,
+        decoderProvider).get();
+  }
+
+  /**
+   * Issue the queries for a {@link KijiResult} backed by Cassandra, without waiting for them to
+   * complete.
+   *
+   * <p>
+   *   This allows callers to have the queries of many rows in flight at once. The returned
+   *   {@link PendingKijiResult} must be completed with {@link PendingKijiResult#get()}.
+   * </p>
+   *
+   * @param entityId EntityId of the row from which to read cells.
+   * @param dataRequest KijiDataRequest defining the values to retrieve.
+   * @param table The table being viewed.
+   * @param layout The layout of the table.
+   * @param columnTranslator A column name translator for the table.
+   * @param decoderProvider A cell decoder provider for the table.
+   * @param <T> The type of value in the {@code KijiCell} of this view.
+   * @return a pending {@code KijiResult}.
+   * @throws IOException On error while decoding cells.
+   */
+  public static <T> PendingKijiResult<T> createPending(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest,
+      final CassandraKijiTable table,
+      final KijiTableLayout layout,
+      final CassandraColumnNameTranslator columnTranslator,
+      final CellDecoderProvider decoderProvider
   ) throws IOException {
     final KijiDataRequestBuilder unpagedRequestBuilder = KijiDataRequest.builder();
     final KijiDataRequestBuilder pagedRequestBuilder = KijiDataRequest.builder();
@@ -112,14 +148,10 @@ public final class CassandraKijiResult {
     final KijiDataRequest unpagedRequest = unpagedRequestBuilder.build();
     final KijiDataRequest pagedRequest = pagedRequestBuilder.build();
 
-    if (unpagedRequest.isEmpty() && pagedRequest.isEmpty()) {
-      return new EmptyKijiResult<>(entityId, dataRequest);
-    }
-
-    final MaterializedKijiResult<T> materializedKijiResult;
+    final SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> columnFutures;
     if (!unpagedRequest.isEmpty()) {
-      materializedKijiResult =
-          createMaterialized(
+      columnFutures =
+          getColumns(
               table,
               entityId,
               unpagedRequest,
@@ -127,7 +159,7 @@ public final class CassandraKijiResult {
               columnTranslator,
               requestDecoderProvider);
     } else {
-      materializedKijiResult = null;
+      columnFutures = null;
     }
 
     final CassandraPagedKijiResult<T> pagedKijiResult;
@@ -144,12 +176,140 @@ public final class CassandraKijiResult {
       pagedKijiResult = null;
     }
 
-    if (unpagedRequest.isEmpty()) {
-      return pagedKijiResult;
-    } else if (pagedRequest.isEmpty()) {
-      return materializedKijiResult;
-    } else {
-      return DefaultKijiResult.create(dataRequest, materializedKijiResult, pagedKijiResult);
+    return new PendingKijiResult<>(
+        entityId,
+        dataRequest,
+        unpagedRequest,
+        layout,
+        columnFutures,
+        pagedKijiResult);
+  }
+
+  /**
+   * Create a pending {@link KijiResult} over the futures of some non-paged columns, without
+   * issuing any query.
+   *
+   * @param entityId EntityId of the row the cells belong to.
+   * @param dataRequest KijiDataRequest of the non-paged columns.
+   * @param layout The layout of the table.
+   * @param columnFutures Futures of the non-paged columns.
+   * @param <T> The type of value in the {@code KijiCell} of this view.
+   * @return a pending {@code KijiResult} completed by the column futures.
+   */
+  static <T> PendingKijiResult<T> createPending(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest,
+      final KijiTableLayout layout,
+      final SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> columnFutures
+  ) {
+    return new PendingKijiResult<>(
+        entityId,
+        dataRequest,
+        dataRequest,
+        layout,
+        columnFutures,
+        null);
+  }
+
+  /**
+   * A {@link KijiResult} whose non-paged columns are being fetched asynchronously.
+   *
+   * @param <T> The type of value in the {@code KijiCell} of the result.
+   */
+  public static final class PendingKijiResult<T> {
+    private final EntityId mEntityId;
+    private final KijiDataRequest mDataRequest;
+    private final KijiDataRequest mUnpagedRequest;
+    private final KijiTableLayout mLayout;
+
+    /** Futures of the non-paged columns. Null if no column is non-paged. */
+    private final SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> mColumnFutures;
+
+    /** Result for the paged columns. Null if no column is paged. */
+    private final CassandraPagedKijiResult<T> mPagedResult;
+
+    /**
+     * Create a new pending result.
+     *
+     * @param entityId EntityId of the row from which to read cells.
+     * @param dataRequest KijiDataRequest defining the values to retrieve.
+     * @param unpagedRequest The non-paged columns of the data request.
+     * @param layout The layout of the table.
+     * @param columnFutures Futures of the non-paged columns, or null.
+     * @param pagedResult Result for the paged columns, or null.
+     */
+    private PendingKijiResult(
+        final EntityId entityId,
+        final KijiDataRequest dataRequest,
+        final KijiDataRequest unpagedRequest,
+        final KijiTableLayout layout,
+        final SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> columnFutures,
+        final CassandraPagedKijiResult<T> pagedResult
+    ) {
+      mEntityId = entityId;
+      mDataRequest = dataRequest;
+      mUnpagedRequest = unpagedRequest;
+      mLayout = layout;
+      mColumnFutures = columnFutures;
+      mPagedResult = pagedResult;
+    }
+
+    /**
+     * Get a future which completes once all the queries issued for this result have completed.
+     *
+     * <p> The future does not fail if one of the queries fails; {@link #get()} will. </p>
+     *
+     * @return a future which completes once all the queries of this result have completed.
+     */
+    public ListenableFuture<?> getQueriesFuture() {
+      if (mColumnFutures == null) {
+        return Futures.immediateFuture(null);
+      }
+      return Futures.successfulAsList(mColumnFutures.values());
+    }
+
+    /**
+     * Cancel the queries issued for this result which have not completed yet.
+     *
+     * <p> {@link #get()} fails once the queries of this result are cancelled. </p>
+     */
+    public void cancel() {
+      if (mColumnFutures != null) {
+        for (ListenableFuture<Iterator<KijiCell<T>>> columnFuture : mColumnFutures.values()) {
+          columnFuture.cancel(false);
+        }
+      }
+    }
+
+    /**
+     * Wait for the queries of this result to complete, and build the {@code KijiResult}.
+     *
+     * <p>
+     *   Should be called from a client thread, as materializing a column may fetch additional
+     *   pages from Cassandra synchronously.
+     * </p>
+     *
+     * @return the {@code KijiResult}.
+     */
+    public KijiResult<T> get() {
+      if (mColumnFutures == null && mPagedResult == null) {
+        return new EmptyKijiResult<>(mEntityId, mDataRequest);
+      }
+
+      final MaterializedKijiResult<T> materializedKijiResult;
+      if (mColumnFutures != null) {
+        materializedKijiResult = materialize(mEntityId, mUnpagedRequest, mLayout, mColumnFutures);
+      } else {
+        materializedKijiResult = null;
+      }
+
+      if (mColumnFutures == null) {
+        return mPagedResult;
+      } else if (mPagedResult == null) {
+        return materializedKijiResult;
+      } else {
+        return DefaultKijiResult.create(mDataRequest, materializedKijiResult, mPagedResult);
+      }
     }
   }
 
@@ -173,8 +333,40 @@ public final class CassandraKijiResult {
       final CassandraColumnNameTranslator translator,
       final CellDecoderProvider decoderProvider
   ) {
+    return materialize(
+        entityId,
+        dataRequest,
+        layout,
+        CassandraKijiResult.<T>getColumns(
+            table,
+            entityId,
+            dataRequest,
+            layout,
+            translator,
+            decoderProvider));
+  }
 
-    SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> resultFutures =
+  /**
+   * Issue the queries for the non-paged columns of a get on a Cassandra Kiji table.
+   *
+   * @param table The Cassandra Kiji table.
+   * @param entityId The entity ID of the row to get.
+   * @param dataRequest The data request defining the columns to get. All columns must be non-paged.
+   * @param layout The layout of the table.
+   * @param translator A column name translator for the table.
+   * @param decoderProvider A decoder provider for the table.
+   * @param <T> The value type of cells in the result.
+   * @return the futures of the requested columns.
+   */
+  private static <T> SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> getColumns(
+      final CassandraKijiTable table,
+      final EntityId entityId,
+      final KijiDataRequest dataRequest,
+      final KijiTableLayout layout,
+      final CassandraColumnNameTranslator translator,
+      final CellDecoderProvider decoderProvider
+  ) {
+    final SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> resultFutures =
         Maps.newTreeMap();
 
     for (final Column columnRequest : dataRequest.getColumns()) {
@@ -194,7 +386,25 @@ public final class CassandraKijiResult {
               translator,
               decoderProvider));
     }
+    return resultFutures;
+  }
 
+  /**
+   * Wait for the futures of the requested columns, and build a materialized {@code KijiResult}.
+   *
+   * @param entityId The entity ID of the row to get.
+   * @param dataRequest The data request defining the columns to get. All columns must be non-paged.
+   * @param layout The layout of the table.
+   * @param resultFutures The futures of the requested columns.
+   * @param <T> The value type of cells in the result.
+   * @return A materialized {@code KijiResult} for the row.
+   */
+  private static <T> MaterializedKijiResult<T> materialize(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest,
+      final KijiTableLayout layout,
+      final SortedMap<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> resultFutures
+  ) {
     SortedMap<KijiColumnName, List<KijiCell<T>>> results = Maps.newTreeMap();
     for (Map.Entry<KijiColumnName, ListenableFuture<Iterator<KijiCell<T>>>> entry
         : resultFutures.entrySet()) {
@@ -20,17 +20,24 @@
 package org.kiji.schema.impl.cassandra;
 
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 
+import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Statement;
 import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.PeekingIterator;
 import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import org.mortbay.io.RuntimeIOException;
@@ -40,12 +47,20 @@ import org.slf4j.LoggerFactory;
 import org.kiji.commons.IteratorUtils;
 import org.kiji.schema.EntityId;
 import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiCell;
+import org.kiji.schema.KijiColumnName;
 import org.kiji.schema.KijiDataRequest.Column;
+import org.kiji.schema.KijiDataRequestBuilder;
 import org.kiji.schema.KijiResult;
 import org.kiji.schema.KijiResultScanner;
 import org.kiji.schema.KijiURI;
+import org.kiji.schema.NoSuchColumnException;
 import org.kiji.schema.avro.RowKeyFormat2;
+import org.kiji.schema.cassandra.CassandraColumnName;
 import org.kiji.schema.cassandra.CassandraTableName;
+import org.kiji.schema.impl.DefaultKijiResult;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
+import org.kiji.schema.impl.MaterializedKijiResult;
 import org.kiji.schema.impl.cassandra.RowDecoders.TokenRowKeyComponents;
 import org.kiji.schema.impl.cassandra.RowDecoders.TokenRowKeyComponentsComparator;
 import org.kiji.schema.layout.CassandraColumnNameTranslator;
@@ -63,6 +78,8 @@ import org.kiji.schema.layout.impl.ColumnId;
 public class CassandraKijiResultScanner<T> implements KijiResultScanner<T> {
   private static final Logger LOG = LoggerFactory.getLogger(CassandraKijiResultScanner.class);
   private final Iterator<KijiResult<T>> mIterator;
+  private final CassandraKijiTable mTable;
+  private final KijiDataRequest mRequest;
 
  /*
   * ## Implementation Notes
@@ -72,14 +89,18 @@ public class CassandraKijiResultScanner<T> implements KijiResultScanner<T> {
   * each Kiji result requires more requests to create the paged and non-paged columns.
   *
   * This has the downside of creating multiple separate CQL queries per Kiji row instead of a
-  * finite number of scans which work through the data. This is the simplest way to implement
-  * scanning at this point in time, but it may be possible in the future to use CQL scans.  CQL
-  * scans have many downsides, though; often ALLOW FILTERING clause is needed, and we have
-  * experienced poor performance and timeouts when using it.
+  * finite number of scans which work through the data. CQL scans have many downsides, though;
+  * often ALLOW FILTERING clause is needed, and we have experienced poor performance and timeouts
+  * when using it.
   *
-  * TODO: we could optimize this by using table scans to pull in the materialized rows as part of a
-  * scan instead of issuing separate get requests for each row.  However, it is not clear that this
-  * will be faster given the idiosyncrasies of Cassandra scans.
+  * In streaming mode, the scanner instead issues a single paged CQL query per locality group
+  * table, which selects every cell in the token range. Cassandra returns the cells in token order
+  * and grouped by row, so the rows of each locality group can be assembled as the cells arrive,
+  * and merged across locality groups by token and entity ID. The next page of each query is
+  * prefetched asynchronously once half of the current page has been consumed. Cells from
+  * unrequested families of the locality groups are filtered out on the client, so streaming is
+  * best suited to scans which read most of the requested locality groups. Paged columns are still
+  * fetched with separate queries per row.
   */
 
   /**
@@ -102,6 +123,33 @@ public class CassandraKijiResultScanner<T> implements KijiResultScanner<T> {
       final CassandraColumnNameTranslator translator
 
   ) throws IOException {
+    this(request, tokenRange, table, layout, decoderProvider, translator, 0);
+  }
+
+  /**
+   * Create a {@link KijiResultScanner} over a Cassandra Kiji table with the provided options.
+   *
+   * @param request The data request defining the columns to scan.
+   * @param tokenRange The range of tokens to scan.
+   * @param table The table to scan.
+   * @param layout The layout of the table.
+   * @param decoderProvider A cell decoder provider for the table.
+   * @param translator A column name translator for the table.
+   * @param streamingPageSize The number of cells to fetch in each page of a streaming scan, or 0
+   *     to get each row with separate queries.
+   * @throws IOException On unrecoverable IO error.
+   */
+  public CassandraKijiResultScanner(
+      final KijiDataRequest request,
+      final Range<Long> tokenRange,
+      final CassandraKijiTable table,
+      final KijiTableLayout layout,
+      final CellDecoderProvider decoderProvider,
+      final CassandraColumnNameTranslator translator,
+      final int streamingPageSize
+  ) throws IOException {
+    mTable = table;
+    mRequest = request;
 
     final Set<ColumnId> localityGroups = Sets.newHashSet();
 
@@ -119,25 +167,37 @@ public class CassandraKijiResultScanner<T> implements KijiResultScanner<T> {
       tableNames.add(tableName);
     }
 
-    mIterator = Iterators.transform(
-        getEntityIDs(tableNames, tokenRange, table, layout),
-        new Function<EntityId, KijiResult<T>>() {
-          /** {@inheritDoc} */
-          @Override
-          public KijiResult<T> apply(final EntityId entityId) {
-            try {
-              return CassandraKijiResult.create(
-                  entityId,
-                  request,
-                  table,
-                  layout,
-                  translator,
-                  decoderProvider);
-            } catch (IOException e) {
-              throw new RuntimeIOException(e);
+    if (streamingPageSize > 0) {
+      mIterator = CassandraKijiResultScanner.<T>streamResults(
+          request,
+          tableNames,
+          tokenRange,
+          table,
+          layout,
+          decoderProvider,
+          translator,
+          streamingPageSize);
+    } else {
+      mIterator = Iterators.transform(
+          getEntityIDs(tableNames, tokenRange, table, layout),
+          new Function<EntityId, KijiResult<T>>() {
+            /** {@inheritDoc} */
+            @Override
+            public KijiResult<T> apply(final EntityId entityId) {
+              try {
+                return CassandraKijiResult.create(
+                    entityId,
+                    request,
+                    table,
+                    layout,
+                    translator,
+                    decoderProvider);
+              } catch (IOException e) {
+                throw new RuntimeIOException(e);
+              }
             }
-          }
-        });
+          });
+    }
   }
 
   /**
@@ -235,6 +295,346 @@ public class CassandraKijiResultScanner<T> implements KijiResultScanner<T> {
             RowDecoders.getEntityIdFunction(table));
   }
 
+  /**
+   * Stream the Kiji rows of a token range with a single paged query per locality group table.
+   *
+   * @param request The data request defining the columns to scan.
+   * @param tableNames The locality group tables of the requested columns.
+   * @param tokenRange The range of tokens to scan.
+   * @param table The table to scan.
+   * @param layout The layout of the table.
+   * @param decoderProvider A cell decoder provider for the table.
+   * @param translator A column name translator for the table.
+   * @param pageSize The number of cells to fetch in each page of the scans.
+   * @param <T> type of {@code KijiCell} value returned by the {@code KijiResult}s.
+   * @return An iterator of the Kiji rows in the token range.
+   */
+  private static <T> Iterator<KijiResult<T>> streamResults(
+      final KijiDataRequest request,
+      final List<CassandraTableName> tableNames,
+      final Range<Long> tokenRange,
+      final CassandraKijiTable table,
+      final KijiTableLayout layout,
+      final CellDecoderProvider decoderProvider,
+      final CassandraColumnNameTranslator translator,
+      final int pageSize
+  ) {
+    final StreamedResultFactory<T> resultFactory =
+        new StreamedResultFactory<>(request, table, layout, decoderProvider, translator);
+
+    final CQLStatementCache statementCache = table.getStatementCache();
+
+    // Issue the scans of all locality groups up front, so that their first pages are fetched
+    // concurrently.
+    final List<ResultSetFuture> localityGroupFutures = Lists.newArrayList();
+    for (final CassandraTableName tableName : tableNames) {
+      final Statement statement =
+          statementCache.createLocalityGroupScanStatement(tableName, tokenRange, pageSize);
+      localityGroupFutures.add(table.getAdmin().executeAsync(statement));
+    }
+
+    final Function<Row, TokenRowKeyComponents> rowKeyDecoder =
+        RowDecoders.getRowKeyDecoderFunction(layout);
+
+    final List<Iterator<LocalityGroupRow>> localityGroupRows = Lists.newArrayList();
+    for (int i = 0; i < tableNames.size(); i++) {
+      final ResultSet resultSet = CassandraKijiResult.unwrapFuture(localityGroupFutures.get(i));
+      localityGroupRows.add(
+          new LocalityGroupRowIterator(
+              tableNames.get(i),
+              Iterators.peekingIterator(new PrefetchingRowIterator(resultSet, pageSize / 2)),
+              rowKeyDecoder));
+    }
+
+    return Iterators.transform(
+        new KijiRowIterator(
+            Iterators.peekingIterator(
+                Iterators.mergeSorted(localityGroupRows, LocalityGroupRowComparator.INSTANCE))),
+        resultFactory);
+  }
+
+  /**
+   * Iterates through the rows of a paged Cassandra result set, prefetching the next page
+   * asynchronously once the number of rows left in the current page falls to a threshold.
+   */
+  private static final class PrefetchingRowIterator extends AbstractIterator<Row> {
+    private final ResultSet mResultSet;
+    private final int mPrefetchThreshold;
+
+    /**
+     * Create a new prefetching row iterator.
+     *
+     * @param resultSet The paged result set to iterate through.
+     * @param prefetchThreshold The number of rows left in the current page which triggers the fetch
+     *     of the next page.
+     */
+    private PrefetchingRowIterator(final ResultSet resultSet, final int prefetchThreshold) {
+      mResultSet = resultSet;
+      mPrefetchThreshold = prefetchThreshold;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Row computeNext() {
+      if (mResultSet.getAvailableWithoutFetching() == mPrefetchThreshold
+          && !mResultSet.isFullyFetched()) {
+        mResultSet.fetchMoreResults();
+      }
+      final Row row = mResultSet.one();
+      return (row != null) ? row : endOfData();
+    }
+  }
+
+  /**
+   * The Cassandra rows of a single Kiji row in a single locality group table.
+   */
+  private static final class LocalityGroupRow {
+    private final CassandraTableName mTable;
+    private final TokenRowKeyComponents mRowKey;
+    private final List<Row> mRows;
+
+    /**
+     * Create a new locality group row.
+     *
+     * @param table The locality group table the rows are from.
+     * @param rowKey The token and row key components of the Kiji row.
+     * @param rows The Cassandra rows, in clustering order.
+     */
+    private LocalityGroupRow(
+        final CassandraTableName table,
+        final TokenRowKeyComponents rowKey,
+        final List<Row> rows
+    ) {
+      mTable = table;
+      mRowKey = rowKey;
+      mRows = rows;
+    }
+  }
+
+  /**
+   * Orders {@link LocalityGroupRow}s by token and row key components.
+   */
+  private static final class LocalityGroupRowComparator implements Comparator<LocalityGroupRow> {
+    private static final LocalityGroupRowComparator INSTANCE = new LocalityGroupRowComparator();
+
+    /** {@inheritDoc} */
+    @Override
+    public int compare(final LocalityGroupRow a, final LocalityGroupRow b) {
+      return TokenRowKeyComponentsComparator.getInstance().compare(a.mRowKey, b.mRowKey);
+    }
+  }
+
+  /**
+   * Groups the consecutive Cassandra rows of a locality group table scan into Kiji rows.
+   */
+  private static final class LocalityGroupRowIterator extends AbstractIterator<LocalityGroupRow> {
+    private final CassandraTableName mTable;
+    private final PeekingIterator<Row> mRows;
+    private final Function<Row, TokenRowKeyComponents> mRowKeyDecoder;
+
+    /**
+     * Create a new locality group row iterator.
+     *
+     * @param table The locality group table being scanned.
+     * @param rows The Cassandra rows of the scan, in token order.
+     * @param rowKeyDecoder A function decoding the token and row key of Cassandra rows.
+     */
+    private LocalityGroupRowIterator(
+        final CassandraTableName table,
+        final PeekingIterator<Row> rows,
+        final Function<Row, TokenRowKeyComponents> rowKeyDecoder
+    ) {
+      mTable = table;
+      mRows = rows;
+      mRowKeyDecoder = rowKeyDecoder;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected LocalityGroupRow computeNext() {
+      if (!mRows.hasNext()) {
+        return endOfData();
+      }
+      final Row first = mRows.next();
+      final TokenRowKeyComponents rowKey = mRowKeyDecoder.apply(first);
+      final List<Row> rows = Lists.newArrayList(first);
+      while (mRows.hasNext() && rowKey.equals(mRowKeyDecoder.apply(mRows.peek()))) {
+        rows.add(mRows.next());
+      }
+      return new LocalityGroupRow(mTable, rowKey, rows);
+    }
+  }
+
+  /**
+   * Groups the {@link LocalityGroupRow}s of the same Kiji row, merged from all locality group
+   * scans.
+   */
+  private static final class KijiRowIterator extends AbstractIterator<List<LocalityGroupRow>> {
+    private final PeekingIterator<LocalityGroupRow> mRows;
+
+    /**
+     * Create a new Kiji row iterator.
+     *
+     * @param rows The locality group rows, ordered by token and row key components.
+     */
+    private KijiRowIterator(final PeekingIterator<LocalityGroupRow> rows) {
+      mRows = rows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected List<LocalityGroupRow> computeNext() {
+      if (!mRows.hasNext()) {
+        return endOfData();
+      }
+      final LocalityGroupRow first = mRows.next();
+      final List<LocalityGroupRow> rows = Lists.newArrayList(first);
+      while (mRows.hasNext() && first.mRowKey.equals(mRows.peek().mRowKey)) {
+        rows.add(mRows.next());
+      }
+      return rows;
+    }
+  }
+
+  /**
+   * Creates the {@link KijiResult} of a Kiji row from its streamed {@link LocalityGroupRow}s.
+   *
+   * @param <T> type of {@code KijiCell} value returned by the {@code KijiResult}s.
+   */
+  private static final class StreamedResultFactory<T>
+      implements Function<List<LocalityGroupRow>, KijiResult<T>> {
+    private final KijiDataRequest mDataRequest;
+    private final KijiDataRequest mUnpagedRequest;
+    private final KijiDataRequest mPagedRequest;
+    private final CassandraKijiTable mTable;
+    private final KijiTableLayout mLayout;
+    private final CellDecoderProvider mDecoderProvider;
+    private final CassandraColumnNameTranslator mTranslator;
+    private final Function<TokenRowKeyComponents, EntityId> mEntityIdDecoder;
+
+    /** Locality group table of each non-paged column. */
+    private final Map<KijiColumnName, CassandraTableName> mColumnTables = Maps.newHashMap();
+
+    /** Translated name of each non-paged column. */
+    private final Map<KijiColumnName, CassandraColumnName> mCassandraColumns = Maps.newHashMap();
+
+    /**
+     * Create a new streamed result factory.
+     *
+     * @param dataRequest The data request defining the columns to scan.
+     * @param table The table being scanned.
+     * @param layout The layout of the table.
+     * @param decoderProvider A cell decoder provider for the table.
+     * @param translator A column name translator for the table.
+     */
+    private StreamedResultFactory(
+        final KijiDataRequest dataRequest,
+        final CassandraKijiTable table,
+        final KijiTableLayout layout,
+        final CellDecoderProvider decoderProvider,
+        final CassandraColumnNameTranslator translator
+    ) {
+      final KijiDataRequestBuilder unpagedRequestBuilder = KijiDataRequest.builder();
+      final KijiDataRequestBuilder pagedRequestBuilder = KijiDataRequest.builder();
+      unpagedRequestBuilder.withTimeRange(
+          dataRequest.getMinTimestamp(),
+          dataRequest.getMaxTimestamp());
+      pagedRequestBuilder.withTimeRange(
+          dataRequest.getMinTimestamp(),
+          dataRequest.getMaxTimestamp());
+
+      final KijiURI tableURI = table.getURI();
+      for (final Column columnRequest : dataRequest.getColumns()) {
+        if (columnRequest.getFilter() != null) {
+          throw new UnsupportedOperationException(
+              String.format("Cassandra Kiji does not support filters on column requests: %s.",
+                  columnRequest));
+        }
+        if (columnRequest.isPagingEnabled()) {
+          pagedRequestBuilder.newColumnsDef(columnRequest);
+          continue;
+        }
+        unpagedRequestBuilder.newColumnsDef(columnRequest);
+
+        final KijiColumnName column = columnRequest.getColumnName();
+        try {
+          mCassandraColumns.put(column, translator.toCassandraColumnName(column));
+        } catch (NoSuchColumnException e) {
+          throw new IllegalArgumentException(
+              String.format("No such column '%s' in table %s.", column, tableURI));
+        }
+        final ColumnId localityGroupId =
+            layout.getFamilyMap().get(column.getFamily()).getLocalityGroup().getId();
+        mColumnTables.put(
+            column,
+            CassandraTableName.getLocalityGroupTableName(tableURI, localityGroupId));
+      }
+
+      mDataRequest = dataRequest;
+      mUnpagedRequest = unpagedRequestBuilder.build();
+      mPagedRequest = pagedRequestBuilder.build();
+      mTable = table;
+      mLayout = layout;
+      mDecoderProvider = decoderProvider.getDecoderProviderForRequest(dataRequest);
+      mTranslator = translator;
+      mEntityIdDecoder = RowDecoders.getEntityIdFunction(table);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public KijiResult<T> apply(final List<LocalityGroupRow> localityGroupRows) {
+      final EntityId entityId = mEntityIdDecoder.apply(localityGroupRows.get(0).mRowKey);
+
+      final SortedMap<KijiColumnName, List<KijiCell<T>>> columns = Maps.newTreeMap();
+      for (final Column columnRequest : mUnpagedRequest.getColumns()) {
+        final KijiColumnName column = columnRequest.getColumnName();
+        final CassandraTableName tableName = mColumnTables.get(column);
+
+        final List<KijiCell<T>> cells = Lists.newArrayList();
+        for (final LocalityGroupRow localityGroupRow : localityGroupRows) {
+          if (!localityGroupRow.mTable.equals(tableName)) {
+            continue;
+          }
+          Iterators.addAll(
+              cells,
+              RowDecoders.<T>decodeColumn(
+                  Iterators.filter(
+                      localityGroupRow.mRows.iterator(),
+                      RowDecoders.getColumnPredicate(mCassandraColumns.get(column))),
+                  tableName,
+                  column,
+                  columnRequest,
+                  mUnpagedRequest,
+                  mLayout,
+                  mTranslator,
+                  mDecoderProvider));
+        }
+        columns.put(column, cells);
+      }
+
+      final MaterializedKijiResult<T> materializedResult =
+          MaterializedKijiResult.create(entityId, mUnpagedRequest, mLayout, columns);
+
+      if (mPagedRequest.isEmpty()) {
+        return materializedResult;
+      }
+
+      final CassandraPagedKijiResult<T> pagedResult =
+          new CassandraPagedKijiResult<>(
+              entityId,
+              mPagedRequest,
+              mTable,
+              mLayout,
+              mTranslator,
+              mDecoderProvider);
+
+      if (mUnpagedRequest.isEmpty()) {
+        return pagedResult;
+      }
+      return DefaultKijiResult.create(mDataRequest, materializedResult, pagedResult);
+    }
+  }
+
   @Override
   public void close() throws IOException {
   }
@@ -246,7 +646,10 @@ public class CassandraKijiResultScanner<T> implements KijiResultScanner<T> {
 
   @Override
   public KijiResult<T> next() {
-    return mIterator.next();
+    final long startNanos = mTable.getTableMetrics().start();
+    final KijiResult<T> result = mIterator.next();
+    mTable.getTableMetrics().record(Operation.SCAN_NEXT, mRequest, startNanos);
+    return result;
   }
 
   @Override
@@ -25,12 +25,18 @@ import com.google.common.base.Preconditions;
  * Cassandra-specific options for row scanners.
  */
 public final class CassandraKijiScannerOptions {
+  /** Default number of cells fetched in each page of a streaming scan. */
+  public static final int DEFAULT_STREAMING_PAGE_SIZE = 1000;
+
   /** Token value, inclusive, for partition key at start of scan (null if no start token). */
   private final Long mStartToken;
 
   /** Token value, inclusive, for partition key at end of scan (null if no stop token). */
   private final Long mStopToken;
 
+  /** Number of cells fetched in each page of a streaming scan (0 if the scan is not streaming). */
+  private final int mStreamingPageSize;
+
   /**
    * @return the starting token (inclusive) for this scan.
    */
@@ -61,6 +67,41 @@ public final class CassandraKijiScannerOptions {
     return mStopToken != null;
   }
 
+  /**
+   * @return whether this scan streams the cells of its token range.
+   */
+  public boolean isStreaming() {
+    return mStreamingPageSize != 0;
+  }
+
+  /**
+   * @return the number of cells fetched in each page of this streaming scan.
+   */
+  public int getStreamingPageSize() {
+    Preconditions.checkArgument(isStreaming());
+    return mStreamingPageSize;
+  }
+
+  /**
+   * Creates a copy of these options which streams the cells of the token range.
+   *
+   * <p>
+   *   By default, a scan lists the entity IDs of its token range and then gets each row with
+   *   separate queries. A streaming scan instead reads all the cells of the token range with a
+   *   single paged query per locality group, and assembles the rows as the cells arrive. The next
+   *   page of cells is prefetched while the current page is consumed. Streaming is much faster for
+   *   scans which read most of the cells of the requested locality groups.
+   * </p>
+   *
+   * @param pageSize The number of cells to fetch in each page of the scan.
+   * @return A new CassandraKijiScannerOptions object.
+   */
+  public CassandraKijiScannerOptions withStreamingPageSize(int pageSize) {
+    Preconditions.checkArgument(pageSize > 0,
+        "Streaming page size must be positive: %s.", pageSize);
+    return new CassandraKijiScannerOptions(mStartToken, mStopToken, pageSize);
+  }
+
   /**
    * Creates a new CassandraKijiScannerOptions object with a start and stop token.
    *
@@ -69,7 +110,7 @@ public final class CassandraKijiScannerOptions {
    * @return A new CassandraKijiScannerOptions object.
    */
   public static CassandraKijiScannerOptions withTokens(long startToken, long stopToken) {
-    return new CassandraKijiScannerOptions(startToken, stopToken);
+    return new CassandraKijiScannerOptions(startToken, stopToken, 0);
   }
 
   /**
@@ -79,7 +120,7 @@ public final class CassandraKijiScannerOptions {
    * @return A new CassandraKijiScannerOptions object.
    */
   public static CassandraKijiScannerOptions withStartToken(long startToken) {
-    return new CassandraKijiScannerOptions(startToken, null);
+    return new CassandraKijiScannerOptions(startToken, null, 0);
   }
 
   /**
@@ -89,7 +130,7 @@ public final class CassandraKijiScannerOptions {
    * @return A new CassandraKijiScannerOptions object.
    */
   public static CassandraKijiScannerOptions withStopToken(long stopToken) {
-    return new CassandraKijiScannerOptions(null, stopToken);
+    return new CassandraKijiScannerOptions(null, stopToken, 0);
   }
 
   /**
@@ -98,7 +139,7 @@ public final class CassandraKijiScannerOptions {
    * @return A new CassandraKijiScannerOptions object.
    */
   public static CassandraKijiScannerOptions withoutBounds() {
-    return new CassandraKijiScannerOptions(null, null);
+    return new CassandraKijiScannerOptions(null, null, 0);
   }
 
   /**
@@ -106,9 +147,11 @@ public final class CassandraKijiScannerOptions {
    *
    * @param startToken Start token (inclusive) or null.
    * @param stopToken Stop token (inclusive) or null.
+   * @param streamingPageSize Streaming page size, or 0 if the scan is not streaming.
    */
-  private CassandraKijiScannerOptions(Long startToken, Long stopToken) {
+  private CassandraKijiScannerOptions(Long startToken, Long stopToken, int streamingPageSize) {
     this.mStartToken = startToken;
     this.mStopToken = stopToken;
+    this.mStreamingPageSize = streamingPageSize;
   }
 }
@@ -45,6 +45,7 @@ import org.kiji.schema.KijiTableWriter;
 import org.kiji.schema.KijiURI;
 import org.kiji.schema.avro.RowKeyFormat2;
 import org.kiji.schema.cassandra.CassandraKijiURI;
+import org.kiji.schema.impl.KijiTableMetrics;
 import org.kiji.schema.impl.LayoutConsumer;
 import org.kiji.schema.impl.LayoutConsumer.Registration;
 import org.kiji.schema.layout.KijiTableLayout;
@@ -121,6 +122,9 @@ public final class CassandraKijiTable implements KijiTable {
    */
   private final RowKeyFormat2 mRowKeyFormat;
 
+  /** Latency of the operations of the readers and writers of this table. */
+  private final KijiTableMetrics mTableMetrics;
+
   /**
    * Construct an opened Kiji table stored in Cassandra.
    *
@@ -157,6 +161,7 @@ public final class CassandraKijiTable implements KijiTable {
     mLayoutMonitor = layoutMonitor;
     mRowKeyFormat = (RowKeyFormat2) mLayoutMonitor.getLayout().getDesc().getKeysFormat();
     mEntityIdFactory = EntityIdFactory.getFactory(mRowKeyFormat);
+    mTableMetrics = mKiji.getTableMetrics(mName);
 
     // Table is now open and must be released properly:
     mRetainCount.set(1);
@@ -182,6 +187,15 @@ public final class CassandraKijiTable implements KijiTable {
     return mAdmin.getStatementCache(mRowKeyFormat);
   }
 
+  /**
+   * Get the latency of the operations of the readers and writers of this table.
+   *
+   * @return the latency of the operations of the readers and writers of this table.
+   */
+  public KijiTableMetrics getTableMetrics() {
+    return mTableMetrics;
+  }
+
   /** {@inheritDoc} */
   @Override
   public Kiji getKiji() {
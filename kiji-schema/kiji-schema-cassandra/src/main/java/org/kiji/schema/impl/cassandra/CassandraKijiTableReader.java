@@ -21,9 +21,12 @@ package org.kiji.schema.impl.cassandra;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Objects;
@@ -33,6 +36,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,14 +57,17 @@ import org.kiji.schema.KijiTableReaderBuilder.OnDecoderCacheMiss;
 import org.kiji.schema.NoSuchColumnException;
 import org.kiji.schema.SpecificCellDecoderFactory;
 import org.kiji.schema.impl.BoundColumnReaderSpec;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
 import org.kiji.schema.impl.KijiResultRowData;
 import org.kiji.schema.impl.KijiResultRowScanner;
 import org.kiji.schema.impl.LayoutConsumer;
+import org.kiji.schema.impl.ParallelKijiResultScanner;
 import org.kiji.schema.layout.CassandraColumnNameTranslator;
 import org.kiji.schema.layout.CellSpec;
 import org.kiji.schema.layout.ColumnReaderSpec;
 import org.kiji.schema.layout.KijiTableLayout;
 import org.kiji.schema.layout.impl.CellDecoderProvider;
+import org.kiji.schema.util.ResourceUtils;
 
 /**
  * Reads from a kiji table by sending the requests directly to the C* tables.
@@ -69,9 +76,36 @@ import org.kiji.schema.layout.impl.CellDecoderProvider;
 public final class CassandraKijiTableReader implements KijiTableReader {
   private static final Logger LOG = LoggerFactory.getLogger(CassandraKijiTableReader.class);
 
+  /** Orders Cassandra Kiji partitions by the start of their token range. */
+  private static final Comparator<CassandraKijiPartition> PARTITION_TOKEN_COMPARATOR =
+      new Comparator<CassandraKijiPartition>() {
+        /** {@inheritDoc} */
+        @Override
+        public int compare(final CassandraKijiPartition p1, final CassandraKijiPartition p2) {
+          return Long.compare(startToken(p1), startToken(p2));
+        }
+
+        /**
+         * Get the first token of a partition.
+         *
+         * @param partition Cassandra Kiji partition.
+         * @return the first token of the partition.
+         */
+        private long startToken(final CassandraKijiPartition partition) {
+          final Range<Long> tokenRange = partition.getTokenRange();
+          return tokenRange.hasLowerBound() ? tokenRange.lowerEndpoint() : Long.MIN_VALUE;
+        }
+      };
+
+  /** Default maximum number of rows a bulk get may have in flight at once. */
+  public static final int DEFAULT_BULK_GET_CONCURRENCY = 64;
+
   /** C* KijiTable to read from. */
   private final CassandraKijiTable mTable;
 
+  /** Maximum number of rows a bulk get may have in flight at once. */
+  private final int mBulkGetConcurrency;
+
   /** Behavior when a cell decoder cannot be found. */
   private final OnDecoderCacheMiss mOnDecoderCacheMiss;
 
@@ -246,7 +280,33 @@ public final class CassandraKijiTableReader implements KijiTableReader {
       final Map<KijiColumnName, ColumnReaderSpec> overrides,
       final Multimap<KijiColumnName, ColumnReaderSpec> alternatives
   ) throws IOException {
-    return new CassandraKijiTableReader(table, onDecoderCacheMiss, overrides, alternatives);
+    return new CassandraKijiTableReader(
+        table, onDecoderCacheMiss, overrides, alternatives, DEFAULT_BULK_GET_CONCURRENCY);
+  }
+
+  /**
+   * Creates a new CassandraKijiTableReader instance that sends read requests directly to Cassandra.
+   *
+   * @param table Kiji table from which to read.
+   * @param onDecoderCacheMiss behavior to use when a {@link
+   *     org.kiji.schema.layout.ColumnReaderSpec} override specified in a {@link
+   *     org.kiji.schema.KijiDataRequest} cannot be found in the prebuilt cache of cell decoders.
+   * @param overrides mapping from columns to overriding read behavior for those columns.
+   * @param alternatives mapping from columns to reader spec alternatives which the
+   *     KijiTableReader will accept as overrides in data requests.
+   * @param bulkGetConcurrency maximum number of rows a bulk get may have in flight at once.
+   * @return a new CassandraKijiTableReader.
+   * @throws java.io.IOException in case of an error opening the reader.
+   */
+  public static CassandraKijiTableReader createWithOptions(
+      final CassandraKijiTable table,
+      final OnDecoderCacheMiss onDecoderCacheMiss,
+      final Map<KijiColumnName, ColumnReaderSpec> overrides,
+      final Multimap<KijiColumnName, ColumnReaderSpec> alternatives,
+      final int bulkGetConcurrency
+  ) throws IOException {
+    return new CassandraKijiTableReader(
+        table, onDecoderCacheMiss, overrides, alternatives, bulkGetConcurrency);
   }
 
   /**
@@ -263,6 +323,7 @@ public final class CassandraKijiTableReader implements KijiTableReader {
     mTable = table;
     mCellSpecOverrides = cellSpecOverrides;
     mOnDecoderCacheMiss = KijiTableReaderBuilder.DEFAULT_CACHE_MISS;
+    mBulkGetConcurrency = DEFAULT_BULK_GET_CONCURRENCY;
     mOverrides = null;
     mAlternatives = null;
 
@@ -288,16 +349,21 @@ public final class CassandraKijiTableReader implements KijiTableReader {
    * @param overrides mapping from columns to overriding read behavior for those columns.
    * @param alternatives mapping from columns to reader spec alternatives which the
    *     KijiTableReader will accept as overrides in data requests.
+   * @param bulkGetConcurrency maximum number of rows a bulk get may have in flight at once.
    * @throws java.io.IOException on I/O error.
    */
   private CassandraKijiTableReader(
       final CassandraKijiTable table,
       final OnDecoderCacheMiss onDecoderCacheMiss,
       final Map<KijiColumnName, ColumnReaderSpec> overrides,
-      final Multimap<KijiColumnName, ColumnReaderSpec> alternatives
+      final Multimap<KijiColumnName, ColumnReaderSpec> alternatives,
+      final int bulkGetConcurrency
   ) throws IOException {
+    Preconditions.checkArgument(bulkGetConcurrency > 0,
+        "Bulk get concurrency must be positive, got %s.", bulkGetConcurrency);
     mTable = table;
     mOnDecoderCacheMiss = onDecoderCacheMiss;
+    mBulkGetConcurrency = bulkGetConcurrency;
 
     final KijiTableLayout layout = mTable.getLayout();
     final Set<KijiColumnName> layoutColumns = layout.getColumnNames();
@@ -376,6 +442,26 @@ public final class CassandraKijiTableReader implements KijiTableReader {
   public <T> KijiResult<T> getResult(
       final EntityId entityId,
       final KijiDataRequest dataRequest
+  ) throws IOException {
+    final long startNanos = mTable.getTableMetrics().start();
+    final KijiResult<T> result = this.<T>getPendingResult(entityId, dataRequest).get();
+    mTable.getTableMetrics().record(Operation.GET, dataRequest, startNanos);
+    return result;
+  }
+
+  /**
+   * Issue the queries for a KijiResult for the given EntityId and data request, without waiting
+   * for them to complete.
+   *
+   * @param entityId EntityId of the row from which to get data.
+   * @param dataRequest Specification of the data to get from the given row.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}.
+   * @return a pending KijiResult for the given EntityId and data request.
+   * @throws IOException in case of an error issuing the queries.
+   */
+  <T> CassandraKijiResult.PendingKijiResult<T> getPendingResult(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest
   ) throws IOException {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
@@ -386,7 +472,7 @@ public final class CassandraKijiTableReader implements KijiTableReader {
     final KijiTableLayout tableLayout = capsule.getLayout();
     validateRequestAgainstLayout(dataRequest, tableLayout);
 
-    return CassandraKijiResult.create(
+    return CassandraKijiResult.createPending(
         entityId,
         dataRequest,
         mTable,
@@ -395,6 +481,15 @@ public final class CassandraKijiTableReader implements KijiTableReader {
         capsule.getCellDecoderProvider());
   }
 
+  /**
+   * Get the layout of the table, as seen by this reader.
+   *
+   * @return the layout of the table, as seen by this reader.
+   */
+  KijiTableLayout getLayout() {
+    return mReaderLayoutCapsule.getLayout();
+  }
+
 
   /** {@inheritDoc} */
   @Override
@@ -402,32 +497,120 @@ public final class CassandraKijiTableReader implements KijiTableReader {
       final List<EntityId> entityIds,
       final KijiDataRequest dataRequest
   ) throws IOException {
-    // TODO(SCHEMA-981): make this use async requests
-    final State state = mState.get();
-    Preconditions.checkState(state == State.OPEN,
-        "Cannot get rows from KijiTableReader instance %s in state %s.", this, state);
-    List<KijiRowData> data = Lists.newArrayList();
-    for (EntityId eid : entityIds) {
-      data.add(get(eid, dataRequest));
+    final KijiTableLayout layout = mReaderLayoutCapsule.getLayout();
+    final List<KijiResult<Object>> results = bulkGetResults(entityIds, dataRequest);
+    final List<KijiRowData> data = Lists.newArrayListWithCapacity(results.size());
+    for (KijiResult<Object> result : results) {
+      data.add(new KijiResultRowData(layout, result));
     }
     return data;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   *   The queries for the requested rows are issued asynchronously, with at most the configured
+   *   bulk get concurrency rows in flight at once. Results are returned in the order of the
+   *   requested entity IDs.
+   * </p>
+   */
   @Override
   public <T> List<KijiResult<T>> bulkGetResults(
       final List<EntityId> entityIds,
       final KijiDataRequest dataRequest
   ) throws IOException {
-    // TODO(SCHEMA-981): make this use async requests
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot get rows from KijiTableReader instance %s in state %s.", this, state);
-    List<KijiResult<T>> data = Lists.newArrayList();
+    final long startNanos = mTable.getTableMetrics().start();
+
+    final ReaderLayoutCapsule capsule = mReaderLayoutCapsule;
+    final KijiTableLayout tableLayout = capsule.getLayout();
+    validateRequestAgainstLayout(dataRequest, tableLayout);
+
+    final Semaphore inFlight = new Semaphore(mBulkGetConcurrency);
+    final Runnable releasePermit = new Runnable() {
+      /** {@inheritDoc} */
+      @Override
+      public void run() {
+        inFlight.release();
+      }
+    };
+
+    final List<CassandraKijiResult.PendingKijiResult<T>> pendingResults =
+        Lists.newArrayListWithCapacity(entityIds.size());
     for (EntityId eid : entityIds) {
-      data.add(this.<T>getResult(eid, dataRequest));
+      inFlight.acquireUninterruptibly();
+      final CassandraKijiResult.PendingKijiResult<T> pending;
+      try {
+        pending = CassandraKijiResult.createPending(
+            eid,
+            dataRequest,
+            mTable,
+            tableLayout,
+            capsule.getColumnNameTranslator(),
+            capsule.getCellDecoderProvider());
+      } catch (IOException ioe) {
+        inFlight.release();
+        cancelAll(pendingResults);
+        throw ioe;
+      } catch (RuntimeException re) {
+        inFlight.release();
+        cancelAll(pendingResults);
+        throw re;
+      }
+      pending.getQueriesFuture().addListener(releasePermit, MoreExecutors.sameThreadExecutor());
+      pendingResults.add(pending);
     }
-    return data;
+
+    final List<KijiResult<T>> results = getAllOrClose(pendingResults);
+    mTable.getTableMetrics().record(Operation.BULK_GET, dataRequest, startNanos);
+    return results;
+  }
+
+  /**
+   * Cancels the queries of some pending results.
+   *
+   * @param pendingResults Pending results to cancel.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}s.
+   */
+  private static <T> void cancelAll(
+      final List<CassandraKijiResult.PendingKijiResult<T>> pendingResults
+  ) {
+    for (CassandraKijiResult.PendingKijiResult<T> pending : pendingResults) {
+      pending.cancel();
+    }
+  }
+
+  /**
+   * Waits for some pending results and builds their {@code KijiResult}s.
+   *
+   * <p>
+   *   The results are not left open if building one of them fails: the results already built are
+   *   closed, and the queries of the pending results not built yet are cancelled.
+   * </p>
+   *
+   * @param pendingResults Pending results to build.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}s.
+   * @return the results, in order.
+   */
+  static <T> List<KijiResult<T>> getAllOrClose(
+      final List<CassandraKijiResult.PendingKijiResult<T>> pendingResults
+  ) {
+    final List<KijiResult<T>> results = Lists.newArrayListWithCapacity(pendingResults.size());
+    try {
+      for (CassandraKijiResult.PendingKijiResult<T> pending : pendingResults) {
+        results.add(pending.get());
+      }
+    } catch (RuntimeException re) {
+      cancelAll(pendingResults.subList(results.size(), pendingResults.size()));
+      for (KijiResult<T> result : results) {
+        ResourceUtils.closeOrLog(result);
+      }
+      throw re;
+    }
+    return results;
   }
 
   /** {@inheritDoc} */
@@ -499,6 +682,23 @@ public final class CassandraKijiTableReader implements KijiTableReader {
         capsule.getColumnNameTranslator());
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public <T> KijiResultScanner<T> getParallelKijiResultScanner(
+      final KijiDataRequest dataRequest,
+      final int parallelism,
+      final boolean ordered
+  ) throws IOException {
+    final State state = mState.get();
+    Preconditions.checkState(state == State.OPEN,
+        "Can not get scanner from KijiTableReader instance %s in state %s.", this, state);
+    validateRequestAgainstLayout(dataRequest, mReaderLayoutCapsule.getLayout());
+
+    final List<CassandraKijiPartition> partitions = Lists.newArrayList(mTable.getPartitions());
+    Collections.sort(partitions, PARTITION_TOKEN_COMPARATOR);
+    return new ParallelKijiResultScanner<>(this, dataRequest, partitions, parallelism, ordered);
+  }
+
   /**
    * Get a CassandraKijiResultScanner using the specified data request and
    * CassandraKijiScannerOptions.
@@ -540,7 +740,8 @@ public final class CassandraKijiTableReader implements KijiTableReader {
         mTable,
         layout,
         capsule.getCellDecoderProvider(),
-        capsule.getColumnNameTranslator());
+        capsule.getColumnNameTranslator(),
+        options.isStreaming() ? options.getStreamingPageSize() : 0);
   }
 
   /** {@inheritDoc} */
@@ -51,6 +51,7 @@ public final class CassandraKijiTableReaderBuilder implements KijiTableReaderBui
   private OnDecoderCacheMiss mOnDecoderCacheMiss = null;
   private Map<KijiColumnName, ColumnReaderSpec> mOverrides = null;
   private Multimap<KijiColumnName, ColumnReaderSpec> mAlternatives = null;
+  private Integer mBulkGetConcurrency = null;
 
   /**
    * Initialize a new CassandraKijiTableReaderBuilder for the given CassandraKijiTable.
@@ -117,6 +118,36 @@ public final class CassandraKijiTableReaderBuilder implements KijiTableReaderBui
     return mAlternatives;
   }
 
+  /**
+   * Configure the maximum number of rows a bulk get may have in flight at once.
+   *
+   * <p>
+   *   Defaults to {@link CassandraKijiTableReader#DEFAULT_BULK_GET_CONCURRENCY}.
+   * </p>
+   *
+   * @param concurrency maximum number of rows a bulk get may have in flight at once.
+   * @return this builder.
+   */
+  public CassandraKijiTableReaderBuilder withBulkGetConcurrency(
+      final int concurrency
+  ) {
+    Preconditions.checkArgument(concurrency > 0,
+        "Bulk get concurrency must be positive, got %s.", concurrency);
+    Preconditions.checkState(null == mBulkGetConcurrency,
+        "Bulk get concurrency already set to: %s", mBulkGetConcurrency);
+    mBulkGetConcurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Get the configured bulk get concurrency or null if none has been set.
+   *
+   * @return the configured bulk get concurrency or null if none has been set.
+   */
+  public Integer getBulkGetConcurrency() {
+    return mBulkGetConcurrency;
+  }
+
   /** {@inheritDoc} */
   @Override
   public CassandraKijiTableReader buildAndOpen() throws IOException {
@@ -129,8 +160,11 @@ public final class CassandraKijiTableReaderBuilder implements KijiTableReaderBui
     if (null == mAlternatives) {
       mAlternatives = DEFAULT_READER_SPEC_ALTERNATIVES;
     }
+    if (null == mBulkGetConcurrency) {
+      mBulkGetConcurrency = CassandraKijiTableReader.DEFAULT_BULK_GET_CONCURRENCY;
+    }
 
     return CassandraKijiTableReader.createWithOptions(
-        mTable, mOnDecoderCacheMiss, mOverrides, mAlternatives);
+        mTable, mOnDecoderCacheMiss, mOverrides, mAlternatives, mBulkGetConcurrency);
   }
 }
@@ -89,50 +89,86 @@ public final class RowDecoders {
       /** {@inheritDoc} */
       @Override
       public Iterator<KijiCell<T>> apply(final ResultSet resultSet) {
-        final int mMaxVersions = columnRequest.getMaxVersions();
-        final long mMinTimestamp = dataRequest.getMinTimestamp();
-        final long mMaxTimestamp = dataRequest.getMaxTimestamp();
+        return RowDecoders.<T>decodeColumn(
+            resultSet.iterator(),
+            tableName,
+            column,
+            columnRequest,
+            dataRequest,
+            layout,
+            translator,
+            decoderProvider);
+      }
+    };
+  }
 
-        Iterator<Row> rows = resultSet.iterator();
+  /**
+   * Decode the cells of a Kiji column from Cassandra rows. Versions and timestamps are filtered on
+   * the client.
+   *
+   * @param rows The Cassandra rows of the column, in a single Kiji row and in clustering order.
+   * @param tableName The Cassandra table that the rows are from.
+   * @param column The Kiji column name of the family or the qualified column.
+   * @param columnRequest The column request defining the request for the column.
+   * @param dataRequest The data request defining the request.
+   * @param layout The layout of the Kiji table.
+   * @param translator A column name translator for the table.
+   * @param decoderProvider A cell decoder provider for the table.
+   * @param <T> Type of cell values.
+   * @return An iterator of the decoded cells.
+   */
+  public static <T> Iterator<KijiCell<T>> decodeColumn(
+      final Iterator<Row> rows,
+      final CassandraTableName tableName,
+      final KijiColumnName column,
+      final Column columnRequest,
+      final KijiDataRequest dataRequest,
+      final KijiTableLayout layout,
+      final CassandraColumnNameTranslator translator,
+      final CellDecoderProvider decoderProvider
+  ) {
+    final int maxVersions = columnRequest.getMaxVersions();
+    final long minTimestamp = dataRequest.getMinTimestamp();
+    final long maxTimestamp = dataRequest.getMaxTimestamp();
 
-        if (mMinTimestamp != 0) {
-          rows = Iterators.filter(rows, new MinTimestampPredicate(mMinTimestamp));
-        }
-        if (mMaxTimestamp != KConstants.END_OF_TIME) {
-          rows = Iterators.filter(rows, new MaxTimestampPredicate(mMaxTimestamp));
-        }
-        rows = Iterators.filter(rows, new MaxVersionsPredicate(mMaxVersions));
+    Iterator<Row> filtered = rows;
 
-        try {
-          if (layout.getFamilyMap().get(column.getFamily()).isMapType()) {
-            // Map-type family
-            final Function<Row, KijiCell<T>> decoder =
-                new MapFamilyDecoder<>(
-                    tableName,
-                    translator.toCassandraColumnName(column),
-                    translator,
-                    decoderProvider.<T>getDecoder(column));
-
-            return Iterators.transform(rows, decoder);
-          } else {
-            // Group-type family
-            final Function<Row, KijiCell<T>> decoder =
-                new GroupFamilyDecoder<>(
-                    tableName,
-                    translator.toCassandraColumnName(column),
-                    translator,
-                    decoderProvider);
-
-            // Group family decoder may return nulls, so filter them out
-            return Iterators.filter(Iterators.transform(rows, decoder), Predicates.notNull());
-          }
-        } catch (NoSuchColumnException e) {
-          throw new IllegalStateException(
-              String.format("Column %s does not exist in Kiji table %s.",
-                  column, layout.getName()));
-        }
+    if (minTimestamp != 0) {
+      filtered = Iterators.filter(filtered, new MinTimestampPredicate(minTimestamp));
+    }
+    if (maxTimestamp != KConstants.END_OF_TIME) {
+      filtered = Iterators.filter(filtered, new MaxTimestampPredicate(maxTimestamp));
+    }
+    filtered = Iterators.filter(filtered, new MaxVersionsPredicate(maxVersions));
+
+    try {
+      if (layout.getFamilyMap().get(column.getFamily()).isMapType()) {
+        // Map-type family
+        final Function<Row, KijiCell<T>> decoder =
+            new MapFamilyDecoder<>(
+                tableName,
+                translator.toCassandraColumnName(column),
+                translator,
+                decoderProvider.<T>getDecoder(column));
+
+        return Iterators.transform(filtered, decoder);
+      } else {
+        // Group-type family
+        final Function<Row, KijiCell<T>> decoder =
+            new GroupFamilyDecoder<>(
+                tableName,
+                translator.toCassandraColumnName(column),
+                translator,
+                decoderProvider);
+
+        // Group family decoder may return nulls, so filter them out
+        return Iterators.filter(Iterators.transform(filtered, decoder), Predicates.notNull());
       }
-    };
+    } catch (NoSuchColumnException e) {
+      throw new IllegalStateException(
+          String.format("Column %s does not exist in Kiji table %s.",
+              column, layout.getName()));
+    }
   }
 
   /**
@@ -192,6 +228,16 @@ public final class RowDecoders {
     return new RowKeyComponentsToEntityId(table);
   }
 
+  /**
+   * Get a predicate which accepts the Cassandra rows belonging to a Kiji column.
+   *
+   * @param column The translated Kiji family or qualified column.
+   * @return A predicate which accepts the rows of the column.
+   */
+  public static Predicate<Row> getColumnPredicate(final CassandraColumnName column) {
+    return new ColumnPredicate(column);
+  }
+
   /**
    * A function which will decode {@link Row}s from a map-type column.
    *
@@ -497,9 +543,10 @@ public final class RowDecoders {
         final TokenRowKeyComponents a,
         final TokenRowKeyComponents b
     ) {
-      final long tokenCompare = a.getToken() - b.getToken();
+      // Tokens span the full range of longs, so their difference may overflow.
+      final int tokenCompare = Long.compare(a.getToken(), b.getToken());
       if (tokenCompare != 0) {
-        return (int) tokenCompare;
+        return tokenCompare;
       } else {
         return a.getComponents().compareTo(b.getComponents());
       }
@@ -526,7 +573,7 @@ public final class RowDecoders {
     /** {@inheritDoc} */
     @Override
     public TokenRowKeyComponents apply(final Row row) {
-      final int token = row.getInt(mTokenColumn);
+      final long token = row.getLong(mTokenColumn);
       final Object[] components =
           new Object[] { ByteUtils.toBytes(row.getBytes(CQLUtils.RAW_KEY_COL)) };
       return new TokenRowKeyComponents(token, KijiRowKeyComponents.fromComponents(components));
@@ -655,6 +702,32 @@ public final class RowDecoders {
     }
   }
 
+  /**
+   * A predicate to filter the Cassandra rows of a Kiji family or qualified column.
+   */
+  @Immutable
+  private static final class ColumnPredicate implements Predicate<Row> {
+    private final ByteBuffer mFamily;
+    private final ByteBuffer mQualifier;
+
+    /**
+     * Create a new column predicate.
+     *
+     * @param column The translated Kiji family or qualified column.
+     */
+    private ColumnPredicate(final CassandraColumnName column) {
+      mFamily = column.getFamilyBuffer();
+      mQualifier = column.containsQualifier() ? column.getQualifierBuffer() : null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean apply(final Row row) {
+      return mFamily.equals(row.getBytes(CQLUtils.FAMILY_COL))
+          && (mQualifier == null || mQualifier.equals(row.getBytes(CQLUtils.QUALIFIER_COL)));
+    }
+  }
+
   /**
    * A predicate to filter Kiji cells below a minimum timestamp (inclusive).
    */
@@ -0,0 +1,272 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.cassandra;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.EntityId;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiResult;
+import org.kiji.schema.KijiRowData;
+import org.kiji.schema.KijiTable;
+import org.kiji.schema.KijiTableWriter;
+import org.kiji.schema.cassandra.CassandraKijiClientTest;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+public class TestCassandraAsyncKijiTableReader extends CassandraKijiClientTest {
+  private static final int NUM_ROWS = 50;
+
+  private static final int MAX_CONCURRENT_READS = 2;
+
+  private static final KijiDataRequest REQUEST = KijiDataRequest.create("family", "column");
+
+  private KijiTable mTable;
+  private CassandraAsyncKijiTableReader mReader;
+
+  @Before
+  public final void setupTestCassandraAsyncKijiTableReader() throws Exception {
+    getKiji().createTable(KijiTableLayouts.getLayout(KijiTableLayouts.SIMPLE));
+    mTable = getKiji().openTable("table");
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      for (int row = 0; row < NUM_ROWS; ++row) {
+        writer.put(mTable.getEntityId("row-" + row), "family", "column", "value-" + row);
+      }
+    } finally {
+      writer.close();
+    }
+    mReader = (CassandraAsyncKijiTableReader)
+        mTable.getReaderFactory().openAsyncTableReader(MAX_CONCURRENT_READS);
+  }
+
+  @After
+  public final void teardownTestCassandraAsyncKijiTableReader() throws IOException {
+    if (mReader != null) {
+      mReader.close();
+    }
+    mTable.release();
+  }
+
+  /**
+   * Waits for the reads in flight to release their room, which they do right after completing.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  private void assertNoReadsInFlight() throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while ((mReader.getReadsInFlight() > 0) && (System.nanoTime() < deadline)) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(0, mReader.getReadsInFlight());
+  }
+
+  /**
+   * Creates a mock KijiResult, which expects to be closed if {@code closed} is true.
+   *
+   * @param closed Whether the result expects to be closed.
+   * @return a mock KijiResult, to be replayed.
+   * @throws IOException on I/O error.
+   */
+  @SuppressWarnings("unchecked")
+  private static KijiResult<Object> createResult(final boolean closed) throws IOException {
+    final KijiResult<Object> result = createMock(KijiResult.class);
+    if (closed) {
+      result.close();
+    }
+    return result;
+  }
+
+  @Test
+  public void testGet() throws Exception {
+    final KijiRowData row = mReader.get(mTable.getEntityId("row-1"), REQUEST).get();
+    Assert.assertEquals("value-1", row.getMostRecentValue("family", "column").toString());
+
+    final KijiResult<CharSequence> result =
+        mReader.<CharSequence>getResult(mTable.getEntityId("row-2"), REQUEST).get();
+    try {
+      Assert.assertEquals("value-2", result.iterator().next().getData().toString());
+    } finally {
+      result.close();
+    }
+  }
+
+  @Test
+  public void testConcurrentReadsAreBounded() throws Exception {
+    // Records the number of reads in flight as each read completes:
+    final AtomicInteger maxInFlight = new AtomicInteger(0);
+    final Runnable recordInFlight = new Runnable() {
+      @Override
+      public void run() {
+        final int inFlight = mReader.getReadsInFlight();
+        int max;
+        do {
+          max = maxInFlight.get();
+        } while ((inFlight > max) && !maxInFlight.compareAndSet(max, inFlight));
+      }
+    };
+
+    // Many more reads than the maximum number of reads in flight:
+    final List<ListenableFuture<KijiRowData>> futures = Lists.newArrayList();
+    for (int row = 0; row < NUM_ROWS; ++row) {
+      final ListenableFuture<KijiRowData> future =
+          mReader.get(mTable.getEntityId("row-" + row), REQUEST);
+      future.addListener(recordInFlight, MoreExecutors.sameThreadExecutor());
+      futures.add(future);
+      Assert.assertTrue(mReader.getReadsInFlight() <= MAX_CONCURRENT_READS);
+    }
+
+    // Queued reads are all eventually issued:
+    for (int row = 0; row < NUM_ROWS; ++row) {
+      Assert.assertEquals("value-" + row,
+          futures.get(row).get().getMostRecentValue("family", "column").toString());
+    }
+    Assert.assertTrue(maxInFlight.get() >= 1);
+    Assert.assertTrue(maxInFlight.get() <= MAX_CONCURRENT_READS);
+    assertNoReadsInFlight();
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    final List<ListenableFuture<KijiResult<CharSequence>>> futures = Lists.newArrayList();
+    for (int row = 0; row < NUM_ROWS; ++row) {
+      futures.add(mReader.<CharSequence>getResult(mTable.getEntityId("row-" + row), REQUEST));
+    }
+
+    // Cancels the reads in flight, whose queries are cancelled, and the reads still queued:
+    int cancelled = 0;
+    for (ListenableFuture<KijiResult<CharSequence>> future : futures) {
+      if (future.cancel(false)) {
+        cancelled += 1;
+      } else {
+        future.get().close();
+      }
+    }
+    Assert.assertTrue(cancelled > 0);
+    for (ListenableFuture<KijiResult<CharSequence>> future : futures) {
+      Assert.assertTrue(future.isDone());
+    }
+
+    // Cancelled reads release their room, so later reads still complete:
+    assertNoReadsInFlight();
+    final KijiRowData row = mReader.get(mTable.getEntityId("row-1"), REQUEST).get();
+    Assert.assertEquals("value-1", row.getMostRecentValue("family", "column").toString());
+  }
+
+  @Test
+  public void testFailedBulkGet() throws Exception {
+    final List<EntityId> entityIds = Lists.newArrayList();
+    for (int row = 0; row < NUM_ROWS; ++row) {
+      entityIds.add(mTable.getEntityId("row-" + row));
+    }
+    final ListenableFuture<List<KijiRowData>> future =
+        mReader.bulkGet(entityIds, KijiDataRequest.create("family", "unknown"));
+    try {
+      future.get();
+      Assert.fail("Reading an unknown column should fail.");
+    } catch (ExecutionException ee) {
+      // Expected.
+    }
+    assertNoReadsInFlight();
+  }
+
+  @Test
+  public void testBulkGetFailureClosesResults() throws Exception {
+    final KijiResult<Object> succeeded = createResult(true);
+    replay(succeeded);
+
+    final SettableFuture<KijiResult<Object>> first = SettableFuture.create();
+    final SettableFuture<KijiResult<Object>> second = SettableFuture.create();
+    final SettableFuture<KijiResult<Object>> third = SettableFuture.create();
+    final ListenableFuture<List<KijiResult<Object>>> all =
+        CassandraAsyncKijiTableReader.allAsListOrClose(
+            ImmutableList.<ListenableFuture<KijiResult<Object>>>of(first, second, third));
+
+    first.set(succeeded);
+    second.setException(new IOException("Read failed."));
+    try {
+      all.get();
+      Assert.fail("The bulk get should fail when the read of one row fails.");
+    } catch (ExecutionException ee) {
+      Assert.assertEquals("Read failed.", ee.getCause().getMessage());
+    }
+    Assert.assertTrue(third.isCancelled());
+    verify(succeeded);
+  }
+
+  @Test
+  public void testBulkGetCancellationClosesResults() throws Exception {
+    final KijiResult<Object> succeeded = createResult(true);
+    replay(succeeded);
+
+    final SettableFuture<KijiResult<Object>> first = SettableFuture.create();
+    final SettableFuture<KijiResult<Object>> second = SettableFuture.create();
+    final ListenableFuture<List<KijiResult<Object>>> all =
+        CassandraAsyncKijiTableReader.allAsListOrClose(
+            ImmutableList.<ListenableFuture<KijiResult<Object>>>of(first, second));
+
+    first.set(succeeded);
+    Assert.assertTrue(all.cancel(false));
+    try {
+      all.get();
+      Assert.fail("The bulk get should have been cancelled.");
+    } catch (CancellationException ce) {
+      // Expected.
+    }
+    Assert.assertTrue(second.isCancelled());
+    verify(succeeded);
+  }
+
+  @Test
+  public void testSuccessfulBulkGetKeepsResultsOpen() throws Exception {
+    final KijiResult<Object> firstResult = createResult(false);
+    final KijiResult<Object> secondResult = createResult(false);
+    replay(firstResult, secondResult);
+
+    final SettableFuture<KijiResult<Object>> first = SettableFuture.create();
+    final SettableFuture<KijiResult<Object>> second = SettableFuture.create();
+    final ListenableFuture<List<KijiResult<Object>>> all =
+        CassandraAsyncKijiTableReader.allAsListOrClose(
+            ImmutableList.<ListenableFuture<KijiResult<Object>>>of(first, second));
+
+    second.set(secondResult);
+    first.set(firstResult);
+    Assert.assertEquals(ImmutableList.of(firstResult, secondResult), all.get());
+    verify(firstResult, secondResult);
+  }
+}
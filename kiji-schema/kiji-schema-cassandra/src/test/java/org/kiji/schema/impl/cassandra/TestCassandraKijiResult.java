@@ -21,6 +21,7 @@ package org.kiji.schema.impl.cassandra;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.Iterator;
@@ -30,12 +31,17 @@ import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.SortedMap;
 
+import com.datastax.driver.core.exceptions.DriverException;
+import com.datastax.driver.core.exceptions.DriverInternalError;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import org.apache.avro.util.Utf8;
 import org.junit.After;
 import org.junit.Before;
@@ -49,6 +55,7 @@ import org.kiji.schema.KijiDataRequestBuilder;
 import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
 import org.kiji.schema.KijiResult;
 import org.kiji.schema.KijiResult.Helpers;
+import org.kiji.schema.KijiTableReader;
 import org.kiji.schema.cassandra.CassandraKijiClientTest;
 import org.kiji.schema.filter.KijiColumnRangeFilter;
 import org.kiji.schema.layout.KijiTableLayouts;
@@ -725,4 +732,109 @@ public class TestCassandraKijiResult extends CassandraKijiClientTest {
       assertTrue(!it.hasNext());
     }
   }
+
+  @Test
+  public void testBulkGetResults() throws Exception {
+    final KijiDataRequest request = KijiDataRequest
+        .builder()
+        .addColumns(
+            ColumnsDef.create()
+                .withMaxVersions(100)
+                .add(PRIMITIVE_STRING.getFamily(), PRIMITIVE_STRING.getQualifier())
+                .add(STRING_MAP_1.getFamily(), STRING_MAP_1.getQualifier()))
+        .build();
+    final List<EntityId> eids =
+        ImmutableList.of(mTable.getEntityId(ROW), mTable.getEntityId(2), mTable.getEntityId(ROW));
+
+    // A concurrency of 1 forces the bulk get to wait for each row before issuing the next one.
+    final CassandraKijiTableReader reader = CassandraKijiTableReaderBuilder.create(mTable)
+        .withBulkGetConcurrency(1)
+        .buildAndOpen();
+    try {
+      for (KijiTableReader bulkReader : ImmutableList.<KijiTableReader>of(mReader, reader)) {
+        final List<KijiResult<Object>> results = bulkReader.bulkGetResults(eids, request);
+        try {
+          assertEquals(eids.size(), results.size());
+          for (int i = 0; i < eids.size(); i++) {
+            assertEquals(eids.get(i), results.get(i).getEntityId());
+          }
+          final Iterable<? extends Entry<Long, ?>> expected = Iterables.concat(
+              ROW_DATA.get(PRIMITIVE_STRING).entrySet(),
+              ROW_DATA.get(STRING_MAP_1).entrySet());
+          testViewGet(results.get(0), expected);
+          assertTrue(Iterables.isEmpty(results.get(1)));
+          testViewGet(results.get(2), expected);
+        } finally {
+          for (KijiResult<Object> result : results) {
+            result.close();
+          }
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Creates a pending result for the string column of the primitive family.
+   *
+   * @param row Row of the result.
+   * @param future Future of the cells of the column.
+   * @return a pending result completed by the future.
+   */
+  private CassandraKijiResult.PendingKijiResult<Object> createPending(
+      final Integer row,
+      final ListenableFuture<Iterator<KijiCell<Object>>> future
+  ) {
+    return CassandraKijiResult.createPending(
+        mTable.getEntityId(row),
+        KijiDataRequest.create(PRIMITIVE_STRING.getFamily(), PRIMITIVE_STRING.getQualifier()),
+        mTable.getLayout(),
+        ImmutableSortedMap.<KijiColumnName, ListenableFuture<Iterator<KijiCell<Object>>>>of(
+            PRIMITIVE_STRING, future));
+  }
+
+  @Test
+  public void testFailedBulkGetCancelsPendingResults() throws Exception {
+    final SettableFuture<Iterator<KijiCell<Object>>> first = SettableFuture.create();
+    final SettableFuture<Iterator<KijiCell<Object>>> second = SettableFuture.create();
+    final SettableFuture<Iterator<KijiCell<Object>>> third = SettableFuture.create();
+    final List<CassandraKijiResult.PendingKijiResult<Object>> pendingResults = ImmutableList.of(
+        createPending(ROW, first),
+        createPending(2, second),
+        createPending(ROW, third));
+
+    first.set(Iterators.<KijiCell<Object>>emptyIterator());
+    second.setException(new DriverInternalError("Query failed."));
+    try {
+      CassandraKijiTableReader.getAllOrClose(pendingResults);
+      fail("The bulk get should fail when the query of one row fails.");
+    } catch (DriverException de) {
+      assertEquals("Query failed.", de.getMessage());
+    }
+    // The queries of the rows not read yet are cancelled:
+    assertTrue(third.isCancelled());
+  }
+
+  @Test
+  public void testSuccessfulBulkGetKeepsResults() throws Exception {
+    final SettableFuture<Iterator<KijiCell<Object>>> first = SettableFuture.create();
+    final SettableFuture<Iterator<KijiCell<Object>>> second = SettableFuture.create();
+    final List<CassandraKijiResult.PendingKijiResult<Object>> pendingResults = ImmutableList.of(
+        createPending(ROW, first),
+        createPending(2, second));
+
+    second.set(Iterators.<KijiCell<Object>>emptyIterator());
+    first.set(Iterators.<KijiCell<Object>>emptyIterator());
+    final List<KijiResult<Object>> results = CassandraKijiTableReader.getAllOrClose(pendingResults);
+    try {
+      assertEquals(2, results.size());
+      assertEquals(mTable.getEntityId(ROW), results.get(0).getEntityId());
+      assertEquals(mTable.getEntityId(2), results.get(1).getEntityId());
+    } finally {
+      for (KijiResult<Object> result : results) {
+        result.close();
+      }
+    }
+  }
 }
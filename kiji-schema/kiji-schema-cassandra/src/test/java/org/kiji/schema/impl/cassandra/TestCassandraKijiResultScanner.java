@@ -29,6 +29,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.apache.avro.util.Utf8;
+import org.apache.hadoop.hbase.HConstants;
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -37,9 +38,12 @@ import org.slf4j.LoggerFactory;
 import org.kiji.schema.Kiji;
 import org.kiji.schema.KijiBufferedWriter;
 import org.kiji.schema.KijiColumnName;
+import org.kiji.schema.KijiCell;
 import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiDataRequestBuilder;
 import org.kiji.schema.KijiPartition;
 import org.kiji.schema.KijiResult;
+import org.kiji.schema.KijiResultScanner;
 import org.kiji.schema.KijiTable;
 import org.kiji.schema.KijiTableReader;
 import org.kiji.schema.cassandra.CassandraKijiClientTest;
@@ -106,4 +110,66 @@ public class TestCassandraKijiResultScanner extends CassandraKijiClientTest {
       Assert.assertEquals(Long.valueOf(i), result.getEntityId().<Long>getComponentByIndex(0));
     }
   }
+
+  /**
+   * Test that a streaming scan returns the same rows and cells as a scan which gets each row.
+   */
+  @Test
+  public void testStreamingScan() throws IOException {
+    final int n = 1000;
+
+    final Kiji kiji = getKiji();
+    kiji.createTable(
+        KijiTableLayouts.getLayout("org/kiji/schema/layout/all-types-no-counters-schema.json"));
+
+    final KijiTable table = kiji.openTable("all_types_table");
+    try {
+      try (KijiBufferedWriter writer = table.getWriterFactory().openBufferedWriter()) {
+        for (long i = 0; i < n; i++) {
+          for (long version = 1; version <= 3; version++) {
+            writer.put(table.getEntityId(i), "primitive", "string_column", version, "s" + i);
+            writer.put(table.getEntityId(i), "string_map", "key" + (i % 3), version, "m" + i);
+          }
+          if (i % 2 == 0) {
+            writer.put(table.getEntityId(i), "primitive", "int_column", (int) i);
+          }
+        }
+      }
+
+      final KijiDataRequestBuilder builder = KijiDataRequest.builder();
+      builder.newColumnsDef().withMaxVersions(2).add("primitive", "string_column");
+      builder.newColumnsDef().add("primitive", "int_column");
+      builder.newColumnsDef().withMaxVersions(HConstants.ALL_VERSIONS).addFamily("string_map");
+      final KijiDataRequest dataRequest = builder.build();
+
+      final CassandraKijiTableReader reader = (CassandraKijiTableReader) table.openTableReader();
+      try {
+        final List<KijiResult<Object>> expected;
+        try (KijiResultScanner<Object> scanner = reader.getKijiResultScanner(
+            dataRequest, CassandraKijiScannerOptions.withoutBounds())) {
+          expected = ImmutableList.copyOf(scanner);
+        }
+
+        final List<KijiResult<Object>> actual;
+        try (KijiResultScanner<Object> scanner = reader.getKijiResultScanner(
+            dataRequest, CassandraKijiScannerOptions.withoutBounds().withStreamingPageSize(7))) {
+          actual = ImmutableList.copyOf(scanner);
+        }
+
+        Assert.assertEquals(n, expected.size());
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+          Assert.assertEquals(expected.get(i).getEntityId(), actual.get(i).getEntityId());
+          final List<KijiCell<Object>> expectedCells = ImmutableList.copyOf(expected.get(i));
+          Assert.assertEquals(expectedCells, ImmutableList.copyOf(actual.get(i)));
+          final long row = actual.get(i).getEntityId().<Long>getComponentByIndex(0);
+          Assert.assertEquals((row % 2 == 0) ? 6 : 5, expectedCells.size());
+        }
+      } finally {
+        reader.close();
+      }
+    } finally {
+      table.release();
+    }
+  }
 }
@@ -0,0 +1,105 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema;
+
+import java.io.Closeable;
+import java.util.List;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.annotations.ApiStability;
+import org.kiji.annotations.Inheritance;
+
+/**
+ * Interface for reading data from a Kiji table without blocking the calling thread.
+ *
+ * <p>
+ *   Each method issues a read and immediately returns a future of its outcome. The future fails
+ *   with the exception the equivalent {@link KijiTableReader} method would have thrown.
+ * </p>
+ *
+ * <p>
+ *   An asynchronous reader bounds the number of reads it has in flight. Reads issued beyond that
+ *   bound are queued until earlier reads complete, so a caller may fan out many reads at once
+ *   without exhausting threads or connections. Cancelling a future removes its read from the
+ *   queue, or abandons it if it is already in flight; a {@link KijiResult} delivered after the
+ *   cancellation is closed.
+ * </p>
+ *
+ * <p>
+ *   Instantiated from {@link KijiReaderFactory#openAsyncTableReader(int)}. Asynchronous readers
+ *   are thread-safe, and must be closed when no longer needed. Reads still queued when the reader
+ *   is closed fail with an {@link IllegalStateException}.
+ * </p>
+ */
+@ApiAudience.Public
+@ApiStability.Experimental
+@Inheritance.Sealed
+public interface AsyncKijiTableReader extends Closeable {
+
+  /**
+   * Retrieves data from a single row in the kiji table.
+   *
+   * @param entityId The entity id for the row to get data from.
+   * @param dataRequest Specifies the columns of data to retrieve.
+   * @return a future of the requested data. If there is no row for the specified entityId, this
+   *     will be a future of an empty KijiRowData (containsColumn() will return false for all
+   *     columns).
+   */
+  ListenableFuture<KijiRowData> get(EntityId entityId, KijiDataRequest dataRequest);
+
+  /**
+   * Get a KijiResult for the given EntityId and data request.
+   *
+   * <p> See {@link KijiTableReader#getResult(EntityId, KijiDataRequest)} about type-bounds. </p>
+   *
+   * @param entityId EntityId of the row from which to get data.
+   * @param dataRequest Specification of the data to get from the given row.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}.
+   * @return a future of a new KijiResult for the given EntityId and data request.
+   */
+  <T> ListenableFuture<KijiResult<T>> getResult(EntityId entityId, KijiDataRequest dataRequest);
+
+  /**
+   * Retrieves data from a list of rows in the kiji table.
+   *
+   * @param entityIds The list of entity ids to collect data for.
+   * @param dataRequest Specifies constraints on the data to be returned for each row.
+   * @return a future of a list of KijiRowData corresponding to the EntityIds, in order.
+   */
+  ListenableFuture<List<KijiRowData>> bulkGet(
+      List<EntityId> entityIds,
+      KijiDataRequest dataRequest);
+
+  /**
+   * Get a list of KijiResults for the given EntityIds and data request.
+   *
+   * <p> See {@link KijiTableReader#getResult(EntityId, KijiDataRequest)} about type-bounds. </p>
+   *
+   * @param entityIds EntityIds of the rows from which to get data.
+   * @param dataRequest Specification of the data to get from each row.
+   * @param <T> type {@code KijiCell} value returned by the {@code KijiResult}s.
+   * @return a future of a list of KijiResults corresponding to the EntityIds, in order.
+   */
+  <T> ListenableFuture<List<KijiResult<T>>> bulkGetResults(
+      List<EntityId> entityIds,
+      KijiDataRequest dataRequest);
+}
@@ -19,9 +19,7 @@
 
 package org.kiji.schema;
 
-import java.io.ByteArrayOutputStream;
-import java.io.UnsupportedEncodingException;
-import java.nio.ByteBuffer;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -40,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import org.kiji.annotations.ApiAudience;
 import org.kiji.schema.avro.ComponentType;
+import org.kiji.schema.avro.RowKeyComponent;
 import org.kiji.schema.avro.RowKeyEncoding;
 import org.kiji.schema.avro.RowKeyFormat2;
 import org.kiji.schema.util.ByteArrayFormatter;
@@ -114,6 +113,11 @@ import org.kiji.schema.util.Hasher;
  *   } ]
  * }
  * </code>
+ *
+ * <p>
+ *   Entity IDs created from HBase row keys, for instance for each row returned by a scan,
+ *   only validate the structure of the row key: components are decoded on first access.
+ * </p>
  */
 @ApiAudience.Private
 public final class FormattedEntityId extends EntityId {
@@ -121,7 +125,12 @@ public final class FormattedEntityId extends EntityId {
   // potentially including a hash prefix, as specified in the row key format.
   private byte[] mHBaseRowKey;
 
-  private List<Object> mComponentValues;
+  // Components of the row key, or null until decoded from the HBase row key.
+  private volatile List<Object> mComponentValues;
+
+  // Offsets of the components in the HBase row key, with -1 for null components.
+  // Null unless this entity ID was created from an HBase row key with materialized components.
+  private final int[] mComponentOffsets;
 
   private RowKeyFormat2 mRowKeyFormat;
 
@@ -216,11 +225,9 @@ public final class FormattedEntityId extends EntityId {
       }
     }
 
-    byte[] hbaseRowKey = null;
-
-    hbaseRowKey = makeHbaseRowKey(format, kijiRowKey);
+    final byte[] hbaseRowKey = makeHbaseRowKey(format, kijiRowKey);
 
-    return new FormattedEntityId(format, hbaseRowKey, kijiRowKey);
+    return new FormattedEntityId(format, hbaseRowKey, kijiRowKey, null);
   }
 
   /**
@@ -234,11 +241,9 @@ public final class FormattedEntityId extends EntityId {
     Preconditions.checkNotNull(format);
     Preconditions.checkNotNull(format.getSalt());
     Preconditions.checkNotNull(hbaseRowKey);
-    // we modify the hbaseRowKey in the makeKijiRowKey code for integer encoding, so we make
-    // a copy of it to pass to makeKijiRowKey:
-    byte[] cloneHbaseKey = hbaseRowKey.clone();
-    List<Object> kijiRowKey = makeKijiRowKey(format, cloneHbaseKey);
-    return new FormattedEntityId(format, hbaseRowKey, kijiRowKey);
+    // Components are decoded lazily, only validate the row key and locate its components:
+    final int[] componentOffsets = findComponentOffsets(format, hbaseRowKey);
+    return new FormattedEntityId(format, hbaseRowKey, null, componentOffsets);
   }
 
   /**
@@ -265,72 +270,81 @@ public final class FormattedEntityId extends EntityId {
    * @return A byte array representing the encoded Hbase row key.
    */
   private static byte[] makeHbaseRowKey(RowKeyFormat2 format, List<Object> kijiRowKey) {
+    final int hashSize = format.getSalt().getHashSize();
 
-    ArrayList<byte[]> hbaseKey = new ArrayList<byte[]>();
-    final byte zeroDelim = 0;
-
-    int pos;
-    for (pos = 0; pos < kijiRowKey.size(); pos++) {
+    // Size the row key, encoding the string components on the way:
+    final byte[][] encodedStrings = new byte[kijiRowKey.size()][];
+    int size = hashSize;
+    for (int pos = 0; pos < kijiRowKey.size(); pos++) {
+      final Object component = kijiRowKey.get(pos);
       // we have already done the validation check for null cascades.
-      if (null == kijiRowKey.get(pos)) {
+      if (null == component) {
         continue;
       }
-      byte[] tempBytes;
-      switch (getType(kijiRowKey.get(pos))) {
+      switch (getType(component)) {
         case STRING:
-          if (((String)kijiRowKey.get(pos)).contains("\u0000")) {
+          final String str = (String) component;
+          if (str.indexOf('\u0000') >= 0) {
             throw new EntityIdException("String component cannot contain \u0000");
           }
-          try {
-            hbaseKey.add(((String) kijiRowKey.get(pos)).getBytes("UTF-8"));
-          } catch (UnsupportedEncodingException e) {
-            LOG.error(e.toString());
-            throw new EntityIdException(String.format(
-                "UnsupportedEncoding for component %d", pos));
-          }
+          encodedStrings[pos] = Bytes.toBytes(str);
+          // empty strings will be encoded as null, hence we need to delimit them too
+          size += encodedStrings[pos].length + 1;
           break;
         case INTEGER:
-          int temp = (Integer) kijiRowKey.get(pos);
-          tempBytes = ByteBuffer.allocate(Integer.SIZE / Byte.SIZE)
-              .putInt(temp).array();
-          tempBytes[0] = (byte)((int) tempBytes[0] ^ (int)Byte.MIN_VALUE);
-          hbaseKey.add(tempBytes);
+          size += Bytes.SIZEOF_INT;
           break;
         case LONG:
-          long templong = (Long) kijiRowKey.get(pos);
-          tempBytes = ByteBuffer.allocate(Long.SIZE / Byte.SIZE).putLong(templong).array();
-          tempBytes[0] = (byte)((int) tempBytes[0] ^ (int)Byte.MIN_VALUE);
-          hbaseKey.add(tempBytes);
+          size += Bytes.SIZEOF_LONG;
           break;
         default:
           throw new RuntimeException("Invalid code path");
       }
     }
 
-    // hash stuff
-    int hashUpto = format.getRangeScanStartIndex() - 1;
-    ByteArrayOutputStream tohash = new ByteArrayOutputStream();
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    for (pos = 0; pos <= hashUpto && pos < hbaseKey.size(); pos++) {
-      tohash.write(hbaseKey.get(pos), 0, hbaseKey.get(pos).length);
+    // Write the components after the hash prefix, and hash the components up to the range scan
+    // start index as they are written:
+    final int hashUpto = format.getRangeScanStartIndex() - 1;
+    final MessageDigest digest = Hasher.getThreadLocalDigest();
+    final byte[] hbaseRowKey = new byte[size];
+    int offset = hashSize;
+    for (int pos = 0; pos < kijiRowKey.size(); pos++) {
+      final Object component = kijiRowKey.get(pos);
+      if (null == component) {
+        continue;
+      }
+      final int start = offset;
+      switch (getType(component)) {
+        case STRING:
+          final byte[] bytes = encodedStrings[pos];
+          System.arraycopy(bytes, 0, hbaseRowKey, offset, bytes.length);
+          offset += bytes.length;
+          break;
+        case INTEGER:
+          // Toggle the highest order bit to preserve ordering.
+          offset = Bytes.putInt(hbaseRowKey, offset, (Integer) component ^ Integer.MIN_VALUE);
+          break;
+        case LONG:
+          offset = Bytes.putLong(hbaseRowKey, offset, (Long) component ^ Long.MIN_VALUE);
+          break;
+        default:
+          throw new RuntimeException("Invalid code path");
+      }
+      if (pos <= hashUpto) {
+        digest.update(hbaseRowKey, start, offset - start);
+      }
+      if (format.getComponents().get(pos).getType() == ComponentType.STRING) {
+        offset += 1;  // The string delimiter is the zero byte left in place.
+      }
     }
-    byte[] hashed = Arrays.copyOfRange(Hasher.hash(tohash.toByteArray()), 0,
-        format.getSalt().getHashSize());
-    baos.write(hashed, 0, hashed.length);
+    final byte[] hash = digest.digest();
+    System.arraycopy(hash, 0, hbaseRowKey, 0, Math.min(hashSize, hash.length));
 
     // to materialize or not to materialize that is the question
     if (format.getSalt().getSuppressKeyMaterialization()) {
-      return baos.toByteArray();
+      return Arrays.copyOf(hbaseRowKey, hashSize);
     } else {
-      for (pos = 0; pos < hbaseKey.size(); pos++) {
-        baos.write(hbaseKey.get(pos), 0, hbaseKey.get(pos).length);
-        if (format.getComponents().get(pos).getType() == ComponentType.STRING
-            || format.getComponents().get(pos) == null) {
-          // empty strings will be encoded as null, hence we need to delimit them too
-          baos.write(zeroDelim);
-        }
-      }
-      return baos.toByteArray();
+      return hbaseRowKey;
     }
   }
 
@@ -340,22 +354,23 @@ public final class FormattedEntityId extends EntityId {
   }
 
   /**
-   * Decode a byte array containing an hbase row key into an ordered list corresponding to
-   * the key format in the layout file.
+   * Validates a byte array containing an hbase row key against the key format in the layout file,
+   * and locates the components in the row key.
+   *
+   * <p> No component is decoded: see {@link #decodeComponent(int)}. </p>
    *
    * @param format The row key format as specified in the layout file.
    * @param hbaseRowKey A byte array containing the hbase row key.
-   * @return An ordered list of component values in the key.
+   * @return the offsets of the components in the row key, in the order of the key format, with -1
+   *     for null components. Null if the materialization of the components is suppressed.
    */
-  private static List<Object> makeKijiRowKey(RowKeyFormat2 format, byte[] hbaseRowKey) {
+  private static int[] findComponentOffsets(RowKeyFormat2 format, byte[] hbaseRowKey) {
     if (hbaseRowKey.length == 0) {
       throw new EntityIdException("Invalid hbase row key");
     }
-    List<Object> kijiRowKey = new ArrayList<Object>();
     // skip over the hash
     int pos = format.getSalt().getHashSize();
     // we are suppressing materialization, so the components cannot be retrieved.
-    int kijiRowElem = 0;
     if (format.getSalt().getSuppressKeyMaterialization()) {
       if (pos < hbaseRowKey.length) {
         throw new EntityIdException("Extra bytes in key after hash when materialization is"
@@ -363,48 +378,31 @@ public final class FormattedEntityId extends EntityId {
       }
       return null;
     }
-    ByteBuffer buf;
 
-    while (kijiRowElem < format.getComponents().size() && pos < hbaseRowKey.length) {
-      switch (format.getComponents().get(kijiRowElem).getType()) {
+    final List<RowKeyComponent> components = format.getComponents();
+    final int[] offsets = new int[components.size()];
+    int kijiRowElem = 0;
+    while (kijiRowElem < components.size() && pos < hbaseRowKey.length) {
+      offsets[kijiRowElem] = pos;
+      switch (components.get(kijiRowElem).getType()) {
         case STRING:
-          // Read the row key until we encounter a Null (0) byte or end.
-          int endpos = pos;
-          while (endpos < hbaseRowKey.length && (hbaseRowKey[endpos] != (byte) 0)) {
-            endpos += 1;
+          // Skip the row key until we encounter a Null (0) byte or end.
+          while (pos < hbaseRowKey.length && (hbaseRowKey[pos] != (byte) 0)) {
+            pos += 1;
           }
-          String str = null;
-          try {
-            str = new String(hbaseRowKey, pos, endpos - pos, "UTF-8");
-          } catch (UnsupportedEncodingException e) {
-            LOG.error(e.toString());
-            throw new EntityIdException(String.format(
-                "UnsupportedEncoding for component %d", kijiRowElem));
-          }
-          kijiRowKey.add(str);
-          pos = endpos + 1;
+          pos += 1;
           break;
         case INTEGER:
-          // Toggle highest order bit to return to original 2's complement.
-          hbaseRowKey[pos] =  (byte)((int) hbaseRowKey[pos] ^ (int) Byte.MIN_VALUE);
-          try {
-            buf = ByteBuffer.wrap(hbaseRowKey, pos, Integer.SIZE / Byte.SIZE);
-          } catch (IndexOutOfBoundsException e) {
+          pos += Bytes.SIZEOF_INT;
+          if (pos > hbaseRowKey.length) {
             throw new EntityIdException("Malformed hbase Row Key");
           }
-          kijiRowKey.add(Integer.valueOf(buf.getInt()));
-          pos = pos + Integer.SIZE / Byte.SIZE;
           break;
         case LONG:
-          // Toggle highest order bit to return to original 2's complement.
-          hbaseRowKey[pos] =  (byte)((int) hbaseRowKey[pos] ^ (int) Byte.MIN_VALUE);
-          try {
-            buf = ByteBuffer.wrap(hbaseRowKey, pos, Long.SIZE / Byte.SIZE);
-          } catch (IndexOutOfBoundsException e) {
+          pos += Bytes.SIZEOF_LONG;
+          if (pos > hbaseRowKey.length) {
             throw new EntityIdException("Malformed hbase Row Key");
           }
-          kijiRowKey.add(Long.valueOf(buf.getLong()));
-          pos = pos + Long.SIZE / Byte.SIZE;
           break;
         default:
           throw new RuntimeException("Invalid code path");
@@ -425,20 +423,76 @@ public final class FormattedEntityId extends EntityId {
     }
 
     // finish up with nulls for everything that wasn't in the key
-    for (; kijiRowElem < format.getComponents().size(); kijiRowElem++) {
-      kijiRowKey.add(null);
+    for (; kijiRowElem < components.size(); kijiRowElem++) {
+      offsets[kijiRowElem] = -1;
     }
 
-    return kijiRowKey;
+    return offsets;
+  }
+
+  /**
+   * Decodes a component from the hbase row key.
+   *
+   * <p> Requires the component offsets located by {@link #findComponentOffsets}. </p>
+   *
+   * @param index Index of the component to decode.
+   * @return the decoded component, or null.
+   */
+  private Object decodeComponent(int index) {
+    final int offset = mComponentOffsets[index];
+    if (offset < 0) {
+      return null;
+    }
+    switch (mRowKeyFormat.getComponents().get(index).getType()) {
+      case STRING:
+        int endpos = offset;
+        while (endpos < mHBaseRowKey.length && (mHBaseRowKey[endpos] != (byte) 0)) {
+          endpos += 1;
+        }
+        return Bytes.toString(mHBaseRowKey, offset, endpos - offset);
+      case INTEGER:
+        // Toggle highest order bit to return to original 2's complement.
+        return Integer.valueOf(Bytes.toInt(mHBaseRowKey, offset) ^ Integer.MIN_VALUE);
+      case LONG:
+        return Long.valueOf(Bytes.toLong(mHBaseRowKey, offset) ^ Long.MIN_VALUE);
+      default:
+        throw new RuntimeException("Invalid code path");
+    }
+  }
+
+  /**
+   * Reports the components of this entity ID, decoding them from the hbase row key if necessary.
+   *
+   * <p> Requires the materialization of the components. </p>
+   *
+   * @return the ordered list of the components of this entity ID.
+   */
+  private List<Object> getComponentValues() {
+    List<Object> components = mComponentValues;
+    if (components == null) {
+      components = new ArrayList<Object>(mComponentOffsets.length);
+      for (int index = 0; index < mComponentOffsets.length; ++index) {
+        components.add(decodeComponent(index));
+      }
+      // Concurrent callers may decode the components more than once, with identical results:
+      mComponentValues = components;
+    }
+    return components;
   }
 
   /**
    * Creates a new FormattedEntityId.
    * @param format Format of the row key as specified in the layout file.
    * @param hbaseRowKey Byte array containing the hbase row key.
-   * @param kijiRowKey An ordered list of row key components.
+   * @param kijiRowKey An ordered list of row key components, or null to decode them lazily.
+   * @param componentOffsets Offsets of the components in the hbase row key, required to decode
+   *     the components lazily.
    */
-  private FormattedEntityId(RowKeyFormat2 format, byte[] hbaseRowKey, List<Object> kijiRowKey) {
+  private FormattedEntityId(
+      RowKeyFormat2 format,
+      byte[] hbaseRowKey,
+      List<Object> kijiRowKey,
+      int[] componentOffsets) {
     mRowKeyFormat = Preconditions.checkNotNull(format);
     Preconditions.checkArgument(format.getEncoding() == RowKeyEncoding.FORMATTED);
     Preconditions.checkNotNull(format.getSalt(),
@@ -446,8 +500,11 @@ public final class FormattedEntityId extends EntityId {
     mHBaseRowKey = hbaseRowKey;
     if (format.getSalt().getSuppressKeyMaterialization()) {
       mComponentValues = null;
+      mComponentOffsets = null;
     } else {
+      Preconditions.checkArgument((kijiRowKey != null) || (componentOffsets != null));
       mComponentValues = kijiRowKey;
+      mComponentOffsets = componentOffsets;
     }
   }
 
@@ -457,8 +514,14 @@ public final class FormattedEntityId extends EntityId {
   public <T> T getComponentByIndex(int idx) {
     Preconditions.checkState(!mRowKeyFormat.getSalt().getSuppressKeyMaterialization(),
         "Cannot retrieve components as materialization is suppressed");
-    Preconditions.checkArgument(idx >= 0 && idx < mComponentValues.size());
-    return (T) mComponentValues.get(idx);
+    final List<Object> components = mComponentValues;
+    if (components != null) {
+      Preconditions.checkArgument(idx >= 0 && idx < components.size());
+      return (T) components.get(idx);
+    }
+    // Only decode the requested component:
+    Preconditions.checkArgument(idx >= 0 && idx < mComponentOffsets.length);
+    return (T) decodeComponent(idx);
   }
 
   /** {@inheritDoc} */
@@ -466,7 +529,7 @@ public final class FormattedEntityId extends EntityId {
   public List<Object> getComponents() {
     Preconditions.checkState(!mRowKeyFormat.getSalt().getSuppressKeyMaterialization(),
         "Cannot retrieve components as materialization is suppressed");
-    return Collections.unmodifiableList(mComponentValues);
+    return Collections.unmodifiableList(getComponentValues());
   }
 
   /** {@inheritDoc} */
@@ -474,7 +537,7 @@ public final class FormattedEntityId extends EntityId {
   public String toString() {
     if (!mRowKeyFormat.getSalt().getSuppressKeyMaterialization()) {
       return Objects.toStringHelper(FormattedEntityId.class)
-          .add("components", Joiner.on(",").join(mComponentValues))
+          .add("components", Joiner.on(",").join(getComponentValues()))
           .add("hbase", Bytes.toStringBinary(mHBaseRowKey))
           .toString();
     } else {
@@ -495,7 +558,7 @@ public final class FormattedEntityId extends EntityId {
     /** Set of characters which must be escaped */
     HashSet<Character> escapeSet = Sets.newHashSet('"', '\\', '\'');
     ArrayList<String> componentStrings = Lists.newArrayList();
-    for (Object component : mComponentValues) {
+    for (Object component : getComponentValues()) {
       if (component == null) {
         componentStrings.add("null");
       } else {
@@ -46,6 +46,17 @@ public interface KijiCellDecoder<T> {
    */
   DecodedCell<T> decodeCell(byte[] bytes) throws IOException;
 
+  /**
+   * Decodes a Kiji cell from a region of a byte array, without copying the region when possible.
+   *
+   * @param bytes Byte array containing the binary encoded Kiji cell.
+   * @param offset Offset of the binary encoded Kiji cell in the byte array.
+   * @param length Length of the binary encoded Kiji cell.
+   * @return the decoded KijiCell.
+   * @throws IOException on I/O error.
+   */
+  DecodedCell<T> decodeCell(byte[] bytes, int offset, int length) throws IOException;
+
   /**
    * Decodes a Kiji cell from its binary-encoded form.
    *
@@ -64,6 +64,23 @@ public interface KijiReaderFactory {
    */
   KijiTableReader openTableReader() throws IOException;
 
+  /**
+   * Opens a new asynchronous reader for the KijiTable associated with this reader factory.
+   *
+   * <p>
+   *   Reads issued through the asynchronous reader return futures instead of blocking the calling
+   *   thread. At most {@code maxConcurrentReads} reads are in flight at once; further reads are
+   *   queued until earlier reads complete.
+   * </p>
+   *
+   * <p> The caller of this method is responsible for closing the reader. </p>
+   *
+   * @param maxConcurrentReads Maximum number of reads in flight at once. Must be positive.
+   * @return a new AsyncKijiTableReader.
+   * @throws IOException on I/O error.
+   */
+  AsyncKijiTableReader openAsyncTableReader(int maxConcurrentReads) throws IOException;
+
   /**
    * Opens a new reader for the KijiTable associated with this reader factory.
    *
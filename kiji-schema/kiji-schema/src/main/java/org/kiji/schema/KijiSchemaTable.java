@@ -22,12 +22,12 @@ package org.kiji.schema;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Map;
 
 import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.apache.avro.Schema;
-import org.apache.avro.util.WeakIdentityHashMap;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import org.kiji.annotations.ApiAudience;
@@ -200,13 +200,21 @@ public interface KijiSchemaTable extends Flushable, Closeable {
   @ApiAudience.Private
   static final class SchemaHashCache {
     /**
-     * Underlying cache is a weak identity hash map:
+     * Underlying cache has weak keys, which it compares by identity:
      * <li> We must use object IDs since Schema.hashCode() and Schema.equals() implement a
      *      comparison that ignores doc fields or default values.
-     * <li> We must use a weak map to ensure the cache gets garbage collected properly.
+     * <li> We must use weak keys to ensure the cache gets garbage collected properly.
+     * <li> Lookups do not acquire a shared lock, as schemas are hashed on every write.
      */
-    private final Map<Schema, BytesKey> mCache =
-        Collections.synchronizedMap(new WeakIdentityHashMap<Schema, BytesKey>());
+    private final LoadingCache<Schema, BytesKey> mCache = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(new CacheLoader<Schema, BytesKey>() {
+          /** {@inheritDoc} */
+          @Override
+          public BytesKey load(Schema schema) {
+            return new BytesKey(hashSchema(schema));
+          }
+        });
 
     /**
      * Computes a hash of the specified Avro schema.
@@ -227,13 +235,7 @@ public interface KijiSchemaTable extends Flushable, Closeable {
      * @return the schema hash.
      */
     public BytesKey getHash(Schema schema) {
-      final BytesKey hash = mCache.get(schema);
-      if (null != hash) {
-        return hash;
-      }
-      final BytesKey newHash = new BytesKey(hashSchema(schema));
-      mCache.put(schema, newHash);
-      return newHash;
+      return mCache.getUnchecked(schema);
     }
   }
 
@@ -21,13 +21,12 @@ package org.kiji.schema;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -74,6 +73,10 @@ import org.kiji.schema.util.ResourceUtils;
  *
  * <p>
  *   This class is thread-safe, but the individual KijiTables that are returned from it are not.
+ *   Getting and releasing tables does not acquire any lock: tables with different names never
+ *   contend, and tables with the same name are handed out from a lock-free deque. Idle tables are
+ *   cleaned up without blocking concurrent getters. A get concurrent with {@link #close()} either
+ *   completes before the pool is closed, or releases the table it opened and fails.
  * </p>
  *
  * <p>
@@ -116,10 +119,11 @@ public final class KijiTablePool implements Closeable {
   private final long mIdlePollPeriod;
 
   /** A map from table names to their connection pools. */
-  private final Map<String, Pool> mPoolCache;
+  private final ConcurrentMap<String, Pool> mPoolCache;
 
-  /** A cleanup thread for idle connections. */
-  private IdleTimeoutThread mCleanupThread;
+  /** A cleanup thread for idle connections, started on the first call to get(). */
+  private final AtomicReference<IdleTimeoutThread> mCleanupThread =
+      new AtomicReference<IdleTimeoutThread>(null);
 
   /** States of a KijiTablePool instance. */
   private static enum State {
@@ -251,7 +255,7 @@ public final class KijiTablePool implements Closeable {
     mMaxSize = builder.mMaxSize;
     mIdleTimeout = builder.mIdleTimeout;
     mIdlePollPeriod = builder.mIdlePollPeriod;
-    mPoolCache = new HashMap<String, Pool>();
+    mPoolCache = new ConcurrentHashMap<String, Pool>();
     final State oldState = mState.getAndSet(State.OPEN);
     Preconditions.checkState(oldState == State.UNINITIALIZED,
         "Cannot open KijiTablePool instance in state %s.", oldState);
@@ -281,31 +285,51 @@ public final class KijiTablePool implements Closeable {
    * @throws IOException If there is an error.
    * @throws KijiTablePool.NoCapacityException If the table pool is at capacity.
    */
-  public synchronized KijiTable get(String name) throws IOException {
+  public KijiTable get(String name) throws IOException {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot get KijiTable from KijiTablePool instance in state %s.", state);
 
     // Starts a cleanup thread if necessary.
-    if (mIdleTimeout > 0L && null == mCleanupThread) {
-      LOG.debug("Starting cleanup thread for table pool.");
-      mCleanupThread = new IdleTimeoutThread();
-      mCleanupThread.start();
+    if (mIdleTimeout > 0L && null == mCleanupThread.get()) {
+      final IdleTimeoutThread cleanupThread = new IdleTimeoutThread();
+      if (mCleanupThread.compareAndSet(null, cleanupThread)) {
+        LOG.debug("Starting cleanup thread for table pool.");
+        cleanupThread.start();
+        if (mState.get() == State.CLOSED) {
+          // The table pool was closed concurrently and may have missed this thread:
+          cleanupThread.interrupt();
+        }
+      }
     }
 
     LOG.debug("Retrieving a connection for {} from the table pool.", name);
 
-    if (!mPoolCache.containsKey(name)) {
-      mPoolCache.put(name, new Pool(name));
+    Pool pool = mPoolCache.get(name);
+    if (null == pool) {
+      final Pool newPool = new Pool(name);
+      pool = mPoolCache.putIfAbsent(name, newPool);
+      if (null == pool) {
+        pool = newPool;
+      }
     }
 
-    return mPoolCache.get(name).getTable();
+    final KijiTable table = pool.getTable();
+    final State stateAfterGet = mState.get();
+    if (stateAfterGet != State.OPEN) {
+      // The table pool was closed concurrently and may have missed this table or its pool.
+      // Returning the table to its pool closes the pool and all its connections:
+      ResourceUtils.releaseOrLog(table);
+      throw new IllegalStateException(String.format(
+          "Cannot get KijiTable from KijiTablePool instance in state %s.", stateAfterGet));
+    }
+    return table;
   }
 
   /**
    * Explicitly force a cleanup of table connections that have been idle too long.
    */
-  synchronized void cleanIdleConnections() {
+  void cleanIdleConnections() {
     if (mIdleTimeout > 0) {
       for (Pool pool: mPoolCache.values()) {
         pool.clean(mIdleTimeout);
@@ -319,13 +343,14 @@ public final class KijiTablePool implements Closeable {
    * @throws IOException If there is an error closing the pool.
    */
   @Override
-  public synchronized void close() throws IOException {
+  public void close() throws IOException {
     final State oldState = mState.getAndSet(State.CLOSED);
     Preconditions.checkState(oldState == State.OPEN,
         "Cannot close KijiTablePool instance in state %s.", oldState);
     ResourceTracker.get().unregisterResource(this);
-    if (null != mCleanupThread) {
-      mCleanupThread.interrupt();
+    final IdleTimeoutThread cleanupThread = mCleanupThread.get();
+    if (null != cleanupThread) {
+      cleanupThread.interrupt();
     }
     for (Pool pool : mPoolCache.values()) {
       ResourceUtils.closeOrLog(pool);
@@ -348,12 +373,17 @@ public final class KijiTablePool implements Closeable {
 
   /**
    * A pool of connections for a single table. Maintains a number of
-   * connections in use, and a queue of available ones for re-use.
+   * connections in use, and a deque of available ones for re-use.
+   *
+   * <p>
+   *   Available connections are reused in LIFO order, so that the connections left at the tail
+   *   of the deque are the ones idle for the longest time.
+   * </p>
    */
   private final class Pool implements Closeable {
-    private final Queue<PooledKijiTable> mConnections;
+    private final ConcurrentLinkedDeque<PooledKijiTable> mConnections;
     // The total pool size is the total number of tables in use and available connections.
-    private int mPoolSize;
+    private final AtomicInteger mPoolSize;
 
     // The name of the table for this pool.
     private final String mTableName;
@@ -363,8 +393,8 @@ public final class KijiTablePool implements Closeable {
      * @param tableName The name of the table that this pool is for.
      */
     private Pool(String tableName) {
-      mConnections = new ArrayDeque<PooledKijiTable>();
-      mPoolSize = 0;
+      mConnections = new ConcurrentLinkedDeque<PooledKijiTable>();
+      mPoolSize = new AtomicInteger(0);
       mTableName = tableName;
     }
 
@@ -376,21 +406,28 @@ public final class KijiTablePool implements Closeable {
      * @throws KijiTablePool.NoCapacityException If there is no more room in the
      *     pool to open a new connection.
      */
-    public synchronized KijiTable getTable() throws IOException {
-      PooledKijiTable availableConnection = mConnections.poll();
+    public KijiTable getTable() throws IOException {
+      PooledKijiTable availableConnection = mConnections.pollFirst();
       if (null == availableConnection) {
-        if (mPoolSize >= mMaxSize) {
-          throw new NoCapacityException("Reached max pool size for table " + mTableName + ". There"
-            + " are " + mPoolSize + " tables in the pool.");
-        }
+        // Reserves a slot in the pool before opening the table:
+        int poolSize;
+        do {
+          poolSize = mPoolSize.get();
+          if (poolSize >= mMaxSize) {
+            throw new NoCapacityException("Reached max pool size for table " + mTableName
+                + ". There are " + poolSize + " tables in the pool.");
+          }
+        } while (!mPoolSize.compareAndSet(poolSize, poolSize + 1));
         LOG.debug("Cache miss for table {}", mTableName);
-        availableConnection = new PooledKijiTable(mTableFactory.openTable(mTableName), this);
-        mPoolSize++;
-        if (mPoolSize < mMinSize) {
+        availableConnection = openConnection();
+        if (mPoolSize.get() < mMinSize) {
           LOG.debug("Below the min pool size for table {}. Adding to the pool.", mTableName);
-          while (mPoolSize < mMinSize) {
-            mConnections.add(new PooledKijiTable(mTableFactory.openTable(mTableName), this));
-            mPoolSize++;
+          poolSize = mPoolSize.get();
+          while (poolSize < mMinSize) {
+            if (mPoolSize.compareAndSet(poolSize, poolSize + 1)) {
+              mConnections.offerLast(openConnection());
+            }
+            poolSize = mPoolSize.get();
           }
         }
       } else {
@@ -404,14 +441,39 @@ public final class KijiTablePool implements Closeable {
       return availableConnection;
     }
 
+    /**
+     * Opens a new connection for a slot already reserved in the pool size.
+     * The slot is freed if the table cannot be opened.
+     *
+     * @return a new connection.
+     * @throws IOException If there is an error opening the table.
+     */
+    private PooledKijiTable openConnection() throws IOException {
+      boolean opened = false;
+      try {
+        final PooledKijiTable connection =
+            new PooledKijiTable(mTableFactory.openTable(mTableName), this);
+        opened = true;
+        return connection;
+      } finally {
+        if (!opened) {
+          mPoolSize.decrementAndGet();
+        }
+      }
+    }
+
     /**
      * Returns a table back to the pool so it may be reused.  Private so that only a wrapped
      * table can be returned back to the queue.
      *
      * @param table The table to return back into the pool.
      */
-    private synchronized void returnConnection(PooledKijiTable table) {
-      mConnections.add(table);
+    private void returnConnection(PooledKijiTable table) {
+      mConnections.offerFirst(table);
+      if (mState.get() == State.CLOSED) {
+        // The table pool was closed concurrently and may have missed this table:
+        ResourceUtils.closeOrLog(this);
+      }
     }
 
     /** @return the clock used by this KijiTablePool for updating KijiTable access times. */
@@ -423,23 +485,32 @@ public final class KijiTablePool implements Closeable {
      * Cleans any connections from the pool that have been idle, while maintaining the minimum pool
      * size.
      *
+     * <p> Connections are claimed by removing them from the deque, which never blocks getters. </p>
+     *
      * @param idleTimeout Milliseconds idle required to be closed and
      *     removed from the pool.
      */
-    public synchronized void clean(long idleTimeout) {
-      long currentTime = mClock.getTime();
-      Iterator<PooledKijiTable> iterator = mConnections.iterator();
-      while (iterator.hasNext() && mPoolSize > mMinSize) {
-        PooledKijiTable connection = iterator.next();
+    public void clean(long idleTimeout) {
+      final long currentTime = mClock.getTime();
+      final Iterator<PooledKijiTable> iterator = mConnections.descendingIterator();
+      while (iterator.hasNext() && mPoolSize.get() > mMinSize) {
+        final PooledKijiTable connection = iterator.next();
         if (currentTime - connection.getLastAccessTime() > idleTimeout) {
+          final int poolSize = mPoolSize.get();
+          if ((poolSize <= mMinSize) || !mPoolSize.compareAndSet(poolSize, poolSize - 1)) {
+            continue;
+          }
+          if (!mConnections.removeFirstOccurrence(connection)) {
+            // The connection was handed out concurrently:
+            mPoolSize.incrementAndGet();
+            continue;
+          }
           final int counter = connection.mRetainCount.decrementAndGet();
           Preconditions.checkState(counter == 0,
               "Cannot clean up KijiTable %s: retain counter is %s.",
               connection.getURI(), counter);
           LOG.info("Closing idle PooledKijiTable connection to {}.", connection.getURI());
-          iterator.remove();
           connection.releaseUnderlyingKijiTable();
-          mPoolSize--;
         }
       }
     }
@@ -449,15 +520,17 @@ public final class KijiTablePool implements Closeable {
      *
      * @return The size of the table pool.
      */
-    public synchronized int getPoolSize() {
-        return mPoolSize;
+    public int getPoolSize() {
+        return mPoolSize.get();
     }
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void close() throws IOException {
-      while (!mConnections.isEmpty()) {
-        ResourceUtils.releaseOrLog(mConnections.remove().mTable);
+    public void close() throws IOException {
+      PooledKijiTable connection = mConnections.pollFirst();
+      while (null != connection) {
+        ResourceUtils.releaseOrLog(connection.mTable);
+        connection = mConnections.pollFirst();
       }
     }
   }
@@ -472,8 +545,8 @@ public final class KijiTablePool implements Closeable {
    */
   private static class PooledKijiTable implements KijiTable {
     private final KijiTable mTable;
-    private long mLastAccessTime;
-    private Pool mPool;
+    private volatile long mLastAccessTime;
+    private final Pool mPool;
 
     /** Internal retention count for wrapped pool connections. */
     private AtomicInteger mRetainCount = new AtomicInteger(1);
@@ -622,7 +695,7 @@ public final class KijiTablePool implements Closeable {
     /** {@inheritDoc} */
     @Override
     public void run() {
-      while (true) {
+      while (mState.get() == KijiTablePool.State.OPEN) {
         cleanIdleConnections();
         try {
           sleep(mIdlePollPeriod);
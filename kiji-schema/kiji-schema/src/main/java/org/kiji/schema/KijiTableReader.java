@@ -191,6 +191,35 @@ public interface KijiTableReader extends Closeable {
       KijiPartition partition
   ) throws IOException;
 
+  /**
+   * Get a KijiResultScanner over the whole table, which scans the partitions of the table in
+   * parallel.
+   *
+   * <p>
+   *   Each partition is scanned as with {@link #getKijiResultScanner(KijiDataRequest,
+   *   KijiPartition)}, with at most {@code parallelism} partitions scanned concurrently.
+   *   Scanned rows are buffered in bounded queues until they are consumed.
+   * </p>
+   *
+   * <p>
+   *   Unordered scanners return rows as soon as they are scanned, from any partition.
+   *   Ordered scanners return all the rows of a partition before the rows of the next partition;
+   *   for HBase tables, rows are then returned in HBase row key order, as a serial scan would.
+   * </p>
+   *
+   * @param dataRequest Specifies the data to request from each row.
+   * @param parallelism Maximum number of partitions scanned concurrently.
+   * @param ordered Whether to return the rows of the table partition after partition.
+   * @param <T> Type of the data in the requested cells.
+   * @return A KijiResultScanner for the requested data.
+   * @throws IOException In case of an error reading from the table.
+   */
+  <T> KijiResultScanner<T> getParallelKijiResultScanner(
+      KijiDataRequest dataRequest,
+      int parallelism,
+      boolean ordered
+  ) throws IOException;
+
   /**
    * Options for KijiRowScanners.
    */
@@ -803,6 +803,16 @@ public final class KijiTableReaderPool
       return mInnerReader.getKijiResultScanner(dataRequest, partition);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public <T> KijiResultScanner<T> getParallelKijiResultScanner(
+        final KijiDataRequest dataRequest,
+        final int parallelism,
+        final boolean ordered
+    ) throws IOException {
+      return mInnerReader.getParallelKijiResultScanner(dataRequest, parallelism, ordered);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void close() throws IOException {
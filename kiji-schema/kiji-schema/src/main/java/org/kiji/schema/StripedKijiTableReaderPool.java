@@ -0,0 +1,720 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.annotations.ApiStability;
+import org.kiji.commons.monitoring.MetricUtils;
+import org.kiji.schema.KijiTableReaderBuilder.OnDecoderCacheMiss;
+import org.kiji.schema.layout.ColumnReaderSpec;
+import org.kiji.schema.util.ResourceUtils;
+
+/**
+ * Pool of opened KijiTableReaders for reuse, tuned for frequent short borrows.
+ *
+ * <p>
+ *   Unlike {@link KijiTableReaderPool}, borrowing and returning a reader never takes a lock while
+ *   an idle reader is available:
+ * </p>
+ * <ul>
+ *   <li> each thread first tries the reader it returned last, which costs a thread-local lookup
+ *        and a compare-and-set when a thread borrows readers repeatedly; </li>
+ *   <li> otherwise, idle readers are taken from lock-free queues striped by thread, starting
+ *        with the stripe of the calling thread and stealing from the other stripes if empty; </li>
+ *   <li> if no reader is idle, a new reader is opened, unless the pool is at its maximum size, in
+ *        which case the borrower waits for a reader to be returned. </li>
+ * </ul>
+ *
+ * <p>
+ *   Readers are kept open until the pool is closed: the number of readers opened by a pool is the
+ *   peak number of readers borrowed at once. KijiTableReaders borrowed from the pool must be
+ *   closed when no longer needed, to return them to the pool. Pools retain the table of their
+ *   reader factory until closed, and are thread-safe.
+ * </p>
+ *
+ * <p>
+ *   {@link #getMetrics()} reports the latency of borrows, the time spent waiting for a reader to
+ *   be returned, and the occupancy of the pool.
+ * </p>
+ */
+@ApiAudience.Public
+@ApiStability.Experimental
+public final class StripedKijiTableReaderPool implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(StripedKijiTableReaderPool.class);
+
+  /** Builder for StripedKijiTableReaderPool instances. */
+  public static final class Builder {
+    private KijiReaderFactory mReaderFactory = null;
+    private Map<KijiColumnName, ColumnReaderSpec> mColumnReaderSpecOverrides = null;
+    private Multimap<KijiColumnName, ColumnReaderSpec> mColumnReaderSpecAlternatives = null;
+    private OnDecoderCacheMiss mOnDecoderCacheMiss = null;
+    private Integer mMaxSize = null;
+    private Long mMaxWait = null;
+    private Integer mNumStripes = null;
+
+    /** Constructs a new builder with no option set. */
+    private Builder() {
+    }
+
+    /**
+     * Create a new StripedKijiTableReaderPool.Builder.
+     *
+     * @return a new StripedKijiTableReaderPool.Builder.
+     */
+    public static Builder create() {
+      return new Builder();
+    }
+
+    /**
+     * Set the KijiReaderFactory which will provide readers for this pool. This method is required
+     * to build a StripedKijiTableReaderPool.
+     *
+     * @param readerFactory KijiReaderFactory which will be used to provide readers for this pool.
+     * @return this.
+     */
+    public Builder withReaderFactory(
+        final KijiReaderFactory readerFactory
+    ) {
+      Preconditions.checkNotNull(readerFactory, "KijiReaderFactory may not be null.");
+      Preconditions.checkState(
+          null == mReaderFactory, "KijiReaderFactory is already set to: %s", mReaderFactory);
+      mReaderFactory = readerFactory;
+      return this;
+    }
+
+    /**
+     * Set the ColumnReaderSpec overrides which will be used as the default read behavior for
+     * readers served from this pool. This field is optional and defaults to no overrides.
+     *
+     * @param overrides mapping from column names to overriding ColumnReaderSpecs.
+     * @return this.
+     */
+    public Builder withColumnReaderSpecOverrides(
+        final Map<KijiColumnName, ColumnReaderSpec> overrides
+    ) {
+      Preconditions.checkNotNull(overrides, "ColumnReaderSpec overrides may not be null.");
+      Preconditions.checkState(null == mColumnReaderSpecOverrides,
+          "ColumnReaderSpec overrides are already set to: %s", mColumnReaderSpecOverrides);
+      mColumnReaderSpecOverrides = overrides;
+      return this;
+    }
+
+    /**
+     * Set the ColumnReaderSpec alternatives for which cell decoders will be available, but which
+     * will not change the default behavior of read requests. This field is optional and defaults
+     * to no alternatives.
+     *
+     * @param alternatives mapping from column names to alternative ColumnReaderSpecs.
+     * @return this.
+     */
+    public Builder withColumnReaderSpecAlternatives(
+        final Multimap<KijiColumnName, ColumnReaderSpec> alternatives
+    ) {
+      Preconditions.checkNotNull(alternatives, "ColumnReaderSpec alternatives may not be null.");
+      Preconditions.checkState(null == mColumnReaderSpecAlternatives,
+          "ColumnReaderSpec alternatives are already set to: %s", mColumnReaderSpecAlternatives);
+      mColumnReaderSpecAlternatives = alternatives;
+      return this;
+    }
+
+    /**
+     * Set the behavior of readers served by this pool when they cannot find a cell decoder. This
+     * field is optional and defaults to {@link KijiTableReaderBuilder#DEFAULT_CACHE_MISS}.
+     *
+     * @param onDecoderCacheMissBehavior behavior of readers served by this pool when they cannot
+     *     find a cell decoder.
+     * @return this.
+     */
+    public Builder withOnDecoderCacheMissBehavior(
+        final OnDecoderCacheMiss onDecoderCacheMissBehavior
+    ) {
+      Preconditions.checkNotNull(onDecoderCacheMissBehavior,
+          "OnDecoderCacheMiss behavior may not be null.");
+      Preconditions.checkState(null == mOnDecoderCacheMiss,
+          "OnDecoderCacheMiss behavior is already set to: %s", mOnDecoderCacheMiss);
+      mOnDecoderCacheMiss = onDecoderCacheMissBehavior;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of readers opened by the pool. This field is optional and defaults to
+     * no maximum.
+     *
+     * @param maxSize maximum number of readers opened by the pool.
+     * @return this.
+     */
+    public Builder withMaxSize(
+        final int maxSize
+    ) {
+      Preconditions.checkArgument(0 < maxSize, "Maximum size must be greater than 0.");
+      Preconditions.checkState(null == mMaxSize, "Maximum size is already set to: %s", mMaxSize);
+      mMaxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * Set the maximum time (in milliseconds) to wait for a reader to be returned when the pool is
+     * at its maximum size. This field is optional and defaults to waiting indefinitely.
+     *
+     * @param maxWait time in milliseconds to wait for a reader to become available when borrowing.
+     * @return this.
+     */
+    public Builder withMaxWaitToBorrow(
+        final long maxWait
+    ) {
+      Preconditions.checkArgument(
+          0 <= maxWait, "Max wait to borrow must be greater than or equal to 0.");
+      Preconditions.checkState(
+          null == mMaxWait, "Max wait to borrow is already set to: %s", mMaxWait);
+      mMaxWait = maxWait;
+      return this;
+    }
+
+    /**
+     * Set the number of stripes idle readers are spread over. This field is optional and defaults
+     * to the number of available processors. Rounded up to a power of 2.
+     *
+     * @param numStripes number of stripes idle readers are spread over.
+     * @return this.
+     */
+    public Builder withNumStripes(
+        final int numStripes
+    ) {
+      Preconditions.checkArgument(0 < numStripes, "Number of stripes must be greater than 0.");
+      Preconditions.checkState(
+          null == mNumStripes, "Number of stripes is already set to: %s", mNumStripes);
+      mNumStripes = numStripes;
+      return this;
+    }
+
+    /**
+     * Build a new StripedKijiTableReaderPool from the configured options.
+     *
+     * @return a new StripedKijiTableReaderPool.
+     */
+    public StripedKijiTableReaderPool build() {
+      Preconditions.checkNotNull(mReaderFactory, "KijiReaderFactory may not be null.");
+      if (null == mColumnReaderSpecOverrides) {
+        mColumnReaderSpecOverrides = KijiTableReaderBuilder.DEFAULT_READER_SPEC_OVERRIDES;
+      }
+      if (null == mColumnReaderSpecAlternatives) {
+        mColumnReaderSpecAlternatives = KijiTableReaderBuilder.DEFAULT_READER_SPEC_ALTERNATIVES;
+      }
+      if (null == mOnDecoderCacheMiss) {
+        mOnDecoderCacheMiss = KijiTableReaderBuilder.DEFAULT_CACHE_MISS;
+      }
+      final int maxSize = (null != mMaxSize) ? mMaxSize : Integer.MAX_VALUE;
+      final long maxWaitNanos = (null != mMaxWait)
+          ? TimeUnit.MILLISECONDS.toNanos(mMaxWait) : Long.MAX_VALUE;
+      final int numStripes = (null != mNumStripes)
+          ? mNumStripes : Runtime.getRuntime().availableProcessors();
+
+      // Nothing that may fail may come after retain().
+      mReaderFactory.getTable().retain();
+      return new StripedKijiTableReaderPool(this, maxSize, maxWaitNanos, numStripes);
+    }
+  }
+
+  /** Possible states of the pool. */
+  private static enum State {
+    OPEN, CLOSED
+  }
+
+  /** Possible states of a pooled reader. */
+  private static enum ReaderState {
+    IDLE, BORROWED, CLOSED
+  }
+
+  private final AtomicReference<State> mState = new AtomicReference<State>(State.OPEN);
+
+  private final KijiReaderFactory mReaderFactory;
+  private final Map<KijiColumnName, ColumnReaderSpec> mColumnReaderSpecOverrides;
+  private final Multimap<KijiColumnName, ColumnReaderSpec> mColumnReaderSpecAlternatives;
+  private final OnDecoderCacheMiss mOnDecoderCacheMiss;
+
+  /** Maximum number of readers opened by this pool. */
+  private final int mMaxSize;
+
+  /** Maximum time to wait for a reader to be returned, in nanoseconds. */
+  private final long mMaxWaitNanos;
+
+  /** Idle readers, striped by thread. A reader may linger in a stripe after being borrowed. */
+  private final Queue<PooledReader>[] mStripes;
+
+  /** Mask applied to thread IDs to select a stripe. */
+  private final int mStripeMask;
+
+  /** Reader each thread returned last, tried first when the thread borrows a reader. */
+  private final ThreadLocal<PooledReader> mLastReturned = new ThreadLocal<PooledReader>();
+
+  /** All the readers opened by this pool and not closed yet. */
+  private final Queue<PooledReader> mReaders = new ConcurrentLinkedQueue<PooledReader>();
+
+  /** Number of readers opened by this pool, including the readers being opened. */
+  private final AtomicInteger mSize = new AtomicInteger(0);
+
+  /** Number of threads waiting for a reader to be returned. */
+  private final AtomicInteger mWaiters = new AtomicInteger(0);
+
+  /** Monitor signaled when a reader is returned while threads are waiting. */
+  private final Object mReturnedMonitor = new Object();
+
+  /** Times the borrows which miss the reader last returned by the borrowing thread. */
+  private final Timer mBorrowTimer = MetricUtils.createLatencyTimer();
+
+  /** Times the waits for a reader to be returned, when the pool is at its maximum size. */
+  private final Timer mWaitTimer = MetricUtils.createLatencyTimer();
+
+  /** Number of borrows served by the reader last returned by the borrowing thread. */
+  private final Counter mThreadLocalHits = new Counter();
+
+  /** Number of readers currently borrowed. */
+  private final Counter mBorrowed = new Counter();
+
+  /**
+   * Initializes a new pool.
+   *
+   * @param builder Builder with the options of the pool.
+   * @param maxSize Maximum number of readers opened by the pool.
+   * @param maxWaitNanos Maximum time to wait for a reader to be returned, in nanoseconds.
+   * @param numStripes Number of stripes idle readers are spread over.
+   */
+  @SuppressWarnings("unchecked")
+  private StripedKijiTableReaderPool(
+      final Builder builder,
+      final int maxSize,
+      final long maxWaitNanos,
+      final int numStripes
+  ) {
+    mReaderFactory = builder.mReaderFactory;
+    mColumnReaderSpecOverrides = builder.mColumnReaderSpecOverrides;
+    mColumnReaderSpecAlternatives = builder.mColumnReaderSpecAlternatives;
+    mOnDecoderCacheMiss = builder.mOnDecoderCacheMiss;
+    mMaxSize = maxSize;
+    mMaxWaitNanos = maxWaitNanos;
+
+    int stripes = 1;
+    while (stripes < numStripes) {
+      stripes <<= 1;
+    }
+    mStripeMask = stripes - 1;
+    mStripes = new Queue[stripes];
+    for (int i = 0; i < stripes; ++i) {
+      mStripes[i] = new ConcurrentLinkedQueue<PooledReader>();
+    }
+  }
+
+  /**
+   * Borrows a reader from this pool. The reader must be closed to return it to the pool.
+   *
+   * @return a reader for the exclusive use of the caller, until closed.
+   * @throws IOException on I/O error opening a new reader.
+   * @throws NoSuchElementException if the pool is at its maximum size, and no reader was returned
+   *     within the maximum wait time.
+   */
+  public KijiTableReader borrowReader() throws IOException {
+    final State state = mState.get();
+    Preconditions.checkState(state == State.OPEN,
+        "Cannot borrow reader from StripedKijiTableReaderPool instance %s in state %s.",
+        this, state);
+
+    // Fast path: the reader this thread returned last, if nobody else took it since.
+    final PooledReader last = mLastReturned.get();
+    if ((last != null) && last.mState.compareAndSet(ReaderState.IDLE, ReaderState.BORROWED)) {
+      mThreadLocalHits.inc();
+      mBorrowed.inc();
+      return last;
+    }
+
+    final long startTime = System.nanoTime();
+    PooledReader reader = takeIdleReader();
+    if (reader == null) {
+      reader = openReader();
+    }
+    if (reader == null) {
+      reader = waitForReader();
+    }
+    mBorrowTimer.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    mBorrowed.inc();
+    return reader;
+  }
+
+  /**
+   * Takes an idle reader from the stripes, starting with the stripe of the calling thread.
+   *
+   * @return an idle reader, now borrowed, or null if no reader is idle.
+   */
+  private PooledReader takeIdleReader() {
+    final int first = (int) Thread.currentThread().getId();
+    for (int i = 0; i <= mStripeMask; ++i) {
+      final Queue<PooledReader> stripe = mStripes[(first + i) & mStripeMask];
+      PooledReader reader;
+      while ((reader = stripe.poll()) != null) {
+        // Clear the queued flag before taking the reader, so that a concurrent return of a
+        // reader we fail to take queues it again:
+        reader.mQueued.set(false);
+        if (reader.mState.compareAndSet(ReaderState.IDLE, ReaderState.BORROWED)) {
+          return reader;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Opens a new reader, unless this pool is at its maximum size.
+   *
+   * @return a new reader, borrowed, or null if the pool is at its maximum size.
+   * @throws IOException on I/O error.
+   */
+  private PooledReader openReader() throws IOException {
+    while (true) {
+      final int size = mSize.get();
+      if (size >= mMaxSize) {
+        return null;
+      }
+      if (mSize.compareAndSet(size, size + 1)) {
+        break;
+      }
+    }
+    boolean success = false;
+    try {
+      final KijiTableReader innerReader = mReaderFactory.readerBuilder()
+          .withColumnReaderSpecOverrides(mColumnReaderSpecOverrides)
+          .withColumnReaderSpecAlternatives(mColumnReaderSpecAlternatives)
+          .withOnDecoderCacheMiss(mOnDecoderCacheMiss)
+          .buildAndOpen();
+      final PooledReader reader = new PooledReader(innerReader);
+      mReaders.add(reader);
+      success = true;
+      return reader;
+    } finally {
+      if (!success) {
+        mSize.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Waits for a reader to be returned, when the pool is at its maximum size.
+   *
+   * @return a returned reader, now borrowed.
+   * @throws NoSuchElementException if no reader was returned within the maximum wait time.
+   */
+  private PooledReader waitForReader() {
+    final long startTime = System.nanoTime();
+    mWaiters.incrementAndGet();
+    try {
+      synchronized (mReturnedMonitor) {
+        while (true) {
+          final PooledReader reader = takeIdleReader();
+          if (reader != null) {
+            return reader;
+          }
+          final long remainingNanos = mMaxWaitNanos - (System.nanoTime() - startTime);
+          if (remainingNanos <= 0) {
+            throw new NoSuchElementException("Pool exhausted");
+          }
+          final State state = mState.get();
+          Preconditions.checkState(state == State.OPEN,
+              "Cannot borrow reader from StripedKijiTableReaderPool instance %s in state %s.",
+              this, state);
+          try {
+            TimeUnit.NANOSECONDS.timedWait(mReturnedMonitor, remainingNanos);
+          } catch (InterruptedException ie) {
+            throw new RuntimeInterruptedException(ie);
+          }
+        }
+      }
+    } finally {
+      mWaiters.decrementAndGet();
+      mWaitTimer.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Returns a borrowed reader to this pool.
+   *
+   * @param reader Reader to return.
+   */
+  private void returnReader(final PooledReader reader) {
+    final boolean returned = reader.mState.compareAndSet(ReaderState.BORROWED, ReaderState.IDLE);
+    Preconditions.checkState(returned,
+        "Cannot return reader %s to StripedKijiTableReaderPool instance %s in state %s.",
+        reader, this, reader.mState.get());
+    mBorrowed.dec();
+
+    if (mState.get() != State.OPEN) {
+      // This pool was closed while the reader was borrowed:
+      closeReader(reader);
+      return;
+    }
+
+    mLastReturned.set(reader);
+    if (reader.mQueued.compareAndSet(false, true)) {
+      mStripes[((int) Thread.currentThread().getId()) & mStripeMask].add(reader);
+    }
+    if (mState.get() != State.OPEN) {
+      // This pool was closed concurrently, possibly without seeing this reader idle:
+      closeReader(reader);
+      return;
+    }
+    if (mWaiters.get() > 0) {
+      synchronized (mReturnedMonitor) {
+        mReturnedMonitor.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Closes an idle reader of this pool, unless it was borrowed concurrently.
+   *
+   * @param reader Reader to close.
+   */
+  private void closeReader(final PooledReader reader) {
+    if (reader.mState.compareAndSet(ReaderState.IDLE, ReaderState.CLOSED)) {
+      mReaders.remove(reader);
+      mSize.decrementAndGet();
+      ResourceUtils.closeOrLog(reader.mInnerReader);
+    }
+  }
+
+  /**
+   * Get the metrics of this pool.
+   *
+   * <ul>
+   *   <li> {@code borrow.latency}: latency of the borrows which missed the reader last returned
+   *        by the borrowing thread; </li>
+   *   <li> {@code borrow.thread-local.count}: number of borrows served by the reader last
+   *        returned by the borrowing thread; </li>
+   *   <li> {@code borrow.wait}: time spent waiting for a reader to be returned, when the pool is
+   *        at its maximum size; </li>
+   *   <li> {@code readers.count}, {@code readers.borrowed} and {@code readers.idle}: occupancy of
+   *        the pool. </li>
+   * </ul>
+   *
+   * @return the metrics of this pool.
+   */
+  public MetricSet getMetrics() {
+    final Map<String, Metric> metrics = ImmutableMap.<String, Metric>builder()
+        .put("borrow.latency", mBorrowTimer)
+        .put("borrow.thread-local.count", mThreadLocalHits)
+        .put("borrow.wait", mWaitTimer)
+        .put("readers.count", new Gauge<Integer>() {
+          /** {@inheritDoc} */
+          @Override
+          public Integer getValue() {
+            return mSize.get();
+          }
+        })
+        .put("readers.borrowed", mBorrowed)
+        .put("readers.idle", new Gauge<Long>() {
+          /** {@inheritDoc} */
+          @Override
+          public Long getValue() {
+            return Math.max(0, mSize.get() - mBorrowed.getCount());
+          }
+        })
+        .build();
+    return new MetricSet() {
+      /** {@inheritDoc} */
+      @Override
+      public Map<String, Metric> getMetrics() {
+        return metrics;
+      }
+    };
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(StripedKijiTableReaderPool.class)
+        .add("id", System.identityHashCode(this))
+        .add("table", mReaderFactory.getTable().getURI())
+        .add("size", mSize.get())
+        .add("borrowed", mBorrowed.getCount())
+        .add("state", mState.get())
+        .toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p> Idle readers are closed immediately, borrowed readers are closed when returned. </p>
+   */
+  @Override
+  public void close() throws IOException {
+    final State oldState = mState.getAndSet(State.CLOSED);
+    Preconditions.checkState(oldState == State.OPEN,
+        "Cannot close StripedKijiTableReaderPool instance %s in state %s.", this, oldState);
+    for (PooledReader reader : mReaders) {
+      closeReader(reader);
+    }
+    for (Queue<PooledReader> stripe : mStripes) {
+      stripe.clear();
+    }
+    synchronized (mReturnedMonitor) {
+      mReturnedMonitor.notifyAll();
+    }
+    if (mBorrowed.getCount() > 0) {
+      LOG.debug("Closing {} with {} readers still borrowed.", this, mBorrowed.getCount());
+    }
+    mReaderFactory.getTable().release();
+  }
+
+  /** KijiTableReader served from the pool. {@link #close()} returns the reader to the pool. */
+  private final class PooledReader implements KijiTableReader {
+    private final KijiTableReader mInnerReader;
+
+    private final AtomicReference<ReaderState> mState =
+        new AtomicReference<ReaderState>(ReaderState.BORROWED);
+
+    /** Whether this reader is in a stripe of idle readers. */
+    private final AtomicBoolean mQueued = new AtomicBoolean(false);
+
+    /**
+     * Initializes a new pooled reader, borrowed.
+     *
+     * @param innerReader KijiTableReader to which this pooled reader delegates read operations.
+     */
+    private PooledReader(final KijiTableReader innerReader) {
+      mInnerReader = innerReader;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public KijiRowData get(
+        final EntityId entityId,
+        final KijiDataRequest dataRequest
+    ) throws IOException {
+      return mInnerReader.get(entityId, dataRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> KijiResult<T> getResult(
+        final EntityId entityId,
+        final KijiDataRequest dataRequest
+    ) throws IOException {
+      return mInnerReader.getResult(entityId, dataRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<KijiRowData> bulkGet(
+        final List<EntityId> entityIds,
+        final KijiDataRequest dataRequest
+    ) throws IOException {
+      return mInnerReader.bulkGet(entityIds, dataRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> List<KijiResult<T>> bulkGetResults(
+        final List<EntityId> entityIds,
+        final KijiDataRequest dataRequest
+    ) throws IOException {
+      return mInnerReader.bulkGetResults(entityIds, dataRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public KijiRowScanner getScanner(
+        final KijiDataRequest dataRequest
+    ) throws IOException {
+      return mInnerReader.getScanner(dataRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public KijiRowScanner getScanner(
+        final KijiDataRequest dataRequest,
+        final KijiScannerOptions scannerOptions
+    ) throws IOException {
+      return mInnerReader.getScanner(dataRequest, scannerOptions);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> KijiResultScanner<T> getKijiResultScanner(
+        final KijiDataRequest dataRequest
+    ) throws IOException {
+      return mInnerReader.getKijiResultScanner(dataRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> KijiResultScanner<T> getKijiResultScanner(
+        final KijiDataRequest dataRequest,
+        final KijiPartition partition
+    ) throws IOException {
+      return mInnerReader.getKijiResultScanner(dataRequest, partition);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> KijiResultScanner<T> getParallelKijiResultScanner(
+        final KijiDataRequest dataRequest,
+        final int parallelism,
+        final boolean ordered
+    ) throws IOException {
+      return mInnerReader.getParallelKijiResultScanner(dataRequest, parallelism, ordered);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return Objects.toStringHelper(PooledReader.class)
+          .add("reader", mInnerReader)
+          .add("state", mState.get())
+          .toString();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+      returnReader(this);
+    }
+  }
+}
@@ -35,6 +35,10 @@ public final class HBaseScanOptions {
   private Integer mServerPrefetchSize = null;
   /** Whether servers should cache rows as they're retrieved. */
   private Boolean mCacheBlocks = null;
+  /** The number of rows to fetch ahead of the scanner consumer, in the background. */
+  private Integer mReadAheadSize = null;
+  /** The targeted size of the rows returned by each RPC, in bytes. */
+  private Long mTargetRpcSize = null;
 
   /**
    * Creates a new HBaseScanOptions where all parameters will default to HBase values.
@@ -102,5 +106,58 @@ public final class HBaseScanOptions {
     return mCacheBlocks;
   }
 
+  /**
+   * Sets the number of rows to fetch ahead of the scanner consumer, on a background thread.
+   * If null or 0, rows are fetched on demand by the thread iterating through the scanner.
+   *
+   * <p>
+   *   Reading ahead overlaps the RPCs fetching the next rows with the processing of the
+   *   current rows. Up to this many rows are buffered on the client.
+   *   Only KijiResultScanners honor this option.
+   * </p>
+   *
+   * @param readAheadSize The number of rows to fetch ahead of the scanner consumer.
+   */
+  public void setReadAheadSize(Integer readAheadSize) {
+    mReadAheadSize = readAheadSize;
+  }
+
+  /**
+   * Returns the number of rows to fetch ahead of the scanner consumer,
+   * or null if rows are fetched on demand.
+   *
+   * @return The number of rows to fetch ahead of the scanner consumer.
+   */
+  public Integer getReadAheadSize() {
+    return mReadAheadSize;
+  }
+
+  /**
+   * Sets the targeted size of the rows returned by each RPC, in bytes.
+   * If null, the number of rows fetched per RPC is fixed.
+   *
+   * <p>
+   *   When set, the number of rows fetched per RPC is adjusted according to the size of the
+   *   rows observed so far, by reopening the scanner after the last row fetched.
+   *   This is not applied to scans returning partial rows (see {@link #setClientBufferSize}).
+   *   Only KijiResultScanners reading ahead honor this option (see {@link #setReadAheadSize}).
+   * </p>
+   *
+   * @param targetRpcSize The targeted size of the rows returned by each RPC, in bytes.
+   */
+  public void setTargetRpcSize(Long targetRpcSize) {
+    mTargetRpcSize = targetRpcSize;
+  }
+
+  /**
+   * Returns the targeted size of the rows returned by each RPC, in bytes,
+   * or null if the number of rows fetched per RPC is fixed.
+   *
+   * @return The targeted size of the rows returned by each RPC, in bytes.
+   */
+  public Long getTargetRpcSize() {
+    return mTargetRpcSize;
+  }
+
   // TODO: Surface scanner timeout.
 }
@@ -21,10 +21,16 @@ package org.kiji.schema.impl;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
 import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DecoderFactory;
 
@@ -50,10 +56,38 @@ import org.kiji.schema.util.Hasher;
  * Kiji cells are encoded as Extension records, although for efficiency reasons, this class
  * provides a custom decoder that avoid copying bytes unnecessarily.
  *
+ * <p>
+ *   Resolving datum readers are cached per writer schema, and each thread reuses its own Avro
+ *   binary decoder. Optionally, recently decoded small values may be cached and shared, see
+ *   {@link #VALUE_CACHE_SIZE}.
+ * </p>
+ *
  * @param <T> The type of the decoded cell data.
  */
 @ApiAudience.Private
 public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
+  /**
+   * Name of the system property to control the number of decoded values cached per decoder.
+   *
+   * <p>
+   *   Defaults to 0, which disables the cache. When enabled, cells whose Avro payload is at most
+   *   {@link #MAX_CACHED_VALUE_SIZE} bytes long decode to shared instances. Only immutable values
+   *   are cached: enums, primitives and strings decoded as {@code java.lang.String}. Values of
+   *   other schemas, such as records, {@code Utf8} strings, arrays or maps, are decoded anew.
+   * </p>
+   */
+  public static final String VALUE_CACHE_SIZE =
+      "org.kiji.schema.impl.AvroCellDecoder.VALUE_CACHE_SIZE";
+
+  /** Maximum size, in bytes, of the Avro payload of the cells whose decoded value is cached. */
+  public static final int MAX_CACHED_VALUE_SIZE = 64;
+
+  /** Avro schema property selecting the Java class strings decode to. */
+  private static final String JAVA_STRING_PROP = "avro.java.string";
+
+  /** Avro binary decoder of the current thread, reused from one cell to the next. */
+  private static final ThreadLocal<BinaryDecoder> BINARY_DECODER =
+      new ThreadLocal<BinaryDecoder>();
 
   /** Schema decoder. */
   private final SchemaDecoder mSchemaDecoder;
@@ -73,6 +107,123 @@ public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
    */
   private final Schema mReaderSchema;
 
+  /**
+   * Cache of resolving Avro DatumReaders, keyed by writer schema identity.
+   *
+   * <p>
+   *   The reader schema of a decoder is fixed, so a writer schema determines the DatumReader.
+   *   Weak keys are compared by identity: the schema table returns a single instance per schema.
+   * </p>
+   */
+  private final ConcurrentMap<Schema, DatumReader<T>> mCachedDatumReaders =
+      new MapMaker().weakKeys().makeMap();
+
+  /** DatumReader used last, for the common case where all cells share the same writer schema. */
+  private volatile CachedDatumReader<T> mLastDatumReader = null;
+
+  /** Cache of recently decoded immutable values. Null when disabled. */
+  private final Cache<CachedValueKey, T> mValueCache;
+
+  // -----------------------------------------------------------------------------------------------
+
+  /**
+   * A resolving DatumReader for a given writer schema.
+   *
+   * @param <T> The type of the decoded data.
+   */
+  private static final class CachedDatumReader<T> {
+    private final Schema mWriterSchema;
+    private final DatumReader<T> mDatumReader;
+
+    /**
+     * Initializes a cached DatumReader.
+     *
+     * @param writerSchema Writer schema the DatumReader resolves.
+     * @param datumReader DatumReader resolving the writer schema.
+     */
+    private CachedDatumReader(final Schema writerSchema, final DatumReader<T> datumReader) {
+      mWriterSchema = writerSchema;
+      mDatumReader = datumReader;
+    }
+  }
+
+  /** Key of a decoded value in the value cache: writer schema identity and Avro payload. */
+  private static final class CachedValueKey {
+    private final Schema mWriterSchema;
+    private final byte[] mPayload;
+    private final int mHashCode;
+
+    /**
+     * Initializes a value cache key.
+     *
+     * @param writerSchema Writer schema of the value.
+     * @param payload Avro-encoded bytes of the value.
+     */
+    private CachedValueKey(final Schema writerSchema, final byte[] payload) {
+      mWriterSchema = writerSchema;
+      mPayload = payload;
+      mHashCode = 31 * System.identityHashCode(writerSchema) + Arrays.hashCode(payload);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+      return mHashCode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object other) {
+      if (!(other instanceof CachedValueKey)) {
+        return false;
+      }
+      final CachedValueKey that = (CachedValueKey) other;
+      return (mWriterSchema == that.mWriterSchema) && Arrays.equals(mPayload, that.mPayload);
+    }
+  }
+
+  /**
+   * Creates the cache of decoded values, as configured by the {@link #VALUE_CACHE_SIZE} property.
+   *
+   * @param <T> The type of the decoded values.
+   * @return the cache of decoded values, or null if disabled.
+   */
+  private static <T> Cache<CachedValueKey, T> createValueCache(final Schema readerSchema) {
+    final long cacheSize = Long.parseLong(System.getProperty(VALUE_CACHE_SIZE, "0"));
+    if (cacheSize <= 0) {
+      return null;
+    }
+    // Without a reader schema, whether values are immutable depends on each writer schema:
+    if ((readerSchema != null) && !isImmutable(readerSchema)) {
+      return null;
+    }
+    return CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+  }
+
+  /**
+   * Reports whether the values decoded with a given reader schema are immutable, and may thus be
+   * shared between callers.
+   *
+   * @param readerSchema Reader schema of the values.
+   * @return whether values decoded with the reader schema are immutable.
+   */
+  private static boolean isImmutable(final Schema readerSchema) {
+    switch (readerSchema.getType()) {
+      case ENUM:
+      case NULL:
+      case BOOLEAN:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      case STRING:
+        return "String".equals(readerSchema.getProp(JAVA_STRING_PROP));
+      default:
+        return false;
+    }
+  }
+
   // -----------------------------------------------------------------------------------------------
 
   /** Interface for schema decoders. */
@@ -277,6 +428,7 @@ public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
     Preconditions.checkArgument(cellSpec.isAvro());
     mSchemaDecoder = createSchemaDecoder(cellSpec);
     mReaderSchema = cellSpec.getAvroSchema();
+    mValueCache = createValueCache(mReaderSchema);
   }
 
   /**
@@ -289,6 +441,7 @@ public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
   protected AvroCellDecoder(KijiTableLayout layout, BoundColumnReaderSpec spec) throws IOException {
     mSchemaDecoder = createSchemaDecoder(layout, spec);
     mReaderSchema = getReaderSchema(layout, spec);
+    mValueCache = createValueCache(mReaderSchema);
   }
 
   /**
@@ -305,7 +458,13 @@ public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
   /** {@inheritDoc} */
   @Override
   public DecodedCell<T> decodeCell(byte[] encodedBytes) throws IOException {
-    return decode(encodedBytes, null);
+    return decode(encodedBytes, 0, encodedBytes.length);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public DecodedCell<T> decodeCell(byte[] bytes, int offset, int length) throws IOException {
+    return decode(bytes, offset, length);
   }
 
   /** {@inheritDoc} */
@@ -315,22 +474,37 @@ public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
   }
 
   /**
-   * Decodes the serialized bytes into a KijiCell. If reuse is non-null, the implementation may fill
-   * it and return it as the KijiCell data payload.
+   * Decodes the serialized bytes into a KijiCell.
    *
-   * @param bytes The bytes from an HBase table cell.
-   * @param reuse If non-null, may be filled with the decoded data and used as the data payload in
-   *          the return value.
+   * @param bytes The byte array containing an HBase table cell.
+   * @param offset The offset of the HBase table cell in the byte array.
+   * @param length The length of the HBase table cell.
    * @return The decoded KijiCell.
    * @throws IOException If there is an error.
    */
-  private DecodedCell<T> decode(byte[] bytes, T reuse) throws IOException {
-    final ByteStreamArray byteStream = new ByteStreamArray(bytes);
+  private DecodedCell<T> decode(byte[] bytes, int offset, int length) throws IOException {
+    final ByteStreamArray byteStream = ByteStreamArray.wrap(bytes, offset);
     final Schema writerSchema = mSchemaDecoder.decode(byteStream);
     final Schema readerSchema = (mReaderSchema != null) ? mReaderSchema : writerSchema;
-    final ByteBuffer binaryData =
-        ByteBuffer.wrap(bytes, byteStream.getOffset(), bytes.length - byteStream.getOffset());
-    final T data = decodeAvro(binaryData, writerSchema, readerSchema, reuse);
+    final int payloadOffset = byteStream.getOffset();
+    final int payloadLength = offset + length - payloadOffset;
+    final ByteBuffer binaryData = ByteBuffer.wrap(bytes, payloadOffset, payloadLength);
+
+    if ((mValueCache == null)
+        || !isImmutable(readerSchema)
+        || (payloadLength > MAX_CACHED_VALUE_SIZE)) {
+      final T data = decodeAvro(binaryData, writerSchema, readerSchema, null);
+      return new DecodedCell<T>(writerSchema, readerSchema, data);
+    }
+    final CachedValueKey key = new CachedValueKey(
+        writerSchema, Arrays.copyOfRange(bytes, payloadOffset, payloadOffset + payloadLength));
+    T data = mValueCache.getIfPresent(key);
+    if (data == null) {
+      data = decodeAvro(binaryData, writerSchema, readerSchema, null);
+      if (data != null) {
+        mValueCache.put(key, data);
+      }
+    }
     return new DecodedCell<T>(writerSchema, readerSchema, data);
   }
 
@@ -343,7 +517,7 @@ public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
    * @throws IOException on I/O error (eg. decoding error).
    */
   public ByteBuffer getPayload(byte[] bytes) throws IOException {
-    final ByteStreamArray byteStream = new ByteStreamArray(bytes);
+    final ByteStreamArray byteStream = ByteStreamArray.wrap(bytes, 0);
     // Decode the writer schema and throw it away:
     mSchemaDecoder.decode(byteStream);
     return ByteBuffer.wrap(bytes, byteStream.getOffset(), bytes.length - byteStream.getOffset());
@@ -367,12 +541,36 @@ public abstract class AvroCellDecoder<T> implements KijiCellDecoder<T> {
       Schema readerSchema,
       T reuse)
       throws IOException {
-    final DatumReader<T> reader = createDatumReader(writerSchema, readerSchema);
-    return reader.read(reuse,
-        DecoderFactory.get().binaryDecoder(
-            encodedData.array(),
-            encodedData.position(),
-            encodedData.limit() - encodedData.position(),
-            null));
+    final DatumReader<T> reader = getDatumReader(writerSchema, readerSchema);
+    final BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(
+        encodedData.array(),
+        encodedData.position(),
+        encodedData.limit() - encodedData.position(),
+        BINARY_DECODER.get());
+    BINARY_DECODER.set(decoder);
+    return reader.read(reuse, decoder);
+  }
+
+  /**
+   * Gets the resolving DatumReader for a given writer schema, creating it if necessary.
+   *
+   * @param writerSchema The schema that was used to encode the data.
+   * @param readerSchema The schema that is expected by the reader. Fixed for a given decoder.
+   * @return the resolving DatumReader for the specified writer schema.
+   */
+  private DatumReader<T> getDatumReader(final Schema writerSchema, final Schema readerSchema) {
+    final CachedDatumReader<T> last = mLastDatumReader;
+    if ((last != null) && (last.mWriterSchema == writerSchema)) {
+      return last.mDatumReader;
+    }
+    DatumReader<T> reader = mCachedDatumReaders.get(writerSchema);
+    if (reader == null) {
+      final DatumReader<T> newReader = createDatumReader(writerSchema, readerSchema);
+      final DatumReader<T> racingReader =
+          mCachedDatumReaders.putIfAbsent(writerSchema, newReader);
+      reader = (racingReader != null) ? racingReader : newReader;
+    }
+    mLastDatumReader = new CachedDatumReader<T>(writerSchema, reader);
+    return reader;
   }
 }
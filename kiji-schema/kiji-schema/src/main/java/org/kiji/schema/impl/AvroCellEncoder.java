@@ -24,12 +24,13 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
@@ -74,6 +75,12 @@ import org.kiji.schema.util.BytesKey;
  *   Depending on the column specification, Avro cells embed the writer schema or not.
  *   When embedded, the Avro schema ID/hash is prepended to the encoded value.
  * <p>
+ *
+ * <p>
+ *   Avro cell encoders are thread-safe and may be shared by concurrent writers without
+ *   serializing them: each thread encodes into its own buffer, and Avro datum writers are cached
+ *   in a concurrent map.
+ * </p>
  */
 @ApiAudience.Private
 public final class AvroCellEncoder implements KijiCellEncoder {
@@ -114,6 +121,35 @@ public final class AvroCellEncoder implements KijiCellEncoder {
 
   private static final Schema NULL_SCHEMA = Schema.create(Schema.Type.NULL);
 
+  /**
+   * Encode buffers larger than this many bytes are not retained by their thread once the encoding
+   * completes. This bounds the memory held by threads that occasionally encode very large cells.
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+  /**
+   * Byte stream and Avro encoder used to encode one cell.
+   *
+   * Each thread encodes into its own buffer, shared by all the Avro cell encoders.
+   */
+  private static final class EncodeBuffer {
+    /** Byte stream the cell is encoded into. */
+    private final ByteArrayOutputStream mByteArrayOutputStream = new ByteArrayOutputStream();
+
+    /** An encoder that writes to the above byte stream. */
+    private final Encoder mByteArrayEncoder =
+        EncoderFactory.get().directBinaryEncoder(mByteArrayOutputStream, null);
+  }
+
+  /** Encode buffer of the current thread. */
+  private static final ThreadLocal<EncodeBuffer> ENCODE_BUFFER =
+      new ThreadLocal<EncodeBuffer>() {
+        @Override
+        protected EncodeBuffer initialValue() {
+          return new EncodeBuffer();
+        }
+      };
+
   /**
    * Reports the Avro schema validation policy.
    *
@@ -141,7 +177,7 @@ public final class AvroCellEncoder implements KijiCellEncoder {
   private final SchemaEncoder mSchemaEncoder;
 
   /**
-   * Cache of Avro DatumWriter.
+   * Cache of Avro DatumWriter, keyed by writer schema identity.
    *
    * <p>
    *   Avro datum writers aren't thread-safe, but if we ensure the schema of a datum writer is not
@@ -150,23 +186,12 @@ public final class AvroCellEncoder implements KijiCellEncoder {
    *
    * <p>
    *   This cache is not globally shared at present.
-   *   To share this map globally (ie. static) requires using a WeakIdentityHashMap:
-   *   a weak map is required to garbage collect unused schemas;
-   *   an identity map is also required as Schema.hashCode/equals are imperfect.
+   *   Weak keys are compared by identity, as Schema.hashCode/equals are imperfect, and allow
+   *   unused schemas to be garbage collected.
    * </p>
    */
-  private final Map<Schema, DatumWriter<Object>> mCachedDatumWriters = Maps.newHashMap();
-
-  /**
-   * A byte stream for when encoding to a byte array.
-   *
-   * Since we use the same instance for all encodings, this makes the encoder thread-unsafe.
-   */
-  private final ByteArrayOutputStream mByteArrayOutputStream = new ByteArrayOutputStream();
-
-  /** An encoder that writes to the above byte stream. */
-  private final Encoder mByteArrayEncoder =
-      EncoderFactory.get().directBinaryEncoder(mByteArrayOutputStream, null);
+  private final ConcurrentMap<Schema, DatumWriter<Object>> mCachedDatumWriters =
+      new MapMaker().weakKeys().makeMap();
 
   /**
    * Configured reader schema for the column to encode.
@@ -200,9 +225,10 @@ public final class AvroCellEncoder implements KijiCellEncoder {
      * Encodes the writer schema in the cell.
      *
      * @param writerSchema Avro schema of the data being encoded.
+     * @param encoder Avro encoder to write the schema to.
      * @throws IOException on I/O error.
      */
-    void encode(Schema writerSchema) throws IOException;
+    void encode(Schema writerSchema, Encoder encoder) throws IOException;
   }
 
   // -----------------------------------------------------------------------------------------------
@@ -211,9 +237,9 @@ public final class AvroCellEncoder implements KijiCellEncoder {
   private class SchemaHashEncoder implements SchemaEncoder {
     /** {@inheritDoc} */
     @Override
-    public void encode(final Schema writerSchema) throws IOException {
+    public void encode(final Schema writerSchema, final Encoder encoder) throws IOException {
       final BytesKey schemaHash = mCellSpec.getSchemaTable().getOrCreateSchemaHash(writerSchema);
-      mByteArrayEncoder.writeFixed(schemaHash.getBytes());
+      encoder.writeFixed(schemaHash.getBytes());
     }
   }
 
@@ -223,9 +249,9 @@ public final class AvroCellEncoder implements KijiCellEncoder {
   private class SchemaIdEncoder implements SchemaEncoder {
     /** {@inheritDoc} */
     @Override
-    public void encode(final Schema writerSchema) throws IOException {
+    public void encode(final Schema writerSchema, final Encoder encoder) throws IOException {
       final long schemaId = mCellSpec.getSchemaTable().getOrCreateSchemaId(writerSchema);
-      mByteArrayEncoder.writeFixed(ByteStreamArray.longToVarInt64(schemaId));
+      encoder.writeFixed(ByteStreamArray.longToVarInt64(schemaId));
     }
   }
 
@@ -247,7 +273,7 @@ public final class AvroCellEncoder implements KijiCellEncoder {
 
     /** {@inheritDoc} */
     @Override
-    public void encode(final Schema writerSchema) throws IOException {
+    public void encode(final Schema writerSchema, final Encoder encoder) throws IOException {
       // Nothing to encode, because the writer schema is already encoded in the column layout.
       // This means the writer schema must be exactly the declared reader schema.
     }
@@ -296,9 +322,7 @@ public final class AvroCellEncoder implements KijiCellEncoder {
 
   /** {@inheritDoc} */
   @Override
-  public synchronized <T> byte[] encode(final T cellValue) throws IOException {
-    mByteArrayOutputStream.reset();
-
+  public <T> byte[] encode(final T cellValue) throws IOException {
     // Get the writer schema for this cell.
     final Schema writerSchema = getWriterSchema(cellValue);
 
@@ -347,24 +371,35 @@ public final class AvroCellEncoder implements KijiCellEncoder {
               mReaderSchema.toString(true)));
     }
 
-    // Encode the Avro schema (if necessary):
-    mSchemaEncoder.encode(writerSchema);
-
-    // Encode the cell value:
+    final EncodeBuffer buffer = ENCODE_BUFFER.get();
+    buffer.mByteArrayOutputStream.reset();
     try {
-      getDatumWriter(writerSchema).write(cellValue, mByteArrayEncoder);
-    } catch (ClassCastException cce) {
-      throw new KijiEncodingException(cce);
-    } catch (AvroRuntimeException ure) {
-      throw new KijiEncodingException(ure);
+      // Encode the Avro schema (if necessary):
+      mSchemaEncoder.encode(writerSchema, buffer.mByteArrayEncoder);
+
+      // Encode the cell value:
+      try {
+        getDatumWriter(writerSchema).write(cellValue, buffer.mByteArrayEncoder);
+      } catch (ClassCastException cce) {
+        throw new KijiEncodingException(cce);
+      } catch (AvroRuntimeException ure) {
+        throw new KijiEncodingException(ure);
+      }
+      return buffer.mByteArrayOutputStream.toByteArray();
+    } finally {
+      if (buffer.mByteArrayOutputStream.size() > MAX_RETAINED_BUFFER_SIZE) {
+        ENCODE_BUFFER.remove();
+      }
     }
-    return mByteArrayOutputStream.toByteArray();
   }
 
   /**
    * Gets a datum writer for a schema and caches it.
    *
-   * <p> Not thread-safe, calls to this method must be externally synchronized. </p>
+   * <p>
+   *   Thread-safe: concurrent cache misses for the same schema may create redundant datum
+   *   writers, only one of which is retained.
+   * </p>
    *
    * @param schema The writer schema.
    * @return A datum writer for the given schema.
@@ -375,8 +410,8 @@ public final class AvroCellEncoder implements KijiCellEncoder {
       return existing;
     }
     final DatumWriter<Object> newWriter = new SpecificDatumWriter<Object>(schema);
-    mCachedDatumWriters.put(schema, newWriter);
-    return newWriter;
+    final DatumWriter<Object> racingWriter = mCachedDatumWriters.putIfAbsent(schema, newWriter);
+    return (racingWriter != null) ? racingWriter : newWriter;
   }
 
   /**
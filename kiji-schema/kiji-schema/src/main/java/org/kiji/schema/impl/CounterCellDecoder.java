@@ -48,6 +48,12 @@ public final class CounterCellDecoder implements KijiCellDecoder<Long> {
     return new DecodedCell<Long>(DecodedCell.NO_SCHEMA, Bytes.toLong(bytes));
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public DecodedCell<Long> decodeCell(byte[] bytes, int offset, int length) throws IOException {
+    return new DecodedCell<Long>(DecodedCell.NO_SCHEMA, Bytes.toLong(bytes, offset, length));
+  }
+
   /** {@inheritDoc} */
   @Override
   public Long decodeValue(byte[] bytes) throws IOException {
@@ -0,0 +1,301 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.commons.monitoring.MetricUtils;
+import org.kiji.schema.KijiDataRequest;
+
+/**
+ * Latency of the operations of the readers and writers of a Kiji table.
+ *
+ * <p>
+ *   Each operation is timed once for the table, and once for each column family it involves.
+ *   Metrics are named {@code <operation>} for the table and
+ *   {@code family.<family>.<operation>} for a column family. Register these metrics with a
+ *   registry, under a prefix identifying the table, to report them:
+ * </p>
+ * <pre><code>
+ *   MetricUtils.registerAll(registry, "kiji.table.users", hbaseKijiTable.getTableMetrics());
+ * </code></pre>
+ *
+ * <p>
+ *   Recording is lock-free, so the metrics can stay on under production load. Timers are created
+ *   when first recorded into, and the HBase implementation shares the metrics of a table between
+ *   all the handles on this table, so that opening a table allocates no histogram.
+ *   Setting the {@link #ENABLED_PROPERTY} system property to false disables recording entirely:
+ *   timers are then never created nor started, operations are not even timed, and all tables
+ *   share a single empty set of metrics.
+ * </p>
+ *
+ * <p>
+ *   These metrics time Kiji operations end to end, including the decoding of cells and every
+ *   HBase RPC an operation issues. The HBase RPCs themselves are timed separately by
+ *   {@link org.kiji.schema.impl.hbase.HBaseTableMetrics}.
+ * </p>
+ */
+@ApiAudience.Private
+public final class KijiTableMetrics implements MetricSet {
+  /** Name of the system property to enable or disable recording. Defaults to true. */
+  public static final String ENABLED_PROPERTY = "org.kiji.schema.impl.KijiTableMetrics.ENABLED";
+
+  /** Whether recording is enabled. Constant, so that the JIT eliminates disabled recording. */
+  private static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+
+  /** Start time returned when recording is disabled. */
+  private static final long NOT_STARTED = 0L;
+
+  /** Operations of Kiji table readers and writers. */
+  public static enum Operation {
+    /** Single row get, including getResult(). */
+    GET("get"),
+
+    /** Multiple row get, including bulkGetResults(). */
+    BULK_GET("bulk_get"),
+
+    /** Fetch of the next row of a scanner. */
+    SCAN_NEXT("scan.next"),
+
+    /** Put of a single cell. */
+    PUT("put"),
+
+    /** Flush of a writer. */
+    FLUSH("flush");
+
+    private final String mMetricName;
+
+    /**
+     * Initializes an operation.
+     *
+     * @param metricName Name of the metrics of the operation.
+     */
+    private Operation(final String metricName) {
+      mMetricName = metricName;
+    }
+
+    /** @return the name of the metrics of this operation. */
+    public String getMetricName() {
+      return mMetricName;
+    }
+  }
+
+  /** Metrics shared by all tables when recording is disabled. Never records anything. */
+  private static final KijiTableMetrics DISABLED = new KijiTableMetrics();
+
+  /** Timers of the table, indexed by operation ordinal. Timers are created on first use. */
+  private final AtomicReferenceArray<Timer> mTableTimers =
+      new AtomicReferenceArray<Timer>(Operation.values().length);
+
+  /**
+   * Timers of each column family, indexed by operation ordinal. Timers are created on first use.
+   */
+  private final ConcurrentMap<String, AtomicReferenceArray<Timer>> mFamilyTimers =
+      Maps.newConcurrentMap();
+
+  /** Initializes the metrics of a table. */
+  private KijiTableMetrics() {
+  }
+
+  /**
+   * Creates the metrics of a table.
+   *
+   * @return the metrics of a table, or the shared empty metrics if recording is disabled.
+   */
+  public static KijiTableMetrics create() {
+    return ENABLED ? new KijiTableMetrics() : DISABLED;
+  }
+
+  /** @return whether recording is enabled. */
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Starts timing an operation.
+   *
+   * @return the start time of the operation, to pass to {@code record()}.
+   */
+  public long start() {
+    return ENABLED ? System.nanoTime() : NOT_STARTED;
+  }
+
+  /**
+   * Records an operation on the table which involves no column family in particular.
+   *
+   * @param operation Operation to record.
+   * @param startNanos Start time of the operation, as returned by {@link #start()}.
+   */
+  public void record(final Operation operation, final long startNanos) {
+    if (ENABLED) {
+      update(mTableTimers, operation, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Records an operation on a column family of the table.
+   *
+   * @param operation Operation to record.
+   * @param family Column family the operation involves.
+   * @param startNanos Start time of the operation, as returned by {@link #start()}.
+   */
+  public void record(final Operation operation, final String family, final long startNanos) {
+    if (ENABLED) {
+      final long elapsed = System.nanoTime() - startNanos;
+      update(mTableTimers, operation, elapsed);
+      update(getFamilyTimers(family), operation, elapsed);
+    }
+  }
+
+  /**
+   * Records a read operation, once for the table and once for each column family requested.
+   *
+   * @param operation Operation to record.
+   * @param dataRequest Data request of the read.
+   * @param startNanos Start time of the operation, as returned by {@link #start()}.
+   */
+  public void record(
+      final Operation operation,
+      final KijiDataRequest dataRequest,
+      final long startNanos
+  ) {
+    if (ENABLED) {
+      final long elapsed = System.nanoTime() - startNanos;
+      update(mTableTimers, operation, elapsed);
+      final Collection<KijiDataRequest.Column> columns = dataRequest.getColumns();
+      int index = 0;
+      for (KijiDataRequest.Column column : columns) {
+        final String family = column.getFamily();
+        if (!isFamilyOfPreviousColumn(columns, index, family)) {
+          update(getFamilyTimers(family), operation, elapsed);
+        }
+        index += 1;
+      }
+    }
+  }
+
+  /**
+   * Reports whether a column family is the family of one of the columns preceding an index.
+   *
+   * <p> Data requests have few columns, so this is cheaper than building a set of families. </p>
+   *
+   * @param columns Columns of a data request.
+   * @param index Index of the column of the family.
+   * @param family Column family.
+   * @return whether the family is the family of one of the columns before the index.
+   */
+  private static boolean isFamilyOfPreviousColumn(
+      final Collection<KijiDataRequest.Column> columns,
+      final int index,
+      final String family
+  ) {
+    int i = 0;
+    for (KijiDataRequest.Column column : columns) {
+      if (i++ == index) {
+        return false;
+      }
+      if (column.getFamily().equals(family)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Records a latency into the timer of an operation.
+   *
+   * @param timers Timers to record into, indexed by operation ordinal.
+   * @param operation Operation to record.
+   * @param elapsedNanos Latency of the operation, in nanoseconds.
+   */
+  private static void update(
+      final AtomicReferenceArray<Timer> timers,
+      final Operation operation,
+      final long elapsedNanos
+  ) {
+    final int index = operation.ordinal();
+    Timer timer = timers.get(index);
+    if (timer == null) {
+      timers.compareAndSet(index, null, MetricUtils.createLatencyTimer());
+      timer = timers.get(index);
+    }
+    timer.update(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the timers of a column family, creating the array holding them if necessary.
+   *
+   * @param family Column family.
+   * @return the timers of the column family, indexed by operation ordinal.
+   */
+  private AtomicReferenceArray<Timer> getFamilyTimers(final String family) {
+    final AtomicReferenceArray<Timer> timers = mFamilyTimers.get(family);
+    if (timers != null) {
+      return timers;
+    }
+    final AtomicReferenceArray<Timer> newTimers =
+        new AtomicReferenceArray<Timer>(Operation.values().length);
+    final AtomicReferenceArray<Timer> existing = mFamilyTimers.putIfAbsent(family, newTimers);
+    return (existing != null) ? existing : newTimers;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   *   Includes the timers of the operations recorded before the call: operations and column
+   *   families first recorded later on only appear in subsequent calls. Empty when recording is
+   *   disabled.
+   * </p>
+   */
+  @Override
+  public Map<String, Metric> getMetrics() {
+    final ImmutableMap.Builder<String, Metric> metrics = ImmutableMap.builder();
+    for (Operation operation : Operation.values()) {
+      final Timer timer = mTableTimers.get(operation.ordinal());
+      if (timer != null) {
+        metrics.put(operation.getMetricName(), timer);
+      }
+    }
+    for (Map.Entry<String, AtomicReferenceArray<Timer>> entry : mFamilyTimers.entrySet()) {
+      for (Operation operation : Operation.values()) {
+        final Timer timer = entry.getValue().get(operation.ordinal());
+        if (timer != null) {
+          metrics.put(
+              MetricRegistry.name("family", entry.getKey(), operation.getMetricName()), timer);
+        }
+      }
+    }
+    return metrics.build();
+  }
+}
@@ -0,0 +1,357 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiIOException;
+import org.kiji.schema.KijiPartition;
+import org.kiji.schema.KijiResult;
+import org.kiji.schema.KijiResultScanner;
+import org.kiji.schema.KijiTableReader;
+import org.kiji.schema.RuntimeInterruptedException;
+
+/**
+ * KijiResultScanner over many partitions of a table, scanned in parallel.
+ *
+ * <p>
+ *   Each partition is scanned with {@link KijiTableReader#getKijiResultScanner(KijiDataRequest,
+ *   KijiPartition)} on a bounded pool of threads owned by this scanner. Scanned rows are buffered
+ *   in bounded queues until they are consumed:
+ * </p>
+ * <ul>
+ *   <li> unordered scanners return rows in the order they are scanned, from a single queue shared
+ *        by all partitions; </li>
+ *   <li> ordered scanners return all the rows of a partition before the rows of the next
+ *        partition, with a queue per partition. Partitions are scheduled in order, so the
+ *        partition being consumed is always being scanned while the following partitions are
+ *        scanned ahead. </li>
+ * </ul>
+ *
+ * <p>
+ *   The table reader must allow concurrent calls to
+ *   {@link KijiTableReader#getKijiResultScanner(KijiDataRequest, KijiPartition)}.
+ *   Instances of this class are not thread-safe.
+ * </p>
+ *
+ * @param <T> type of {@code KijiCell} value returned by scanned {@code KijiResult}s.
+ */
+@ApiAudience.Private
+public final class ParallelKijiResultScanner<T> implements KijiResultScanner<T> {
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelKijiResultScanner.class);
+
+  /** Number of rows buffered per partition being scanned. */
+  private static final int ROWS_BUFFERED_PER_PARTITION = 100;
+
+  /** Interval at which blocked partition scans check whether this scanner is closed. */
+  private static final long CLOSE_CHECK_INTERVAL_MS = 100;
+
+  /** Marks the end of a partition. */
+  private static final Object END_OF_PARTITION = new Object();
+
+  /** Creates the threads scanning partitions. */
+  private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+      .setDaemon(true)
+      .setNameFormat(ParallelKijiResultScanner.class.getCanonicalName() + "-%d")
+      .build();
+
+  /** Possible states of the scanner. */
+  private static enum State {
+    OPEN, CLOSED
+  }
+
+  private final AtomicReference<State> mState = new AtomicReference<State>(State.OPEN);
+
+  /** Reader to scan the partitions with. */
+  private final KijiTableReader mReader;
+
+  /** Data request applied to each row. */
+  private final KijiDataRequest mDataRequest;
+
+  /** Whether rows are returned partition after partition. */
+  private final boolean mOrdered;
+
+  /** Threads scanning the partitions. Owned by this scanner. */
+  private final ExecutorService mExecutor;
+
+  /**
+   * Queues of scanned rows, each terminated by END_OF_PARTITION or by the exception that ended
+   * the scan of a partition. One queue per partition if ordered, a single shared queue otherwise.
+   */
+  private final List<BlockingQueue<Object>> mQueues;
+
+  /** Index of the queue being consumed. */
+  private int mQueueIndex = 0;
+
+  /** Number of partitions whose end has not been consumed yet. */
+  private int mPartitionsRemaining;
+
+  /** Next row to return, once loaded. */
+  private KijiResult<T> mNext = null;
+
+  /** Whether mNext is loaded. */
+  private boolean mNextLoaded = false;
+
+  /** Exception that ended the scan, to report to subsequent calls. */
+  private RuntimeException mFailure = null;
+
+  /**
+   * Initializes a new scanner and starts scanning the partitions.
+   *
+   * @param reader Reader to scan the partitions with.
+   * @param dataRequest Data request applied to each row.
+   * @param partitions Partitions to scan, in the order rows are returned if ordered.
+   * @param parallelism Maximum number of partitions scanned concurrently.
+   * @param ordered Whether to return the rows partition after partition.
+   */
+  public ParallelKijiResultScanner(
+      final KijiTableReader reader,
+      final KijiDataRequest dataRequest,
+      final List<? extends KijiPartition> partitions,
+      final int parallelism,
+      final boolean ordered
+  ) {
+    Preconditions.checkArgument(parallelism > 0,
+        "Parallelism must be >= 1, got %s.", parallelism);
+    mReader = reader;
+    mDataRequest = dataRequest;
+    mOrdered = ordered;
+    mPartitionsRemaining = partitions.size();
+
+    if (partitions.isEmpty()) {
+      mQueues = ImmutableList.of();
+    } else if (mOrdered) {
+      mQueues = Lists.newArrayListWithCapacity(partitions.size());
+      for (int i = 0; i < partitions.size(); ++i) {
+        mQueues.add(new ArrayBlockingQueue<Object>(ROWS_BUFFERED_PER_PARTITION));
+      }
+    } else {
+      mQueues = ImmutableList.<BlockingQueue<Object>>of(
+          new ArrayBlockingQueue<Object>(ROWS_BUFFERED_PER_PARTITION * parallelism));
+    }
+
+    mExecutor = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(parallelism, partitions.size())), THREAD_FACTORY);
+    for (int i = 0; i < partitions.size(); ++i) {
+      final KijiPartition partition = partitions.get(i);
+      final BlockingQueue<Object> queue = mOrdered ? mQueues.get(i) : mQueues.get(0);
+      mExecutor.execute(new Runnable() {
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+          scanPartition(partition, queue);
+        }
+      });
+    }
+  }
+
+  /**
+   * Scans a partition into a queue, until the end of the partition or until this scanner is
+   * closed.
+   *
+   * @param partition Partition to scan.
+   * @param queue Queue to write the scanned rows to.
+   */
+  private void scanPartition(
+      final KijiPartition partition,
+      final BlockingQueue<Object> queue
+  ) {
+    if (mState.get() == State.CLOSED) {
+      return;
+    }
+    try {
+      final KijiResultScanner<T> scanner = mReader.getKijiResultScanner(mDataRequest, partition);
+      try {
+        while ((mState.get() != State.CLOSED) && scanner.hasNext()) {
+          final KijiResult<T> result = scanner.next();
+          if (!enqueue(queue, result)) {
+            closeResult(result);
+            return;
+          }
+        }
+      } finally {
+        scanner.close();
+      }
+      enqueue(queue, END_OF_PARTITION);
+    } catch (IOException ioe) {
+      enqueue(queue, new KijiIOException(ioe));
+    } catch (RuntimeException re) {
+      enqueue(queue, re);
+    }
+  }
+
+  /**
+   * Writes an item to a queue, waiting for space in the queue unless this scanner is closed.
+   *
+   * @param queue Queue to write to.
+   * @param item Scanned row, END_OF_PARTITION or exception that ended the scan of a partition.
+   * @return whether the item was written to the queue.
+   */
+  private boolean enqueue(
+      final BlockingQueue<Object> queue,
+      final Object item
+  ) {
+    try {
+      while (!queue.offer(item, CLOSE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        if (mState.get() == State.CLOSED) {
+          return false;
+        }
+      }
+      return true;
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Closes a scanned row that will not be returned.
+   *
+   * @param result Row to close.
+   */
+  private static void closeResult(
+      final KijiResult<?> result
+  ) {
+    try {
+      result.close();
+    } catch (IOException ioe) {
+      LOG.warn("Error closing discarded KijiResult: {}", ioe.getMessage());
+    }
+  }
+
+  /**
+   * Takes the next row from the queues.
+   *
+   * @return the next row, or null if all partitions have been consumed.
+   */
+  @SuppressWarnings("unchecked")
+  private KijiResult<T> takeNext() {
+    while (mQueueIndex < mQueues.size()) {
+      final Object next;
+      try {
+        next = mQueues.get(mQueueIndex).take();
+      } catch (InterruptedException ie) {
+        throw new RuntimeInterruptedException(ie);
+      }
+      if (next == END_OF_PARTITION) {
+        mPartitionsRemaining -= 1;
+        if (mOrdered || (mPartitionsRemaining == 0)) {
+          mQueueIndex += 1;
+        }
+      } else if (next instanceof RuntimeException) {
+        throw (RuntimeException) next;
+      } else {
+        return (KijiResult<T>) next;
+      }
+    }
+    return null;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasNext() {
+    final State state = mState.get();
+    Preconditions.checkState(state == State.OPEN,
+        "Cannot check has next on KijiResultScanner in state %s.", state);
+    if (null != mFailure) {
+      throw mFailure;
+    }
+    if (!mNextLoaded) {
+      try {
+        mNext = takeNext();
+      } catch (RuntimeException re) {
+        mFailure = re;
+        throw re;
+      }
+      mNextLoaded = true;
+    }
+    return (null != mNext);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public KijiResult<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    mNextLoaded = false;
+    return mNext;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " does not support remove().");
+  }
+
+  /**
+   * Closes the rows buffered in the queues.
+   */
+  private void drainQueues() {
+    for (BlockingQueue<Object> queue : mQueues) {
+      final List<Object> items = Lists.newArrayList();
+      queue.drainTo(items);
+      for (Object item : items) {
+        if (item instanceof KijiResult) {
+          closeResult((KijiResult<?>) item);
+        }
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    final State oldState = mState.getAndSet(State.CLOSED);
+    Preconditions.checkState(oldState == State.OPEN,
+        "Cannot close KijiResultScanner instance in state %s.", oldState);
+
+    // Partition scans notice the closed state between rows, or while blocked on a full queue:
+    mExecutor.shutdown();
+    drainQueues();
+    try {
+      while (!mExecutor.awaitTermination(CLOSE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        drainQueues();
+      }
+    } catch (InterruptedException ie) {
+      throw new RuntimeInterruptedException(ie);
+    }
+    drainQueues();
+  }
+}
@@ -22,6 +22,7 @@ package org.kiji.schema.impl;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import com.google.common.base.Preconditions;
 import com.google.protobuf.AbstractMessageLite;
@@ -116,6 +117,16 @@ public final class ProtobufCellDecoder<T> implements KijiCellDecoder<T> {
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public DecodedCell<T> decodeCell(byte[] bytes, int offset, int length) throws IOException {
+    // Protocol buffer messages are immutable, and parseFrom() requires an entire byte array.
+    if ((offset == 0) && (length == bytes.length)) {
+      return decodeCell(bytes);
+    }
+    return decodeCell(Arrays.copyOfRange(bytes, offset, offset + length));
+  }
+
   /** {@inheritDoc} */
   @Override
   public T decodeValue(byte[] bytes) throws IOException {
@@ -20,6 +20,7 @@
 package org.kiji.schema.impl;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import com.google.common.base.Preconditions;
 
@@ -66,6 +67,16 @@ public final class RawBytesCellDecoder<T> implements KijiCellDecoder<T> {
     return new DecodedCell(DecodedCell.NO_SCHEMA, encodedBytes);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public DecodedCell<T> decodeCell(byte[] bytes, int offset, int length) throws IOException {
+    // The decoded value is the byte array itself, so a region must be copied out of the array.
+    if ((offset == 0) && (length == bytes.length)) {
+      return decodeCell(bytes);
+    }
+    return decodeCell(Arrays.copyOfRange(bytes, offset, offset + length));
+  }
+
   /** {@inheritDoc} */
   @Override
   public T decodeValue(byte[] bytes) throws IOException {
@@ -0,0 +1,347 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.commons.ResourceTracker;
+import org.kiji.schema.AsyncKijiTableReader;
+import org.kiji.schema.EntityId;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiResult;
+import org.kiji.schema.KijiRowData;
+import org.kiji.schema.KijiTableReader;
+import org.kiji.schema.RuntimeInterruptedException;
+import org.kiji.schema.util.ResourceUtils;
+
+/**
+ * AsyncKijiTableReader for HBase Kiji tables.
+ *
+ * <p>
+ *   The HBase client only offers blocking reads, so reads are performed by a fixed pool of
+ *   threads owned by this reader: the number of threads bounds the number of reads in flight, and
+ *   reads issued beyond that bound wait in the queue of the pool without holding any thread.
+ * </p>
+ *
+ * <p>
+ *   KijiTableReaders are not thread-safe: each thread of the pool reads through a KijiTableReader
+ *   of its own, opened on its first read and kept until this reader is closed.
+ * </p>
+ */
+@ApiAudience.Private
+public final class HBaseAsyncKijiTableReader implements AsyncKijiTableReader {
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseAsyncKijiTableReader.class);
+
+  /** Creates the threads performing reads. */
+  private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+      .setDaemon(true)
+      .setNameFormat(HBaseAsyncKijiTableReader.class.getCanonicalName() + "-%d")
+      .build();
+
+  /** Possible states of the reader. */
+  private static enum State {
+    OPEN, CLOSED
+  }
+
+  private final AtomicReference<State> mState = new AtomicReference<State>(State.OPEN);
+
+  /** Table to read from. Retained until this reader is closed. */
+  private final HBaseKijiTable mTable;
+
+  /** Maximum number of reads in flight. */
+  private final int mMaxConcurrentReads;
+
+  /** Threads performing the reads, and queue of the reads waiting for a thread. */
+  private final ThreadPoolExecutor mExecutor;
+
+  /** Readers not in use by a thread of the executor. At most one reader per thread. */
+  private final Queue<KijiTableReader> mIdleReaders =
+      new ConcurrentLinkedQueue<KijiTableReader>();
+
+  /**
+   * A read performed on a thread of the executor, completing a future.
+   *
+   * @param <V> type of the outcome of the read.
+   */
+  private abstract class ReadTask<V> implements Runnable {
+    /** Future of the outcome of the read. */
+    private final SettableFuture<V> mFuture = SettableFuture.create();
+
+    /** @return the future of the outcome of the read. */
+    public ListenableFuture<V> getFuture() {
+      return mFuture;
+    }
+
+    /**
+     * Performs the read.
+     *
+     * @param reader Reader to perform the read with. Exclusively used by the caller.
+     * @return the outcome of the read.
+     * @throws IOException on I/O error.
+     */
+    protected abstract V read(KijiTableReader reader) throws IOException;
+
+    /**
+     * Releases the outcome of a read that nobody will consume.
+     *
+     * @param value Outcome of the read.
+     */
+    protected void discard(final V value) {
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      if (mFuture.isCancelled()) {
+        return;
+      }
+      try {
+        final KijiTableReader reader = takeReader();
+        try {
+          final V value = read(reader);
+          if (!mFuture.set(value)) {
+            // The read was cancelled while in flight:
+            discard(value);
+          }
+        } finally {
+          mIdleReaders.add(reader);
+        }
+      } catch (Throwable throwable) {
+        mFuture.setException(throwable);
+      }
+    }
+  }
+
+  /**
+   * Initializes a new asynchronous reader.
+   *
+   * @param table Table to read from.
+   * @param maxConcurrentReads Maximum number of reads in flight.
+   */
+  private HBaseAsyncKijiTableReader(
+      final HBaseKijiTable table,
+      final int maxConcurrentReads
+  ) {
+    Preconditions.checkArgument(maxConcurrentReads > 0,
+        "Maximum number of concurrent reads must be >= 1, got %s.", maxConcurrentReads);
+    mTable = table;
+    mMaxConcurrentReads = maxConcurrentReads;
+    mExecutor = new ThreadPoolExecutor(
+        maxConcurrentReads,
+        maxConcurrentReads,
+        0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        THREAD_FACTORY);
+    mTable.retain();
+    ResourceTracker.get().registerResource(this);
+  }
+
+  /**
+   * Creates a new asynchronous reader for an HBase Kiji table.
+   *
+   * @param table Table to read from.
+   * @param maxConcurrentReads Maximum number of reads in flight.
+   * @return a new asynchronous reader for the table.
+   */
+  public static HBaseAsyncKijiTableReader create(
+      final HBaseKijiTable table,
+      final int maxConcurrentReads
+  ) {
+    return new HBaseAsyncKijiTableReader(table, maxConcurrentReads);
+  }
+
+  /**
+   * Takes an idle reader, or opens a new one if none is idle.
+   *
+   * @return a reader for the exclusive use of the caller.
+   * @throws IOException on I/O error.
+   */
+  private KijiTableReader takeReader() throws IOException {
+    final KijiTableReader reader = mIdleReaders.poll();
+    if (reader != null) {
+      return reader;
+    }
+    return mTable.openTableReader();
+  }
+
+  /**
+   * Schedules a read on the executor.
+   *
+   * @param task Read to schedule.
+   * @param <V> type of the outcome of the read.
+   * @return the future of the outcome of the read.
+   */
+  private <V> ListenableFuture<V> submit(final ReadTask<V> task) {
+    final State state = mState.get();
+    Preconditions.checkState(state == State.OPEN,
+        "Cannot read from AsyncKijiTableReader instance %s in state %s.", this, state);
+    try {
+      mExecutor.execute(task);
+    } catch (RejectedExecutionException ree) {
+      // This reader was closed concurrently:
+      task.mFuture.setException(closedException());
+    }
+    return task.getFuture();
+  }
+
+  /** @return the exception failing the reads issued or queued after this reader is closed. */
+  private IllegalStateException closedException() {
+    return new IllegalStateException(String.format(
+        "Cannot read from AsyncKijiTableReader instance %s in state %s.", this, State.CLOSED));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ListenableFuture<KijiRowData> get(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest
+  ) {
+    return submit(new ReadTask<KijiRowData>() {
+      /** {@inheritDoc} */
+      @Override
+      protected KijiRowData read(final KijiTableReader reader) throws IOException {
+        return reader.get(entityId, dataRequest);
+      }
+    });
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T> ListenableFuture<KijiResult<T>> getResult(
+      final EntityId entityId,
+      final KijiDataRequest dataRequest
+  ) {
+    return submit(new ReadTask<KijiResult<T>>() {
+      /** {@inheritDoc} */
+      @Override
+      protected KijiResult<T> read(final KijiTableReader reader) throws IOException {
+        return reader.getResult(entityId, dataRequest);
+      }
+
+      /** {@inheritDoc} */
+      @Override
+      protected void discard(final KijiResult<T> result) {
+        ResourceUtils.closeOrLog(result);
+      }
+    });
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public ListenableFuture<List<KijiRowData>> bulkGet(
+      final List<EntityId> entityIds,
+      final KijiDataRequest dataRequest
+  ) {
+    return submit(new ReadTask<List<KijiRowData>>() {
+      /** {@inheritDoc} */
+      @Override
+      protected List<KijiRowData> read(final KijiTableReader reader) throws IOException {
+        return reader.bulkGet(entityIds, dataRequest);
+      }
+    });
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T> ListenableFuture<List<KijiResult<T>>> bulkGetResults(
+      final List<EntityId> entityIds,
+      final KijiDataRequest dataRequest
+  ) {
+    return submit(new ReadTask<List<KijiResult<T>>>() {
+      /** {@inheritDoc} */
+      @Override
+      protected List<KijiResult<T>> read(final KijiTableReader reader) throws IOException {
+        return reader.bulkGetResults(entityIds, dataRequest);
+      }
+
+      /** {@inheritDoc} */
+      @Override
+      protected void discard(final List<KijiResult<T>> results) {
+        for (KijiResult<T> result : results) {
+          ResourceUtils.closeOrLog(result);
+        }
+      }
+    });
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(HBaseAsyncKijiTableReader.class)
+        .add("id", System.identityHashCode(this))
+        .add("table", mTable.getURI())
+        .add("max_concurrent_reads", mMaxConcurrentReads)
+        .add("state", mState.get())
+        .toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p> Reads still queued fail, and reads in flight are completed before this method returns. </p>
+   */
+  @Override
+  public void close() throws IOException {
+    final State oldState = mState.getAndSet(State.CLOSED);
+    Preconditions.checkState(oldState == State.OPEN,
+        "Cannot close AsyncKijiTableReader instance %s in state %s.", this, oldState);
+    ResourceTracker.get().unregisterResource(this);
+
+    // Reads in flight are not interrupted, to leave their readers in a consistent state:
+    mExecutor.shutdown();
+    final List<Runnable> queued = Lists.newArrayList();
+    mExecutor.getQueue().drainTo(queued);
+    for (Runnable task : queued) {
+      ((ReadTask<?>) task).mFuture.setException(closedException());
+    }
+    try {
+      while (!mExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+        LOG.debug("Waiting for the reads in flight of {} to complete.", this);
+      }
+    } catch (InterruptedException ie) {
+      throw new RuntimeInterruptedException(ie);
+    } finally {
+      for (KijiTableReader reader : mIdleReaders) {
+        ResourceUtils.closeOrLog(reader);
+      }
+      mIdleReaders.clear();
+      mTable.release();
+    }
+  }
+}
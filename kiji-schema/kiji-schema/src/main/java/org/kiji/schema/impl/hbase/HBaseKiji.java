@@ -23,11 +23,13 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HColumnDescriptor;
@@ -58,6 +60,7 @@ import org.kiji.schema.avro.TableLayoutDesc;
 import org.kiji.schema.hbase.HBaseFactory;
 import org.kiji.schema.hbase.KijiManagedHBaseTableName;
 import org.kiji.schema.impl.HTableInterfaceFactory;
+import org.kiji.schema.impl.KijiTableMetrics;
 import org.kiji.schema.impl.Versions;
 import org.kiji.schema.layout.InvalidLayoutException;
 import org.kiji.schema.layout.KijiTableLayout;
@@ -153,6 +156,13 @@ public final class HBaseKiji implements Kiji {
    */
   private KijiSecurityManager mSecurityManager = null;
 
+  /** Latency of the operations on each table, shared by all the handles on a table. */
+  private final ConcurrentMap<String, KijiTableMetrics> mTableMetrics = Maps.newConcurrentMap();
+
+  /** Metrics on the HBase requests sent to each table, shared by all the handles on a table. */
+  private final ConcurrentMap<String, HBaseTableMetrics> mHBaseTableMetrics =
+      Maps.newConcurrentMap();
+
   /**
    * Creates a new <code>HBaseKiji</code> instance.
    *
@@ -367,6 +377,48 @@ public final class HBaseKiji implements Kiji {
     return mSecurityManager;
   }
 
+  /**
+   * Gets the latency of the operations of the readers and writers of a table.
+   *
+   * <p>
+   *   Shared by all the handles on the table opened from this instance, so that opening a table
+   *   does not allocate new timers.
+   * </p>
+   *
+   * @param tableName Name of the table.
+   * @return the latency of the operations of the readers and writers of the table.
+   */
+  KijiTableMetrics getTableMetrics(final String tableName) {
+    final KijiTableMetrics metrics = mTableMetrics.get(tableName);
+    if (metrics != null) {
+      return metrics;
+    }
+    final KijiTableMetrics newMetrics = KijiTableMetrics.create();
+    final KijiTableMetrics existing = mTableMetrics.putIfAbsent(tableName, newMetrics);
+    return (existing != null) ? existing : newMetrics;
+  }
+
+  /**
+   * Gets the metrics on the HBase requests sent to the HBase table backing a table.
+   *
+   * <p>
+   *   Shared by all the handles on the table opened from this instance, so that opening a table
+   *   does not allocate new timers.
+   * </p>
+   *
+   * @param tableName Name of the table.
+   * @return the metrics on the HBase requests sent to the HBase table backing the table.
+   */
+  HBaseTableMetrics getHBaseTableMetrics(final String tableName) {
+    final HBaseTableMetrics metrics = mHBaseTableMetrics.get(tableName);
+    if (metrics != null) {
+      return metrics;
+    }
+    final HBaseTableMetrics newMetrics = HBaseTableMetrics.create();
+    final HBaseTableMetrics existing = mHBaseTableMetrics.putIfAbsent(tableName, newMetrics);
+    return (existing != null) ? existing : newMetrics;
+  }
+
   /** {@inheritDoc} */
   @Override
   public HBaseKijiTable openTable(String tableName) throws IOException {
@@ -701,6 +753,9 @@ public final class HBaseKiji implements Kiji {
     } else {
       throw new InternalKijiError(String.format("Unknown System version %s.", mSystemVersion));
     }
+    // A table created later on under the same name starts with fresh metrics:
+    mTableMetrics.remove(tableName);
+    mHBaseTableMetrics.remove(tableName);
   }
 
   // CSOFF: MethodName
@@ -20,37 +20,42 @@
 package org.kiji.schema.impl.hbase;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.TableNotFoundException;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.HTableInterface;
-import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.filter.ColumnPrefixFilter;
 import org.apache.hadoop.hbase.filter.FilterList;
 import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
 import org.apache.hadoop.hbase.util.Bytes;
-import org.apache.hadoop.hbase.util.ClassSize;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.kiji.annotations.ApiAudience;
 import org.kiji.commons.ResourceTracker;
 import org.kiji.schema.EntityId;
+import org.kiji.schema.InternalKijiError;
 import org.kiji.schema.KijiBufferedWriter;
 import org.kiji.schema.KijiCellEncoder;
 import org.kiji.schema.KijiColumnName;
 import org.kiji.schema.KijiTableNotFoundException;
 import org.kiji.schema.NoSuchColumnException;
+import org.kiji.schema.RuntimeInterruptedException;
 import org.kiji.schema.hbase.HBaseColumnName;
 import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
 import org.kiji.schema.impl.LayoutConsumer;
 import org.kiji.schema.layout.HBaseColumnNameTranslator;
 import org.kiji.schema.layout.KijiTableLayout;
@@ -58,23 +63,51 @@ import org.kiji.schema.layout.KijiTableLayout.LocalityGroupLayout.FamilyLayout;
 import org.kiji.schema.layout.KijiTableLayout.LocalityGroupLayout.FamilyLayout.ColumnLayout;
 import org.kiji.schema.layout.impl.CellEncoderProvider;
 import org.kiji.schema.platform.SchemaPlatformBridge;
+import org.kiji.schema.util.ResourceUtils;
 
 /**
  * <p>
  * HBase implementation of a batch KijiTableWriter.  Contains its own HTable connection to optimize
  * performance.  Buffer is stored locally and the underlying HTableInterface buffer is ignored.
- * Default buffer size is 2,097,152 bytes.
+ * Default buffer size is 2,097,152 bytes, measured as the size of the buffered mutations on the
+ * wire.  Mutations are combined per row and written in batches sorted by row key, see
+ * {@link HBaseWriteBuffer}.
  * </p>
  *
  * <p>
  * Access to this Writer is threadsafe.  All internal state mutations must synchronize against
  * mInternalLock.
  * </p>
+ *
+ * <p>
+ * By default, a full buffer is written to HBase synchronously, by the thread whose write
+ * overflowed the buffer. With {@link #setMaxInFlightBuffers(int)} or the
+ * {@link #MAX_IN_FLIGHT_BUFFERS_PROPERTY} system property, full buffers are instead handed off to
+ * a background flusher, and writes continue into a fresh buffer. Writers block once the specified
+ * number of buffers are waiting to be written. A failure to write a buffer in the background is
+ * reported by the next call to a write method, to {@link #flush()} or to {@link #close()}. The
+ * writer releases its resources on {@link #close()} even when its last buffers fail to be written.
+ * </p>
  */
 @ApiAudience.Private
 public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
   private static final Logger LOG = LoggerFactory.getLogger(HBaseKijiBufferedWriter.class);
 
+  /** Name of the system property to set the default maximum number of in-flight buffers. */
+  public static final String MAX_IN_FLIGHT_BUFFERS_PROPERTY =
+      "org.kiji.schema.impl.hbase.HBaseKijiBufferedWriter.MAX_IN_FLIGHT_BUFFERS";
+
+  /** Default maximum number of in-flight buffers. 0 means buffers are written synchronously. */
+  private static final int DEFAULT_MAX_IN_FLIGHT_BUFFERS =
+      Integer.parseInt(System.getProperty(MAX_IN_FLIGHT_BUFFERS_PROPERTY, "0"));
+
+  /** Creates the threads writing buffers to HBase in the background. */
+  private static final ThreadFactory FLUSHER_THREAD_FACTORY =
+      new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(HBaseKijiBufferedWriter.class.getCanonicalName() + "-flusher-%d")
+          .build();
+
   /** Underlying dedicated HTableInterface used by this writer. Owned by this writer. */
   private final HTableInterface mHTable;
 
@@ -93,19 +126,29 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
    */
   private volatile HBaseKijiTableWriter.WriterLayoutCapsule mWriterLayoutCapsule = null;
 
-  /** Local write buffers. */
-  private Map<EntityId, Put> mPutBuffer = new HashMap<EntityId, Put>();
-  private ArrayList<Delete> mDeleteBuffer = Lists.newArrayList();
+  /** Local write buffer. */
+  private HBaseWriteBuffer mWriteBuffer = new HBaseWriteBuffer();
 
-  /** Local write buffer size. */
+  /** Local write buffer size, in bytes on the wire. */
   private long mMaxWriteBufferSize = 1024L * 1024L * 2L;
-  private long mCurrentWriteBufferSize = 0L;
 
-  /** Static overhead size of a Delete. */
-  private final long mDeleteSize = ClassSize.align(
-      ClassSize.OBJECT + 2 * ClassSize.REFERENCE
-      + 2 * Bytes.SIZEOF_LONG + Bytes.SIZEOF_BOOLEAN
-      + ClassSize.REFERENCE + ClassSize.TREEMAP);
+  /** Maximum number of buffers handed off to the background flusher. 0 means synchronous. */
+  private int mMaxInFlightBuffers = 0;
+
+  /** Writes buffers to HBase in the background, in order. Null when writing synchronously. */
+  private ExecutorService mFlusher = null;
+
+  /** HTableInterface used by the background flusher. Null when writing synchronously. */
+  private HTableInterface mFlusherHTable = null;
+
+  /** Permits to hand a buffer off to the background flusher. Null when writing synchronously. */
+  private Semaphore mInFlightPermits = null;
+
+  /** Completion of the buffer handed off last to the background flusher. */
+  private Future<?> mLastFlush = null;
+
+  /** First error from the background flusher, not reported yet. */
+  private final AtomicReference<IOException> mFlushError = new AtomicReference<IOException>();
 
   /** States of a buffered writer instance. */
   private static enum State {
@@ -194,6 +237,159 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
       mState = State.OPEN;
     }
     ResourceTracker.get().registerResource(this);
+    if (DEFAULT_MAX_IN_FLIGHT_BUFFERS > 0) {
+      setMaxInFlightBuffers(DEFAULT_MAX_IN_FLIGHT_BUFFERS);
+    }
+  }
+
+  // ----------------------------------------------------------------------------------------------
+  // Buffer management
+
+  /**
+   * Sets the maximum number of full buffers waiting to be written to HBase in the background.
+   *
+   * <p>
+   *   Flushes the current buffer first. With a maximum of 0, buffers are written synchronously by
+   *   the thread whose write overflowed the buffer, which is the default.
+   * </p>
+   *
+   * @param maxInFlightBuffers Maximum number of full buffers waiting to be written.
+   * @throws IOException on I/O error.
+   */
+  public void setMaxInFlightBuffers(int maxInFlightBuffers) throws IOException {
+    synchronized (mInternalLock) {
+      Preconditions.checkState(mState == State.OPEN,
+          "Cannot set maximum in-flight buffers of BufferedWriter instance %s in state %s.",
+          this, mState);
+      Preconditions.checkArgument(maxInFlightBuffers >= 0,
+          "Maximum number of in-flight buffers cannot be negative, got %s.", maxInFlightBuffers);
+      flush();
+      if ((maxInFlightBuffers > 0) && (mFlusher == null)) {
+        mFlusherHTable = mTable.openHTableConnection();
+        SchemaPlatformBridge.get().setAutoFlush(mFlusherHTable, false);
+        SchemaPlatformBridge.get().setWriteBufferSize(mFlusherHTable, mMaxWriteBufferSize);
+        mFlusher = Executors.newSingleThreadExecutor(FLUSHER_THREAD_FACTORY);
+      } else if ((maxInFlightBuffers == 0) && (mFlusher != null)) {
+        stopFlusher();
+      }
+      mMaxInFlightBuffers = maxInFlightBuffers;
+      mInFlightPermits = (maxInFlightBuffers > 0) ? new Semaphore(maxInFlightBuffers) : null;
+    }
+  }
+
+  /**
+   * Stops the background flusher and closes its HTableInterface.
+   *
+   * <p> The background flusher must be idle. Must be called while holding mInternalLock. </p>
+   */
+  private void stopFlusher() {
+    mFlusher.shutdown();
+    mFlusher = null;
+    mLastFlush = null;
+    ResourceUtils.closeOrLog(mFlusherHTable);
+    mFlusherHTable = null;
+  }
+
+  /**
+   * Hands the current buffer off to the background flusher, and starts a fresh buffer.
+   *
+   * <p>
+   *   Blocks while the maximum number of buffers are already waiting to be written.
+   *   Must be called while holding mInternalLock.
+   * </p>
+   */
+  private void handOffBuffer() {
+    if (mWriteBuffer.isEmpty()) {
+      return;
+    }
+    final HBaseWriteBuffer buffer = mWriteBuffer;
+    mWriteBuffer = new HBaseWriteBuffer();
+
+    try {
+      mInFlightPermits.acquire();
+    } catch (InterruptedException ie) {
+      throw new RuntimeInterruptedException(ie);
+    }
+    final HTableInterface htable = mFlusherHTable;
+    final Semaphore permits = mInFlightPermits;
+    mLastFlush = mFlusher.submit(new Runnable() {
+      /** {@inheritDoc} */
+      @Override
+      public void run() {
+        try {
+          buffer.write(htable);
+        } catch (IOException ioe) {
+          reportFlushError(buffer, ioe);
+        } catch (RuntimeException re) {
+          reportFlushError(buffer, re);
+        } finally {
+          permits.release();
+        }
+      }
+    });
+  }
+
+  /**
+   * Records an error from the background flusher, to be reported by the next call to the writer.
+   *
+   * @param buffer Buffer which failed to be written. Keeps the mutations not written.
+   * @param cause Error from the background flusher.
+   */
+  private void reportFlushError(final HBaseWriteBuffer buffer, final Exception cause) {
+    final IOException error = new IOException(String.format(
+        "Failed to write %d buffered mutations to table %s.",
+        buffer.getNumMutations(), mTable.getURI()), cause);
+    LOG.error(error.getMessage(), cause);
+    mFlushError.compareAndSet(null, error);
+  }
+
+  /**
+   * Throws the pending error from the background flusher, if any. Each error is thrown once.
+   *
+   * @throws IOException the pending error from the background flusher, if any.
+   */
+  private void checkFlushError() throws IOException {
+    final IOException error = mFlushError.getAndSet(null);
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Waits until the background flusher wrote all the buffers handed off to it.
+   *
+   * <p> Must be called while holding mInternalLock. </p>
+   */
+  private void waitForInFlightBuffers() {
+    if (mLastFlush == null) {
+      return;
+    }
+    try {
+      mLastFlush.get();
+    } catch (InterruptedException ie) {
+      throw new RuntimeInterruptedException(ie);
+    } catch (ExecutionException ee) {
+      // Errors are caught and recorded by the flush task itself:
+      throw new InternalKijiError(ee);
+    }
+    mLastFlush = null;
+  }
+
+  /**
+   * Flushes the buffer if it exceeds the maximum buffer size.
+   *
+   * <p> Must be called while holding mInternalLock. </p>
+   *
+   * @throws IOException in case of an error on flush.
+   */
+  private void flushIfFull() throws IOException {
+    if (mWriteBuffer.getWireSize() > mMaxWriteBufferSize) {
+      if (mMaxInFlightBuffers > 0) {
+        handOffBuffer();
+      } else {
+        flush();
+      }
+    }
   }
 
   // ----------------------------------------------------------------------------------------------
@@ -214,20 +410,9 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
     synchronized (mInternalLock) {
       Preconditions.checkState(mState == State.OPEN,
           "Cannot write to BufferedWriter instance in state %s.", mState);
-      if (mPutBuffer.containsKey(entityId)) {
-        mCurrentWriteBufferSize -= mPutBuffer.get(entityId).heapSize();
-        mPutBuffer.get(entityId).add(family, qualifier,
-            timestamp, value);
-        mCurrentWriteBufferSize += mPutBuffer.get(entityId).heapSize();
-      } else {
-        final Put put = new Put(entityId.getHBaseRowKey())
-            .add(family, qualifier, timestamp, value);
-        mPutBuffer.put(entityId, put);
-        mCurrentWriteBufferSize += put.heapSize();
-      }
-      if (mCurrentWriteBufferSize > mMaxWriteBufferSize) {
-        flush();
-      }
+      checkFlushError();
+      mWriteBuffer.put(entityId.getHBaseRowKey(), family, qualifier, timestamp, value);
+      flushIfFull();
     }
   }
 
@@ -242,6 +427,7 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
   @Override
   public <T> void put(EntityId entityId, String family, String qualifier, long timestamp, T value)
       throws IOException {
+    final long startNanos = mTable.getTableMetrics().start();
     final KijiColumnName columnName = KijiColumnName.create(family, qualifier);
     final HBaseKijiTableWriter.WriterLayoutCapsule capsule = mWriterLayoutCapsule;
     final HBaseColumnName hbaseColumnName =
@@ -253,6 +439,7 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
 
     updateBuffer(entityId, hbaseColumnName.getFamily(), hbaseColumnName.getQualifier(), timestamp,
         encoded);
+    mTable.getTableMetrics().record(Operation.PUT, family, startNanos);
   }
 
   // ----------------------------------------------------------------------------------------------
@@ -266,13 +453,9 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
    */
   private void updateBuffer(Delete d) throws IOException {
     synchronized (mInternalLock) {
-      mDeleteBuffer.add(d);
-      long heapSize = mDeleteSize;
-      heapSize += ClassSize.align(ClassSize.ARRAY + d.getRow().length);
-      mCurrentWriteBufferSize += heapSize;
-      if (mCurrentWriteBufferSize > mMaxWriteBufferSize) {
-        flush();
-      }
+      checkFlushError();
+      mWriteBuffer.delete(d);
+      flushIfFull();
     }
   }
 
@@ -457,10 +640,11 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
       Preconditions.checkArgument(bufferSize > 0,
           "Buffer size cannot be negative, got %s.", bufferSize);
       mMaxWriteBufferSize = bufferSize;
-      if (mCurrentWriteBufferSize > mMaxWriteBufferSize) {
-        flush();
-      }
+      flushIfFull();
       SchemaPlatformBridge.get().setWriteBufferSize(mHTable, bufferSize);
+      if (mFlusherHTable != null) {
+        SchemaPlatformBridge.get().setWriteBufferSize(mFlusherHTable, bufferSize);
+      }
     }
   }
 
@@ -470,18 +654,15 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
     synchronized (mInternalLock) {
       Preconditions.checkState(mState == State.OPEN,
           "Cannot flush BufferedWriter instance %s in state %s.", this, mState);
-      if (mDeleteBuffer.size() > 0) {
-        mHTable.delete(mDeleteBuffer);
-        mDeleteBuffer.clear();
-      }
-      if (mPutBuffer.size() > 0) {
-        for (Put put : mPutBuffer.values()) {
-          mHTable.put(put);
-        }
-        mHTable.flushCommits();
-        mPutBuffer.clear();
+      final long startNanos = mTable.getTableMetrics().start();
+      if (mMaxInFlightBuffers > 0) {
+        handOffBuffer();
+        waitForInFlightBuffers();
+        checkFlushError();
+      } else {
+        mWriteBuffer.write(mHTable);
       }
-      mCurrentWriteBufferSize = 0L;
+      mTable.getTableMetrics().record(Operation.FLUSH, startNanos);
     }
   }
 
@@ -489,14 +670,21 @@ public final class HBaseKijiBufferedWriter implements KijiBufferedWriter {
   @Override
   public void close() throws IOException {
     synchronized (mInternalLock) {
-      flush();
       Preconditions.checkState(mState == State.OPEN,
           "Cannot close BufferedWriter instance %s in state %s.", this, mState);
-      mState = State.CLOSED;
-      ResourceTracker.get().unregisterResource(this);
-      mLayoutConsumerRegistration.close();
-      mHTable.close();
-      mTable.release();
+      try {
+        flush();
+      } finally {
+        // Releases all resources, even when the last buffers failed to be written:
+        mState = State.CLOSED;
+        ResourceTracker.get().unregisterResource(this);
+        ResourceUtils.closeOrLog(mLayoutConsumerRegistration);
+        if (mFlusher != null) {
+          stopFlusher();
+        }
+        ResourceUtils.closeOrLog(mHTable);
+        ResourceUtils.releaseOrLog(mTable);
+      }
     }
   }
 }
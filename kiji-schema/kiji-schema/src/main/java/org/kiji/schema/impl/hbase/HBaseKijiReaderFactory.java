@@ -55,6 +55,13 @@ public final class HBaseKijiReaderFactory implements KijiReaderFactory {
     return HBaseKijiTableReader.create(mTable);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public HBaseAsyncKijiTableReader openAsyncTableReader(int maxConcurrentReads)
+      throws IOException {
+    return HBaseAsyncKijiTableReader.create(mTable, maxConcurrentReads);
+  }
+
   /** {@inheritDoc} */
   @Override
   public HBaseKijiTableReader openTableReader(Map<KijiColumnName, CellSpec> overrides)
@@ -21,9 +21,18 @@ package org.kiji.schema.impl.hbase;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -34,10 +43,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.kiji.schema.EntityIdFactory;
+import org.kiji.schema.InternalKijiError;
 import org.kiji.schema.KijiDataRequest;
 import org.kiji.schema.KijiIOException;
 import org.kiji.schema.KijiResult;
 import org.kiji.schema.KijiResultScanner;
+import org.kiji.schema.RuntimeInterruptedException;
+import org.kiji.schema.hbase.HBaseScanOptions;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
 import org.kiji.schema.layout.HBaseColumnNameTranslator;
 import org.kiji.schema.layout.KijiTableLayout;
 import org.kiji.schema.layout.impl.CellDecoderProvider;
@@ -47,6 +60,14 @@ import org.kiji.schema.layout.impl.CellDecoderProvider;
  *
  * HBase implementation of {@code KijiResultScanner}.
  *
+ * <p>
+ *   When configured to read ahead (see {@link HBaseScanOptions#setReadAheadSize}), rows are
+ *   fetched from HBase on a background thread into a bounded queue, so that the RPCs fetching the
+ *   next rows overlap with the decoding and processing of the current rows. The number of rows
+ *   fetched per RPC may then also be adjusted to the size of the rows observed so far
+ *   (see {@link HBaseScanOptions#setTargetRpcSize}).
+ * </p>
+ *
  * @param <T> type of {@code KijiCell} value returned by scanned {@code KijiResult}s.
  */
 public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
@@ -54,6 +75,19 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
 
   private static final int MAX_RETRIES_ON_TIMEOUT = 3;
 
+  /** Largest number of rows fetched per RPC when adjusting the caching to the size of rows. */
+  private static final int MAX_ADAPTIVE_CACHING = 10000;
+
+  /** Marks the end of the rows fetched ahead. */
+  private static final Object END_OF_SCAN = new Object();
+
+  /** Fetches rows ahead of the consumers of the scanners reading ahead. */
+  private static final ExecutorService READ_AHEAD_EXECUTOR = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(HBaseKijiResultScanner.class.getCanonicalName() + "-read-ahead-%d")
+          .build());
+
   /** Possible states of the scanner. */
   private static enum State {
     UNINITIALIZED, OPEN, CLOSED
@@ -71,6 +105,23 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
     return Arrays.copyOf(key, key.length + 1);
   }
 
+  /**
+   * Reports the size of an HBase Result on the wire.
+   *
+   * @param result HBase Result to report the size of.
+   * @return the size of the HBase Result on the wire, in bytes.
+   */
+  private static long wireSize(
+      final Result result
+  ) {
+    long size = 0;
+    for (Cell cell : result.rawCells()) {
+      size += HBaseWriteBuffer.cellWireSize(cell.getRowLength(), cell.getFamilyLength(),
+          cell.getQualifierLength(), cell.getValueLength());
+    }
+    return size;
+  }
+
   private final AtomicReference<State> mState = new AtomicReference<State>(State.UNINITIALIZED);
   private final KijiDataRequest mRequest;
   private final HBaseKijiTable mTable;
@@ -85,6 +136,24 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
   private ResultScanner mResultScanner;
   /** Replaced after every call to {@link #next()}. */
   private Result mNextResult;
+  /** Row key of the last row fetched from mResultScanner, or null. */
+  private byte[] mLastFetchedRow = null;
+
+  /**
+   * Rows fetched ahead, followed by END_OF_SCAN or by the exception that ended the fetch.
+   * Null when rows are fetched on demand.
+   */
+  private final BlockingQueue<Object> mReadAheadQueue;
+  /** Background task fetching rows ahead, or null when rows are fetched on demand. */
+  private final Future<?> mReadAheadTask;
+  /** Targeted size of the rows returned by each RPC, in bytes, or 0 to keep the caching fixed. */
+  private final long mTargetRpcSize;
+  /** Number of rows fetched per RPC when the scan does not specify it. */
+  private final int mDefaultCaching;
+  /** Number of rows fetched since mResultScanner was opened. */
+  private long mRowsSinceOpen = 0;
+  /** Size of the rows fetched since mResultScanner was opened, in bytes. */
+  private long mBytesSinceOpen = 0;
 
   /**
    * Initialize a new HBaseKijiResultScanner.
@@ -106,6 +175,33 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
       final CellDecoderProvider decoderProvider,
       final HBaseColumnNameTranslator columnNameTranslator,
       final boolean reopenScannerOnTimeout
+  ) throws IOException {
+    this(request, table, scan, layout, decoderProvider, columnNameTranslator,
+        reopenScannerOnTimeout, new HBaseScanOptions());
+  }
+
+  /**
+   * Initialize a new HBaseKijiResultScanner.
+   *
+   * @param request data request which will be applied to each row by this scanner.
+   * @param table Kiji table from which to scan rows.
+   * @param scan HBase Scan object with which defines the actual data to retrieve from HBase.
+   * @param layout of Kiji table.
+   * @param decoderProvider Provider for cell decoders with which to decode data from HBase.
+   * @param columnNameTranslator Translator for Kiji columns with which to decode data from HBase.
+   * @param reopenScannerOnTimeout Whether to reopen the underlying scanner if it times out.
+   * @param scanOptions Options controlling whether and how rows are fetched ahead.
+   * @throws IOException in case of an error connecting to HBase.
+   */
+  public HBaseKijiResultScanner(
+      final KijiDataRequest request,
+      final HBaseKijiTable table,
+      final Scan scan,
+      final KijiTableLayout layout,
+      final CellDecoderProvider decoderProvider,
+      final HBaseColumnNameTranslator columnNameTranslator,
+      final boolean reopenScannerOnTimeout,
+      final HBaseScanOptions scanOptions
   ) throws IOException {
     mRequest = request;
     mTable = table;
@@ -125,6 +221,28 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
       mHTable.close();
       throw re;
     }
+    mDefaultCaching = mHTable.getConfiguration().getInt(
+        HConstants.HBASE_CLIENT_SCANNER_CACHING, HConstants.DEFAULT_HBASE_CLIENT_SCANNER_CACHING);
+
+    final Integer readAheadSize = scanOptions.getReadAheadSize();
+    if ((null != readAheadSize) && (readAheadSize > 0)) {
+      // Adjusting the caching reopens the scanner after the last row fetched:
+      // this does not work with scans returning partial rows.
+      final Long targetRpcSize = scanOptions.getTargetRpcSize();
+      mTargetRpcSize = ((null != targetRpcSize) && (mScan.getBatch() <= 0)) ? targetRpcSize : 0;
+      mReadAheadQueue = new ArrayBlockingQueue<Object>(readAheadSize);
+      mReadAheadTask = READ_AHEAD_EXECUTOR.submit(new Runnable() {
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+          readAhead();
+        }
+      });
+    } else {
+      mTargetRpcSize = 0;
+      mReadAheadQueue = null;
+      mReadAheadTask = null;
+    }
     mNextResult = getNextResult();
 
     final State oldState = mState.getAndSet(State.OPEN);
@@ -139,30 +257,43 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
   private void reopenScanner() {
     if (mReopenScannerOnTimeout) {
       LOG.debug("HBase scanner timed out: closing an reopening a new scanner.");
-      final byte[] nextRow = (null == mNextResult)
-          ? mScan.getStartRow()
-          : leastGreaterThan(mNextResult.getRow());
-      mScan.setStartRow(nextRow);
-      mResultScanner.close();
-      try {
-        mResultScanner = mHTable.getScanner(mScan);
-      } catch (IOException ioe) {
-        throw new KijiIOException(ioe);
-      }
+      reopenScannerAfterLastFetchedRow();
     } else {
       throw new KijiIOException("HBase scanner timed out with automatic reopening disabled.");
     }
   }
 
+  /** Reopen the ResultScanner to start where the old scanner left off. */
+  private void reopenScannerAfterLastFetchedRow() {
+    final byte[] nextRow = (null == mLastFetchedRow)
+        ? mScan.getStartRow()
+        : leastGreaterThan(mLastFetchedRow);
+    mScan.setStartRow(nextRow);
+    mResultScanner.close();
+    try {
+      mResultScanner = mHTable.getScanner(mScan);
+    } catch (IOException ioe) {
+      throw new KijiIOException(ioe);
+    }
+    mRowsSinceOpen = 0;
+    mBytesSinceOpen = 0;
+  }
+
   /**
    * Get the next HBase Result from the ResultScanner, reopening the scanner if necessary.
    *
+   * <p> When reading ahead, this is only called from the thread fetching rows ahead. </p>
+   *
    * @return the next HBase Result from the ResultScanner.
    */
-  private Result getNextResult() {
+  private Result fetchNextResult() {
     for (int retries = 0; retries < MAX_RETRIES_ON_TIMEOUT; ++retries) {
       try {
-        return mResultScanner.next();
+        final Result result = mResultScanner.next();
+        if (null != result) {
+          mLastFetchedRow = result.getRow();
+        }
+        return result;
       } catch (LeaseException le) {
         reopenScanner();
       } catch (ScannerTimeoutException ste) {
@@ -175,6 +306,100 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
         "Unable to get Result from HBase scanner after %d attempts.", MAX_RETRIES_ON_TIMEOUT));
   }
 
+  /**
+   * Get the next HBase Result, either fetched ahead or from the ResultScanner.
+   *
+   * @return the next HBase Result, or null if there are no more rows.
+   */
+  private Result getNextResult() {
+    if (null == mReadAheadQueue) {
+      return fetchNextResult();
+    }
+    final Object next;
+    try {
+      next = mReadAheadQueue.take();
+    } catch (InterruptedException ie) {
+      throw new RuntimeInterruptedException(ie);
+    }
+    if (next instanceof Result) {
+      return (Result) next;
+    }
+    // Leave the end of the fetch in place for subsequent calls:
+    mReadAheadQueue.add(next);
+    if (next == END_OF_SCAN) {
+      return null;
+    }
+    throw (RuntimeException) next;
+  }
+
+  /**
+   * Fetch rows ahead of the consumer until the end of the scan or until this scanner is closed.
+   *
+   * <p> Runs on a background thread, which then owns the ResultScanner. </p>
+   */
+  private void readAhead() {
+    try {
+      while (mState.get() != State.CLOSED) {
+        final Result result = fetchNextResult();
+        if (null == result) {
+          enqueue(END_OF_SCAN);
+          return;
+        }
+        enqueue(result);
+        if (mTargetRpcSize > 0) {
+          adjustCaching(result);
+        }
+      }
+    } catch (RuntimeException re) {
+      enqueue(re);
+    }
+  }
+
+  /**
+   * Enqueue an item for the consumer, waiting for space in the queue if necessary.
+   *
+   * @param item Next HBase Result, END_OF_SCAN or exception that ended the fetch.
+   */
+  private void enqueue(
+      final Object item
+  ) {
+    try {
+      mReadAheadQueue.put(item);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Adjust the number of rows fetched per RPC to the size of the rows fetched so far.
+   *
+   * <p>
+   *   The caching is only evaluated once all the rows from an RPC have been consumed, and is only
+   *   changed when it is off by more than a factor of 2, as this requires reopening the scanner.
+   * </p>
+   *
+   * @param result HBase Result just fetched from the ResultScanner.
+   */
+  private void adjustCaching(
+      final Result result
+  ) {
+    mRowsSinceOpen += 1;
+    mBytesSinceOpen += wireSize(result);
+    final int caching = (mScan.getCaching() > 0) ? mScan.getCaching() : mDefaultCaching;
+    if (mRowsSinceOpen % caching != 0) {
+      return;
+    }
+    final long rowSize = Math.max(1, mBytesSinceOpen / mRowsSinceOpen);
+    final int targetCaching =
+        (int) Math.max(1, Math.min(MAX_ADAPTIVE_CACHING, mTargetRpcSize / rowSize));
+    if ((targetCaching > 2 * caching) || (2 * targetCaching < caching)) {
+      LOG.debug("Adjusting scanner caching from {} to {} rows per RPC for rows of {} bytes.",
+          caching, targetCaching, rowSize);
+      mScan.setCaching(targetCaching);
+      reopenScannerAfterLastFetchedRow();
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public boolean hasNext() {
@@ -191,9 +416,10 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
     if (null == next) {
       throw new NoSuchElementException();
     }
+    final long startNanos = mTable.getTableMetrics().start();
     mNextResult = getNextResult();
     try {
-      return HBaseKijiResult.create(
+      final KijiResult<T> result = HBaseKijiResult.create(
           mEidFactory.getEntityIdFromHBaseRowKey(next.getRow()),
           mRequest,
           next,
@@ -201,6 +427,8 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
           mLayout,
           mColumnNameTranslator,
           mDecoderProvider);
+      mTable.getTableMetrics().record(Operation.SCAN_NEXT, mRequest, startNanos);
+      return result;
     } catch (IOException e) {
       throw new KijiIOException(e);
     }
@@ -219,6 +447,18 @@ public class HBaseKijiResultScanner<T> implements KijiResultScanner<T> {
     final State oldState = mState.getAndSet(State.CLOSED);
     Preconditions.checkState(oldState == State.OPEN,
         "Cannot close KijiResultScanner instance in state %s.", oldState);
+    if (null != mReadAheadTask) {
+      // Unblock the background fetch, and wait for it to stop before closing the scanner:
+      mReadAheadQueue.clear();
+      try {
+        mReadAheadTask.get();
+      } catch (InterruptedException ie) {
+        throw new RuntimeInterruptedException(ie);
+      } catch (ExecutionException ee) {
+        // Exceptions are caught and reported by the background fetch itself:
+        throw new InternalKijiError(ee);
+      }
+    }
     mResultScanner.close();
     mHTable.close();
   }
@@ -59,6 +59,8 @@ import org.kiji.schema.hbase.HBaseColumnName;
 import org.kiji.schema.impl.BoundColumnReaderSpec;
 import org.kiji.schema.layout.HBaseColumnNameTranslator;
 import org.kiji.schema.layout.KijiTableLayout;
+import org.kiji.schema.layout.KijiTableLayout.LocalityGroupLayout.FamilyLayout;
+import org.kiji.schema.layout.KijiTableLayout.LocalityGroupLayout.FamilyLayout.ColumnLayout;
 import org.kiji.schema.layout.impl.CellDecoderProvider;
 import org.kiji.schema.platform.SchemaPlatformBridge;
 import org.kiji.schema.util.TimestampComparator;
@@ -70,6 +72,9 @@ import org.kiji.schema.util.TimestampComparator;
 public final class HBaseKijiRowData implements KijiRowData {
   private static final Logger LOG = LoggerFactory.getLogger(HBaseKijiRowData.class);
 
+  /** Comparator of the KeyValues in an HBase result. */
+  private static final KVComparator KV_COMPARATOR = new KVComparator();
+
   /** The entity id for the row. */
   private final EntityId mEntityId;
 
@@ -91,6 +96,25 @@ public final class HBaseKijiRowData implements KijiRowData {
   /** A map from kiji family to kiji qualifier to timestamp to raw encoded cell values. */
   private NavigableMap<String, NavigableMap<String, NavigableMap<Long, byte[]>>> mFilteredMap;
 
+  /** Sorted KeyValues of the HBase result. Null until first needed. */
+  private KeyValue[] mKeyValues;
+
+  /** Translator for the HBase columns of the result. Null until first needed. */
+  private HBaseColumnNameTranslator mColumnNameTranslator;
+
+  /**
+   * Map from kiji family to qualifier to timestamp to raw encoded cell values, for the families
+   * accessed so far. Families with no cells map to null.
+   */
+  private final Map<String, NavigableMap<String, NavigableMap<Long, byte[]>>> mFamilyMaps =
+      Maps.newHashMap();
+
+  /**
+   * Map from kiji column to timestamp to raw encoded cell values, for the columns accessed so far.
+   * Columns with no cells map to null.
+   */
+  private final Map<KijiColumnName, NavigableMap<Long, byte[]>> mColumnMaps = Maps.newHashMap();
+
   /**
    * Creates a provider for cell decoders.
    *
@@ -120,6 +144,12 @@ public final class HBaseKijiRowData implements KijiRowData {
    *   requirements expressed by the user, but this can be inaccurate.
    * </p>
    *
+   * <p>
+   *   Cells are materialized lazily, one column or family at a time, as they are accessed.
+   *   Accessing a column binary-searches the sorted KeyValues of the HBase result for the column,
+   *   and cells are only decoded when their values are requested.
+   * </p>
+   *
    * @param table Kiji table containing this row.
    * @param dataRequest Data requested for this row.
    * @param entityId This row entity ID.
@@ -151,8 +181,6 @@ public final class HBaseKijiRowData implements KijiRowData {
    */
   private static final class KijiCellIterator<T> implements Iterator<KijiCell<T>> {
 
-    private static final KVComparator KV_COMPARATOR = new KVComparator();
-
     /**
      * Finds the insertion point of the pivot KeyValue in the KeyValue array and returns the index.
      *
@@ -493,11 +521,7 @@ public final class HBaseKijiRowData implements KijiRowData {
   /** {@inheritDoc} */
   @Override
   public synchronized boolean containsColumn(final String family, final String qualifier) {
-    final NavigableMap<String, NavigableMap<Long, byte[]>> columnMap = getMap().get(family);
-    if (null == columnMap) {
-      return false;
-    }
-    final NavigableMap<Long, byte[]> versionMap = columnMap.get(qualifier);
+    final NavigableMap<Long, byte[]> versionMap = getRawTimestampMap(family, qualifier);
     if (null == versionMap) {
       return false;
     }
@@ -507,15 +531,10 @@ public final class HBaseKijiRowData implements KijiRowData {
   /** {@inheritDoc} */
   @Override
   public synchronized boolean containsColumn(final String family) {
-
-    final NavigableMap<String, NavigableMap<Long, byte[]>> columnMap = getMap().get(family);
+    final NavigableMap<String, NavigableMap<Long, byte[]>> columnMap = getRawQualifierMap(family);
     if (null == columnMap) {
       return false;
     }
-    for (Map.Entry<String, NavigableMap<String, NavigableMap<Long, byte[]>>> columnMapEntry
-      : getMap().entrySet()) {
-      LOG.debug("The result return contains family [{}]", columnMapEntry.getKey());
-    }
     return !columnMap.isEmpty();
   }
 
@@ -562,29 +581,279 @@ public final class HBaseKijiRowData implements KijiRowData {
   /**
    * Reports the encoded map of qualifiers of a given family.
    *
+   * <p> The family is materialized from the HBase result on first access. </p>
+   *
    * @param family Family to look up.
    * @return the encoded map of qualifiers in the specified family, or null.
    */
-  private NavigableMap<String, NavigableMap<Long, byte[]>> getRawQualifierMap(final String family) {
-    return getMap().get(family);
+  private synchronized NavigableMap<String, NavigableMap<Long, byte[]>> getRawQualifierMap(
+      final String family
+  ) {
+    if (null != mFilteredMap) {
+      return mFilteredMap.get(family);
+    }
+    if (!mFamilyMaps.containsKey(family)) {
+      mFamilyMaps.put(family, loadFamily(family));
+    }
+    return mFamilyMaps.get(family);
   }
 
   /**
    * Reports the specified raw encoded time-series of a given column.
    *
+   * <p> The column is materialized from the HBase result on first access. </p>
+   *
    * @param family Family to look up.
    * @param qualifier Qualifier to look up.
    * @return the encoded time-series in the specified family:qualifier column, or null.
    */
-  private NavigableMap<Long, byte[]> getRawTimestampMap(
+  private synchronized NavigableMap<Long, byte[]> getRawTimestampMap(
       final String family,
       final String qualifier
   ) {
-    final NavigableMap<String, NavigableMap<Long, byte[]>> qmap = getRawQualifierMap(family);
-    if (null == qmap) {
+    if (null != mFilteredMap) {
+      final NavigableMap<String, NavigableMap<Long, byte[]>> qmap = mFilteredMap.get(family);
+      return (null == qmap) ? null : qmap.get(qualifier);
+    }
+    if (mFamilyMaps.containsKey(family)) {
+      final NavigableMap<String, NavigableMap<Long, byte[]>> qmap = mFamilyMaps.get(family);
+      return (null == qmap) ? null : qmap.get(qualifier);
+    }
+    final KijiColumnName column = KijiColumnName.create(family, qualifier);
+    if (!mColumnMaps.containsKey(column)) {
+      mColumnMaps.put(column, loadColumn(column));
+    }
+    return mColumnMaps.get(column);
+  }
+
+  /**
+   * Returns the sorted KeyValues of the HBase result.
+   *
+   * @return the sorted KeyValues of the HBase result.
+   */
+  private KeyValue[] getKeyValues() {
+    if (null == mKeyValues) {
+      mKeyValues = SchemaPlatformBridge.get().keyValuesFromResult(mResult);
+      if (null == mKeyValues) {
+        mKeyValues = new KeyValue[0];
+      }
+    }
+    return mKeyValues;
+  }
+
+  /**
+   * Returns the translator for the HBase columns of the result.
+   *
+   * @return the translator for the HBase columns of the result.
+   */
+  private HBaseColumnNameTranslator getColumnNameTranslator() {
+    if (null == mColumnNameTranslator) {
+      mColumnNameTranslator = HBaseColumnNameTranslator.from(mTableLayout);
+    }
+    return mColumnNameTranslator;
+  }
+
+  /**
+   * Gets the data request for a column, if the column was requested.
+   *
+   * @param column Kiji column to get the data request of.
+   * @return the data request for the specified column, or null if the column was not requested.
+   */
+  private KijiDataRequest.Column getColumnRequest(final KijiColumnName column) {
+    // First check if all columns were requested.
+    final KijiDataRequest.Column familyRequest = mDataRequest.getColumn(column.getFamily(), null);
+    if (null != familyRequest) {
+      return familyRequest;
+    }
+    // Not all columns were requested, so check if this particular column was.
+    return mDataRequest.getColumn(column.getFamily(), column.getQualifier());
+  }
+
+  /**
+   * Materializes the cells of a fully-qualified column from the HBase result.
+   *
+   * @param column Fully-qualified Kiji column to materialize.
+   * @return the encoded time-series of the specified column, or null if it has no cell.
+   */
+  private NavigableMap<Long, byte[]> loadColumn(final KijiColumnName column) {
+    final KijiDataRequest.Column columnRequest = getColumnRequest(column);
+    if (null == columnRequest) {
       return null;
     }
-    return qmap.get(qualifier);
+    final HBaseColumnName hbaseColumn;
+    try {
+      hbaseColumn = getColumnNameTranslator().toHBaseColumnName(column);
+    } catch (NoSuchColumnException nsce) {
+      return null;
+    }
+
+    final KeyValue[] kvs = getKeyValues();
+    final int start = findFirstIndex(kvs, hbaseColumn);
+    int end = start;
+    while ((end < kvs.length) && matchesColumn(kvs[end], hbaseColumn)) {
+      end++;
+    }
+    return loadVersions(kvs, start, end, columnRequest);
+  }
+
+  /**
+   * Materializes the cells of a family from the HBase result.
+   *
+   * @param family Kiji family to materialize.
+   * @return the encoded map of qualifiers in the specified family, or null if it has no cell.
+   */
+  private NavigableMap<String, NavigableMap<Long, byte[]>> loadFamily(final String family) {
+    final FamilyLayout familyLayout = mTableLayout.getFamilyMap().get(family);
+    if (null == familyLayout) {
+      return null;
+    }
+
+    final NavigableMap<String, NavigableMap<Long, byte[]>> qmap = Maps.newTreeMap();
+    if (familyLayout.isGroupType()) {
+      // The columns of a group-type family are bounded by the layout: look them up one by one.
+      for (ColumnLayout columnLayout : familyLayout.getColumns()) {
+        final NavigableMap<Long, byte[]> tmap =
+            getRawTimestampMap(family, columnLayout.getName());
+        if (null != tmap) {
+          qmap.put(columnLayout.getName(), tmap);
+        }
+      }
+    } else {
+      final HBaseColumnName hbaseFamily;
+      try {
+        hbaseFamily = getColumnNameTranslator().toHBaseColumnName(
+            KijiColumnName.create(family, null));
+      } catch (NoSuchColumnException nsce) {
+        // The translator does not map this family to a range of HBase qualifiers:
+        return getMap().get(family);
+      }
+
+      // All the qualifiers of the map-type family share the HBase qualifier prefix of the family:
+      final KeyValue[] kvs = getKeyValues();
+      int start = findFirstIndex(kvs, hbaseFamily);
+      while ((start < kvs.length) && matchesColumnPrefix(kvs[start], hbaseFamily)) {
+        int end = start + 1;
+        while ((end < kvs.length) && matchesQualifier(kvs[start], kvs[end])) {
+          end++;
+        }
+        final KeyValue kv = kvs[start];
+        try {
+          final KijiColumnName column = getColumnNameTranslator().toKijiColumnName(
+              new HBaseColumnName(kv.getFamily(), kv.getQualifier()));
+          final KijiDataRequest.Column columnRequest = getColumnRequest(column);
+          if (family.equals(column.getFamily()) && (null != columnRequest)) {
+            final NavigableMap<Long, byte[]> tmap = loadVersions(kvs, start, end, columnRequest);
+            if (null != tmap) {
+              qmap.put(column.getQualifier(), tmap);
+            }
+          }
+        } catch (NoSuchColumnException nsce) {
+          LOG.info("Ignoring HBase column '{}:{}' because it doesn't contain Kiji data.",
+              Bytes.toStringBinary(kv.getFamily()),
+              Bytes.toStringBinary(kv.getQualifier()));
+        }
+        start = end;
+      }
+    }
+    return qmap.isEmpty() ? null : qmap;
+  }
+
+  /**
+   * Materializes the versions of a column, as filtered by the data request for the column.
+   *
+   * @param kvs Sorted KeyValues of the HBase result.
+   * @param start Index of the first KeyValue of the column.
+   * @param end Index of the KeyValue following the last KeyValue of the column.
+   * @param columnRequest Data request for the column.
+   * @return the encoded time-series of the column, or null if no cell matches the request.
+   */
+  private NavigableMap<Long, byte[]> loadVersions(
+      final KeyValue[] kvs,
+      final int start,
+      final int end,
+      final KijiDataRequest.Column columnRequest
+  ) {
+    NavigableMap<Long, byte[]> versionMap = null;
+    int numVersions = 0;
+    for (int index = start; (index < end) && (numVersions < columnRequest.getMaxVersions());
+        ++index) {
+      final KeyValue kv = kvs[index];
+      if (mDataRequest.isTimestampInRange(kv.getTimestamp())) {
+        if (null == versionMap) {
+          versionMap = new TreeMap<Long, byte[]>(TimestampComparator.INSTANCE);
+        }
+        versionMap.put(kv.getTimestamp(), kv.getValue());
+        ++numVersions;
+      }
+    }
+    return versionMap;
+  }
+
+  /**
+   * Finds the index of the first KeyValue of an HBase column, or of the first KeyValue past it.
+   *
+   * @param kvs Sorted KeyValues to search.
+   * @param hbaseColumn HBase column to search for. The qualifier may be a prefix.
+   * @return the index of the first KeyValue greater than or equal to the start of the column.
+   */
+  private int findFirstIndex(final KeyValue[] kvs, final HBaseColumnName hbaseColumn) {
+    final KeyValue pivot = KeyValue.createFirstOnRow(
+        mEntityId.getHBaseRowKey(), hbaseColumn.getFamily(), hbaseColumn.getQualifier());
+    final int index = Arrays.binarySearch(kvs, pivot, KV_COMPARATOR);
+    return (index < 0) ? -1 - index : index;
+  }
+
+  /**
+   * Reports whether a KeyValue belongs to an HBase column.
+   *
+   * @param kv KeyValue to test.
+   * @param hbaseColumn HBase column to test against.
+   * @return whether the KeyValue belongs to the HBase column.
+   */
+  private static boolean matchesColumn(final KeyValue kv, final HBaseColumnName hbaseColumn) {
+    final byte[] family = hbaseColumn.getFamily();
+    final byte[] qualifier = hbaseColumn.getQualifier();
+    return Bytes.equals(
+            kv.getFamilyArray(), kv.getFamilyOffset(), kv.getFamilyLength(),
+            family, 0, family.length)
+        && Bytes.equals(
+            kv.getQualifierArray(), kv.getQualifierOffset(), kv.getQualifierLength(),
+            qualifier, 0, qualifier.length);
+  }
+
+  /**
+   * Reports whether a KeyValue belongs to an HBase family and starts with an HBase qualifier.
+   *
+   * @param kv KeyValue to test.
+   * @param hbaseColumn HBase family and qualifier prefix to test against.
+   * @return whether the KeyValue belongs to the family and starts with the qualifier prefix.
+   */
+  private static boolean matchesColumnPrefix(
+      final KeyValue kv,
+      final HBaseColumnName hbaseColumn
+  ) {
+    final byte[] family = hbaseColumn.getFamily();
+    final byte[] prefix = hbaseColumn.getQualifier();
+    return Bytes.equals(
+            kv.getFamilyArray(), kv.getFamilyOffset(), kv.getFamilyLength(),
+            family, 0, family.length)
+        && (kv.getQualifierLength() >= prefix.length)
+        && Bytes.equals(
+            kv.getQualifierArray(), kv.getQualifierOffset(), prefix.length,
+            prefix, 0, prefix.length);
+  }
+
+  /**
+   * Reports whether two KeyValues of the same HBase family have the same qualifier.
+   *
+   * @param kv1 First KeyValue to compare.
+   * @param kv2 Second KeyValue to compare.
+   * @return whether the two KeyValues have the same qualifier.
+   */
+  private static boolean matchesQualifier(final KeyValue kv1, final KeyValue kv2) {
+    return Bytes.equals(
+        kv1.getQualifierArray(), kv1.getQualifierOffset(), kv1.getQualifierLength(),
+        kv2.getQualifierArray(), kv2.getQualifierOffset(), kv2.getQualifierLength());
   }
 
   /**
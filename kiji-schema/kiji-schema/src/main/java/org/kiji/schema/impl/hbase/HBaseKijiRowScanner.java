@@ -44,6 +44,7 @@ import org.kiji.schema.KijiDataRequest;
 import org.kiji.schema.KijiIOException;
 import org.kiji.schema.KijiRowData;
 import org.kiji.schema.KijiRowScanner;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
 import org.kiji.schema.layout.impl.CellDecoderProvider;
 
 /**
@@ -364,6 +365,7 @@ public final class HBaseKijiRowScanner implements KijiRowScanner {
         // Comply with the Iterator interface:
         throw new NoSuchElementException();
       }
+      final long startNanos = mTable.getTableMetrics().start();
       final Result result = mNextResult;
       mLastReturnedKey = result.getRow();
 
@@ -373,7 +375,10 @@ public final class HBaseKijiRowScanner implements KijiRowScanner {
       // Decode the HBase result into a KijiRowData:
       try {
         final EntityId entityId = mEntityIdFactory.getEntityIdFromHBaseRowKey(result.getRow());
-        return new HBaseKijiRowData(mTable, mDataRequest, entityId, result, mCellDecoderProvider);
+        final KijiRowData rowData =
+            new HBaseKijiRowData(mTable, mDataRequest, entityId, result, mCellDecoderProvider);
+        mTable.getTableMetrics().record(Operation.SCAN_NEXT, mDataRequest, startNanos);
+        return rowData;
       } catch (IOException ioe) {
         throw new KijiIOException(ioe);
       }
@@ -67,6 +67,7 @@ import org.kiji.schema.avro.RowKeyFormat2;
 import org.kiji.schema.hbase.HBaseFactory;
 import org.kiji.schema.hbase.KijiManagedHBaseTableName;
 import org.kiji.schema.impl.HTableInterfaceFactory;
+import org.kiji.schema.impl.KijiTableMetrics;
 import org.kiji.schema.impl.LayoutConsumer;
 import org.kiji.schema.impl.LayoutConsumer.Registration;
 import org.kiji.schema.layout.HBaseColumnNameTranslator;
@@ -144,6 +145,15 @@ public final class HBaseKijiTable implements KijiTable {
   /** HConnection used for creating lightweight tables. Should be closed by us. */
   private final HConnection mHConnection;
 
+  /** Metrics on the HBase requests sent to the HBase table backing this Kiji table. */
+  private final HBaseTableMetrics mMetrics;
+
+  /** Latency of the operations of the readers and writers of this table. */
+  private final KijiTableMetrics mTableMetrics;
+
+  /** Pool of HTables created from mHConnection. Should be closed by us, before mHConnection. */
+  private final KijiHTablePool mHTablePool;
+
   /** Name of the HBase table backing this Kiji table. */
   private final String mHBaseTableName;
 
@@ -192,8 +202,11 @@ public final class HBaseKijiTable implements KijiTable {
 
     mLayoutMonitor = layoutMonitor;
     mEntityIdFactory = createEntityIdFactory(mLayoutMonitor.getLayout());
+    mTableMetrics = mKiji.getTableMetrics(mName);
 
     mHConnection = HBaseFactory.Provider.get().getHConnection(mKiji);
+    mMetrics = mKiji.getHBaseTableMetrics(mName);
+    mHTablePool = new KijiHTablePool(mHBaseTableName, mHConnection, mMetrics);
 
     // Table is now open and must be released properly:
     mRetainCount.set(1);
@@ -290,7 +303,34 @@ public final class HBaseKijiTable implements KijiTable {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot open an HTable connection for a KijiTable in state %s.", state);
-    return mHConnection.getTable(mHBaseTableName);
+    return mHTablePool.getTable();
+  }
+
+  /**
+   * Get the metrics on the HBase requests sent through the HTables of this table.
+   *
+   * <p>
+   *   These metrics time individual HBase RPCs. See {@link #getTableMetrics()} for the latency of
+   *   the Kiji operations issuing them.
+   * </p>
+   *
+   * @return the metrics on the HBase requests sent through the HTables of this table.
+   */
+  public HBaseTableMetrics getMetrics() {
+    return mMetrics;
+  }
+
+  /**
+   * Get the latency of the operations of the readers and writers of this table.
+   *
+   * <p>
+   *   Operations are timed end to end, including the HBase RPCs timed by {@link #getMetrics()}.
+   * </p>
+   *
+   * @return the latency of the operations of the readers and writers of this table.
+   */
+  public KijiTableMetrics getTableMetrics() {
+    return mTableMetrics;
   }
 
   /**
@@ -436,6 +476,7 @@ public final class HBaseKijiTable implements KijiTable {
         "Cannot close KijiTable instance %s in state %s.", this, oldState);
     LOG.debug("Closing HBaseKijiTable '{}'.", this);
 
+    ResourceUtils.closeOrLog(mHTablePool);
     ResourceUtils.closeOrLog(mHConnection);
     ResourceUtils.closeOrLog(mLayoutMonitor);
     ResourceUtils.releaseOrLog(mKiji);
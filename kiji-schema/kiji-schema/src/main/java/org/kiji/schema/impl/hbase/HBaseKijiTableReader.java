@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,6 +35,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.client.Result;
@@ -63,7 +65,9 @@ import org.kiji.schema.filter.KijiRowFilter;
 import org.kiji.schema.filter.KijiRowFilterApplicator;
 import org.kiji.schema.hbase.HBaseScanOptions;
 import org.kiji.schema.impl.BoundColumnReaderSpec;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
 import org.kiji.schema.impl.LayoutConsumer;
+import org.kiji.schema.impl.ParallelKijiResultScanner;
 import org.kiji.schema.layout.CellSpec;
 import org.kiji.schema.layout.ColumnReaderSpec;
 import org.kiji.schema.layout.HBaseColumnNameTranslator;
@@ -78,6 +82,17 @@ import org.kiji.schema.layout.impl.CellDecoderProvider;
 public final class HBaseKijiTableReader implements KijiTableReader {
   private static final Logger LOG = LoggerFactory.getLogger(HBaseKijiTableReader.class);
 
+  /** Orders HBase Kiji partitions by start key. */
+  private static final Comparator<HBaseKijiPartition> PARTITION_START_KEY_COMPARATOR =
+      new Comparator<HBaseKijiPartition>() {
+        /** {@inheritDoc} */
+        @Override
+        public int compare(final HBaseKijiPartition p1, final HBaseKijiPartition p2) {
+          return UnsignedBytes.lexicographicalComparator()
+              .compare(p1.getStartKey(), p2.getStartKey());
+        }
+      };
+
   /** HBase KijiTable to read from. */
   private final HBaseKijiTable mTable;
   /** Behavior when a cell decoder cannot be found. */
@@ -365,6 +380,7 @@ public final class HBaseKijiTableReader implements KijiTableReader {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot get row from KijiTableReader instance %s in state %s.", this, state);
+    final long startNanos = mTable.getTableMetrics().start();
 
     final ReaderLayoutCapsule capsule = mReaderLayoutCapsule;
     // Make sure the request validates against the layout of the table.
@@ -386,8 +402,10 @@ public final class HBaseKijiTableReader implements KijiTableReader {
     final Result result = hbaseGet.hasFamilies() ? doHBaseGet(hbaseGet) : new Result();
 
     // Parse the result.
-    return new HBaseKijiRowData(
+    final KijiRowData rowData = new HBaseKijiRowData(
         mTable, dataRequest, entityId, result, capsule.getCellDecoderProvider());
+    mTable.getTableMetrics().record(Operation.GET, dataRequest, startNanos);
+    return rowData;
   }
 
   /**
@@ -415,6 +433,7 @@ public final class HBaseKijiTableReader implements KijiTableReader {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot get row from KijiTableReader instance %s in state %s.", this, state);
+    final long startNanos = mTable.getTableMetrics().start();
     final ReaderLayoutCapsule capsule = mReaderLayoutCapsule;
     final KijiTableLayout tableLayout = capsule.getLayout();
     validateRequestAgainstLayout(dataRequest, tableLayout);
@@ -422,7 +441,7 @@ public final class HBaseKijiTableReader implements KijiTableReader {
         new HBaseDataRequestAdapter(dataRequest, capsule.getColumnNameTranslator());
     final Get get = hbaseDataRequestAdapter.toGet(entityId, tableLayout);
     final Result result = get.hasFamilies() ? doHBaseGet(get) : new Result();
-    return HBaseKijiResult.create(
+    final KijiResult<T> kijiResult = HBaseKijiResult.create(
         entityId,
         dataRequest,
         result,
@@ -430,6 +449,8 @@ public final class HBaseKijiTableReader implements KijiTableReader {
         capsule.getLayout(),
         capsule.getColumnNameTranslator(),
         capsule.getCellDecoderProvider());
+    mTable.getTableMetrics().record(Operation.GET, dataRequest, startNanos);
+    return kijiResult;
   }
 
   /** {@inheritDoc} */
@@ -445,6 +466,7 @@ public final class HBaseKijiTableReader implements KijiTableReader {
     if (entityIds.size() == 1) {
       return Collections.singletonList(this.get(entityIds.get(0), dataRequest));
     }
+    final long startNanos = mTable.getTableMetrics().start();
     final ReaderLayoutCapsule capsule = mReaderLayoutCapsule;
     final KijiTableLayout tableLayout = capsule.getLayout();
     validateRequestAgainstLayout(dataRequest, tableLayout);
@@ -460,7 +482,9 @@ public final class HBaseKijiTableReader implements KijiTableReader {
 
     // Parse the results.  If a Result is null, then the corresponding KijiRowData should also
     // be null.  This indicates that there was an error retrieving this row.
-    return parseResults(results, entityIds, dataRequest);
+    final List<KijiRowData> rows = parseResults(results, entityIds, dataRequest);
+    mTable.getTableMetrics().record(Operation.BULK_GET, dataRequest, startNanos);
+    return rows;
   }
 
   /** {@inheritDoc} */
@@ -478,6 +502,7 @@ public final class HBaseKijiTableReader implements KijiTableReader {
     if (entityIds.size() == 1) {
       return Collections.singletonList(this.<T>getResult(entityIds.get(0), dataRequest));
     }
+    final long startNanos = mTable.getTableMetrics().start();
     final ReaderLayoutCapsule capsule = mReaderLayoutCapsule;
     final KijiTableLayout tableLayout = capsule.getLayout();
     validateRequestAgainstLayout(dataRequest, tableLayout);
@@ -505,6 +530,7 @@ public final class HBaseKijiTableReader implements KijiTableReader {
           )
       );
     }
+    mTable.getTableMetrics().record(Operation.BULK_GET, dataRequest, startNanos);
     return kijiResults;
   }
 
@@ -624,7 +650,8 @@ public final class HBaseKijiTableReader implements KijiTableReader {
         capsule.getLayout(),
         capsule.getCellDecoderProvider(),
         capsule.getColumnNameTranslator(),
-        scannerOptions.getReopenScannerOnTimeout());
+        scannerOptions.getReopenScannerOnTimeout(),
+        scannerOptions.getHBaseScanOptions());
   }
 
   /** {@inheritDoc} */
@@ -643,6 +670,24 @@ public final class HBaseKijiTableReader implements KijiTableReader {
     return getKijiResultScanner(dataRequest, options);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public <T> KijiResultScanner<T> getParallelKijiResultScanner(
+      final KijiDataRequest dataRequest,
+      final int parallelism,
+      final boolean ordered
+  ) throws IOException {
+    final State state = mState.get();
+    Preconditions.checkState(state == State.OPEN,
+        "Cannot get scanner from KijiTableReader instance %s in state %s.", this, state);
+    validateRequestAgainstLayout(dataRequest, mReaderLayoutCapsule.getLayout());
+
+    // Regions are disjoint: scanning them by start key yields the rows in row key order.
+    final List<HBaseKijiPartition> partitions = Lists.newArrayList(mTable.getPartitions());
+    Collections.sort(partitions, PARTITION_START_KEY_COMPARATOR);
+    return new ParallelKijiResultScanner<T>(this, dataRequest, partitions, parallelism, ordered);
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
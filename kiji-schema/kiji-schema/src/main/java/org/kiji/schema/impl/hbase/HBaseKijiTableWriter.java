@@ -51,6 +51,7 @@ import org.kiji.schema.NoSuchColumnException;
 import org.kiji.schema.avro.SchemaType;
 import org.kiji.schema.hbase.HBaseColumnName;
 import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
+import org.kiji.schema.impl.KijiTableMetrics.Operation;
 import org.kiji.schema.impl.LayoutConsumer;
 import org.kiji.schema.layout.HBaseColumnNameTranslator;
 import org.kiji.schema.layout.KijiTableLayout;
@@ -225,6 +226,7 @@ public final class HBaseKijiTableWriter implements KijiTableWriter {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot put cell to KijiTableWriter instance %s in state %s.", this, state);
+    final long startNanos = mTable.getTableMetrics().start();
 
     final KijiColumnName columnName = KijiColumnName.create(family, qualifier);
     final WriterLayoutCapsule capsule = mWriterLayoutCapsule;
@@ -238,6 +240,7 @@ public final class HBaseKijiTableWriter implements KijiTableWriter {
     final Put put = new Put(entityId.getHBaseRowKey())
         .add(hbaseColumnName.getFamily(), hbaseColumnName.getQualifier(), timestamp, encoded);
     mHTable.put(put);
+    mTable.getTableMetrics().record(Operation.PUT, family, startNanos);
   }
 
   // ----------------------------------------------------------------------------------------------
@@ -0,0 +1,306 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.schema.EntityId;
+import org.kiji.schema.KijiColumnName;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
+import org.kiji.schema.KijiIOException;
+import org.kiji.schema.RuntimeInterruptedException;
+import org.kiji.schema.filter.Filters;
+import org.kiji.schema.filter.KijiColumnFilter;
+import org.kiji.schema.filter.StripValueColumnFilter;
+import org.kiji.schema.hbase.HBaseColumnName;
+import org.kiji.schema.layout.HBaseColumnNameTranslator;
+import org.kiji.schema.layout.KijiTableLayout;
+import org.kiji.schema.util.Debug;
+
+/**
+ * Iterates through the qualifiers of a map-type family, in a single server-side scan.
+ *
+ * <p>
+ *   The qualifiers are streamed from a scanner on the single row, configured to return at most
+ *   a batch of qualifiers per result, with the cell content stripped.
+ *   The scanner stays open across batches, and the next batch is fetched in the background
+ *   while the current one is being consumed.
+ * </p>
+ *
+ * <p> Instances of this class are not thread-safe. </p>
+ */
+@ApiAudience.Private
+public final class HBaseQualifierIterator
+    implements Closeable, Iterator<String>, Iterable<String> {
+  private static final Logger LOG = LoggerFactory.getLogger(HBaseQualifierIterator.class);
+
+  /** Fetches the next batch of qualifiers while the current batch is being consumed. */
+  private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat(HBaseQualifierIterator.class.getCanonicalName() + "-prefetch-%d")
+          .build());
+
+  /** HBase KijiTable to read from. */
+  private final HBaseKijiTable mTable;
+
+  /** Translates HBase column names back into Kiji column names. */
+  private final HBaseColumnNameTranslator mTranslator;
+
+  /** HTable connection the scanner reads from. Owned by this iterator. */
+  private final HTableInterface mHTable;
+
+  /** Scanner over the qualifiers of the row. Owned by this iterator. */
+  private final ResultScanner mScanner;
+
+  /** Batch of qualifiers being fetched in the background, or null once the scanner is done. */
+  private Future<Result> mNextBatch;
+
+  /** Cells from the batch of qualifiers being consumed. */
+  private Cell[] mBatch = new Cell[0];
+
+  /** Index of the next cell to consume in mBatch. */
+  private int mBatchIndex = 0;
+
+  /** Next qualifier to return, or null when the iteration is finished. */
+  private String mNext;
+
+  /**
+   * Initializes a new iterator over the qualifiers of a map-type family.
+   *
+   * <p>
+   *   The batch size determines how many qualifiers are retrieved per RPC.
+   *   Smaller values will reduce the memory footprint but increase the number of RPCs.
+   * </p>
+   *
+   * @param entityId The entityId of the row.
+   * @param dataRequest The requested data. Only the time range of the request and the filter
+   *     of the column request for the specified family, if any, are applied.
+   * @param table The Kiji table that this row belongs to.
+   * @param family Iterate through the qualifiers from this map-type family.
+   * @param batchSize Maximum number of qualifiers to retrieve per RPC.
+   * @throws IOException on I/O error.
+   */
+  public HBaseQualifierIterator(
+      EntityId entityId,
+      KijiDataRequest dataRequest,
+      HBaseKijiTable table,
+      KijiColumnName family,
+      int batchSize)
+      throws IOException {
+
+    Preconditions.checkArgument(!family.isFullyQualified(),
+        "Must use HBaseQualifierIterator on a map-type family, but got '{}'.", family);
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be >= 1, got %s", batchSize);
+
+    final KijiDataRequest.Column columnRequest = dataRequest.getColumn(family.getFamily(), null);
+    final KijiColumnFilter filter = Filters.and(
+        (columnRequest != null) ? columnRequest.getFilter() : null,  // user filter
+        new StripValueColumnFilter());  // discard the cell content, we just need the qualifiers
+
+    final KijiDataRequest qualifiersDataRequest = KijiDataRequest.builder()
+        .withTimeRange(dataRequest.getMinTimestamp(), dataRequest.getMaxTimestamp())
+        .addColumns(ColumnsDef.create()
+            .withFilter(filter)
+            .withMaxVersions(1)  // A single cell per qualifier
+            .add(family))
+        .build();
+
+    final KijiTableLayout layout = table.getLayout();
+    mTranslator = HBaseColumnNameTranslator.from(layout);
+    final Get get =
+        new HBaseDataRequestAdapter(qualifiersDataRequest, mTranslator).toGet(entityId, layout);
+
+    // Scan the single row, with at most batchSize qualifiers per result and per RPC:
+    final byte[] rowKey = entityId.getHBaseRowKey();
+    final Scan scan = new Scan(rowKey, Bytes.add(rowKey, new byte[] {0}));
+    scan.setFilter(get.getFilter());
+    scan.setCacheBlocks(get.getCacheBlocks());
+    scan.setMaxVersions(get.getMaxVersions());
+    scan.setTimeRange(get.getTimeRange().getMin(), get.getTimeRange().getMax());
+    scan.setFamilyMap(get.getFamilyMap());
+    scan.setBatch(batchSize);
+    scan.setCaching(1);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Opening HBase scanner: {} with filter {}",
+          scan, Debug.toDebugString(scan.getFilter()));
+    }
+
+    mTable = table;
+    mHTable = mTable.openHTableConnection();
+    try {
+      mScanner = mHTable.getScanner(scan);
+    } catch (IOException ioe) {
+      mHTable.close();
+      throw ioe;
+    }
+    mNextBatch = prefetch();
+
+    // Only retain the table if everything else ran fine:
+    mTable.retain();
+
+    mNext = getNext();
+  }
+
+  /**
+   * Starts fetching the next batch of qualifiers in the background.
+   *
+   * @return the next batch of qualifiers, or null if the scanner is exhausted.
+   */
+  private Future<Result> prefetch() {
+    final ResultScanner scanner = mScanner;
+    return PREFETCHER.submit(new Callable<Result>() {
+      /** {@inheritDoc} */
+      @Override
+      public Result call() throws IOException {
+        return scanner.next();
+      }
+    });
+  }
+
+  /**
+   * Waits for the batch of qualifiers being fetched in the background.
+   *
+   * @return the batch of qualifiers, or null if the scanner is exhausted.
+   */
+  private Result waitForNextBatch() {
+    try {
+      return mNextBatch.get();
+    } catch (InterruptedException ie) {
+      throw new RuntimeInterruptedException(ie);
+    } catch (ExecutionException ee) {
+      throw new KijiIOException(ee.getCause());
+    }
+  }
+
+  /**
+   * Reports the next qualifier from the map-type family, or null.
+   *
+   * <p>
+   *   In effect, this pre-loads the next entry to return.
+   *   This allows to determine whether the iterator is finished or has more elements.
+   * </p>
+   *
+   * @return the next qualifier from the map-type family, or null.
+   */
+  private String getNext() {
+    while (mBatchIndex >= mBatch.length) {
+      if (mNextBatch == null) {
+        return null;
+      }
+      final Result result = waitForNextBatch();
+      if (result == null) {
+        mNextBatch = null;
+        return null;
+      }
+      mBatch = result.rawCells();
+      mBatchIndex = 0;
+      mNextBatch = prefetch();
+      LOG.debug("Got a batch of {} qualifiers.", mBatch.length);
+    }
+
+    final Cell cell = mBatch[mBatchIndex++];
+    final HBaseColumnName hbaseColumn =
+        new HBaseColumnName(CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell));
+    try {
+      return mTranslator.toKijiColumnName(hbaseColumn).getQualifier();
+    } catch (IOException ioe) {
+      throw new KijiIOException(ioe);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasNext() {
+    return (mNext != null);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String next() {
+    final String qualifier = mNext;
+    if (qualifier == null) {
+      throw new NoSuchElementException();
+    }
+    mNext = getNext();
+    return qualifier;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("HBaseQualifierIterator.remove() is not supported.");
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Iterator<String> iterator() {
+    return this;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    // The scanner may not be closed while a background fetch is still using it:
+    if ((mNextBatch != null) && !mNextBatch.cancel(false)) {
+      try {
+        mNextBatch.get();
+      } catch (InterruptedException ie) {
+        throw new RuntimeInterruptedException(ie);
+      } catch (ExecutionException ee) {
+        LOG.debug("Discarding error from a pending batch of qualifiers: {}", ee.getCause());
+      }
+    }
+    mNextBatch = null;
+    mNext = null;
+    try {
+      mScanner.close();
+    } finally {
+      try {
+        mHTable.close();
+      } finally {
+        mTable.release();
+      }
+    }
+  }
+}
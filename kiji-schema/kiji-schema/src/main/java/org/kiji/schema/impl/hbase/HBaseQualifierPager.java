@@ -22,32 +22,18 @@ package org.kiji.schema.impl.hbase;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import com.google.common.base.Preconditions;
-import org.apache.hadoop.hbase.KeyValue;
-import org.apache.hadoop.hbase.client.Get;
-import org.apache.hadoop.hbase.client.HTableInterface;
-import org.apache.hadoop.hbase.client.Result;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.google.common.collect.Lists;
 
 import org.kiji.annotations.ApiAudience;
 import org.kiji.schema.EntityId;
 import org.kiji.schema.KijiColumnName;
 import org.kiji.schema.KijiColumnPagingNotEnabledException;
 import org.kiji.schema.KijiDataRequest;
-import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
 import org.kiji.schema.KijiIOException;
-import org.kiji.schema.filter.Filters;
-import org.kiji.schema.filter.KijiColumnFilter;
-import org.kiji.schema.filter.KijiColumnRangeFilter;
-import org.kiji.schema.filter.StripValueColumnFilter;
-import org.kiji.schema.hbase.HBaseColumnName;
-import org.kiji.schema.impl.KijiPaginationFilter;
-import org.kiji.schema.layout.HBaseColumnNameTranslator;
-import org.kiji.schema.layout.KijiTableLayout;
-import org.kiji.schema.util.Debug;
 
 /**
  * Pages through the many qualifiers of a map-type family.
@@ -56,10 +42,15 @@ import org.kiji.schema.util.Debug;
  *   The max-versions parameter on a map-type family applies on a per-qualifier basis.
  *   This does not limit the total number of versions returned for the entire map-type family.
  * </p>
+ *
+ * <p>
+ *   Pages are cut from a single {@link HBaseQualifierIterator}: the server-side scanner stays
+ *   open across pages, and the next batch of qualifiers is fetched while the current page is
+ *   being consumed.
+ * </p>
  */
 @ApiAudience.Private
 public final class HBaseQualifierPager implements Iterator<String[]>, Closeable {
-  private static final Logger LOG = LoggerFactory.getLogger(HBaseQualifierPager.class);
 
   /** Entity ID of the row being paged through. */
   private final EntityId mEntityId;
@@ -79,11 +70,8 @@ public final class HBaseQualifierPager implements Iterator<String[]>, Closeable
   /** True only if there is another page of data to read through {@link #next()}. */
   private boolean mHasNext;
 
-  /**
-   * Highest qualifier (according to the HBase bytes comparator) returned so far.
-   * This is the low bound (exclusive) for qualifiers to retrieve next.
-   */
-  private String mMinQualifier = null;
+  /** Streams the qualifiers to page through. Opened on the first page requested. */
+  private HBaseQualifierIterator mQualifiers = null;
 
   /**
    * Initializes a qualifier pager.
@@ -144,77 +132,24 @@ public final class HBaseQualifierPager implements Iterator<String[]>, Closeable
     }
     Preconditions.checkArgument(pageSize > 0, "Page size must be >= 1, got %s", pageSize);
 
-    // Clone the column data request template, adjusting the filters to restrict the range
-    // and the number of qualifiers to fetch.
-
-    final KijiColumnFilter filter = Filters.and(
-        new KijiColumnRangeFilter(mMinQualifier, false, null, false),  // qualifier > mMinQualifier
-        mColumnRequest.getFilter(),  // user filter
-        new KijiPaginationFilter(pageSize),  // Select at most 1 version per qualifier
-        new StripValueColumnFilter());  // discard the cell content, we just need the qualifiers
-
-    final KijiDataRequest nextPageDataRequest = KijiDataRequest.builder()
-        .withTimeRange(mDataRequest.getMinTimestamp(), mDataRequest.getMaxTimestamp())
-        .addColumns(ColumnsDef.create()
-            .withFilter(filter)
-            .withMaxVersions(1)  // HBase pagination filter forces max-versions to 1
-            .add(mFamily))
-        .build();
-
-    LOG.debug("HBaseMapPager data request: {} and page size {}", nextPageDataRequest, pageSize);
-
-    final KijiTableLayout layout = mTable.getLayout();
-    final HBaseColumnNameTranslator translator = HBaseColumnNameTranslator.from(layout);
-    final HBaseDataRequestAdapter adapter =
-        new HBaseDataRequestAdapter(nextPageDataRequest, translator);
-    try {
-      final Get hbaseGet = adapter.toGet(mEntityId, layout);
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Sending HBase Get: {} with filter {}",
-            hbaseGet, Debug.toDebugString(hbaseGet.getFilter()));
+    if (mQualifiers == null) {
+      try {
+        mQualifiers = new HBaseQualifierIterator(
+            mEntityId, mDataRequest, mTable, mFamily, mColumnRequest.getPageSize());
+      } catch (IOException ioe) {
+        throw new KijiIOException(ioe);
       }
-      final Result result = doHBaseGet(hbaseGet);
-      LOG.debug("Got {} cells over {} requested", result.size(), pageSize);
-
-      final KeyValue[] kvs = result.raw();
-      final String[] qualifiers = new String[kvs.length];
-      for (int i = 0; i < kvs.length; ++i) {
-        final HBaseColumnName hbaseColumn =
-            new HBaseColumnName(kvs[i].getFamily(), kvs[i].getQualifier());
-        final KijiColumnName kijiColumn = translator.toKijiColumnName(hbaseColumn);
-        qualifiers[i] = kijiColumn.getQualifier();
-      }
-
-      // There is an HBase bug that leads to less KeyValue being returned than expected.
-      // An empty result appears to be a reliable way to detect the end of the iteration.
-      if (result.isEmpty()) {
-        mHasNext = false;
-      } else {
-        // Update the low qualifier bound for the next iteration:
-        mMinQualifier = qualifiers[qualifiers.length - 1];
-      }
-
-      return qualifiers;
-
-    } catch (IOException ioe) {
-      throw new KijiIOException(ioe);
     }
-  }
 
-  /**
-   * Sends an HBase Get request.
-   *
-   * @param get HBase Get request.
-   * @return the HBase Result.
-   * @throws IOException on I/O error.
-   */
-  private Result doHBaseGet(Get get) throws IOException {
-    final HTableInterface htable = mTable.openHTableConnection();
-    try {
-      return htable.get(get);
-    } finally {
-      htable.close();
+    final List<String> page = Lists.newArrayListWithCapacity(pageSize);
+    while ((page.size() < pageSize) && mQualifiers.hasNext()) {
+      page.add(mQualifiers.next());
     }
+    // The iteration ends with an empty page, even when the last qualifier filled its page:
+    if (page.isEmpty()) {
+      mHasNext = false;
+    }
+    return page.toArray(new String[page.size()]);
   }
 
   /** {@inheritDoc} */
@@ -226,6 +161,12 @@ public final class HBaseQualifierPager implements Iterator<String[]>, Closeable
   /** {@inheritDoc} */
   @Override
   public void close() throws IOException {
-    mTable.release();
+    try {
+      if (mQualifiers != null) {
+        mQualifiers.close();
+      }
+    } finally {
+      mTable.release();
+    }
   }
 }
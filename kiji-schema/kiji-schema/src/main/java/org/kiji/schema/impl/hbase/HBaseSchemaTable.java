@@ -29,6 +29,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Objects;
@@ -94,6 +96,12 @@ import org.kiji.schema.zookeeper.ZooKeeperUtils;
  *
  * There may be multiple schema IDs for a single schema.
  * </p>
+ *
+ * <p>
+ * Schema entries are cached in memory once loaded. Lookups that hit the in-memory cache do not
+ * acquire any lock: only cache misses, which must read from or write to the HBase tables,
+ * serialize on this schema table instance.
+ * </p>
  */
 @ApiAudience.Private
 public final class HBaseSchemaTable implements KijiSchemaTable {
@@ -125,11 +133,19 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
   /** Lock for the kiji instance schema table. */
   private final Lock mZKLock;
 
-  /** Maps schema MD5 hashes to schema entries. */
-  private final Map<BytesKey, SchemaEntry> mSchemaHashMap = new HashMap<BytesKey, SchemaEntry>();
+  /**
+   * Maps schema MD5 hashes to schema entries.
+   * Read without synchronization; updated only while holding the monitor on this schema table.
+   */
+  private final ConcurrentMap<BytesKey, SchemaEntry> mSchemaHashMap =
+      new ConcurrentHashMap<BytesKey, SchemaEntry>();
 
-  /** Maps schema IDs to schema entries. */
-  private final Map<Long, SchemaEntry> mSchemaIdMap = new HashMap<Long, SchemaEntry>();
+  /**
+   * Maps schema IDs to schema entries.
+   * Read without synchronization; updated only while holding the monitor on this schema table.
+   */
+  private final ConcurrentMap<Long, SchemaEntry> mSchemaIdMap =
+      new ConcurrentHashMap<Long, SchemaEntry>();
 
   /** Schema hash cache. */
   private final SchemaHashCache mHashCache = new KijiSchemaTable.SchemaHashCache();
@@ -266,12 +282,33 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
    * @return Either the pre-existing entry for the specified schema, or a newly created entry.
    * @throws IOException on I/O error.
    */
-  private synchronized SchemaEntry getOrCreateSchemaEntry(final Schema schema) throws IOException {
+  private SchemaEntry getOrCreateSchemaEntry(final Schema schema) throws IOException {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot get or create schema entry from SchemaTable instance in state %s.", state);
 
     final BytesKey schemaHash = getSchemaHash(schema);
+    final SchemaEntry existingEntry = mSchemaHashMap.get(schemaHash);
+    if (existingEntry != null) {
+      return existingEntry;
+    }
+    return loadOrCreateSchemaEntry(schema, schemaHash);
+  }
+
+  /**
+   * Looks up a schema entry in the HTables, and registers the schema if it does not exist.
+   *
+   * <p> Handles lookup misses from {@link #getOrCreateSchemaEntry(Schema)}. </p>
+   *
+   * @param schema Avro schema to look up.
+   * @param schemaHash Hash of the Avro schema to look up.
+   * @return Either the pre-existing entry for the specified schema, or a newly created entry.
+   * @throws IOException on I/O error.
+   */
+  private synchronized SchemaEntry loadOrCreateSchemaEntry(
+      final Schema schema,
+      final BytesKey schemaHash
+  ) throws IOException {
     final SchemaEntry knownEntry = getSchemaEntry(schemaHash);
     if (knownEntry != null) {
       return knownEntry;
@@ -430,14 +467,14 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
 
   /** {@inheritDoc} */
   @Override
-  public synchronized Schema getSchema(long schemaId) throws IOException {
+  public Schema getSchema(long schemaId) throws IOException {
     final SchemaEntry entry = getSchemaEntry(schemaId);
     return (entry == null) ? null : entry.getSchema();
   }
 
   /** {@inheritDoc} */
   @Override
-  public synchronized SchemaEntry getSchemaEntry(long schemaId) throws IOException {
+  public SchemaEntry getSchemaEntry(long schemaId) throws IOException {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot get schema entry from SchemaTable instance in state %s.", state);
@@ -446,6 +483,24 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
     if (existingEntry != null) {
       return existingEntry;
     }
+    return loadSchemaEntry(schemaId);
+  }
+
+  /**
+   * Loads a schema entry from the schema ID table into the in-memory cache.
+   *
+   * <p> Handles lookup misses from {@link #getSchemaEntry(long)}. </p>
+   *
+   * @param schemaId ID of the schema entry to load.
+   * @return the schema entry with the specified ID, or null if the ID does not exist.
+   * @throws IOException on I/O error.
+   */
+  private synchronized SchemaEntry loadSchemaEntry(long schemaId) throws IOException {
+    // Another thread may have loaded this entry while we were waiting for the lock:
+    final SchemaEntry existingEntry = mSchemaIdMap.get(schemaId);
+    if (existingEntry != null) {
+      return existingEntry;
+    }
 
     // On a lookup miss from the local schema cache, check to see if we can get the schema
     // from the original HBase table, cache it locally, and return it.
@@ -465,7 +520,7 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
 
   /** {@inheritDoc} */
   @Override
-  public synchronized SchemaEntry getSchemaEntry(BytesKey schemaHash) throws IOException {
+  public SchemaEntry getSchemaEntry(BytesKey schemaHash) throws IOException {
     final State state = mState.get();
     Preconditions.checkState(state == State.OPEN,
         "Cannot get schema entry from SchemaTable instance in state %s.", state);
@@ -474,6 +529,24 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
     if (existingEntry != null) {
       return existingEntry;
     }
+    return loadSchemaEntry(schemaHash);
+  }
+
+  /**
+   * Loads a schema entry from the schema hash table into the in-memory cache.
+   *
+   * <p> Handles lookup misses from {@link #getSchemaEntry(BytesKey)}. </p>
+   *
+   * @param schemaHash Hash of the schema entry to load.
+   * @return the schema entry with the specified hash, or null if the hash does not exist.
+   * @throws IOException on I/O error.
+   */
+  private synchronized SchemaEntry loadSchemaEntry(BytesKey schemaHash) throws IOException {
+    // Another thread may have loaded this entry while we were waiting for the lock:
+    final SchemaEntry existingEntry = mSchemaHashMap.get(schemaHash);
+    if (existingEntry != null) {
+      return existingEntry;
+    }
 
     // On a lookup miss from the local schema cache, check to see if we can get the schema
     // from the original HBase table, cache it locally, and return it.
@@ -495,7 +568,7 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
   /**
    * Stores the specified schema entry in memory.
    *
-   * External synchronization required.
+   * Caller must hold the monitor on this schema table.
    *
    * @param avroEntry Avro schema entry.
    * @return the SchemaEntry stored in memory.
@@ -507,7 +580,8 @@ public final class HBaseSchemaTable implements KijiSchemaTable {
   /**
    * Stores the specified schema entry in memory.
    *
-   * External synchronization required.
+   * Caller must hold the monitor on this schema table.
+   * Concurrent readers may observe the hash mapping before the ID mapping.
    *
    * @param entry the SchemaEntry to store in memory.
    * @return the SchemaEntry stored in memory.
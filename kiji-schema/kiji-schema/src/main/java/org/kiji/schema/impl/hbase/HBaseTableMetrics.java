@@ -0,0 +1,294 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import java.util.List;
+import java.util.Map;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.UniformSnapshot;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Result;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.commons.monitoring.MetricUtils;
+import org.kiji.schema.impl.KijiTableMetrics;
+
+/**
+ * Metrics on the HBase RPCs issued against the HBase table backing a Kiji table.
+ *
+ * <p>
+ *   Every HTable handle obtained from {@link HBaseKijiTable#openHTableConnection()} records the
+ *   number and latency of the requests it sends, along with the number of bytes of cells it
+ *   transfers, into the metrics of its table. Register these metrics with a registry, under a
+ *   prefix identifying the table, to report them:
+ * </p>
+ * <pre><code>
+ *   MetricUtils.registerAll(registry, "kiji.table.users", hbaseKijiTable.getMetrics());
+ * </code></pre>
+ *
+ * <p>
+ *   These metrics time the HBase RPCs only. A single Kiji operation may issue several RPCs, eg. a
+ *   bulk get or a paged read, and RPCs do not include the decoding of cells. The latency of the
+ *   Kiji operations themselves, from the reader or writer API call to its return, is recorded
+ *   separately by {@link org.kiji.schema.impl.KijiTableMetrics}, so that a read is timed once at
+ *   each layer. Metric names do not collide, so both sets may be registered under one prefix.
+ * </p>
+ *
+ * <p>
+ *   The metrics of a table are shared by all the handles on this table, see
+ *   {@link HBaseKiji#getHBaseTableMetrics(String)}. Both sets are disabled by the
+ *   {@link org.kiji.schema.impl.KijiTableMetrics#ENABLED_PROPERTY} system property: all tables
+ *   then share a single set of metrics, which reports nothing and whose timers keep no samples.
+ * </p>
+ */
+@ApiAudience.Private
+public final class HBaseTableMetrics implements MetricSet {
+  /** Metrics shared by all tables when recording is disabled. */
+  private static final HBaseTableMetrics DISABLED = new HBaseTableMetrics(false);
+
+  /** Whether these metrics record and report anything. */
+  private final boolean mEnabled;
+
+  /** Times get and exists requests. */
+  private final Timer mGetTimer;
+
+  /** Times put, delete, increment, append, batch and flush requests. */
+  private final Timer mMutateTimer;
+
+  /** Times scanner next requests. */
+  private final Timer mScanTimer;
+
+  /** Number of bytes of cells received from HBase. */
+  private final Counter mBytesRead = new Counter();
+
+  /** Number of bytes of cells sent to HBase. */
+  private final Counter mBytesWritten = new Counter();
+
+  /** Number of HTable instances created. */
+  private final Counter mHTablesCreated = new Counter();
+
+  /**
+   * Reservoir of the timers of the disabled metrics, which keeps no samples.
+   *
+   * <p> Timer contexts cannot be made no-ops, so disabled timers still count requests. </p>
+   */
+  private static final class EmptyReservoir implements Reservoir {
+    /** Snapshot of no sample. */
+    private static final Snapshot EMPTY_SNAPSHOT = new UniformSnapshot(new long[0]);
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+      return 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(final long value) {
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Snapshot getSnapshot() {
+      return EMPTY_SNAPSHOT;
+    }
+  }
+
+  /**
+   * Constructs a new set of HBase table metrics.
+   *
+   * @param enabled Whether the metrics record and report anything.
+   */
+  private HBaseTableMetrics(final boolean enabled) {
+    mEnabled = enabled;
+    mGetTimer = createTimer(enabled);
+    mMutateTimer = createTimer(enabled);
+    mScanTimer = createTimer(enabled);
+  }
+
+  /**
+   * Creates a timer of HBase requests.
+   *
+   * @param enabled Whether the timer keeps samples.
+   * @return a new timer of HBase requests.
+   */
+  private static Timer createTimer(final boolean enabled) {
+    return enabled ? MetricUtils.createLatencyTimer() : new Timer(new EmptyReservoir());
+  }
+
+  /**
+   * Creates a new set of HBase table metrics.
+   *
+   * @return a new set of HBase table metrics, or the shared empty metrics if recording is
+   *     disabled.
+   */
+  public static HBaseTableMetrics create() {
+    return KijiTableMetrics.isEnabled() ? new HBaseTableMetrics(true) : DISABLED;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p> Empty when recording is disabled. </p>
+   */
+  @Override
+  public Map<String, Metric> getMetrics() {
+    if (!mEnabled) {
+      return ImmutableMap.of();
+    }
+    return ImmutableMap.<String, Metric>builder()
+        .put("rpc.get", mGetTimer)
+        .put("rpc.mutate", mMutateTimer)
+        .put("rpc.scan", mScanTimer)
+        .put("bytes.read", mBytesRead)
+        .put("bytes.written", mBytesWritten)
+        .put("htable.created.count", mHTablesCreated)
+        .build();
+  }
+
+  /** @return the timer of get and exists requests. */
+  Timer getGetTimer() {
+    return mGetTimer;
+  }
+
+  /** @return the timer of put, delete, increment, append, batch and flush requests. */
+  Timer getMutateTimer() {
+    return mMutateTimer;
+  }
+
+  /** @return the timer of scanner next requests. */
+  Timer getScanTimer() {
+    return mScanTimer;
+  }
+
+  /** Records the creation of a new HTable instance. */
+  void markHTableCreated() {
+    mHTablesCreated.inc();
+  }
+
+  /**
+   * Records the cells of a result as read from HBase.
+   *
+   * @param result Result received from HBase. May be null.
+   */
+  void markRead(final Result result) {
+    if (mEnabled && (result != null)) {
+      mBytesRead.inc(sizeOf(result));
+    }
+  }
+
+  /**
+   * Records the cells of some results as read from HBase.
+   *
+   * @param results Results received from HBase. Entries that are not results are ignored.
+   */
+  void markRead(final Object[] results) {
+    if (!mEnabled || (results == null)) {
+      return;
+    }
+    long size = 0;
+    for (Object result : results) {
+      if (result instanceof Result) {
+        size += sizeOf((Result) result);
+      }
+    }
+    mBytesRead.inc(size);
+  }
+
+  /**
+   * Records the cells of a mutation as written to HBase.
+   *
+   * @param mutation Mutation sent to HBase.
+   */
+  void markWritten(final Mutation mutation) {
+    if (!mEnabled) {
+      return;
+    }
+    mBytesWritten.inc(sizeOf(mutation));
+  }
+
+  /**
+   * Records the cells of some operations as written to HBase.
+   *
+   * @param operations Operations sent to HBase. Operations that are not mutations are ignored.
+   */
+  void markWritten(final List<?> operations) {
+    if (!mEnabled) {
+      return;
+    }
+    long size = 0;
+    for (Object operation : operations) {
+      if (operation instanceof Mutation) {
+        size += sizeOf((Mutation) operation);
+      }
+    }
+    mBytesWritten.inc(size);
+  }
+
+  /**
+   * Reports the size of the cells of a result, as transferred on the wire.
+   *
+   * @param result Result to report the size of.
+   * @return the size of the cells of the result, in bytes.
+   */
+  private static long sizeOf(final Result result) {
+    final Cell[] cells = result.rawCells();
+    if (cells == null) {
+      return 0;
+    }
+    long size = 0;
+    for (Cell cell : cells) {
+      size += HBaseWriteBuffer.cellWireSize(
+          cell.getRowLength(),
+          cell.getFamilyLength(),
+          cell.getQualifierLength(),
+          cell.getValueLength());
+    }
+    return size;
+  }
+
+  /**
+   * Reports the size of the cells of a mutation, as transferred on the wire.
+   *
+   * @param mutation Mutation to report the size of.
+   * @return the size of the cells of the mutation, in bytes.
+   */
+  private static long sizeOf(final Mutation mutation) {
+    long size = mutation.getRow().length;
+    for (List<Cell> cells : mutation.getFamilyCellMap().values()) {
+      for (Cell cell : cells) {
+        size += HBaseWriteBuffer.cellWireSize(
+            cell.getRowLength(),
+            cell.getFamilyLength(),
+            cell.getQualifierLength(),
+            cell.getValueLength());
+      }
+    }
+    return size;
+  }
+}
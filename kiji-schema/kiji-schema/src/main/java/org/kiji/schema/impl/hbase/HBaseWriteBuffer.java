@@ -0,0 +1,253 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import org.kiji.annotations.ApiAudience;
+import org.kiji.schema.RuntimeInterruptedException;
+
+/**
+ * Write-combining buffer of HBase mutations, used by {@link HBaseKijiBufferedWriter}.
+ *
+ * <p>
+ *   Mutations are grouped per row, in the order they were buffered. Consecutive puts to a row are
+ *   merged into a single Put. Rows are kept sorted by row key, so that the mutations sent to a
+ *   region are contiguous in the batches written to HBase.
+ * </p>
+ *
+ * <p>
+ *   The size of the buffer is the size of its mutations on the wire, rather than on the heap.
+ * </p>
+ *
+ * <p> Not thread-safe. </p>
+ */
+@ApiAudience.Private
+final class HBaseWriteBuffer {
+  /** Mutations of each row, in the order they were buffered, keyed by HBase row key. */
+  private final NavigableMap<byte[], List<Mutation>> mRows =
+      new TreeMap<byte[], List<Mutation>>(Bytes.BYTES_COMPARATOR);
+
+  /** Number of mutations in the buffer, after merging. */
+  private int mNumMutations = 0;
+
+  /** Size of the buffered mutations on the wire, in bytes. */
+  private long mWireSize = 0L;
+
+  /**
+   * Reports the size on the wire of a cell, written or read.
+   *
+   * @param rowLength Length of the row key.
+   * @param familyLength Length of the family.
+   * @param qualifierLength Length of the qualifier.
+   * @param valueLength Length of the value.
+   * @return the size on the wire of the cell, in bytes.
+   */
+  static long cellWireSize(
+      final int rowLength,
+      final int familyLength,
+      final int qualifierLength,
+      final int valueLength
+  ) {
+    return KeyValue.KEYVALUE_INFRASTRUCTURE_SIZE + KeyValue.KEY_INFRASTRUCTURE_SIZE
+        + rowLength + familyLength + qualifierLength + valueLength;
+  }
+
+  /**
+   * Reports the size on the wire of a buffered mutation.
+   *
+   * @param mutation Put or Delete to report the size of.
+   * @return the size on the wire of the mutation, in bytes.
+   */
+  private static long mutationWireSize(final Mutation mutation) {
+    long size = mutation.getRow().length;
+    final boolean isPut = mutation instanceof Put;
+    for (List<Cell> cells : mutation.getFamilyCellMap().values()) {
+      for (Cell cell : cells) {
+        size += cellWireSize(
+            cell.getRowLength(),
+            cell.getFamilyLength(),
+            cell.getQualifierLength(),
+            isPut ? cell.getValueLength() : 0);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Gets the list of mutations of a row, creating it if necessary.
+   *
+   * @param row HBase row key.
+   * @return the list of mutations of the row.
+   */
+  private List<Mutation> getRowMutations(final byte[] row) {
+    List<Mutation> mutations = mRows.get(row);
+    if (mutations == null) {
+      mutations = Lists.newArrayListWithCapacity(1);
+      mRows.put(row, mutations);
+    }
+    return mutations;
+  }
+
+  /**
+   * Buffers a cell to put.
+   *
+   * @param row HBase row key.
+   * @param family HBase family.
+   * @param qualifier HBase qualifier.
+   * @param timestamp Timestamp of the cell.
+   * @param value Encoded value of the cell.
+   */
+  public void put(
+      final byte[] row,
+      final byte[] family,
+      final byte[] qualifier,
+      final long timestamp,
+      final byte[] value
+  ) {
+    final List<Mutation> mutations = getRowMutations(row);
+    final Mutation last = mutations.isEmpty() ? null : mutations.get(mutations.size() - 1);
+    if (last instanceof Put) {
+      ((Put) last).add(family, qualifier, timestamp, value);
+    } else {
+      mutations.add(new Put(row).add(family, qualifier, timestamp, value));
+      mNumMutations += 1;
+      mWireSize += row.length;
+    }
+    mWireSize += cellWireSize(row.length, family.length, qualifier.length, value.length);
+  }
+
+  /**
+   * Buffers a delete.
+   *
+   * @param delete Delete to buffer.
+   */
+  public void delete(final Delete delete) {
+    getRowMutations(delete.getRow()).add(delete);
+    mNumMutations += 1;
+    mWireSize += mutationWireSize(delete);
+  }
+
+  /**
+   * Reports whether the buffer is empty.
+   *
+   * @return whether the buffer is empty.
+   */
+  public boolean isEmpty() {
+    return mRows.isEmpty();
+  }
+
+  /**
+   * Reports the number of mutations in the buffer, after merging consecutive puts to a row.
+   *
+   * @return the number of mutations in the buffer.
+   */
+  public int getNumMutations() {
+    return mNumMutations;
+  }
+
+  /**
+   * Reports the size of the buffered mutations on the wire.
+   *
+   * @return the size of the buffered mutations on the wire, in bytes.
+   */
+  public long getWireSize() {
+    return mWireSize;
+  }
+
+  /**
+   * Writes the buffered mutations to HBase, and empties the buffer.
+   *
+   * <p>
+   *   HBase does not order the mutations of a row within a batch. Mutations are therefore written
+   *   in successive rounds: each round writes one batch with the first remaining mutation of each
+   *   row. In the common case where no row has both puts and deletes, a single batch is written.
+   * </p>
+   *
+   * <p>
+   *   Mutations are removed from the buffer as soon as they are written, so that a failed write
+   *   may be retried without applying any mutation twice.
+   * </p>
+   *
+   * @param htable HTableInterface to write to.
+   * @throws IOException on I/O error. The buffer then keeps the mutations not yet written: those
+   *     of the failed round, except the ones HBase reported as written, and those of the later
+   *     rounds.
+   */
+  public void write(final HTableInterface htable) throws IOException {
+    while (!mRows.isEmpty()) {
+      final List<Row> batch = Lists.newArrayListWithCapacity(mRows.size());
+      for (List<Mutation> mutations : mRows.values()) {
+        batch.add(mutations.get(0));
+      }
+      final Object[] results = new Object[batch.size()];
+      try {
+        htable.batch(batch, results);
+      } catch (InterruptedException ie) {
+        removeWritten(results, false);
+        throw new RuntimeInterruptedException(ie);
+      } catch (IOException ioe) {
+        removeWritten(results, false);
+        throw ioe;
+      }
+      removeWritten(results, true);
+    }
+  }
+
+  /**
+   * Removes the mutations written by a round from the buffer.
+   *
+   * @param results Results of the batch of the round, one per row, in row key order. A result is
+   *     null or a Throwable if the write of its mutation failed or was not attempted.
+   * @param succeeded Whether the batch of the round succeeded, in which case all its mutations
+   *     were written.
+   */
+  private void removeWritten(final Object[] results, final boolean succeeded) {
+    int index = 0;
+    final Iterator<List<Mutation>> it = mRows.values().iterator();
+    while (it.hasNext()) {
+      final List<Mutation> mutations = it.next();
+      final Object result = results[index++];
+      if (!succeeded && ((result == null) || (result instanceof Throwable))) {
+        continue;
+      }
+      final Mutation written = mutations.remove(0);
+      mNumMutations -= 1;
+      mWireSize -= mutationWireSize(written);
+      if (mutations.isEmpty()) {
+        it.remove();
+      }
+    }
+  }
+}
@@ -21,13 +21,15 @@ package org.kiji.schema.impl.hbase;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
 
-import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 
 import com.google.common.base.Function;
+import com.google.common.collect.MapMaker;
 import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
 
 import org.kiji.annotations.ApiAudience;
 import org.kiji.schema.DecodedCell;
@@ -49,6 +51,21 @@ import org.kiji.schema.layout.impl.CellDecoderProvider;
 @ApiAudience.Private
 @ThreadSafe
 public final class ResultDecoders {
+  /** Maximum number of column names cached per Kiji family, before the cache is reset. */
+  private static final int MAX_CACHED_COLUMN_NAMES = 10000;
+
+  /**
+   * Column names translated from HBase qualifiers, shared by all the decoders of a table layout.
+   *
+   * <p>
+   *   Keyed on the identity of the column name translator, which is tied to a single table layout.
+   *   Entries are dropped once the translator is no longer referenced.
+   * </p>
+   */
+  private static final ConcurrentMap<HBaseColumnNameTranslator,
+      ConcurrentMap<String, ColumnNameCache>> COLUMN_NAME_CACHES =
+          new MapMaker().weakKeys().makeMap();
+
   /**
    * Get a decoder function for a column.
    *
@@ -72,11 +89,186 @@ public final class ResultDecoders {
     }
 
     final FamilyLayout family = layout.getFamilyMap().get(column.getFamily());
+    final ColumnNameCache columnNames = getColumnNameCache(translator, column.getFamily());
 
     if (family.isMapType()) {
-      return new MapFamilyDecoder<T>(translator, decoderProvider.<T>getDecoder(column));
+      return new MapFamilyDecoder<T>(
+          translator, columnNames, decoderProvider.<T>getDecoder(column));
     } else {
-      return new GroupFamilyDecoder<T>(translator, decoderProvider);
+      return new GroupFamilyDecoder<T>(translator, columnNames, decoderProvider);
+    }
+  }
+
+  /**
+   * Get the shared cache of column names for a Kiji family.
+   *
+   * @param translator for the table.
+   * @param family Kiji family whose column names to cache.
+   * @return the shared cache of column names for the specified family.
+   */
+  private static ColumnNameCache getColumnNameCache(
+      final HBaseColumnNameTranslator translator,
+      final String family
+  ) {
+    ConcurrentMap<String, ColumnNameCache> familyCaches = COLUMN_NAME_CACHES.get(translator);
+    if (familyCaches == null) {
+      final ConcurrentMap<String, ColumnNameCache> newCaches =
+          new MapMaker().makeMap();
+      familyCaches = COLUMN_NAME_CACHES.putIfAbsent(translator, newCaches);
+      if (familyCaches == null) {
+        familyCaches = newCaches;
+      }
+    }
+    ColumnNameCache cache = familyCaches.get(family);
+    if (cache == null) {
+      final ColumnNameCache newCache = new ColumnNameCache();
+      cache = familyCaches.putIfAbsent(family, newCache);
+      if (cache == null) {
+        cache = newCache;
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Reports whether the qualifier of a KeyValue is equal to the specified qualifier.
+   *
+   * @param qualifier to compare against. May be null.
+   * @param keyValue whose qualifier to compare, without copying it.
+   * @return whether the qualifier of the KeyValue equals the specified qualifier.
+   */
+  private static boolean qualifierEquals(final byte[] qualifier, final KeyValue keyValue) {
+    return (qualifier != null)
+        && Bytes.equals(
+            qualifier, 0, qualifier.length,
+            keyValue.getQualifierArray(),
+            keyValue.getQualifierOffset(),
+            keyValue.getQualifierLength());
+  }
+
+  /**
+   * HBase qualifier bytes, used as a key in the column name caches.
+   *
+   * <p>
+   *   A key may be a mutable probe over a region of a KeyValue backing array, in order to look up
+   *   a qualifier without copying it. Only keys owning their bytes are ever inserted in a cache.
+   * </p>
+   */
+  private static final class QualifierKey {
+    private byte[] mBytes;
+    private int mOffset;
+    private int mLength;
+    private int mHashCode;
+
+    /**
+     * Points this key to the qualifier of a KeyValue.
+     *
+     * @param keyValue whose qualifier to point to.
+     * @return this key.
+     */
+    public QualifierKey set(final KeyValue keyValue) {
+      mBytes = keyValue.getQualifierArray();
+      mOffset = keyValue.getQualifierOffset();
+      mLength = keyValue.getQualifierLength();
+      mHashCode = Bytes.hashCode(mBytes, mOffset, mLength);
+      return this;
+    }
+
+    /**
+     * Returns a key owning a copy of the qualifier bytes this key points to.
+     *
+     * @return a key owning a copy of the qualifier bytes.
+     */
+    public QualifierKey copy() {
+      final QualifierKey key = new QualifierKey();
+      key.mBytes = Arrays.copyOfRange(mBytes, mOffset, mOffset + mLength);
+      key.mOffset = 0;
+      key.mLength = mLength;
+      key.mHashCode = mHashCode;
+      return key;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+      return mHashCode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object object) {
+      if (!(object instanceof QualifierKey)) {
+        return false;
+      }
+      final QualifierKey other = (QualifierKey) object;
+      return (mHashCode == other.mHashCode)
+          && Bytes.equals(mBytes, mOffset, mLength, other.mBytes, other.mOffset, other.mLength);
+    }
+  }
+
+  /** Kiji column name translated from an HBase qualifier, along with this qualifier. */
+  private static final class CachedColumnName {
+    /** HBase qualifier. Owned by the cache, never modified. */
+    private final byte[] mQualifier;
+
+    /** Kiji column name the HBase qualifier translates to. */
+    private final KijiColumnName mColumnName;
+
+    /**
+     * Initializes a cached column name.
+     *
+     * @param qualifier HBase qualifier, not shared with any KeyValue.
+     * @param columnName Kiji column name the HBase qualifier translates to.
+     */
+    private CachedColumnName(final byte[] qualifier, final KijiColumnName columnName) {
+      mQualifier = qualifier;
+      mColumnName = columnName;
+    }
+  }
+
+  /**
+   * Bounded cache of the Kiji column names translated from the HBase qualifiers of a Kiji family.
+   *
+   * <p>
+   *   The cache does not reference its column name translator, so that the translator may be
+   *   garbage collected with its table layout.
+   * </p>
+   */
+  @ThreadSafe
+  private static final class ColumnNameCache {
+    private final ConcurrentMap<QualifierKey, CachedColumnName> mColumnNames =
+        new MapMaker().makeMap();
+
+    /**
+     * Gets the Kiji column name of a KeyValue, translating and caching it if necessary.
+     *
+     * <p> Looking up a cached column name allocates nothing. </p>
+     *
+     * @param translator for the table.
+     * @param keyValue whose column name to get.
+     * @param probe Reusable key to look up the KeyValue qualifier with.
+     * @return the Kiji column name of the KeyValue, along with a copy of its qualifier.
+     * @throws NoSuchColumnException if the qualifier does not translate to a Kiji column.
+     */
+    public CachedColumnName get(
+        final HBaseColumnNameTranslator translator,
+        final KeyValue keyValue,
+        final QualifierKey probe
+    ) throws NoSuchColumnException {
+      probe.set(keyValue);
+      final CachedColumnName cached = mColumnNames.get(probe);
+      if (cached != null) {
+        return cached;
+      }
+      final QualifierKey key = probe.copy();
+      final CachedColumnName column = new CachedColumnName(
+          key.mBytes,
+          translator.toKijiColumnName(new HBaseColumnName(keyValue.getFamily(), key.mBytes)));
+      if (mColumnNames.size() >= MAX_CACHED_COLUMN_NAMES) {
+        mColumnNames.clear();
+      }
+      mColumnNames.put(key, column);
+      return column;
     }
   }
 
@@ -93,6 +285,8 @@ public final class ResultDecoders {
   private static final class MapFamilyDecoder<T> implements Function<KeyValue, KijiCell<T>> {
     private final KijiCellDecoder<T> mCellDecoder;
     private final HBaseColumnNameTranslator mColumnTranslator;
+    private final ColumnNameCache mColumnNames;
+    private final QualifierKey mProbe = new QualifierKey();
 
     private KijiColumnName mLastColumn = null;
     private byte[] mLastQualifier = null;
@@ -101,13 +295,16 @@ public final class ResultDecoders {
      * Create a map-family column decoder.
      *
      * @param columnTranslator for the table.
+     * @param columnNames Shared cache of the column names in the family.
      * @param decoder for the table.
      */
     public MapFamilyDecoder(
         final HBaseColumnNameTranslator columnTranslator,
+        final ColumnNameCache columnNames,
         final KijiCellDecoder<T> decoder
     ) {
       mColumnTranslator = columnTranslator;
+      mColumnNames = columnNames;
       mCellDecoder = decoder;
     }
 
@@ -117,7 +314,9 @@ public final class ResultDecoders {
      * <p>
      *   We cache the previously-used {@code KijiColumnName}. This saves parsing and allocations of
      *   the column name for the common case of iterating through multiple versions of each column
-     *   in the family.
+     *   in the family. Other column names are looked up in a cache shared across decoders, which
+     *   also holds the qualifier compared against. Neither the qualifier nor the value of the
+     *   {@code KeyValue} are copied, unless the qualifier is not cached yet.
      * </p>
      *
      * @param keyValue to decode.
@@ -125,12 +324,11 @@ public final class ResultDecoders {
      */
     @Override
     public KijiCell<T> apply(final KeyValue keyValue) {
-      if (!Arrays.equals(mLastQualifier, keyValue.getQualifier())) {
-        mLastQualifier = keyValue.getQualifier();
+      if (!qualifierEquals(mLastQualifier, keyValue)) {
         try {
-          mLastColumn =
-              mColumnTranslator.toKijiColumnName(
-                  new HBaseColumnName(keyValue.getFamily(), keyValue.getQualifier()));
+          final CachedColumnName column = mColumnNames.get(mColumnTranslator, keyValue, mProbe);
+          mLastColumn = column.mColumnName;
+          mLastQualifier = column.mQualifier;
         } catch (NoSuchColumnException e) {
           mLastQualifier = null;
           mLastColumn = null;
@@ -139,7 +337,10 @@ public final class ResultDecoders {
       }
 
       try {
-        final DecodedCell<T> decodedCell = mCellDecoder.decodeCell(keyValue.getValue());
+        final DecodedCell<T> decodedCell = mCellDecoder.decodeCell(
+            keyValue.getValueArray(),
+            keyValue.getValueOffset(),
+            keyValue.getValueLength());
         return KijiCell.create(mLastColumn, keyValue.getTimestamp(), decodedCell);
       } catch (IOException e) {
         throw new KijiIOException(e);
@@ -160,6 +361,8 @@ public final class ResultDecoders {
   private static final class GroupFamilyDecoder<T> implements Function<KeyValue, KijiCell<T>> {
     private final CellDecoderProvider mDecoderProvider;
     private final HBaseColumnNameTranslator mColumnTranslator;
+    private final ColumnNameCache mColumnNames;
+    private final QualifierKey mProbe = new QualifierKey();
 
     private KijiCellDecoder<T> mLastDecoder;
     private KijiColumnName mLastColumn;
@@ -169,14 +372,17 @@ public final class ResultDecoders {
      * Create a qualified column decoder for the provided column.
      *
      * @param columnTranslator for the table.
+     * @param columnNames Shared cache of the column names in the family.
      * @param decoderProvider for the table.
      */
     public GroupFamilyDecoder(
         final HBaseColumnNameTranslator columnTranslator,
+        final ColumnNameCache columnNames,
         final CellDecoderProvider decoderProvider
     ) {
       mDecoderProvider = decoderProvider;
       mColumnTranslator = columnTranslator;
+      mColumnNames = columnNames;
     }
 
     /**
@@ -197,13 +403,11 @@ public final class ResultDecoders {
      */
     @Override
     public KijiCell<T> apply(final KeyValue keyValue) {
-      if (!Arrays.equals(mLastQualifier, keyValue.getQualifier())) {
+      if (!qualifierEquals(mLastQualifier, keyValue)) {
         try {
-          mLastQualifier = keyValue.getQualifier();
-          mLastColumn =
-              mColumnTranslator.toKijiColumnName(
-                  new HBaseColumnName(keyValue.getFamily(), keyValue.getQualifier()));
-
+          final CachedColumnName column = mColumnNames.get(mColumnTranslator, keyValue, mProbe);
+          mLastColumn = column.mColumnName;
+          mLastQualifier = column.mQualifier;
           mLastDecoder = mDecoderProvider.getDecoder(mLastColumn);
         } catch (NoSuchColumnException e) {
           // TODO(SCHEMA-962): Critical! Handle this. Will happen when reading a deleted column
@@ -215,7 +419,10 @@ public final class ResultDecoders {
       }
 
       try {
-        final DecodedCell<T> decodedCell = mLastDecoder.decodeCell(keyValue.getValue());
+        final DecodedCell<T> decodedCell = mLastDecoder.decodeCell(
+            keyValue.getValueArray(),
+            keyValue.getValueOffset(),
+            keyValue.getValueLength());
         return KijiCell.create(mLastColumn, keyValue.getTimestamp(), decodedCell);
       } catch (IOException e) {
         throw new KijiIOException(e);
@@ -237,7 +444,7 @@ public final class ResultDecoders {
    *
    * @param <T> type of value in the column.
    */
-  @Immutable
+  @NotThreadSafe
   private static final class QualifiedColumnDecoder<T> implements Function<KeyValue, KijiCell<T>> {
     private final KijiCellDecoder<T> mCellDecoder;
     private final KijiColumnName mColumnName;
@@ -260,7 +467,10 @@ public final class ResultDecoders {
     @Override
     public KijiCell<T> apply(final KeyValue keyValue) {
       try {
-        final DecodedCell<T> decodedCell = mCellDecoder.decodeCell(keyValue.getValue());
+        final DecodedCell<T> decodedCell = mCellDecoder.decodeCell(
+            keyValue.getValueArray(),
+            keyValue.getValueOffset(),
+            keyValue.getValueLength());
         return KijiCell.create(mColumnName, keyValue.getTimestamp(), decodedCell);
       } catch (IOException e) {
         throw new KijiIOException(e);
@@ -135,7 +135,9 @@ public final class IdentityColumnNameTranslator extends HBaseColumnNameTranslato
 
     final byte[] localityGroupBytes = Bytes.toBytes(family.getLocalityGroup().getName());
     final byte[] familyBytes = Bytes.toBytes(familyName);
-    final byte[] qualifierBytes = Bytes.toBytes(qualifierName);
+    // Unqualified map-type families translate to the prefix shared by all their columns:
+    final byte[] qualifierBytes =
+        (qualifierName == null) ? new byte[0] : Bytes.toBytes(qualifierName);
 
     final byte[] hbaseQualifierBytes =
         ShortColumnNameTranslator.concatWithSeparator(SEPARATOR, familyBytes, qualifierBytes);
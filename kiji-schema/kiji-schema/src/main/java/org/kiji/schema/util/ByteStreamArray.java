@@ -47,7 +47,18 @@ public final class ByteStreamArray {
    * @param offset Offset of the stream head.
    */
   public ByteStreamArray(byte[] bytes, int offset) {
-    this.mBytes = Arrays.copyOf(bytes, bytes.length);
+    this(bytes, offset, true);
+  }
+
+  /**
+   * Constructs a new stream of byte.
+   *
+   * @param bytes Array of byte to wrap into a stream.
+   * @param offset Offset of the stream head.
+   * @param copy Whether to read from a private copy of the array.
+   */
+  private ByteStreamArray(byte[] bytes, int offset, boolean copy) {
+    this.mBytes = copy ? Arrays.copyOf(bytes, bytes.length) : bytes;
     this.mOffset = offset;
   }
 
@@ -60,6 +71,19 @@ public final class ByteStreamArray {
     this(bytes, 0);
   }
 
+  /**
+   * Wraps a byte array into a stream of byte, without copying it.
+   *
+   * <p> The caller must not modify the wrapped array while the stream is in use. </p>
+   *
+   * @param bytes Array of byte to wrap into a stream.
+   * @param offset Offset of the stream head.
+   * @return a stream reading directly from the specified array.
+   */
+  public static ByteStreamArray wrap(byte[] bytes, int offset) {
+    return new ByteStreamArray(bytes, offset, false);
+  }
+
   /**
    * Reports the size of the zig-zag encoding of the specified long integer.
    *
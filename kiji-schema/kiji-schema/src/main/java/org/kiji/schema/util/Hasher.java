@@ -75,4 +75,21 @@ public final class Hasher {
   public static byte[] hash(byte[] input) {
     return MESSAGE_DIGEST.get().digest(input);
   }
+
+  /**
+   * Reports the message digest of the calling thread, in its initial state.
+   *
+   * <p>
+   *   Allows to hash discontiguous byte ranges without copying them into a single array:
+   *   update the digest with each range, then complete the hash with {@link MessageDigest#digest}.
+   *   The digest must not be used beyond the calling thread.
+   * </p>
+   *
+   * @return the reset message digest of the calling thread.
+   */
+  public static MessageDigest getThreadLocalDigest() {
+    final MessageDigest digest = MESSAGE_DIGEST.get();
+    digest.reset();
+    return digest;
+  }
 }
@@ -329,6 +329,38 @@ public abstract class KijiRowDataTest extends KijiClientTest {
     assertEquals(Integer.valueOf(1), values.get(KEY_1).get(0L));
   }
 
+  @Test
+  public void testReadSparseColumnsOfWideRow() throws IOException {
+    final EntityId eid = mTable.getEntityId("eid");
+
+    for (int i = 0; i < 100; ++i) {
+      mWriter.put(eid, MAP_FAMILY, String.format("key%03d", i), 1L, i);
+      mWriter.put(eid, MAP_FAMILY, String.format("key%03d", i), 2L, i + 100);
+    }
+    mWriter.put(eid, FAMILY, QUALIFIER_0, 1L, "apple");
+    mWriter.put(eid, FAMILY, QUALIFIER_1, 1L, "bear");
+
+    final KijiDataRequest dataRequest = KijiDataRequest.builder()
+        .addColumns(ColumnsDef.create().withMaxVersions(1).addFamily(MAP_FAMILY))
+        .addColumns(ColumnsDef.create().add(FAMILY, QUALIFIER_1))
+        .build();
+
+    final KijiRowData data = getRowData(mTable, mReader, eid, dataRequest);
+    // Single columns, before their family is ever read as a whole:
+    assertEquals(Integer.valueOf(150), data.getMostRecentValue(MAP_FAMILY, "key050"));
+    assertEquals(1, data.getTimestamps(MAP_FAMILY, "key099").size());
+    assertFalse(data.containsColumn(MAP_FAMILY, "key100"));
+    assertFalse(data.containsColumn(FAMILY, QUALIFIER_0));
+    assertEquals("bear", data.getMostRecentValue(FAMILY, QUALIFIER_1).toString());
+
+    // Whole families:
+    assertEquals(100, data.getQualifiers(MAP_FAMILY).size());
+    assertEquals("key000", data.getQualifiers(MAP_FAMILY).first());
+    assertEquals(1, data.getQualifiers(FAMILY).size());
+    assertTrue(data.containsColumn(FAMILY));
+    assertEquals(Integer.valueOf(100), data.getMostRecentValue(MAP_FAMILY, "key000"));
+  }
+
   @Test
   public void testReadSpecificFamilyTypes() throws IOException {
     final EntityId eid = mTable.getEntityId("eid");
@@ -254,6 +254,19 @@ public class TestFormattedEntityId extends KijiClientTest {
     assertArrayEquals(formattedEntityId.getHBaseRowKey(), testEntityId.getHBaseRowKey());
   }
 
+  @Test
+  public void testComponentByIndexFromHBaseRowKey() {
+    final RowKeyFormat2 format = makeRowKeyFormat();
+    final byte[] hbaseRowKey = makeId(format, "one", -1).getHBaseRowKey();
+
+    final FormattedEntityId testEntityId = FormattedEntityId.fromHBaseRowKey(hbaseRowKey, format);
+    assertEquals(Integer.valueOf(-1), testEntityId.<Integer>getComponentByIndex(1));
+    assertEquals("one", testEntityId.<String>getComponentByIndex(0));
+    assertNull(testEntityId.<Long>getComponentByIndex(2));
+    assertEquals(Lists.<Object>newArrayList("one", -1, null), testEntityId.getComponents());
+    assertEquals(Integer.valueOf(-1), testEntityId.<Integer>getComponentByIndex(1));
+  }
+
   @Test
   public void testFormattedEntityIdUsingFactory() {
     final RowKeyFormat2 format = makeRowKeyFormat();
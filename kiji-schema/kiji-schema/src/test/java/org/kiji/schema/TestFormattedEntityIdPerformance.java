@@ -0,0 +1,146 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.schema.avro.ComponentType;
+import org.kiji.schema.avro.HashSpec;
+import org.kiji.schema.avro.RowKeyComponent;
+import org.kiji.schema.avro.RowKeyEncoding;
+import org.kiji.schema.avro.RowKeyFormat2;
+
+/**
+ * Measures the throughput of formatted entity IDs in scan-shaped workloads.
+ *
+ * <p>
+ *   A scan creates an entity ID from every row key it returns, but most consumers only use the
+ *   row key itself, or a single component.
+ * </p>
+ */
+public class TestFormattedEntityIdPerformance {
+  private static final Logger LOG = LoggerFactory.getLogger(TestFormattedEntityIdPerformance.class);
+
+  private static final int NUM_ROWS = 10000;
+  private static final int NUM_ITERATIONS = 100;
+
+  /** What a scan-shaped workload reads from each entity ID. */
+  private static enum Access {
+    ROW_KEY,
+    FIRST_COMPONENT,
+    ALL_COMPONENTS
+  }
+
+  /** @return a row key format with a hashed string component, an integer and a long. */
+  private static RowKeyFormat2 makeRowKeyFormat() {
+    final List<RowKeyComponent> components = Lists.newArrayList(
+        RowKeyComponent.newBuilder().setName("astring").setType(ComponentType.STRING).build(),
+        RowKeyComponent.newBuilder().setName("anint").setType(ComponentType.INTEGER).build(),
+        RowKeyComponent.newBuilder().setName("along").setType(ComponentType.LONG).build());
+    return RowKeyFormat2.newBuilder()
+        .setEncoding(RowKeyEncoding.FORMATTED)
+        .setSalt(HashSpec.newBuilder().build())
+        .setComponents(components)
+        .build();
+  }
+
+  /**
+   * Creates entity IDs from HBase row keys, as a scan does.
+   *
+   * @param format Row key format.
+   * @param rowKeys HBase row keys.
+   * @param access What to read from each entity ID.
+   * @return the measured throughput, in entity IDs per second.
+   */
+  private static double decodeThroughput(
+      final RowKeyFormat2 format,
+      final List<byte[]> rowKeys,
+      final Access access
+  ) {
+    long checksum = 0;
+    final long startTime = System.nanoTime();
+    for (int i = 0; i < NUM_ITERATIONS; ++i) {
+      for (byte[] rowKey : rowKeys) {
+        final FormattedEntityId eid = FormattedEntityId.fromHBaseRowKey(rowKey, format);
+        switch (access) {
+          case ROW_KEY:
+            checksum += eid.getHBaseRowKey().length;
+            break;
+          case FIRST_COMPONENT:
+            checksum += eid.<String>getComponentByIndex(0).length();
+            break;
+          case ALL_COMPONENTS:
+            checksum += eid.getComponents().size();
+            break;
+          default:
+            throw new RuntimeException("Unexpected access: " + access);
+        }
+      }
+    }
+    final long elapsed = System.nanoTime() - startTime;
+    Assert.assertTrue(checksum > 0);
+    return (double) NUM_ITERATIONS * rowKeys.size() * 1000000000L / elapsed;
+  }
+
+  /**
+   * Creates entity IDs from their components, as a bulk writer does.
+   *
+   * @param format Row key format.
+   * @return the measured throughput, in entity IDs per second.
+   */
+  private static double encodeThroughput(final RowKeyFormat2 format) {
+    long checksum = 0;
+    final long startTime = System.nanoTime();
+    for (int i = 0; i < NUM_ITERATIONS; ++i) {
+      for (int row = 0; row < NUM_ROWS; ++row) {
+        final List<Object> components = Lists.<Object>newArrayList("user-" + row, row, 7L * row);
+        checksum += FormattedEntityId.getEntityId(components, format).getHBaseRowKey().length;
+      }
+    }
+    final long elapsed = System.nanoTime() - startTime;
+    Assert.assertTrue(checksum > 0);
+    return (double) NUM_ITERATIONS * NUM_ROWS * 1000000000L / elapsed;
+  }
+
+  // Disabled by default.
+  //@Test
+  public void performanceTest() throws Exception {
+    final RowKeyFormat2 format = makeRowKeyFormat();
+    final List<byte[]> rowKeys = Lists.newArrayList();
+    for (int row = 0; row < NUM_ROWS; ++row) {
+      final List<Object> components = Lists.<Object>newArrayList("user-" + row, row, 7L * row);
+      rowKeys.add(FormattedEntityId.getEntityId(components, format).getHBaseRowKey());
+    }
+
+    for (int round = 0; round < 2; ++round) {
+      // The first round warms up the JIT.
+      for (Access access : Access.values()) {
+        LOG.info("Decoding, reading {}: {} entity IDs/s",
+            access, decodeThroughput(format, rowKeys, access));
+      }
+      LOG.info("Encoding: {} entity IDs/s", encodeThroughput(format));
+    }
+  }
+}
@@ -31,6 +31,7 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.kiji.schema.impl.hbase.HBaseKijiBufferedWriter;
 import org.kiji.schema.layout.KijiTableLayout;
 import org.kiji.schema.layout.KijiTableLayouts;
 import org.kiji.schema.util.InstanceBuilder;
@@ -196,4 +197,48 @@ public class TestHBaseKijiBufferedWriter extends KijiClientTest {
     assertFalse(mReader.get(oldEntityId, request).containsColumn("info", "name"));
     assertTrue(mReader.get(newEntityId, request).containsColumn("info", "name"));
   }
+
+  @Test
+  public void testBufferedMutationsKeepRowOrder() throws Exception {
+    final EntityId entityId = mTable.getEntityId("foo");
+    final KijiDataRequest request = KijiDataRequest.create("info", "name");
+
+    // Buffer a put followed by a delete of the same cell, then a put to another cell of the row.
+    mBufferedWriter.put(entityId, "info", "name", 5L, "deleted");
+    mBufferedWriter.deleteCell(entityId, "info", "name", 5L);
+    mBufferedWriter.put(entityId, "info", "name", 6L, "kept");
+
+    // The delete must apply after the first put, and before the last one.
+    mBufferedWriter.flush();
+    final KijiRowData row = mReader.get(entityId, request);
+    assertFalse(row.containsCell("info", "name", 5L));
+    assertEquals("kept", row.getValue("info", "name", 6L).toString());
+  }
+
+  @Test
+  public void testBackgroundFlush() throws Exception {
+    final KijiDataRequest request = KijiDataRequest.create("info", "name");
+    final HBaseKijiBufferedWriter writer = (HBaseKijiBufferedWriter) mBufferedWriter;
+
+    // Hand every write off to the background flusher.
+    writer.setMaxInFlightBuffers(2);
+    writer.setBufferSize(1L);
+    for (int i = 0; i < 10; ++i) {
+      writer.put(mTable.getEntityId("row-" + i), "info", "name", 1L, "name-" + i);
+    }
+
+    // Flushing waits for all in-flight buffers to be written.
+    writer.flush();
+    for (int i = 0; i < 10; ++i) {
+      final String actual = mReader.get(mTable.getEntityId("row-" + i), request)
+          .getValue("info", "name", 1L).toString();
+      assertEquals("name-" + i, actual);
+    }
+
+    // Back to synchronous writes.
+    writer.setMaxInFlightBuffers(0);
+    writer.put(mTable.getEntityId("foo"), "info", "name", 2L, "sync");
+    assertEquals("sync", mReader.get(mTable.getEntityId("foo"), request)
+        .getValue("info", "name", 2L).toString());
+  }
 }
@@ -0,0 +1,128 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
+import org.kiji.schema.filter.KijiColumnFilter;
+import org.kiji.schema.filter.KijiColumnRangeFilter;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
+import org.kiji.schema.impl.hbase.HBaseQualifierIterator;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+public class TestHBaseQualifierIterator extends KijiClientTest {
+  private KijiTable mTable;
+
+  private static final int NJOBS = 100;
+  private static final long NTIMESTAMPS = 3;
+
+  @Before
+  public final void setupTestHBaseQualifierIterator() throws Exception {
+    final Kiji kiji = getKiji();
+    kiji.createTable(KijiTableLayouts.getLayout(KijiTableLayouts.PAGING_TEST));
+
+    mTable = kiji.openTable("user");
+    final EntityId eid = mTable.getEntityId("me");
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      for (int job = 0; job < NJOBS; ++job) {
+        for (long ts = 1; ts <= NTIMESTAMPS; ++ts) {
+          writer.put(eid, "jobs", String.format("j%03d", job), ts,
+              String.format("j%03d-t%d", job, ts));
+        }
+      }
+    } finally {
+      writer.close();
+    }
+  }
+
+  @After
+  public final void teardownTestHBaseQualifierIterator() throws IOException {
+    mTable.release();
+  }
+
+  /**
+   * Lists the qualifiers of the "jobs" family through a qualifier iterator.
+   *
+   * @param filter Column filter to apply on the "jobs" family, or null.
+   * @param batchSize Number of qualifiers to fetch per RPC.
+   * @return the qualifiers of the "jobs" family.
+   * @throws IOException on I/O error.
+   */
+  private List<String> listQualifiers(KijiColumnFilter filter, int batchSize)
+      throws IOException {
+    final KijiDataRequest dataRequest = KijiDataRequest.builder()
+        .addColumns(ColumnsDef.create().withFilter(filter).addFamily("jobs"))
+        .build();
+    final HBaseQualifierIterator it = new HBaseQualifierIterator(
+        mTable.getEntityId("me"),
+        dataRequest,
+        (HBaseKijiTable) mTable,
+        KijiColumnName.create("jobs"),
+        batchSize);
+    try {
+      final List<String> qualifiers = Lists.newArrayList(it);
+      assertFalse(it.hasNext());
+      try {
+        it.next();
+        Assert.fail("next() should throw NoSuchElementException");
+      } catch (NoSuchElementException nsee) {
+        // Expected
+      }
+      return qualifiers;
+    } finally {
+      it.close();
+    }
+  }
+
+  /** Iterates through all the qualifiers, over many batches. */
+  @Test
+  public void testQualifierIterator() throws IOException {
+    final List<String> expected = Lists.newArrayList();
+    for (int job = 0; job < NJOBS; ++job) {
+      expected.add(String.format("j%03d", job));
+    }
+    assertEquals(expected, listQualifiers(null, 7));
+    assertEquals(expected, listQualifiers(null, NJOBS));
+  }
+
+  /** Iterates through the qualifiers accepted by a user filter. */
+  @Test
+  public void testQualifierIteratorWithUserFilter() throws IOException {
+    assertEquals(
+        Lists.newArrayList("j010", "j011", "j012"),
+        listQualifiers(new KijiColumnRangeFilter("j010", true, "j012", true), 2));
+    assertEquals(
+        Lists.<String>newArrayList(),
+        listQualifiers(new KijiColumnRangeFilter("k", true, null, true), 2));
+  }
+}
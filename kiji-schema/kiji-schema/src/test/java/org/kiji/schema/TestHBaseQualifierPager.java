@@ -123,6 +123,29 @@ public class TestHBaseQualifierPager extends KijiClientTest {
     }
   }
 
+  /** Test that a qualifier pager ends with an empty page, even when the last page is full. */
+  @Test
+  public void testQualifiersPagerEndsWithEmptyPage() throws IOException {
+    final EntityId eid = mTable.getEntityId("me");
+
+    final KijiDataRequest dataRequest = KijiDataRequest.builder()
+        .addColumns(ColumnsDef.create().withPageSize(5).addFamily("jobs"))
+        .build();
+
+    final HBaseQualifierPager pager =
+        new HBaseQualifierPager(
+            eid, dataRequest, (HBaseKijiTable) mTable, KijiColumnName.create("jobs"));
+    try {
+      assertTrue(pager.hasNext());
+      assertArrayEquals(new String[]{"j0", "j1", "j2", "j3", "j4"}, pager.next());
+      assertTrue(pager.hasNext());
+      assertArrayEquals(new String[]{}, pager.next());
+      assertFalse(pager.hasNext());
+    } finally {
+      pager.close();
+    }
+  }
+
   /** Test a qualifier pager on a map-type family with a user filter that discards everything. */
   @Test
   public void testQualifiersPagerWithUserFilterEmpty() throws IOException {
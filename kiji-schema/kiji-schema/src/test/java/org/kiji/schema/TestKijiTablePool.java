@@ -31,7 +31,14 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
-
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import org.easymock.IAnswer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -325,4 +332,84 @@ public class TestKijiTablePool extends KijiClientTest {
     }
   }
 
+  @Test
+  public void testCloseDuringGet() throws IOException {
+    final KijiTablePool pool = KijiTablePool.newBuilder(mTableFactory).build();
+
+    final KijiTable foo = createMock(KijiTable.class);
+    expect(foo.getName()).andReturn("foo").anyTimes();
+    expect(foo.getURI()).andReturn(KijiURI.newBuilder("kiji://.env/foo").build()).anyTimes();
+
+    // The table opened while the pool is being closed must not leak.
+    foo.release();
+    expectLastCall().once();
+
+    // Closes the pool after the getter created the pool for table "foo":
+    expect(mTableFactory.openTable("foo")).andAnswer(new IAnswer<KijiTable>() {
+      /** {@inheritDoc} */
+      @Override
+      public KijiTable answer() throws Throwable {
+        pool.close();
+        return foo;
+      }
+    });
+
+    replay(foo);
+    replay(mTableFactory);
+
+    try {
+      pool.get("foo");
+      fail("Should throw an IllegalStateException.");
+    } catch (IllegalStateException ise) {
+      assertTrue(ise.getMessage().endsWith("in state CLOSED."));
+    }
+
+    verify(foo);
+    verify(mTableFactory);
+  }
+
+  @Test
+  public void testConcurrentCheckouts() throws Exception {
+    final int numThreads = 4;
+    final KijiTablePool pool = KijiTablePool.newBuilder(mTableFactory)
+        .withMaxSize(numThreads)
+        .build();
+
+    try {
+      KijiTable foo = createMock(KijiTable.class);
+      expect(foo.getName()).andReturn("foo").anyTimes();
+      expect(foo.getURI()).andReturn(KijiURI.newBuilder("kiji://.env/foo").build()).anyTimes();
+      foo.release();
+      expectLastCall().anyTimes();
+      expect(mTableFactory.openTable("foo")).andReturn(foo).anyTimes();
+
+      replay(foo);
+      replay(mTableFactory);
+
+      // Each thread holds at most one table, so the pool never runs out of capacity:
+      final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+      try {
+        final List<Future<Void>> futures = Lists.newArrayList();
+        for (int i = 0; i < numThreads; ++i) {
+          futures.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+              for (int j = 0; j < 10000; ++j) {
+                pool.get("foo").release();
+              }
+              return null;
+            }
+          }));
+        }
+        for (Future<Void> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+      assertTrue(pool.getPoolSize("foo") <= numThreads);
+    } finally {
+      pool.close();
+    }
+  }
 }
@@ -0,0 +1,117 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kiji.schema;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.schema.layout.KijiTableLayouts;
+
+/** Measures the throughput of concurrent get() and release() calls on a KijiTablePool. */
+public class TestKijiTablePoolPerformance extends KijiClientTest {
+  private static final Logger LOG = LoggerFactory.getLogger(TestKijiTablePoolPerformance.class);
+
+  private static final int CHECKOUTS_PER_THREAD = 1000000;
+
+  /**
+   * Gets and releases tables from a pool concurrently from many threads.
+   *
+   * @param pool Pool to get tables from.
+   * @param numThreads Number of concurrent threads.
+   * @param numTables Number of distinct table names the threads are spread over.
+   * @return the measured throughput, in checkouts per second.
+   * @throws Exception on error.
+   */
+  private static double checkoutThroughput(
+      final KijiTablePool pool,
+      final int numThreads,
+      final int numTables
+  ) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<Void>> futures = Lists.newArrayList();
+      for (int i = 0; i < numThreads; ++i) {
+        final String tableName = "table-" + (i % numTables);
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            start.await();
+            for (int j = 0; j < CHECKOUTS_PER_THREAD; ++j) {
+              pool.get(tableName).release();
+            }
+            return null;
+          }
+        }));
+      }
+
+      final long startTime = System.nanoTime();
+      start.countDown();
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+      final long elapsed = System.nanoTime() - startTime;
+      return (double) numThreads * CHECKOUTS_PER_THREAD * 1000000000L / elapsed;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  // Disabled by default.
+  //@Test
+  public void performanceTest() throws Exception {
+    final Kiji kiji = getKiji();
+    kiji.createTable(KijiTableLayouts.getLayout(KijiTableLayouts.SIMPLE));
+
+    // All the table names of the pool are backed by the same Kiji table:
+    final KijiTableFactory tableFactory = new KijiTableFactory() {
+      @Override
+      public KijiTable openTable(String tableName) throws IOException {
+        return kiji.openTable("table");
+      }
+    };
+
+    final KijiTablePool pool = KijiTablePool.newBuilder(tableFactory)
+        .withIdleTimeout(1000)
+        .withIdlePollPeriod(10)
+        .build();
+    try {
+      // Warm up the pool and the JIT:
+      checkoutThroughput(pool, 32, 32);
+
+      for (int numThreads : new int[] {1, 2, 4, 8, 16, 32}) {
+        LOG.info("{} threads: same table = {} checkouts/s, one table per thread = {} checkouts/s",
+            numThreads,
+            checkoutThroughput(pool, numThreads, 1),
+            checkoutThroughput(pool, numThreads, numThreads));
+      }
+    } finally {
+      pool.close();
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.layout.KijiTableLayouts;
+import org.kiji.schema.util.InstanceBuilder;
+
+public class TestStripedKijiTableReaderPool extends KijiClientTest {
+
+  private static final String FOO_NAME = "foo-name";
+  private static final KijiDataRequest INFO_NAME = KijiDataRequest.create("info", "name");
+
+  private KijiTable mTable;
+  private EntityId mEID;
+
+  @Before
+  public void setup() throws IOException {
+    new InstanceBuilder(getKiji())
+        .withTable(KijiTableLayouts.getLayout(KijiTableLayouts.USER_TABLE))
+            .withRow("foo")
+                .withFamily("info")
+                    .withQualifier("name")
+                        .withValue(1, FOO_NAME)
+        .build();
+    mTable = getKiji().openTable("user");
+    mEID = mTable.getEntityId("foo");
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    mTable.release();
+  }
+
+  /**
+   * Reads the value of a metric of a pool.
+   *
+   * @param pool Pool to read the metric of.
+   * @param name Name of the metric.
+   * @return the value of the metric.
+   */
+  private static long getMetric(final StripedKijiTableReaderPool pool, final String name) {
+    final Object metric = pool.getMetrics().getMetrics().get(name);
+    if (metric instanceof Counter) {
+      return ((Counter) metric).getCount();
+    } else {
+      return ((Number) ((Gauge<?>) metric).getValue()).longValue();
+    }
+  }
+
+  @Test
+  public void testSimpleRead() throws Exception {
+    final StripedKijiTableReaderPool pool = StripedKijiTableReaderPool.Builder.create()
+        .withReaderFactory(mTable.getReaderFactory())
+        .build();
+    try {
+      final KijiTableReader reader = pool.borrowReader();
+      try {
+        assertEquals(
+            FOO_NAME, reader.get(mEID, INFO_NAME).getMostRecentValue("info", "name").toString());
+        assertEquals(1, getMetric(pool, "readers.borrowed"));
+      } finally {
+        reader.close();
+      }
+      assertEquals(0, getMetric(pool, "readers.borrowed"));
+      assertEquals(1, getMetric(pool, "readers.idle"));
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testThreadReusesLastReader() throws Exception {
+    final StripedKijiTableReaderPool pool = StripedKijiTableReaderPool.Builder.create()
+        .withReaderFactory(mTable.getReaderFactory())
+        .build();
+    try {
+      final KijiTableReader reader1 = pool.borrowReader();
+      reader1.close();
+      final KijiTableReader reader2 = pool.borrowReader();
+      try {
+        assertSame(reader1, reader2);
+        assertEquals(1, getMetric(pool, "borrow.thread-local.count"));
+        assertEquals(1, getMetric(pool, "readers.count"));
+      } finally {
+        reader2.close();
+      }
+      try {
+        reader2.close();
+        fail("Returning a reader twice should fail.");
+      } catch (IllegalStateException ise) {
+        // Expected.
+      }
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testFullPool() throws Exception {
+    final StripedKijiTableReaderPool pool = StripedKijiTableReaderPool.Builder.create()
+        .withReaderFactory(mTable.getReaderFactory())
+        .withMaxSize(1)
+        .withMaxWaitToBorrow(10)
+        .build();
+    try {
+      final KijiTableReader reader = pool.borrowReader();
+      try {
+        pool.borrowReader();
+        fail("borrowReader() should have thrown NoSuchElementException");
+      } catch (NoSuchElementException nsee) {
+        assertEquals("Pool exhausted", nsee.getMessage());
+      } finally {
+        reader.close();
+      }
+      // Because the first reader was returned to the pool, this one should work.
+      final KijiTableReader reader2 = pool.borrowReader();
+      reader2.close();
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testConcurrentBorrows() throws Exception {
+    final int numThreads = 8;
+    final StripedKijiTableReaderPool pool = StripedKijiTableReaderPool.Builder.create()
+        .withReaderFactory(mTable.getReaderFactory())
+        .withMaxSize(numThreads / 2)
+        .withNumStripes(2)
+        .build();
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final List<Future<Void>> futures = Lists.newArrayList();
+      for (int i = 0; i < numThreads; ++i) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int j = 0; j < 100; ++j) {
+              final KijiTableReader reader = pool.borrowReader();
+              try {
+                assertEquals(FOO_NAME,
+                    reader.get(mEID, INFO_NAME).getMostRecentValue("info", "name").toString());
+              } finally {
+                reader.close();
+              }
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+      assertEquals(0, getMetric(pool, "readers.borrowed"));
+    } finally {
+      executor.shutdown();
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testRetainsTable() throws Exception {
+    final KijiTable table = getKiji().openTable("user");
+    final StripedKijiTableReaderPool pool = StripedKijiTableReaderPool.Builder.create()
+        .withReaderFactory(table.getReaderFactory())
+        .build();
+    table.release();
+    try {
+      final KijiTableReader reader = pool.borrowReader();
+      try {
+        assertEquals(
+            FOO_NAME, reader.get(mEID, INFO_NAME).getMostRecentValue("info", "name").toString());
+      } finally {
+        reader.close();
+      }
+    } finally {
+      pool.close();
+    }
+  }
+}
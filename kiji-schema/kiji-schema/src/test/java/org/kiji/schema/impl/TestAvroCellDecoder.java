@@ -0,0 +1,138 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kiji.schema.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.kiji.schema.KijiCellEncoder;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.avro.CellSchema;
+import org.kiji.schema.avro.Edge;
+import org.kiji.schema.avro.Node;
+import org.kiji.schema.avro.SchemaStorage;
+import org.kiji.schema.avro.SchemaType;
+import org.kiji.schema.layout.CellSpec;
+
+/** Tests for AvroCellDecoder: decoding regions of arrays, value reuse and the value cache. */
+public class TestAvroCellDecoder extends KijiClientTest {
+
+  /**
+   * Creates a cell specification for a column of the given specific Avro class.
+   *
+   * @param klass Specific Avro class of the column values.
+   * @return a cell specification for a column of the given class.
+   * @throws IOException on I/O error.
+   */
+  private CellSpec createCellSpec(final Class<?> klass) throws IOException {
+    return CellSpec.create()
+        .setCellSchema(CellSchema.newBuilder()
+            .setType(SchemaType.CLASS)
+            .setValue(klass.getName())
+            .setStorage(SchemaStorage.UID)
+            .build())
+        .setSchemaTable(getKiji().getSchemaTable());
+  }
+
+  /**
+   * Creates a decoder with the value cache enabled.
+   *
+   * @param cellSpec Specification of the column to decode.
+   * @param <T> The type of the decoded values.
+   * @return a new decoder, caching decoded values.
+   * @throws IOException on I/O error.
+   */
+  private static <T> SpecificCellDecoder<T> createCachingDecoder(final CellSpec cellSpec)
+      throws IOException {
+    System.setProperty(AvroCellDecoder.VALUE_CACHE_SIZE, "16");
+    try {
+      return new SpecificCellDecoder<T>(cellSpec);
+    } finally {
+      System.clearProperty(AvroCellDecoder.VALUE_CACHE_SIZE);
+    }
+  }
+
+  /**
+   * Creates a Node record with the given label.
+   *
+   * @param label of the node.
+   * @return a new Node record.
+   */
+  private static Node createNode(final String label) {
+    return Node.newBuilder()
+        .setLabel(label)
+        .setAnnotations(Collections.<String, String>emptyMap())
+        .setEdges(Collections.<Edge>emptyList())
+        .build();
+  }
+
+  /** Tests that decoding a region of a byte array ignores the bytes around the region. */
+  @Test
+  public void testDecodeRegion() throws IOException {
+    final CellSpec cellSpec = createCellSpec(Node.class);
+    final KijiCellEncoder encoder = DefaultKijiCellEncoderFactory.get().create(cellSpec);
+    final byte[] bytes = encoder.encode(createNode("foo"));
+    final byte[] padded = new byte[bytes.length + 4];
+    Arrays.fill(padded, (byte) 0xff);
+    System.arraycopy(bytes, 0, padded, 2, bytes.length);
+
+    final SpecificCellDecoder<Node> decoder = new SpecificCellDecoder<Node>(cellSpec);
+    final Node decoded = decoder.decodeCell(padded, 2, bytes.length).getData();
+    Assert.assertEquals(createNode("foo"), decoded);
+  }
+
+  /** Tests that the decoded value cache shares immutable values. */
+  @Test
+  public void testValueCacheSharesEnums() throws IOException {
+    final CellSpec cellSpec = createCellSpec(SchemaStorage.class);
+    final KijiCellEncoder encoder = DefaultKijiCellEncoderFactory.get().create(cellSpec);
+    final byte[] uidBytes = encoder.encode(SchemaStorage.UID);
+    final byte[] hashBytes = encoder.encode(SchemaStorage.HASH);
+
+    final SpecificCellDecoder<SchemaStorage> decoder = createCachingDecoder(cellSpec);
+    final ByteBuffer payload = decoder.getPayload(uidBytes);
+    Assert.assertTrue(payload.remaining() <= AvroCellDecoder.MAX_CACHED_VALUE_SIZE);
+    Assert.assertEquals(SchemaStorage.UID, decoder.decodeValue(uidBytes));
+    Assert.assertEquals(SchemaStorage.HASH, decoder.decodeValue(hashBytes));
+    Assert.assertEquals(SchemaStorage.UID, decoder.decodeValue(uidBytes));
+  }
+
+  /** Tests that the decoded value cache never shares mutable values, such as records. */
+  @Test
+  public void testValueCacheDoesNotShareRecords() throws IOException {
+    final CellSpec cellSpec = createCellSpec(Node.class);
+    final KijiCellEncoder encoder = DefaultKijiCellEncoderFactory.get().create(cellSpec);
+    final byte[] fooBytes = encoder.encode(createNode("foo"));
+    final SpecificCellDecoder<Node> decoder = createCachingDecoder(cellSpec);
+    Assert.assertTrue(
+        decoder.getPayload(fooBytes).remaining() <= AvroCellDecoder.MAX_CACHED_VALUE_SIZE);
+
+    // Mutating a decoded record does not affect the records decoded later:
+    final Node foo = decoder.decodeValue(fooBytes);
+    foo.setLabel("mutated");
+    final Node decoded = decoder.decodeValue(fooBytes);
+    Assert.assertNotSame(foo, decoded);
+    Assert.assertEquals("foo", decoded.getLabel().toString());
+  }
+}
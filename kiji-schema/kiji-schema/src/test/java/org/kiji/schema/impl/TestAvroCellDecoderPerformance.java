@@ -0,0 +1,193 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kiji.schema.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.schema.KijiCellDecoder;
+import org.kiji.schema.KijiCellEncoder;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.avro.CellSchema;
+import org.kiji.schema.avro.Edge;
+import org.kiji.schema.avro.Node;
+import org.kiji.schema.avro.SchemaStorage;
+import org.kiji.schema.avro.SchemaType;
+import org.kiji.schema.layout.CellSpec;
+
+/**
+ * Measures the throughput of Avro cell decoding, with and without the decoded value cache.
+ *
+ * <p>
+ *   The baseline builds a new resolving DatumReader and a new binary decoder for every cell, as
+ *   all decodes did before DatumReaders were cached per writer schema.
+ * </p>
+ */
+public class TestAvroCellDecoderPerformance extends KijiClientTest {
+  private static final Logger LOG = LoggerFactory.getLogger(TestAvroCellDecoderPerformance.class);
+
+  private static final int NUM_DISTINCT_CELLS = 100;
+  private static final int NUM_DECODES = 1000000;
+
+  /**
+   * Creates a cell specification for a column of the given specific Avro class.
+   *
+   * @param klass Specific Avro class of the column values.
+   * @return a cell specification for a column of the given class.
+   * @throws IOException on I/O error.
+   */
+  private CellSpec createCellSpec(final Class<?> klass) throws IOException {
+    return CellSpec.create()
+        .setCellSchema(CellSchema.newBuilder()
+            .setType(SchemaType.CLASS)
+            .setValue(klass.getName())
+            .setStorage(SchemaStorage.UID)
+            .build())
+        .setSchemaTable(getKiji().getSchemaTable());
+  }
+
+  /**
+   * Encodes a few distinct cells, mimicking a column with a realistic set of values.
+   *
+   * @param cellSpec Specification of the column.
+   * @param values Values to encode.
+   * @return the encoded cells.
+   * @throws IOException on I/O error.
+   */
+  private static List<byte[]> encodeCells(final CellSpec cellSpec, final List<?> values)
+      throws IOException {
+    final KijiCellEncoder encoder = DefaultKijiCellEncoderFactory.get().create(cellSpec);
+    final List<byte[]> cells = Lists.newArrayList();
+    for (Object value : values) {
+      cells.add(encoder.encode(value));
+    }
+    return cells;
+  }
+
+  /**
+   * Decodes the given cells repeatedly.
+   *
+   * @param decoder Decoder to decode the cells with.
+   * @param cells Encoded cells to decode.
+   * @return the measured throughput, in decoded cells per second.
+   * @throws IOException on I/O error.
+   */
+  private static double decodeThroughput(
+      final KijiCellDecoder<Object> decoder,
+      final List<byte[]> cells
+  ) throws IOException {
+    final long startTime = System.nanoTime();
+    for (int i = 0; i < NUM_DECODES; ++i) {
+      final byte[] bytes = cells.get(i % cells.size());
+      decoder.decodeCell(bytes, 0, bytes.length);
+    }
+    final long elapsed = System.nanoTime() - startTime;
+    return (double) NUM_DECODES * 1000000000L / elapsed;
+  }
+
+  /**
+   * Decodes the given cells repeatedly, with a new DatumReader and decoder for every cell.
+   *
+   * @param cellSpec Specification of the column.
+   * @param cells Encoded cells to decode.
+   * @return the measured throughput, in decoded cells per second.
+   * @throws IOException on I/O error.
+   */
+  private static double baselineThroughput(final CellSpec cellSpec, final List<byte[]> cells)
+      throws IOException {
+    final AvroCellDecoder<Object> decoder = new SpecificCellDecoder<Object>(cellSpec);
+    final long startTime = System.nanoTime();
+    for (int i = 0; i < NUM_DECODES; ++i) {
+      final ByteBuffer payload = decoder.getPayload(cells.get(i % cells.size()));
+      new SpecificDatumReader<Object>(cellSpec.getAvroSchema(), cellSpec.getAvroSchema()).read(
+          null,
+          DecoderFactory.get().binaryDecoder(
+              payload.array(), payload.position(), payload.remaining(), null));
+    }
+    final long elapsed = System.nanoTime() - startTime;
+    return (double) NUM_DECODES * 1000000000L / elapsed;
+  }
+
+  /**
+   * Logs the decoding throughput of the given column, in all decoder configurations.
+   *
+   * @param name Name of the column, for logging.
+   * @param cellSpec Specification of the column.
+   * @param cells Encoded cells to decode.
+   * @throws IOException on I/O error.
+   */
+  private static void logThroughputs(
+      final String name,
+      final CellSpec cellSpec,
+      final List<byte[]> cells
+  ) throws IOException {
+    final Map<String, Double> throughputs = Maps.newLinkedHashMap();
+    final KijiCellDecoder<Object> decoder = new SpecificCellDecoder<Object>(cellSpec);
+    System.setProperty(AvroCellDecoder.VALUE_CACHE_SIZE, Integer.toString(NUM_DISTINCT_CELLS));
+    final KijiCellDecoder<Object> cachingDecoder;
+    try {
+      cachingDecoder = new SpecificCellDecoder<Object>(cellSpec);
+    } finally {
+      System.clearProperty(AvroCellDecoder.VALUE_CACHE_SIZE);
+    }
+
+    // Warm up the JIT:
+    baselineThroughput(cellSpec, cells);
+    decodeThroughput(decoder, cells);
+    decodeThroughput(cachingDecoder, cells);
+
+    throughputs.put("baseline", baselineThroughput(cellSpec, cells));
+    throughputs.put("cached readers", decodeThroughput(decoder, cells));
+    throughputs.put("cached values", decodeThroughput(cachingDecoder, cells));
+    LOG.info("{} cells (decodes/s): {}", name, throughputs);
+  }
+
+  // Disabled by default.
+  //@Test
+  public void performanceTest() throws Exception {
+    final List<Node> nodes = Lists.newArrayList();
+    for (int i = 0; i < NUM_DISTINCT_CELLS; ++i) {
+      final Map<String, String> annotations = Maps.newHashMap();
+      annotations.put("index", Integer.toString(i));
+      nodes.add(Node.newBuilder()
+          .setLabel("node-" + i)
+          .setWeight(i)
+          .setAnnotations(annotations)
+          .setEdges(Lists.<Edge>newArrayList())
+          .build());
+    }
+    final CellSpec nodeSpec = createCellSpec(Node.class);
+    logThroughputs("Node record", nodeSpec, encodeCells(nodeSpec, nodes));
+
+    final CellSpec enumSpec = createCellSpec(SchemaStorage.class);
+    logThroughputs(
+        "SchemaStorage enum",
+        enumSpec,
+        encodeCells(enumSpec, Lists.newArrayList(SchemaStorage.values())));
+  }
+}
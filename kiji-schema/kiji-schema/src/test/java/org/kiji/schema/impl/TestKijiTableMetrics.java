@@ -0,0 +1,161 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl;
+
+import java.io.IOException;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.KijiBufferedWriter;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
+import org.kiji.schema.KijiRowData;
+import org.kiji.schema.KijiRowScanner;
+import org.kiji.schema.KijiTableReader;
+import org.kiji.schema.KijiTableWriter;
+import org.kiji.schema.impl.hbase.HBaseKijiTable;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+public class TestKijiTableMetrics extends KijiClientTest {
+  private HBaseKijiTable mTable;
+  private KijiTableMetrics mMetrics;
+
+  @Before
+  public final void setupTestKijiTableMetrics() throws IOException {
+    Assume.assumeTrue(KijiTableMetrics.isEnabled());
+    getKiji().createTable(KijiTableLayouts.getLayout(KijiTableLayouts.USER_TABLE));
+    mTable = HBaseKijiTable.downcast(getKiji().openTable("user"));
+    mMetrics = mTable.getTableMetrics();
+  }
+
+  @After
+  public final void teardownTestKijiTableMetrics() throws IOException {
+    if (mTable != null) {
+      mTable.release();
+    }
+  }
+
+  /**
+   * Reports the number of operations recorded by a timer.
+   *
+   * @param name Name of the timer.
+   * @return the number of operations recorded by the timer.
+   */
+  private long getCount(final String name) {
+    return ((Timer) mMetrics.getMetrics().get(name)).getCount();
+  }
+
+  @Test
+  public void testWritesAreRecorded() throws IOException {
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      writer.put(mTable.getEntityId("foo"), "info", "name", "foo-name");
+      writer.put(mTable.getEntityId("foo"), "info", "email", "foo@example.com");
+    } finally {
+      writer.close();
+    }
+    Assert.assertEquals(2, getCount("put"));
+    Assert.assertEquals(2, getCount("family.info.put"));
+
+    final KijiBufferedWriter bufferedWriter = mTable.getWriterFactory().openBufferedWriter();
+    try {
+      bufferedWriter.put(mTable.getEntityId("bar"), "info", "name", "bar-name");
+      bufferedWriter.flush();
+    } finally {
+      bufferedWriter.close();
+    }
+    Assert.assertEquals(3, getCount("put"));
+    // Closing the buffered writer flushes it again:
+    Assert.assertEquals(2, getCount("flush"));
+  }
+
+  @Test
+  public void testReadsAreRecorded() throws IOException {
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      writer.put(mTable.getEntityId("foo"), "info", "name", "foo-name");
+      writer.put(mTable.getEntityId("bar"), "info", "name", "bar-name");
+    } finally {
+      writer.close();
+    }
+
+    final KijiDataRequest request = KijiDataRequest.builder()
+        .addColumns(ColumnsDef.create().add("info", "name").add("info", "email"))
+        .build();
+    final KijiTableReader reader = mTable.openTableReader();
+    try {
+      reader.get(mTable.getEntityId("foo"), request);
+      reader.bulkGet(
+          Lists.newArrayList(mTable.getEntityId("foo"), mTable.getEntityId("bar")), request);
+      final KijiRowScanner scanner = reader.getScanner(request);
+      try {
+        int rows = 0;
+        for (KijiRowData row : scanner) {
+          rows += 1;
+        }
+        Assert.assertEquals(2, rows);
+      } finally {
+        scanner.close();
+      }
+    } finally {
+      reader.close();
+    }
+
+    Assert.assertEquals(1, getCount("get"));
+    Assert.assertEquals(1, getCount("bulk_get"));
+    Assert.assertEquals(2, getCount("scan.next"));
+    // Requests of two columns of the same family are recorded once for the family:
+    Assert.assertEquals(1, getCount("family.info.get"));
+    Assert.assertEquals(2, getCount("family.info.scan.next"));
+  }
+
+  @Test
+  public void testTimersAreCreatedOnFirstUse() throws IOException {
+    Assert.assertTrue(mMetrics.getMetrics().isEmpty());
+
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      writer.put(mTable.getEntityId("foo"), "info", "name", "foo-name");
+    } finally {
+      writer.close();
+    }
+    Assert.assertEquals(
+        ImmutableSet.of("put", "family.info.put"), mMetrics.getMetrics().keySet());
+  }
+
+  @Test
+  public void testMetricsAreSharedByTableHandles() throws IOException {
+    final HBaseKijiTable table = HBaseKijiTable.downcast(getKiji().openTable("user"));
+    try {
+      Assert.assertSame(mMetrics, table.getTableMetrics());
+      Assert.assertSame(mTable.getMetrics(), table.getMetrics());
+    } finally {
+      table.release();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.Kiji;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiResult;
+import org.kiji.schema.KijiResultScanner;
+import org.kiji.schema.KijiTable;
+import org.kiji.schema.KijiTableReader;
+import org.kiji.schema.KijiTableWriter;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+public class TestParallelKijiResultScanner extends KijiClientTest {
+  private static final int NUM_ROWS = 100;
+
+  private static final KijiDataRequest REQUEST = KijiDataRequest.create("family", "column");
+
+  private KijiTable mTable;
+  private KijiTableReader mReader;
+
+  @Before
+  public final void setupTestParallelKijiResultScanner() throws Exception {
+    final Kiji kiji = getKiji();
+    kiji.createTable(
+        KijiTableLayouts.getLayout(KijiTableLayouts.SIMPLE),
+        new byte[][] {
+            new byte[] {0x40},
+            new byte[] {(byte) 0x80},
+            new byte[] {(byte) 0xc0},
+        });
+    mTable = kiji.openTable("table");
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      for (int row = 0; row < NUM_ROWS; ++row) {
+        writer.put(mTable.getEntityId("row-" + row), "family", "column", "value-" + row);
+      }
+    } finally {
+      writer.close();
+    }
+    mReader = mTable.openTableReader();
+  }
+
+  @After
+  public final void teardownTestParallelKijiResultScanner() throws IOException {
+    mReader.close();
+    mTable.release();
+  }
+
+  /**
+   * Lists the HBase row keys of the rows returned by a scanner, and closes the scanner.
+   *
+   * @param scanner Scanner to list the rows of.
+   * @return the HBase row keys of the rows returned by the scanner, as strings.
+   * @throws IOException on I/O error.
+   */
+  private static List<String> listRows(final KijiResultScanner<Object> scanner)
+      throws IOException {
+    final List<String> rows = Lists.newArrayList();
+    try {
+      while (scanner.hasNext()) {
+        final KijiResult<Object> result = scanner.next();
+        try {
+          rows.add(Bytes.toStringBinary(result.getEntityId().getHBaseRowKey()));
+        } finally {
+          result.close();
+        }
+      }
+    } finally {
+      scanner.close();
+    }
+    return rows;
+  }
+
+  @Test
+  public void testOrderedScan() throws IOException {
+    final List<String> expected = listRows(mReader.<Object>getKijiResultScanner(REQUEST));
+    Assert.assertEquals(NUM_ROWS, expected.size());
+    Assert.assertEquals(expected,
+        listRows(mReader.<Object>getParallelKijiResultScanner(REQUEST, 2, true)));
+  }
+
+  @Test
+  public void testUnorderedScan() throws IOException {
+    final Set<String> expected =
+        Sets.newHashSet(listRows(mReader.<Object>getKijiResultScanner(REQUEST)));
+    final List<String> actual =
+        listRows(mReader.<Object>getParallelKijiResultScanner(REQUEST, 4, false));
+    Assert.assertEquals(NUM_ROWS, actual.size());
+    Assert.assertEquals(expected, Sets.newHashSet(actual));
+  }
+
+  @Test
+  public void testCloseBeforeEnd() throws IOException {
+    final KijiResultScanner<Object> scanner =
+        mReader.getParallelKijiResultScanner(REQUEST, 1, true);
+    try {
+      Assert.assertTrue(scanner.hasNext());
+      scanner.next().close();
+    } finally {
+      // Partition scans are still running or queued, and must be stopped:
+      scanner.close();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.AsyncKijiTableReader;
+import org.kiji.schema.EntityId;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiDataRequestException;
+import org.kiji.schema.KijiResult;
+import org.kiji.schema.KijiRowData;
+import org.kiji.schema.KijiTable;
+import org.kiji.schema.KijiTableWriter;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+public class TestHBaseAsyncKijiTableReader extends KijiClientTest {
+  private static final int NUM_ROWS = 50;
+
+  private static final KijiDataRequest REQUEST = KijiDataRequest.create("family", "column");
+
+  private KijiTable mTable;
+  private AsyncKijiTableReader mReader;
+
+  @Before
+  public final void setupTestHBaseAsyncKijiTableReader() throws Exception {
+    getKiji().createTable(KijiTableLayouts.getLayout(KijiTableLayouts.SIMPLE));
+    mTable = getKiji().openTable("table");
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      for (int row = 0; row < NUM_ROWS; ++row) {
+        writer.put(mTable.getEntityId("row-" + row), "family", "column", "value-" + row);
+      }
+    } finally {
+      writer.close();
+    }
+    mReader = mTable.getReaderFactory().openAsyncTableReader(2);
+  }
+
+  @After
+  public final void teardownTestHBaseAsyncKijiTableReader() throws IOException {
+    if (mReader != null) {
+      mReader.close();
+    }
+    mTable.release();
+  }
+
+  @Test
+  public void testGet() throws Exception {
+    final KijiRowData row = mReader.get(mTable.getEntityId("row-1"), REQUEST).get();
+    Assert.assertEquals("value-1", row.getMostRecentValue("family", "column").toString());
+
+    final KijiResult<CharSequence> result =
+        mReader.<CharSequence>getResult(mTable.getEntityId("row-2"), REQUEST).get();
+    try {
+      Assert.assertEquals("value-2", result.iterator().next().getData().toString());
+    } finally {
+      result.close();
+    }
+  }
+
+  @Test
+  public void testConcurrentReadsAreQueued() throws Exception {
+    // Many more reads than the maximum number of reads in flight:
+    final List<ListenableFuture<KijiRowData>> futures = Lists.newArrayList();
+    for (int row = 0; row < NUM_ROWS; ++row) {
+      futures.add(mReader.get(mTable.getEntityId("row-" + row), REQUEST));
+    }
+    for (int row = 0; row < NUM_ROWS; ++row) {
+      Assert.assertEquals("value-" + row,
+          futures.get(row).get().getMostRecentValue("family", "column").toString());
+    }
+  }
+
+  @Test
+  public void testBulkGet() throws Exception {
+    final List<EntityId> entityIds = Lists.newArrayList();
+    for (int row = NUM_ROWS - 1; row >= 0; --row) {
+      entityIds.add(mTable.getEntityId("row-" + row));
+    }
+
+    final List<KijiRowData> rows = mReader.bulkGet(entityIds, REQUEST).get();
+    Assert.assertEquals(NUM_ROWS, rows.size());
+    for (int i = 0; i < NUM_ROWS; ++i) {
+      Assert.assertEquals(entityIds.get(i), rows.get(i).getEntityId());
+    }
+
+    final List<KijiResult<CharSequence>> results =
+        mReader.<CharSequence>bulkGetResults(entityIds, REQUEST).get();
+    Assert.assertEquals(NUM_ROWS, results.size());
+    for (int i = 0; i < NUM_ROWS; ++i) {
+      final KijiResult<CharSequence> result = results.get(i);
+      try {
+        Assert.assertEquals(entityIds.get(i), result.getEntityId());
+      } finally {
+        result.close();
+      }
+    }
+  }
+
+  @Test
+  public void testFailedRead() throws Exception {
+    final ListenableFuture<KijiRowData> future = mReader.get(
+        mTable.getEntityId("row-1"), KijiDataRequest.create("family", "unknown"));
+    try {
+      future.get();
+      Assert.fail("Reading an unknown column should fail.");
+    } catch (ExecutionException ee) {
+      Assert.assertTrue(ee.getCause() instanceof KijiDataRequestException);
+    }
+  }
+
+  @Test
+  public void testReadAfterClose() throws Exception {
+    mReader.close();
+    try {
+      mReader.get(mTable.getEntityId("row-1"), REQUEST);
+      Assert.fail("Reading from a closed reader should fail.");
+    } catch (IllegalStateException ise) {
+      // Expected.
+    } finally {
+      mReader = null;
+    }
+  }
+}
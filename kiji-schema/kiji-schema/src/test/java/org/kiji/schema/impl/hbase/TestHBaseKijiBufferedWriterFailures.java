@@ -0,0 +1,190 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.hbase.HBaseFactory;
+import org.kiji.schema.hbase.KijiManagedHBaseTableName;
+import org.kiji.schema.impl.HTableInterfaceFactory;
+import org.kiji.schema.layout.KijiTableLayouts;
+import org.kiji.schema.util.InstanceBuilder;
+
+/** Tests how HBaseKijiBufferedWriter reports the failure to write buffers in the background. */
+public class TestHBaseKijiBufferedWriterFailures extends KijiClientTest {
+  /** When true, batches written to the HBase tables fail. */
+  private volatile boolean mFailBatches = false;
+
+  /** Number of HTableInterface opened on the HBase table backing the Kiji table, and not closed. */
+  private final AtomicInteger mOpenHTables = new AtomicInteger(0);
+
+  /** Number of HTableInterface opened on the HBase table before the writer was opened. */
+  private int mOpenHTablesBeforeWriter;
+
+  private HBaseKiji mKiji;
+  private HBaseKijiTable mTable;
+  private HBaseKijiBufferedWriter mWriter;
+
+  /**
+   * Wraps an HTableInterface factory such that batches fail on demand, and such that the
+   * HTableInterfaces opened on the HBase table backing the Kiji table "user" are counted.
+   *
+   * @param factory HTableInterface factory to wrap.
+   * @param userTableName Name of the HBase table backing the Kiji table "user".
+   * @return the wrapped HTableInterface factory.
+   */
+  private HTableInterfaceFactory failingHTableFactory(
+      final HTableInterfaceFactory factory,
+      final String userTableName
+  ) {
+    return new HTableInterfaceFactory() {
+      /** {@inheritDoc} */
+      @Override
+      public HTableInterface create(Configuration conf, String hbaseTableName)
+          throws IOException {
+        final HTableInterface htable = factory.create(conf, hbaseTableName);
+        final boolean isUserTable = hbaseTableName.equals(userTableName);
+        if (isUserTable) {
+          mOpenHTables.incrementAndGet();
+        }
+        final InvocationHandler handler = new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (mFailBatches && method.getName().equals("batch")) {
+              throw new IOException("Simulated batch failure.");
+            }
+            if (isUserTable && method.getName().equals("close")) {
+              mOpenHTables.decrementAndGet();
+            }
+            try {
+              return method.invoke(htable, args);
+            } catch (InvocationTargetException ite) {
+              throw ite.getCause();
+            }
+          }
+        };
+        return (HTableInterface) Proxy.newProxyInstance(
+            HTableInterface.class.getClassLoader(),
+            new Class<?>[] {HTableInterface.class},
+            handler);
+      }
+    };
+  }
+
+  @Before
+  public final void setupEnvironment() throws Exception {
+    new InstanceBuilder(getKiji())
+        .withTable(KijiTableLayouts.getLayout(KijiTableLayouts.COUNTER_TEST))
+        .build();
+
+    final String userTableName = KijiManagedHBaseTableName
+        .getKijiTableName(getKiji().getURI().getInstance(), "user").toString();
+    mKiji = new HBaseKiji(
+        getKiji().getURI(),
+        getConf(),
+        failingHTableFactory(
+            HBaseFactory.Provider.get().getHTableInterfaceFactory(getKiji().getURI()),
+            userTableName));
+    mTable = mKiji.openTable("user");
+    mOpenHTablesBeforeWriter = mOpenHTables.get();
+    mWriter = (HBaseKijiBufferedWriter) mTable.getWriterFactory().openBufferedWriter();
+
+    // Hand every write off to the background flusher.
+    mWriter.setMaxInFlightBuffers(1);
+    mWriter.setBufferSize(1L);
+  }
+
+  @After
+  public final void cleanupEnvironment() throws IOException {
+    mTable.release();
+    mKiji.release();
+  }
+
+  @Test
+  public void testFailedFlushReportedOnPut() throws Exception {
+    mFailBatches = true;
+    try {
+      // The failure to write the first buffer is reported by the second or the third write,
+      // as the third write waits for the first buffer to be written:
+      for (int i = 0; i < 3; ++i) {
+        mWriter.put(mTable.getEntityId("row-" + i), "info", "name", 1L, "name-" + i);
+      }
+      fail("Should throw an IOException.");
+    } catch (IOException ioe) {
+      assertEquals("Simulated batch failure.", ioe.getCause().getMessage());
+    }
+    mFailBatches = false;
+    mWriter.close();
+  }
+
+  @Test
+  public void testFailedFlushReportedOnFlush() throws Exception {
+    mFailBatches = true;
+    mWriter.put(mTable.getEntityId("row"), "info", "name", 1L, "name");
+    try {
+      mWriter.flush();
+      fail("Should throw an IOException.");
+    } catch (IOException ioe) {
+      assertEquals("Simulated batch failure.", ioe.getCause().getMessage());
+    }
+
+    // Each failure is reported once:
+    mFailBatches = false;
+    mWriter.flush();
+    mWriter.close();
+  }
+
+  @Test
+  public void testFailedFlushReportedOnClose() throws Exception {
+    mFailBatches = true;
+    mWriter.put(mTable.getEntityId("row"), "info", "name", 1L, "name");
+    try {
+      mWriter.close();
+      fail("Should throw an IOException.");
+    } catch (IOException ioe) {
+      assertEquals("Simulated batch failure.", ioe.getCause().getMessage());
+    }
+
+    // The writer is closed, and released its HTableInterfaces regardless:
+    assertEquals(mOpenHTablesBeforeWriter, mOpenHTables.get());
+    try {
+      mWriter.close();
+      fail("Should throw an IllegalStateException.");
+    } catch (IllegalStateException ise) {
+      assertTrue(ise.getMessage().endsWith("in state CLOSED."));
+    }
+  }
+}
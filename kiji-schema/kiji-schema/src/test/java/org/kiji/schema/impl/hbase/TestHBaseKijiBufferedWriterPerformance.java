@@ -0,0 +1,121 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kiji.schema.impl.hbase;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.schema.Kiji;
+import org.kiji.schema.KijiBufferedWriter;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiTable;
+import org.kiji.schema.layout.KijiTableLayout;
+import org.kiji.schema.layout.KijiTableLayouts;
+import org.kiji.schema.util.InstanceBuilder;
+
+/** Measures the throughput of concurrent puts through a shared buffered writer. */
+public class TestHBaseKijiBufferedWriterPerformance extends KijiClientTest {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(TestHBaseKijiBufferedWriterPerformance.class);
+
+  private static final int PUTS_PER_THREAD = 100000;
+
+  /**
+   * Puts cells concurrently from many threads into a single buffered writer.
+   *
+   * @param table Table to write to.
+   * @param numThreads Number of concurrent writer threads.
+   * @param maxInFlightBuffers Maximum number of buffers written in the background.
+   * @return the measured throughput, in puts per second.
+   * @throws Exception on error.
+   */
+  private double putThroughput(
+      final KijiTable table,
+      final int numThreads,
+      final int maxInFlightBuffers
+  ) throws Exception {
+    final KijiBufferedWriter writer = table.getWriterFactory().openBufferedWriter();
+    try {
+      ((HBaseKijiBufferedWriter) writer).setMaxInFlightBuffers(maxInFlightBuffers);
+      final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+      try {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Void>> futures = Lists.newArrayList();
+        for (int i = 0; i < numThreads; ++i) {
+          final String rowPrefix = String.format("thread-%d-row-", i);
+          futures.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+              start.await();
+              for (int j = 0; j < PUTS_PER_THREAD; ++j) {
+                writer.put(table.getEntityId(rowPrefix + j), "info", "name", 1L, "value-" + j);
+              }
+              return null;
+            }
+          }));
+        }
+
+        final long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<Void> future : futures) {
+          future.get();
+        }
+        writer.flush();
+        final long elapsed = System.nanoTime() - startTime;
+        return (double) numThreads * PUTS_PER_THREAD * 1000000000L / elapsed;
+      } finally {
+        executor.shutdown();
+      }
+    } finally {
+      writer.close();
+    }
+  }
+
+  // Disabled by default.
+  //@Test
+  public void performanceTest() throws Exception {
+    final KijiTableLayout layout = KijiTableLayout.newLayout(
+        KijiTableLayouts.getLayout(KijiTableLayouts.COUNTER_TEST));
+    final Kiji kiji = new InstanceBuilder(getKiji()).withTable("user", layout).build();
+
+    final KijiTable table = kiji.openTable("user");
+    try {
+      // Warm up the encoders, the schema table and the JIT:
+      putThroughput(table, 1, 0);
+      putThroughput(table, 1, 2);
+
+      for (int numThreads : new int[] {1, 2, 4, 8, 16, 32}) {
+        LOG.info("{} threads: synchronous flush = {} puts/s, background flush = {} puts/s",
+            numThreads,
+            putThroughput(table, numThreads, 0),
+            putThroughput(table, numThreads, 2));
+      }
+    } finally {
+      table.release();
+    }
+  }
+}
@@ -37,6 +37,7 @@ import org.kiji.schema.KijiDataRequest;
 import org.kiji.schema.KijiDataRequestBuilder.ColumnsDef;
 import org.kiji.schema.KijiResult;
 import org.kiji.schema.KijiTableReader.KijiScannerOptions;
+import org.kiji.schema.hbase.HBaseScanOptions;
 import org.kiji.schema.layout.KijiTableLayouts;
 import org.kiji.schema.util.InstanceBuilder;
 
@@ -107,9 +108,14 @@ public class TestHBaseKijiResultScanner extends KijiClientTest {
     }
   }
 
-  @Test
-  public void test() throws IOException {
-    final HBaseKijiResultScanner<Utf8> scanner = mReader.getKijiResultScanner(REQUEST, OPTIONS);
+  /**
+   * Scans the test table and validates the scanned rows.
+   *
+   * @param options Options to scan the table with.
+   * @throws IOException on I/O error.
+   */
+  private void scanAndValidate(final KijiScannerOptions options) throws IOException {
+    final HBaseKijiResultScanner<Utf8> scanner = mReader.getKijiResultScanner(REQUEST, options);
     final Function<Utf8, String> toString = new ToString<Utf8>();
     try {
       int rowCount = 0;
@@ -149,4 +155,36 @@ public class TestHBaseKijiResultScanner extends KijiClientTest {
       scanner.close();
     }
   }
+
+  @Test
+  public void test() throws IOException {
+    scanAndValidate(OPTIONS);
+  }
+
+  @Test
+  public void testReadAhead() throws IOException {
+    final HBaseScanOptions scanOptions = new HBaseScanOptions();
+    scanOptions.setReadAheadSize(1);
+    scanAndValidate(new KijiScannerOptions().setHBaseScanOptions(scanOptions));
+
+    // Rows are much larger than the targeted RPC size: the caching is reduced to 1 row per RPC
+    // and the scanner reopened after the first RPC.
+    scanOptions.setTargetRpcSize(1L);
+    scanAndValidate(new KijiScannerOptions().setHBaseScanOptions(scanOptions).setRowCaching(3));
+  }
+
+  @Test
+  public void testCloseWhileReadingAhead() throws IOException {
+    final HBaseScanOptions scanOptions = new HBaseScanOptions();
+    scanOptions.setReadAheadSize(1);
+    final HBaseKijiResultScanner<Utf8> scanner = mReader.getKijiResultScanner(
+        REQUEST, new KijiScannerOptions().setHBaseScanOptions(scanOptions));
+    try {
+      Assert.assertTrue(scanner.hasNext());
+      scanner.next().close();
+    } finally {
+      // The background fetch is blocked on the full queue, and must be stopped:
+      scanner.close();
+    }
+  }
 }
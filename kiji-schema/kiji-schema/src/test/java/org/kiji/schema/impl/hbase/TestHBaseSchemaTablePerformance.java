@@ -0,0 +1,167 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.kiji.schema.impl.hbase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.kiji.schema.KijiCellDecoder;
+import org.kiji.schema.KijiCellEncoder;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiSchemaTable;
+import org.kiji.schema.SpecificCellDecoderFactory;
+import org.kiji.schema.avro.CellSchema;
+import org.kiji.schema.avro.Edge;
+import org.kiji.schema.avro.Node;
+import org.kiji.schema.avro.SchemaStorage;
+import org.kiji.schema.avro.SchemaType;
+import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
+import org.kiji.schema.layout.CellSpec;
+
+/**
+ * Measures multi-threaded cell decoding throughput against the HBase schema table.
+ *
+ * <p>
+ *   The baseline wraps the schema table so that every call holds a single monitor, as all lookups
+ *   did before the schema table cache became lock-free.
+ * </p>
+ */
+public class TestHBaseSchemaTablePerformance extends KijiClientTest {
+  private static final Logger LOG = LoggerFactory.getLogger(TestHBaseSchemaTablePerformance.class);
+
+  private static final int NUM_THREADS = 32;
+  private static final int DECODES_PER_THREAD = 200000;
+
+  /**
+   * Wraps a schema table such that all its methods are serialized on a single monitor.
+   *
+   * @param schemaTable Schema table to wrap.
+   * @return a schema table whose methods are all synchronized.
+   */
+  private static KijiSchemaTable synchronizedSchemaTable(final KijiSchemaTable schemaTable) {
+    final InvocationHandler handler = new InvocationHandler() {
+      @Override
+      public synchronized Object invoke(Object proxy, Method method, Object[] args)
+          throws Throwable {
+        try {
+          return method.invoke(schemaTable, args);
+        } catch (InvocationTargetException ite) {
+          throw ite.getCause();
+        }
+      }
+    };
+    return (KijiSchemaTable) Proxy.newProxyInstance(
+        KijiSchemaTable.class.getClassLoader(),
+        new Class<?>[] {KijiSchemaTable.class},
+        handler);
+  }
+
+  /**
+   * Decodes the given cell concurrently from many threads.
+   *
+   * @param schemaTable Schema table to resolve writer schemas with.
+   * @param storage Schema storage of the cell.
+   * @return the measured throughput, in decoded cells per second.
+   * @throws Exception on error.
+   */
+  private double decodeThroughput(
+      final KijiSchemaTable schemaTable,
+      final SchemaStorage storage
+  ) throws Exception {
+    final CellSpec cellSpec = CellSpec.create()
+        .setCellSchema(CellSchema.newBuilder()
+            .setType(SchemaType.CLASS)
+            .setValue(Node.class.getName())
+            .setStorage(storage)
+            .build())
+        .setSchemaTable(schemaTable);
+
+    final Node node = Node.newBuilder()
+        .setWeight(1.0)
+        .setLabel("foo")
+        .setAnnotations(Collections.<String, String>emptyMap())
+        .setEdges(Collections.<Edge>emptyList())
+        .build();
+    final KijiCellEncoder encoder = DefaultKijiCellEncoderFactory.get().create(cellSpec);
+    final byte[] bytes = encoder.encode(node);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<Void>> futures = Lists.newArrayList();
+      for (int i = 0; i < NUM_THREADS; ++i) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            final KijiCellDecoder<Node> decoder =
+                SpecificCellDecoderFactory.get().create(cellSpec);
+            start.await();
+            for (int j = 0; j < DECODES_PER_THREAD; ++j) {
+              Assert.assertEquals(1.0, decoder.decodeValue(bytes).getWeight(), 0.0);
+            }
+            return null;
+          }
+        }));
+      }
+
+      final long startTime = System.nanoTime();
+      start.countDown();
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+      final long elapsed = System.nanoTime() - startTime;
+      return (double) NUM_THREADS * DECODES_PER_THREAD * 1000000000L / elapsed;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  // Disabled by default.
+  //@Test
+  public void performanceTest() throws Exception {
+    final KijiSchemaTable schemaTable = getKiji().getSchemaTable();
+    final KijiSchemaTable synchronizedTable = synchronizedSchemaTable(schemaTable);
+
+    for (SchemaStorage storage : new SchemaStorage[] {SchemaStorage.UID, SchemaStorage.HASH}) {
+      // Warm up the schema table cache and the JIT:
+      decodeThroughput(schemaTable, storage);
+      decodeThroughput(synchronizedTable, storage);
+
+      LOG.info("{} threads, schema storage {}: synchronized = {} cells/s, lock-free = {} cells/s",
+          NUM_THREADS,
+          storage,
+          decodeThroughput(synchronizedTable, storage),
+          decodeThroughput(schemaTable, storage));
+    }
+  }
+}
@@ -0,0 +1,236 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Test;
+
+public class TestHBaseWriteBuffer {
+  private static final byte[] ROW_1 = Bytes.toBytes("row1");
+  private static final byte[] ROW_2 = Bytes.toBytes("row2");
+  private static final byte[] FAMILY = Bytes.toBytes("family");
+  private static final byte[] QUALIFIER = Bytes.toBytes("qualifier");
+  private static final byte[] VALUE = Bytes.toBytes("value");
+
+  @Test
+  public void testCombinesConsecutivePuts() {
+    final HBaseWriteBuffer buffer = new HBaseWriteBuffer();
+    assertTrue(buffer.isEmpty());
+
+    buffer.put(ROW_1, FAMILY, QUALIFIER, 1L, VALUE);
+    final long singleCellSize = buffer.getWireSize();
+    buffer.put(ROW_1, FAMILY, QUALIFIER, 2L, VALUE);
+    buffer.put(ROW_2, FAMILY, QUALIFIER, 1L, VALUE);
+    assertEquals(2, buffer.getNumMutations());
+
+    // A delete breaks the run of puts to a row:
+    buffer.delete(new Delete(ROW_1));
+    buffer.put(ROW_1, FAMILY, QUALIFIER, 3L, VALUE);
+    assertEquals(4, buffer.getNumMutations());
+
+    // The wire size of a cell accounts for its key and value bytes:
+    assertTrue(singleCellSize
+        > ROW_1.length + FAMILY.length + QUALIFIER.length + VALUE.length);
+    assertTrue(buffer.getWireSize() > 3 * singleCellSize);
+  }
+
+  /**
+   * Makes the next batch written to a mock HTableInterface succeed or fail, and records it.
+   *
+   * @param htable Mock HTableInterface to expect the batch on.
+   * @param batches Records the mutations of each batch written.
+   * @param results Results to report for the batch, or null if the batch succeeds.
+   * @throws Exception on error.
+   */
+  private static void expectBatch(
+      final HTableInterface htable,
+      final List<List<Row>> batches,
+      final Object[] results
+  ) throws Exception {
+    htable.batch(EasyMock.<List<Row>>anyObject(), isA(Object[].class));
+    expectLastCall().andAnswer(new IAnswer<Object>() {
+      /** {@inheritDoc} */
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object answer() throws Throwable {
+        final List<Row> batch = (List<Row>) EasyMock.getCurrentArguments()[0];
+        final Object[] batchResults = (Object[]) EasyMock.getCurrentArguments()[1];
+        batches.add(Lists.newArrayList(batch));
+        if (results == null) {
+          for (int i = 0; i < batchResults.length; ++i) {
+            batchResults[i] = new Result();
+          }
+          return null;
+        }
+        System.arraycopy(results, 0, batchResults, 0, results.length);
+        throw new IOException("Batch failed.");
+      }
+    });
+  }
+
+  /**
+   * Buffers two rows: the first one with a put, a delete and another put, the second one with a
+   * single put. The buffer thus writes three rounds.
+   *
+   * @return a buffer with four mutations on two rows.
+   */
+  private static HBaseWriteBuffer createBuffer() {
+    final HBaseWriteBuffer buffer = new HBaseWriteBuffer();
+    buffer.put(ROW_1, FAMILY, QUALIFIER, 1L, VALUE);
+    buffer.delete(new Delete(ROW_1));
+    buffer.put(ROW_1, FAMILY, QUALIFIER, 2L, VALUE);
+    buffer.put(ROW_2, FAMILY, QUALIFIER, 1L, VALUE);
+    return buffer;
+  }
+
+  /**
+   * Asserts that a batch contains a put of the given row and timestamp.
+   *
+   * @param row Expected row of the put.
+   * @param timestamp Expected timestamp of the cell put.
+   * @param mutation Mutation to check.
+   */
+  private static void assertPut(final byte[] row, final long timestamp, final Row mutation) {
+    assertTrue(mutation instanceof Put);
+    assertEquals(Bytes.toString(row), Bytes.toString(mutation.getRow()));
+    assertEquals(timestamp, ((Put) mutation).get(FAMILY, QUALIFIER).get(0).getTimestamp());
+  }
+
+  @Test
+  public void testWriteRounds() throws Exception {
+    final HBaseWriteBuffer buffer = createBuffer();
+    final List<List<Row>> batches = Lists.newArrayList();
+    final HTableInterface htable = createMock(HTableInterface.class);
+    expectBatch(htable, batches, null);
+    expectBatch(htable, batches, null);
+    expectBatch(htable, batches, null);
+    replay(htable);
+
+    buffer.write(htable);
+    verify(htable);
+    assertTrue(buffer.isEmpty());
+    assertEquals(0, buffer.getNumMutations());
+    assertEquals(0L, buffer.getWireSize());
+
+    // The n-th batch holds the n-th mutation of each row:
+    assertEquals(2, batches.get(0).size());
+    assertPut(ROW_1, 1L, batches.get(0).get(0));
+    assertPut(ROW_2, 1L, batches.get(0).get(1));
+    assertEquals(1, batches.get(1).size());
+    assertTrue(batches.get(1).get(0) instanceof Delete);
+    assertEquals(1, batches.get(2).size());
+    assertPut(ROW_1, 2L, batches.get(2).get(0));
+  }
+
+  @Test
+  public void testFailedRoundIsNotWrittenTwice() throws Exception {
+    final HBaseWriteBuffer buffer = createBuffer();
+    final HBaseWriteBuffer remaining = new HBaseWriteBuffer();
+    remaining.delete(new Delete(ROW_1));
+    remaining.put(ROW_1, FAMILY, QUALIFIER, 2L, VALUE);
+
+    // The second round fails:
+    final List<List<Row>> batches = Lists.newArrayList();
+    final HTableInterface failing = createMock(HTableInterface.class);
+    expectBatch(failing, batches, null);
+    expectBatch(failing, batches, new Object[]{new IOException("Delete failed.")});
+    replay(failing);
+    try {
+      buffer.write(failing);
+      fail("HBaseWriteBuffer.write() should have failed.");
+    } catch (IOException ioe) {
+      assertEquals("Batch failed.", ioe.getMessage());
+    }
+    verify(failing);
+
+    // Only the mutations of the failed round and of the later rounds remain:
+    assertEquals(remaining.getNumMutations(), buffer.getNumMutations());
+    assertEquals(remaining.getWireSize(), buffer.getWireSize());
+
+    // Retrying writes each remaining mutation once:
+    batches.clear();
+    final HTableInterface htable = createMock(HTableInterface.class);
+    expectBatch(htable, batches, null);
+    expectBatch(htable, batches, null);
+    replay(htable);
+    buffer.write(htable);
+    verify(htable);
+    assertTrue(buffer.isEmpty());
+    assertEquals(0L, buffer.getWireSize());
+    assertEquals(2, batches.size());
+    assertEquals(1, batches.get(0).size());
+    assertTrue(batches.get(0).get(0) instanceof Delete);
+    assertEquals(1, batches.get(1).size());
+    assertPut(ROW_1, 2L, batches.get(1).get(0));
+  }
+
+  @Test
+  public void testPartiallyWrittenRoundKeepsFailedMutations() throws Exception {
+    final HBaseWriteBuffer buffer = new HBaseWriteBuffer();
+    buffer.put(ROW_1, FAMILY, QUALIFIER, 1L, VALUE);
+    buffer.put(ROW_2, FAMILY, QUALIFIER, 1L, VALUE);
+    final long rowWireSize = buffer.getWireSize() / 2;
+
+    // HBase reports the put to the first row as failed, and the put to the second as written:
+    final List<List<Row>> batches = Lists.newArrayList();
+    final HTableInterface failing = createMock(HTableInterface.class);
+    expectBatch(failing, batches, new Object[]{new IOException("Put failed."), new Result()});
+    replay(failing);
+    try {
+      buffer.write(failing);
+      fail("HBaseWriteBuffer.write() should have failed.");
+    } catch (IOException ioe) {
+      assertEquals("Batch failed.", ioe.getMessage());
+    }
+    verify(failing);
+    assertEquals(1, buffer.getNumMutations());
+    assertEquals(rowWireSize, buffer.getWireSize());
+
+    batches.clear();
+    final HTableInterface htable = createMock(HTableInterface.class);
+    expectBatch(htable, batches, null);
+    replay(htable);
+    buffer.write(htable);
+    verify(htable);
+    assertEquals(1, batches.size());
+    assertEquals(1, batches.get(0).size());
+    assertPut(ROW_1, 1L, batches.get(0).get(0));
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.Timer;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiDataRequest;
+import org.kiji.schema.KijiTableReader;
+import org.kiji.schema.KijiTableWriter;
+import org.kiji.schema.layout.KijiTableLayouts;
+
+public class TestKijiHTablePool extends KijiClientTest {
+  private HBaseKijiTable mTable;
+
+  @Before
+  public final void setupTestKijiHTablePool() throws Exception {
+    getKiji().createTable(KijiTableLayouts.getLayout(KijiTableLayouts.SIMPLE));
+    mTable = HBaseKijiTable.downcast(getKiji().openTable("table"));
+  }
+
+  @After
+  public final void teardownTestKijiHTablePool() throws IOException {
+    mTable.release();
+  }
+
+  /**
+   * Reports the count of a counter or a timer from the metrics of the test table.
+   *
+   * @param name Name of the metric.
+   * @return the count of the metric.
+   */
+  private long getCount(final String name) {
+    final Map<String, Metric> metrics = mTable.getMetrics().getMetrics();
+    final Metric metric = metrics.get(name);
+    if (metric instanceof Timer) {
+      return ((Timer) metric).getCount();
+    } else {
+      return ((Counter) metric).getCount();
+    }
+  }
+
+  @Test
+  public void testHTablesAreReused() throws IOException {
+    final HTableInterface htable1 = mTable.openHTableConnection();
+    final HTableInterface htable2 = mTable.openHTableConnection();
+    Assert.assertEquals(2, getCount("htable.created.count"));
+
+    htable1.close();
+    // Closing an HTable twice must not move it back into the pool twice:
+    htable1.close();
+    htable2.close();
+
+    final HTableInterface htable3 = mTable.openHTableConnection();
+    final HTableInterface htable4 = mTable.openHTableConnection();
+    try {
+      Assert.assertEquals(2, getCount("htable.created.count"));
+    } finally {
+      htable3.close();
+      htable4.close();
+    }
+    final HTableInterface htable5 = mTable.openHTableConnection();
+    try {
+      Assert.assertEquals(2, getCount("htable.created.count"));
+    } finally {
+      htable5.close();
+    }
+  }
+
+  @Test
+  public void testRequestsAreRecorded() throws IOException {
+    final KijiTableWriter writer = mTable.openTableWriter();
+    try {
+      writer.put(mTable.getEntityId("row"), "family", "column", "value");
+    } finally {
+      writer.close();
+    }
+    Assert.assertTrue(getCount("rpc.mutate") > 0);
+    Assert.assertTrue(getCount("bytes.written") > 0);
+    Assert.assertEquals(0, getCount("bytes.read"));
+
+    final KijiTableReader reader = mTable.openTableReader();
+    try {
+      Assert.assertEquals("value", reader
+          .get(mTable.getEntityId("row"), KijiDataRequest.create("family", "column"))
+          .getMostRecentValue("family", "column")
+          .toString());
+    } finally {
+      reader.close();
+    }
+    Assert.assertEquals(1, getCount("rpc.get"));
+    Assert.assertTrue(getCount("bytes.read") > 0);
+  }
+}
@@ -0,0 +1,181 @@
+/**
+ * (c) Copyright 2014 WibiData, Inc.
+ *
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kiji.schema.impl.hbase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.google.common.base.Function;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.kiji.schema.KijiCell;
+import org.kiji.schema.KijiClientTest;
+import org.kiji.schema.KijiColumnName;
+import org.kiji.schema.SpecificCellDecoderFactory;
+import org.kiji.schema.hbase.HBaseColumnName;
+import org.kiji.schema.impl.DefaultKijiCellEncoderFactory;
+import org.kiji.schema.layout.CellSpec;
+import org.kiji.schema.layout.HBaseColumnNameTranslator;
+import org.kiji.schema.layout.KijiTableLayout;
+import org.kiji.schema.layout.KijiTableLayouts;
+import org.kiji.schema.layout.impl.CellDecoderProvider;
+
+public class TestResultDecoders extends KijiClientTest {
+  private static final byte[] ROW = Bytes.toBytes("row");
+
+  /** Number of garbage bytes around the KeyValues decoded, so that their offsets are not 0. */
+  private static final int PADDING = 7;
+
+  private static final KijiColumnName PRIMITIVE = KijiColumnName.create("primitive");
+  private static final KijiColumnName PRIMITIVE_STRING =
+      KijiColumnName.create("primitive", "string_column");
+  private static final KijiColumnName PRIMITIVE_COUNTER =
+      KijiColumnName.create("primitive", "counter_column");
+  private static final KijiColumnName STRING_MAP = KijiColumnName.create("string_map");
+  private static final KijiColumnName STRING_MAP_1 = KijiColumnName.create("string_map", "smap_1");
+  private static final KijiColumnName STRING_MAP_2 = KijiColumnName.create("string_map", "smap_2");
+
+  private KijiTableLayout mLayout;
+  private HBaseColumnNameTranslator mTranslator;
+  private CellDecoderProvider mDecoderProvider;
+
+  @Before
+  public void setupTestResultDecoders() throws IOException {
+    mLayout = KijiTableLayouts.getTableLayout("org/kiji/schema/layout/all-types-schema.json");
+    mTranslator = HBaseColumnNameTranslator.from(mLayout);
+    mDecoderProvider = CellDecoderProvider.create(
+        mLayout,
+        getKiji().getSchemaTable(),
+        SpecificCellDecoderFactory.get(),
+        Collections.<KijiColumnName, CellSpec>emptyMap());
+  }
+
+  /**
+   * Encodes a value into a KeyValue located in the middle of a larger, garbage-filled array.
+   *
+   * @param column of the value.
+   * @param timestamp of the value.
+   * @param encoded value, as written to HBase.
+   * @return a KeyValue with a non-zero offset, not spanning its whole backing array.
+   * @throws IOException on I/O error.
+   */
+  private KeyValue toKeyValue(
+      final KijiColumnName column,
+      final long timestamp,
+      final byte[] encoded
+  ) throws IOException {
+    final HBaseColumnName hbaseColumn = mTranslator.toHBaseColumnName(column);
+    final KeyValue keyValue = new KeyValue(
+        ROW, hbaseColumn.getFamily(), hbaseColumn.getQualifier(), timestamp, encoded);
+    final byte[] padded = new byte[keyValue.getLength() + 2 * PADDING];
+    Arrays.fill(padded, (byte) 0xff);
+    System.arraycopy(
+        keyValue.getBuffer(), keyValue.getOffset(), padded, PADDING, keyValue.getLength());
+    return new KeyValue(padded, PADDING, keyValue.getLength());
+  }
+
+  /**
+   * Encodes an Avro value into a KeyValue located in the middle of a larger array.
+   *
+   * @param column of the value.
+   * @param timestamp of the value.
+   * @param value to encode.
+   * @return a KeyValue with a non-zero offset, not spanning its whole backing array.
+   * @throws IOException on I/O error.
+   */
+  private KeyValue encode(
+      final KijiColumnName column,
+      final long timestamp,
+      final Object value
+  ) throws IOException {
+    final CellSpec cellSpec =
+        mLayout.getCellSpec(column).setSchemaTable(getKiji().getSchemaTable());
+    return toKeyValue(
+        column, timestamp, DefaultKijiCellEncoderFactory.get().create(cellSpec).encode(value));
+  }
+
+  /** Tests that values are decoded from the region of the array their KeyValue points to. */
+  @Test
+  public void testDecodeValueRegions() throws IOException {
+    final KeyValue stringValue = encode(PRIMITIVE_STRING, 1L, "foo");
+    final KeyValue counterValue = toKeyValue(PRIMITIVE_COUNTER, 2L, Bytes.toBytes(42L));
+    Assert.assertTrue(stringValue.getValueOffset() > 0);
+    Assert.assertTrue(stringValue.getValueArray().length > stringValue.getValueLength());
+
+    final Function<KeyValue, KijiCell<Object>> qualified = ResultDecoders.getDecoderFunction(
+        PRIMITIVE_STRING, mLayout, mTranslator, mDecoderProvider);
+    final KijiCell<Object> stringCell = qualified.apply(stringValue);
+    Assert.assertEquals(PRIMITIVE_STRING, stringCell.getColumn());
+    Assert.assertEquals(1L, stringCell.getTimestamp());
+    Assert.assertEquals("foo", stringCell.getData().toString());
+
+    // The group-type family decoder switches cell decoders from one column to the next:
+    final Function<KeyValue, KijiCell<Object>> group = ResultDecoders.getDecoderFunction(
+        PRIMITIVE, mLayout, mTranslator, mDecoderProvider);
+    Assert.assertEquals("foo", group.apply(stringValue).getData().toString());
+    final KijiCell<Object> counterCell = group.apply(counterValue);
+    Assert.assertEquals(PRIMITIVE_COUNTER, counterCell.getColumn());
+    Assert.assertEquals(42L, counterCell.getData());
+
+    final Function<KeyValue, KijiCell<Object>> map = ResultDecoders.getDecoderFunction(
+        STRING_MAP, mLayout, mTranslator, mDecoderProvider);
+    final KijiCell<Object> mapCell = map.apply(encode(STRING_MAP_1, 3L, "bar"));
+    Assert.assertEquals(STRING_MAP_1, mapCell.getColumn());
+    Assert.assertEquals("bar", mapCell.getData().toString());
+  }
+
+  /** Tests that column names are translated once, and shared by the decoders of a family. */
+  @Test
+  public void testColumnNameCache() throws IOException {
+    final KeyValue smap1 = encode(STRING_MAP_1, 1L, "foo");
+    final KeyValue smap2 = encode(STRING_MAP_2, 1L, "bar");
+
+    final Function<KeyValue, KijiCell<Object>> decoder = ResultDecoders.getDecoderFunction(
+        STRING_MAP, mLayout, mTranslator, mDecoderProvider);
+    final KijiColumnName first = decoder.apply(smap1).getColumn();
+    Assert.assertEquals(STRING_MAP_1, first);
+
+    // Miss: a qualifier not seen yet is translated.
+    final KijiColumnName second = decoder.apply(smap2).getColumn();
+    Assert.assertEquals(STRING_MAP_2, second);
+    Assert.assertNotSame(first, second);
+
+    // Hit: a qualifier seen before, though not last, is not translated again.
+    Assert.assertSame(first, decoder.apply(smap1).getColumn());
+
+    // Hit: another decoder of the same family shares the cache.
+    final Function<KeyValue, KijiCell<Object>> other = ResultDecoders.getDecoderFunction(
+        STRING_MAP, mLayout, mTranslator, mDecoderProvider);
+    Assert.assertSame(second, other.apply(smap2).getColumn());
+
+    // Miss: the decoders of another translator do not share the cache.
+    final HBaseColumnNameTranslator translator = HBaseColumnNameTranslator.from(mLayout);
+    final Function<KeyValue, KijiCell<Object>> unrelated = ResultDecoders.getDecoderFunction(
+        STRING_MAP, mLayout, translator, mDecoderProvider);
+    final KijiColumnName translated = unrelated.apply(smap1).getColumn();
+    Assert.assertEquals(STRING_MAP_1, translated);
+    Assert.assertNotSame(first, translated);
+  }
+}